@@ -1,39 +1,156 @@
 package com.timeplus.proton.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import com.timeplus.proton.client.config.ProtonClientOption;
 import com.timeplus.proton.client.logging.Logger;
 import com.timeplus.proton.client.logging.LoggerFactory;
 
 /**
- * Base class for implementing a thread-safe Proton client. It uses
- * {@link ReadWriteLock} to manage access to underlying connection.
+ * Base class for implementing a thread-safe Proton client. Client state,
+ * including configuration, executor, current server and connection, is kept
+ * in an immutable snapshot, which is replaced as a whole(copy-on-write) when
+ * there's change. Reading the state is lock-free, while changing it is
+ * serialized.
  */
 public abstract class AbstractClient<T> implements ProtonClient {
     private static final Logger log = LoggerFactory.getLogger(AbstractClient.class);
 
-    private boolean initialized = false;
+    // capacity of the queue for killing abandoned queries, see killQuery()
+    static final int FALLBACK_CANCELLATION_QUEUE_SIZE = 100;
 
-    private ExecutorService executor = null;
-    private ProtonConfig config = null;
-    private ProtonNode server = null;
-    private T connection = null;
+    /**
+     * Immutable snapshot of client state.
+     */
+    private static final class Snapshot<T> {
+        final ProtonConfig config;
+        final ExecutorService executor;
+        final ProtonRequestScheduler scheduler;
+        final ProtonQueryCanceller canceller;
+        // lazily created by killQuery() when canceller is null
+        final ProtonQueryCanceller fallbackCanceller;
+        final ProtonNode server;
+        final T connection;
+
+        Snapshot(ProtonConfig config, ExecutorService executor, ProtonRequestScheduler scheduler,
+                ProtonQueryCanceller canceller, ProtonQueryCanceller fallbackCanceller, ProtonNode server,
+                T connection) {
+            this.config = config;
+            this.executor = executor;
+            this.scheduler = scheduler;
+            this.canceller = canceller;
+            this.fallbackCanceller = fallbackCanceller;
+            this.server = server;
+            this.connection = connection;
+        }
 
-    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+        Snapshot<T> with(ProtonNode server, T connection) {
+            return new Snapshot<>(config, executor, scheduler, canceller, fallbackCanceller, server, connection);
+        }
 
-    private void ensureInitialized() {
-        if (!initialized) {
+        Snapshot<T> with(ProtonQueryCanceller fallbackCanceller) {
+            return new Snapshot<>(config, executor, scheduler, canceller, fallbackCanceller, server, connection);
+        }
+    }
+
+    // guards changes of the snapshot
+    private final Object lock = new Object();
+    // null means the client is either closed or not initialized
+    private volatile Snapshot<T> snapshot = null;
+    // concurrency limiters of nodes not belonging to any cluster
+    private final Map<ProtonNode, ProtonConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private Snapshot<T> ensureInitialized() {
+        Snapshot<T> s = snapshot;
+        if (s == null) {
             throw new IllegalStateException("Please initialize the client first");
         }
+        return s;
     }
 
     // just for testing purpose
     final boolean isInitialized() {
-        return initialized;
+        return snapshot != null;
+    }
+
+    private static boolean isAbandoned(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex instanceof CancellationException || ex instanceof TimeoutException;
+    }
+
+    /**
+     * Closes abandoned response without reading remaining data, and releases
+     * permits held by the request.
+     *
+     * @param response response, could be null
+     */
+    static void closeQuietly(ProtonResponse response) {
+        if (response == null) {
+            return;
+        }
+
+        // avoid ProtonResponse.close(), which reads all remaining data
+        try {
+            InputStream input = response.getInputStream();
+            if (input != null) {
+                input.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close abandoned response due to: %s", e.getMessage());
+        } finally {
+            ProtonReleasableResponse.release(response);
+        }
+    }
+
+    /**
+     * Holds permit of the request until the response is closed, or the request
+     * failed.
+     *
+     * @param future     non-null future to get response
+     * @param onResponse optional action to take when the response is received or
+     *                   the request failed, could be null
+     * @param release    non-null action to release the permit, which will be
+     *                   called only once
+     * @return non-null future to get response, which holds the permit
+     */
+    private static CompletableFuture<ProtonResponse> hold(CompletableFuture<ProtonResponse> future,
+            Consumer<Throwable> onResponse, Runnable release) {
+        final CompletableFuture<ProtonResponse> result = new CompletableFuture<>();
+        future.whenComplete((r, e) -> {
+            try {
+                if (onResponse != null) {
+                    onResponse.accept(e);
+                }
+            } finally {
+                if (e != null) {
+                    release.run();
+                    result.completeExceptionally(e);
+                } else {
+                    ProtonResponse response = ProtonReleasableResponse.of(r, release);
+                    if (!result.complete(response)) {
+                        // abandoned before getting the response
+                        closeQuietly(response);
+                    }
+                }
+            }
+        });
+        return result;
     }
 
     protected CompletableFuture<ProtonResponse> failedResponse(Throwable ex) {
@@ -50,13 +167,7 @@ public abstract class AbstractClient<T> implements ProtonClient {
      *                               initialized
      */
     protected final ExecutorService getExecutor() {
-        lock.readLock().lock();
-        try {
-            ensureInitialized();
-            return executor;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return ensureInitialized().executor;
     }
 
     /**
@@ -67,13 +178,343 @@ public abstract class AbstractClient<T> implements ProtonClient {
      *                               initialized
      */
     protected final ProtonNode getServer() {
-        lock.readLock().lock();
+        return ensureInitialized().server;
+    }
+
+    /**
+     * Creates a client for sending requests like {@code KILL QUERY} over a side
+     * connection, without interfering current one. By default, it's built by
+     * {@link ProtonClient#builder()} using synchronous version of given
+     * configuration, which never cancels queries and uses shared thread pool.
+     *
+     * @param config non-null configuration of this client
+     * @return new client
+     */
+    protected ProtonClient newSideClient(ProtonConfig config) {
+        return ProtonClient.builder().config(config).option(ProtonClientOption.ASYNC, false)
+                .option(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0)
+                .option(ProtonClientOption.MAX_THREADS_PER_CLIENT, 0).build();
+    }
+
+    /**
+     * Cancels a query on server side asynchronously by sending
+     * {@code KILL QUERY} over a side connection. It does nothing when
+     * {@link ProtonClientOption#MAX_QUEUED_CANCELLATIONS} is less than or equals
+     * to zero.
+     *
+     * @param server  server that the query was sent to
+     * @param queryId query id
+     * @return true if the cancellation has been queued; false otherwise
+     */
+    protected boolean cancelQuery(ProtonNode server, String queryId) {
+        Snapshot<T> s = snapshot;
+        return s != null && s.canceller != null && s.canceller.cancel(server, queryId);
+    }
+
+    /**
+     * Kills an abandoned query on server side asynchronously, for instance,
+     * duplicate query of hedged request, or failed query before retry. Unlike
+     * {@link #cancelQuery(ProtonNode, String)}, it does not depend on
+     * {@link ProtonClientOption#MAX_QUEUED_CANCELLATIONS} - a dedicated canceller
+     * will be created on first use when there's no one.
+     *
+     * @param server  server that the query was sent to
+     * @param queryId query id
+     * @return true if the cancellation has been queued; false otherwise
+     */
+    final boolean killQuery(ProtonNode server, String queryId) {
+        Snapshot<T> s = snapshot;
+        if (s == null) {
+            return false;
+        } else if (s.canceller != null) {
+            return cancelQuery(server, queryId);
+        }
+
+        ProtonQueryCanceller c = s.fallbackCanceller;
+        if (c == null) {
+            synchronized (lock) {
+                s = snapshot;
+                if (s == null) {
+                    return false;
+                } else if ((c = s.fallbackCanceller) == null) {
+                    final ProtonConfig config = s.config;
+                    c = new ProtonQueryCanceller(() -> newSideClient(config), FALLBACK_CANCELLATION_QUEUE_SIZE);
+                    snapshot = s.with(c);
+                }
+            }
+        }
+        return c.cancel(server, queryId);
+    }
+
+    /**
+     * Tracks response of a query, so that the query will be cancelled on server
+     * side when the returned future is cancelled or timed out before getting the
+     * response, or the response is closed early.
+     *
+     * @param sealedRequest non-null sealed request with query id
+     * @param future        future to get response
+     * @return new future to get response
+     */
+    final CompletableFuture<ProtonResponse> track(ProtonRequest<?> sealedRequest,
+            CompletableFuture<ProtonResponse> future) {
+        return track(sealedRequest, future, false);
+    }
+
+    /**
+     * Tracks response of a query, same as
+     * {@link #track(ProtonRequest, CompletableFuture)}, but it optionally kills
+     * the abandoned query regardless of
+     * {@link ProtonClientOption#MAX_QUEUED_CANCELLATIONS}.
+     *
+     * @param sealedRequest non-null sealed request with query id
+     * @param future        future to get response
+     * @param force         whether to kill the query abandoned before getting
+     *                      the response using {@link #killQuery(ProtonNode, String)}
+     * @return new future to get response
+     */
+    final CompletableFuture<ProtonResponse> track(ProtonRequest<?> sealedRequest,
+            CompletableFuture<ProtonResponse> future, boolean force) {
+        final ProtonNode server = sealedRequest.getServer();
+        final String queryId = sealedRequest.getQueryId().orElse(null);
+        final int cancelDelay = sealedRequest.getConfig().getCancelDelay();
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        final CompletableFuture<ProtonResponse> result = new CompletableFuture<>();
+
+        future.whenComplete((r, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else if (!result.complete(
+                    r != null ? new ProtonCancellableResponse(this, server, queryId, cancelDelay, r) : null)) {
+                // abandoned before getting the response
+                if (cancelled.compareAndSet(false, true)) {
+                    if (force) {
+                        killQuery(server, queryId);
+                    } else {
+                        cancelQuery(server, queryId);
+                    }
+                }
+                closeQuietly(r);
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (!future.isDone() && isAbandoned(e) && cancelled.compareAndSet(false, true)) {
+                if (force) {
+                    killQuery(server, queryId);
+                } else {
+                    cancelQuery(server, queryId);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends the sealed request and, when it's targeting a node in
+     * {@link ProtonCluster}, records in-flight requests and response latency of
+     * the node for load balancing.
+     *
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     */
+    private CompletableFuture<ProtonResponse> measure(ProtonRequest<?> sealedRequest) {
+        final ProtonCluster cluster = sealedRequest.getCluster();
+        if (cluster == null) {
+            return send(sealedRequest);
+        }
+
+        final ProtonNode server = sealedRequest.getServer();
+        // late result will be ignored when circuit breaker changed its state
+        final long generation = cluster.getGeneration(server);
+        final long startTime = cluster.onRequestStart(server);
+        CompletableFuture<ProtonResponse> future;
         try {
-            ensureInitialized();
-            return server;
-        } finally {
-            lock.readLock().unlock();
+            future = send(sealedRequest);
+        } catch (RuntimeException e) {
+            cluster.onRequestEnd(server, startTime, generation, e);
+            throw e;
+        }
+        future.whenComplete((r, e) -> cluster.onRequestEnd(server, startTime, generation, e));
+        return future;
+    }
+
+    /**
+     * Sends the sealed request while holding permit of the concurrency limiter,
+     * until the response is closed.
+     *
+     * @param limiter       non-null concurrency limiter
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     */
+    private CompletableFuture<ProtonResponse> limit(ProtonConcurrencyLimiter limiter,
+            ProtonRequest<?> sealedRequest) {
+        final long startTime = System.nanoTime();
+        CompletableFuture<ProtonResponse> future;
+        try {
+            future = measure(sealedRequest);
+        } catch (RuntimeException e) {
+            limiter.release(startTime, e);
+            throw e;
+        }
+        return hold(future, e -> limiter.onResponse(startTime, e), limiter::release);
+    }
+
+    /**
+     * Runs the task after permit is acquired. It blocks current thread until
+     * then in synchronous mode.
+     *
+     * @param permit        non-null future to acquire permit
+     * @param release       non-null action to release the permit, only called
+     *                      when the request was cancelled while waiting
+     * @param task          non-null task to send the request, which should
+     *                      release the permit when done
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     */
+    private CompletableFuture<ProtonResponse> whenGranted(CompletableFuture<Void> permit, Runnable release,
+            Supplier<CompletableFuture<ProtonResponse>> task, ProtonRequest<?> sealedRequest) {
+        final ProtonNode server = sealedRequest.getServer();
+        if (permit.isDone() && !permit.isCompletedExceptionally()) {
+            return task.get();
+        } else if (!sealedRequest.getConfig().isAsync()) {
+            try {
+                permit.get();
+            } catch (InterruptedException e) {
+                if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+                    release.run();
+                }
+                Thread.currentThread().interrupt();
+                return failedResponse(ProtonException.of(e, server));
+            } catch (ExecutionException e) {
+                return failedResponse(ProtonException.of(e.getCause(), server));
+            }
+            return task.get();
+        }
+
+        final CompletableFuture<ProtonResponse> result = new CompletableFuture<>();
+        final AtomicReference<CompletableFuture<ProtonResponse>> ref = new AtomicReference<>();
+        permit.whenComplete((v, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else if (result.isDone()) {
+                // cancelled while waiting
+                release.run();
+            } else {
+                CompletableFuture<ProtonResponse> future;
+                try {
+                    future = task.get();
+                } catch (Exception ex) {
+                    result.completeExceptionally(ex);
+                    return;
+                }
+                ref.set(future);
+                future.whenComplete((r, ex) -> {
+                    if (ex != null) {
+                        result.completeExceptionally(ex);
+                    } else if (!result.complete(r)) {
+                        // cancelled
+                        log.debug("Discarded response of cancelled request from %s", server);
+                    }
+                });
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                permit.cancel(false);
+                CompletableFuture<ProtonResponse> future = ref.get();
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gets concurrency limiter of the node, which the sealed request will be sent
+     * to. It's scoped to the cluster when the request targets a cluster, or this
+     * client otherwise.
+     *
+     * @param sealedRequest non-null sealed request
+     * @return concurrency limiter, null when it's disabled
+     */
+    final ProtonConcurrencyLimiter getConcurrencyLimiter(ProtonRequest<?> sealedRequest) {
+        final ProtonConfig c = sealedRequest.getConfig();
+        if (c.getConcurrencyLimit() <= 0) {
+            return null;
         }
+
+        final ProtonNode server = sealedRequest.getServer();
+        final ProtonCluster cluster = sealedRequest.getCluster();
+        return cluster != null ? cluster.getConcurrencyLimiter(server, c)
+                : limiters.computeIfAbsent(server, n -> new ProtonConcurrencyLimiter(n, c));
+    }
+
+    /**
+     * Sends the sealed request, and limits concurrent requests to the node when
+     * {@link ProtonConfig#getConcurrencyLimit()} is greater than zero. Excess
+     * requests will be queued for at most
+     * {@link ProtonConfig#getConcurrencyQueueTimeout()} before being rejected.
+     *
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     */
+    private CompletableFuture<ProtonResponse> admit(ProtonRequest<?> sealedRequest) {
+        final ProtonConcurrencyLimiter limiter = getConcurrencyLimiter(sealedRequest);
+        if (limiter == null) {
+            return measure(sealedRequest);
+        } else if (limiter.tryAcquire()) {
+            return limit(limiter, sealedRequest);
+        }
+
+        return whenGranted(limiter.acquire(sealedRequest.getConfig().getConcurrencyQueueTimeout()),
+                limiter::release, () -> limit(limiter, sealedRequest), sealedRequest);
+    }
+
+    /**
+     * Sends the sealed request, same as {@link #send(ProtonRequest)} but it also
+     * records statistics of the node for load balancing, schedules the request
+     * according to {@link ProtonConfig#getPriority()}, and limits concurrent
+     * requests to the node.
+     *
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     */
+    final CompletableFuture<ProtonResponse> observe(ProtonRequest<?> sealedRequest) {
+        final ProtonConfig c = sealedRequest.getConfig();
+        final int reserved = c.getPriorityReservedSlots();
+        final int bulkLimit = c.getMaxBulkRequestsPerNode();
+        if (reserved <= 0 && bulkLimit <= 0) {
+            return admit(sealedRequest);
+        }
+
+        final ProtonRequestScheduler scheduler = ensureInitialized().scheduler;
+        final ProtonPriority priority = c.getPriority();
+        final ProtonNode server = sealedRequest.getServer();
+        final Runnable release = () -> scheduler.release(priority, server);
+        final CompletableFuture<Void> permit = scheduler.acquire(priority, server, reserved, bulkLimit,
+                c.getPriorityQueueTimeout());
+        return whenGranted(permit, release, () -> {
+            CompletableFuture<ProtonResponse> future;
+            try {
+                future = admit(sealedRequest);
+            } catch (RuntimeException e) {
+                release.run();
+                throw e;
+            }
+            // hold the slot until the response is closed
+            return hold(future, null, release);
+        }, sealedRequest);
+    }
+
+    /**
+     * Checks if the given error is caused by transient failure on server side(e.g.
+     * server is restarting), so that idempotent request can be retried safely.
+     *
+     * @param error non-null error
+     * @return true if it's a transient failure; false otherwise
+     */
+    protected boolean isTransientFailure(Throwable error) {
+        return false;
     }
 
     /**
@@ -126,100 +567,129 @@ public abstract class AbstractClient<T> implements ProtonClient {
      */
     protected final T getConnection(ProtonRequest<?> request) {
         ProtonNode newNode = ProtonChecker.nonNull(request, "request").getServer();
-        lock.readLock().lock();
-        try {
-            ensureInitialized();
-            if (checkConnection(connection, newNode, server, request)) {
-                return connection;
-            }
-        } finally {
-            lock.readLock().unlock();
+        Snapshot<T> s = ensureInitialized();
+        if (checkConnection(s.connection, newNode, s.server, request)) {
+            return s.connection;
         }
 
-        lock.writeLock().lock();
-        try {
-            server = newNode;
+        synchronized (lock) {
+            s = ensureInitialized();
             log.debug("Connecting to: %s", newNode);
-            connection = newConnection(connection, server, request);
+            T connection = newConnection(s.connection, newNode, request);
             log.debug("Connection established: %s", connection);
+            snapshot = s.with(newNode, connection);
 
             return connection;
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Sends a sealed request to the node it targets. This method will be called
+     * from {@link #execute(ProtonRequest)}, sometimes more than once for the
+     * same request(e.g. hedging).
+     *
+     * @param sealedRequest non-null sealed request
+     * @return non-null future to get response
+     * @throws CompletionException when error occurred
+     */
+    protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+        throw new UnsupportedOperationException("Please override either send() or execute()");
+    }
+
     @Override
-    public final ProtonConfig getConfig() {
-        lock.readLock().lock();
-        try {
-            ensureInitialized();
-            return config;
-        } finally {
-            lock.readLock().unlock();
+    public CompletableFuture<ProtonResponse> execute(ProtonRequest<?> request) {
+        // sealedRequest is an immutable copy of the original request
+        ProtonRequest<?> sealedRequest = ProtonChecker.nonNull(request, "request").seal();
+
+        ProtonCluster cluster = sealedRequest.getCluster();
+        ProtonConfig c = sealedRequest.getConfig();
+        if (cluster != null && c.isAsync() && c.getHedgeDelay() > 0 && sealedRequest.isIdempotent()) {
+            return new ProtonHedgedExecution(this, cluster, sealedRequest).execute();
+        }
+
+        if (c.isRetry() && c.getMaxRetries() > 0 && ProtonRetryExecution.isRetryable(sealedRequest)) {
+            return new ProtonRetryExecution(this, sealedRequest).execute();
         }
+
+        if (c.getMaxQueuedCancellations() <= 0) {
+            return observe(sealedRequest);
+        }
+
+        // query id is required for cancelling the query on server side
+        if (ProtonChecker.isNullOrEmpty(sealedRequest.getQueryId().orElse(null))) {
+            sealedRequest = sealedRequest.seal(sealedRequest.getServer(), UUID.randomUUID().toString());
+        }
+        return track(sealedRequest, observe(sealedRequest));
+    }
+
+    @Override
+    public final ProtonConfig getConfig() {
+        return ensureInitialized().config;
     }
 
     @Override
     public void init(ProtonConfig config) {
         ProtonChecker.nonNull(config, "config");
 
-        lock.writeLock().lock();
-        try {
-            this.config = config;
-            if (this.executor == null) { // only initialize once
+        synchronized (lock) {
+            Snapshot<T> s = snapshot;
+            ExecutorService executor = s != null ? s.executor : null;
+            ProtonRequestScheduler scheduler = s != null ? s.scheduler : null;
+            if (executor == null) { // only initialize once
                 int threads = config.getMaxThreadsPerClient();
-                this.executor = threads < 1 ? ProtonClient.getExecutorService()
+                executor = threads < 1 ? ProtonClient.getExecutorService()
                         : ProtonUtils.newThreadPool(this, threads, config.getMaxQueuedRequests());
+                scheduler = new ProtonRequestScheduler(config);
+            }
+            ProtonQueryCanceller canceller = s != null ? s.canceller : null;
+            if (canceller == null && config.getMaxQueuedCancellations() > 0) {
+                canceller = new ProtonQueryCanceller(() -> newSideClient(config),
+                        config.getMaxQueuedCancellations());
             }
 
-            initialized = true;
-        } finally {
-            lock.writeLock().unlock();
+            snapshot = new Snapshot<>(config, executor, scheduler, canceller, s != null ? s.fallbackCanceller : null,
+                    s != null ? s.server : null, s != null ? s.connection : null);
         }
     }
 
     @Override
     public final void close() {
-        lock.readLock().lock();
-        try {
-            if (!initialized) {
+        synchronized (lock) {
+            Snapshot<T> s = snapshot;
+            if (s == null) {
                 return;
             }
-        } finally {
-            lock.readLock().unlock();
-        }
-
-        lock.writeLock().lock();
-        try {
-            server = null;
-
-            if (connection != null) {
-                closeConnection(connection, false);
-                connection = null;
-            }
+            snapshot = null;
+            limiters.clear();
 
             // avoid shutting down shared thread pool
-            if (executor != null && config.getMaxThreadsPerClient() > 0 && !executor.isTerminated()) {
-                executor.shutdown();
-            }
-            executor = null;
-        } catch (Exception e) {
-            log.warn("Exception occurred when closing client", e);
-        } finally {
-            initialized = false;
+            boolean ownExecutor = s.executor != null && s.config.getMaxThreadsPerClient() > 0;
             try {
-                if (connection != null) {
-                    closeConnection(connection, true);
+                if (s.canceller != null) {
+                    s.canceller.close();
+                }
+                if (s.fallbackCanceller != null) {
+                    s.fallbackCanceller.close();
                 }
 
-                if (executor != null && config.getMaxThreadsPerClient() > 0) {
-                    executor.shutdownNow();
+                if (s.connection != null) {
+                    closeConnection(s.connection, false);
+                }
+
+                if (ownExecutor && !s.executor.isTerminated()) {
+                    s.executor.shutdown();
+                }
+            } catch (Exception e) {
+                log.warn("Exception occurred when closing client", e);
+                try {
+                    if (s.connection != null) {
+                        closeConnection(s.connection, true);
+                    }
+                } finally {
+                    if (ownExecutor) {
+                        s.executor.shutdownNow();
+                    }
                 }
-            } finally {
-                executor = null;
-                connection = null;
-                lock.writeLock().unlock();
             }
         }
     }
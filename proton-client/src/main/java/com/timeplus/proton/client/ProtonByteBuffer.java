@@ -2,10 +2,17 @@ package com.timeplus.proton.client;
 
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
- * Lite version of {@link java.nio.ByteBuffer}.
+ * Lite version of {@link java.nio.ByteBuffer}. It's also used as a view of a
+ * slice of the underlying byte array, for instance, buffer returned from
+ * {@link ProtonInputStream#read(int)} references receive buffer of the input
+ * stream and it's only valid until next read. Methods like
+ * {@link #asUnicodeString()}, {@link #startsWith(byte[])} and
+ * {@link #contentHashCode()} work on the slice directly without copying bytes.
  */
 public class ProtonByteBuffer implements Serializable {
     private static final long serialVersionUID = -8178041799873465082L;
@@ -129,6 +136,130 @@ public class ProtonByteBuffer implements Serializable {
         return position + length;
     }
 
+    /**
+     * Copies bytes in the buffer into a new byte array.
+     *
+     * @return non-null byte array
+     */
+    public byte[] asBinary() {
+        return length < 1 ? EMPTY_BYTES : Arrays.copyOfRange(array, position, position + length);
+    }
+
+    /**
+     * Decodes bytes in the buffer as string.
+     *
+     * @param charset charset, null is treated as {@link StandardCharsets#UTF_8}
+     * @return non-null string
+     */
+    public String asString(Charset charset) {
+        return length < 1 ? ""
+                : new String(array, position, length, charset != null ? charset : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes bytes in the buffer as ascii string.
+     *
+     * @return non-null ascii string
+     */
+    public String asAsciiString() {
+        return asString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decodes bytes in the buffer as unicode string.
+     *
+     * @return non-null unicode string
+     */
+    public String asUnicodeString() {
+        return asString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks whether bytes in the buffer start with the given prefix.
+     *
+     * @param prefix non-null prefix
+     * @return true if bytes in the buffer start with the prefix; false otherwise
+     */
+    public boolean startsWith(byte[] prefix) {
+        int len = ProtonChecker.nonNull(prefix, "Prefix").length;
+        if (len > length) {
+            return false;
+        }
+
+        for (int i = 0, j = position; i < len; i++, j++) {
+            if (prefix[i] != array[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether bytes in the buffer are same as the given byte array.
+     *
+     * @param bytes byte array, could be null
+     * @return true if bytes are same; false otherwise
+     */
+    public boolean contentEquals(byte[] bytes) {
+        return bytes != null && bytes.length == length && startsWith(bytes);
+    }
+
+    /**
+     * Checks whether bytes in the buffer are same as the ones in the given buffer.
+     * Unlike {@link #equals(Object)}, it only compares bytes in the slice
+     * regardless of the underlying array and position.
+     *
+     * @param buffer buffer, could be null
+     * @return true if bytes are same; false otherwise
+     */
+    public boolean contentEquals(ProtonByteBuffer buffer) {
+        if (buffer == null || buffer.length != length) {
+            return false;
+        }
+
+        for (int i = position, j = buffer.position, end = position + length; i < end; i++, j++) {
+            if (array[i] != buffer.array[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares bytes in the buffer with the ones in the given buffer. Bytes are
+     * compared as unsigned values one by one, which is same as how strings are
+     * sorted in Proton.
+     *
+     * @param buffer non-null buffer
+     * @return negative integer, zero, or positive integer when bytes in this
+     *         buffer are less than, equal to, or greater than the ones in the
+     *         given buffer
+     */
+    public int contentCompareTo(ProtonByteBuffer buffer) {
+        int len = Math.min(length, ProtonChecker.nonNull(buffer, "Buffer").length);
+        for (int i = position, j = buffer.position, end = position + len; i < end; i++, j++) {
+            int result = (0xFF & array[i]) - (0xFF & buffer.array[j]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return length - buffer.length;
+    }
+
+    /**
+     * Gets hash code of bytes in the buffer. It's same as
+     * {@code Arrays.hashCode(asBinary())} but without copying.
+     *
+     * @return hash code of bytes in the buffer
+     */
+    public int contentHashCode() {
+        int result = 1;
+        for (int i = position, end = position + length; i < end; i++) {
+            result = 31 * result + array[i];
+        }
+        return result;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
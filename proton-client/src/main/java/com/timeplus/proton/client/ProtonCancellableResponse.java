@@ -0,0 +1,106 @@
+package com.timeplus.proton.client;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wrapper of {@link ProtonResponse}, which cancels the query on server side
+ * when the response is closed with unread data, and the remaining data cannot
+ * be read within {@link ProtonConfig#getCancelDelay()}. This is mainly for long-running or
+ * unbounded streaming queries, which never end on their own.
+ */
+final class ProtonCancellableResponse implements ProtonResponse {
+    private static final long serialVersionUID = -1547512478237457934L;
+
+    private final transient AbstractClient<?> client;
+    private final ProtonNode server;
+    private final String queryId;
+    private final int cancelDelay;
+    private final ProtonResponse response;
+
+    ProtonCancellableResponse(AbstractClient<?> client, ProtonNode server, String queryId, int cancelDelay,
+            ProtonResponse response) {
+        this.client = ProtonChecker.nonNull(client, "client");
+        this.server = ProtonChecker.nonNull(server, "server");
+        this.queryId = ProtonChecker.nonBlank(queryId, "queryId");
+        this.cancelDelay = cancelDelay;
+        this.response = ProtonChecker.nonNull(response, "response");
+    }
+
+    /**
+     * Gets wrapped response.
+     *
+     * @return non-null wrapped response
+     */
+    ProtonResponse getResponse() {
+        return response;
+    }
+
+    @Override
+    public List<ProtonColumn> getColumns() {
+        return response.getColumns();
+    }
+
+    @Override
+    public ProtonResponseSummary getSummary() {
+        return response.getSummary();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return response.getInputStream();
+    }
+
+    @Override
+    public Iterable<ProtonRecord> records() {
+        return response.records();
+    }
+
+    @Override
+    public <T> Iterable<T> records(Class<T> clazz) {
+        return response.records(clazz);
+    }
+
+    @Override
+    public void close() {
+        if (response.isClosed()) {
+            // permits held by the request still need to be released
+            ProtonReleasableResponse.release(response);
+            return;
+        }
+
+        InputStream input = response.getInputStream();
+        if (input instanceof ProtonInputStream && ((ProtonInputStream) input).isEndOfStream()) {
+            // all data has been read, nothing to cancel
+            response.close();
+            return;
+        }
+
+        // closing the response means reading all remaining data, which may take
+        // forever, so cancel the query in case it's not done within cancel delay
+        ScheduledFuture<?> future = null;
+        if (client != null) {
+            if (cancelDelay > 0) {
+                future = ProtonClientBuilder.defaultScheduler.schedule(() -> client.cancelQuery(server, queryId),
+                        cancelDelay, TimeUnit.MILLISECONDS);
+            } else {
+                client.cancelQuery(server, queryId);
+            }
+        }
+
+        try {
+            response.close();
+        } finally {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return response.isClosed();
+    }
+}
@@ -0,0 +1,285 @@
+package com.timeplus.proton.client;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker of a node, based on error rate and slow call rate of recent
+ * calls in a count-based sliding window. It opens when either rate reaches the
+ * threshold, and rejects all calls until wait duration elapsed. After that, it
+ * becomes half-open and permits limited number of trial calls, which decide
+ * whether to close or open it again.
+ *
+ * <p>
+ * Each state change starts a new generation. Calls are tagged with the
+ * generation they were made in, and results of calls from a previous
+ * generation are ignored, so that late responses of calls made before opening
+ * will not be counted as trial calls.
+ */
+final class ProtonCircuitBreaker {
+    /**
+     * State of circuit breaker.
+     */
+    enum State {
+        CLOSED, // calls are permitted
+        OPEN, // calls are rejected
+        HALF_OPEN // limited trial calls are permitted
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minCalls;
+    private final int failureRate;
+    private final int slowCallRate;
+    private final long slowCallNanos;
+    private final long waitNanos;
+    private final int halfOpenCalls;
+
+    // below fields are guarded by this
+    private final byte[] outcomes;
+    private int position;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private int trials;
+    private int trialSuccesses;
+    private long stateTime;
+
+    private volatile State state;
+    // only changed along with state
+    private volatile long generation;
+    private final AtomicLong openCount;
+    private final AtomicLong rejectedCount;
+
+    /**
+     * Default constructor.
+     *
+     * @param config non-null configuration, window size must be greater than zero
+     */
+    ProtonCircuitBreaker(ProtonConfig config) {
+        this.windowSize = config.getCircuitBreakerWindowSize();
+        this.minCalls = Math.min(Math.max(config.getCircuitBreakerMinCalls(), 1), windowSize);
+        this.failureRate = config.getCircuitBreakerFailureRate();
+        this.slowCallRate = config.getCircuitBreakerSlowCallRate();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getCircuitBreakerSlowCallDuration());
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(config.getCircuitBreakerWaitDuration(), 0));
+        this.halfOpenCalls = Math.max(config.getCircuitBreakerHalfOpenCalls(), 1);
+
+        this.outcomes = new byte[windowSize];
+        this.stateTime = System.nanoTime();
+
+        this.state = State.CLOSED;
+        this.openCount = new AtomicLong(0L);
+        this.rejectedCount = new AtomicLong(0L);
+    }
+
+    private static boolean exceeds(int count, int total, int rate) {
+        return rate > 0 && rate <= 100 && count * 100L >= rate * (long) total;
+    }
+
+    private void transition(State newState, long now) {
+        state = newState;
+        stateTime = now;
+        generation++;
+        trials = 0;
+        trialSuccesses = 0;
+
+        if (newState == State.OPEN) {
+            openCount.incrementAndGet();
+        } else if (newState == State.CLOSED) {
+            Arrays.fill(outcomes, (byte) 0);
+            position = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    /**
+     * Checks if a call could be permitted, without acquiring permission.
+     *
+     * @return true if a call could be permitted; false otherwise
+     */
+    boolean isAvailable() {
+        State s = state;
+        if (s == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            // trial calls will be permitted again if nothing came back within wait duration
+            return state == State.CLOSED || System.nanoTime() - stateTime >= waitNanos
+                    || (state == State.HALF_OPEN && trials < halfOpenCalls);
+        }
+    }
+
+    /**
+     * Tries to acquire permission for a call. Open circuit breaker will become
+     * half-open once wait duration elapsed.
+     *
+     * @return true if the call is permitted; false otherwise
+     */
+    boolean tryAcquire() {
+        State s = state;
+        if (s == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (state == State.OPEN && now - stateTime >= waitNanos) {
+                transition(State.HALF_OPEN, now);
+            }
+
+            if (state == State.CLOSED) {
+                return true;
+            } else if (state == State.HALF_OPEN) {
+                if (trials >= halfOpenCalls && now - stateTime >= waitNanos) {
+                    // trial calls might be abandoned
+                    transition(State.HALF_OPEN, now);
+                }
+                if (trials < halfOpenCalls) {
+                    trials++;
+                    return true;
+                }
+            }
+        }
+
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gets current generation, which should be used to tag a call before making
+     * it, see {@link #record(long, boolean, long)}.
+     *
+     * @return current generation
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Records result of a call made in current generation.
+     *
+     * @param failed whether the call failed
+     * @param nanos  elapsed time in nanoseconds
+     * @return true if the circuit breaker is opened because of this call; false
+     *         otherwise
+     */
+    synchronized boolean record(boolean failed, long nanos) {
+        return record(generation, failed, nanos);
+    }
+
+    /**
+     * Records result of a call. Result of a call made in previous generation is
+     * ignored.
+     *
+     * @param generation generation when the call was made, see
+     *                   {@link #getGeneration()}
+     * @param failed     whether the call failed
+     * @param nanos      elapsed time in nanoseconds
+     * @return true if the circuit breaker is opened because of this call; false
+     *         otherwise
+     */
+    synchronized boolean record(long generation, boolean failed, long nanos) {
+        if (generation != this.generation) {
+            // late response of a call made before state change
+            return false;
+        }
+
+        final boolean slow = slowCallNanos > 0L && nanos >= slowCallNanos;
+        final long now = System.nanoTime();
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(State.OPEN, now);
+                return true;
+            } else if (++trialSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED, now);
+            }
+            return false;
+        } else if (state == State.OPEN) {
+            // no call is made when it's open
+            return false;
+        }
+
+        if (calls == windowSize) {
+            byte oldest = outcomes[position];
+            if ((oldest & FAILED) != 0) {
+                failures--;
+            }
+            if ((oldest & SLOW) != 0) {
+                slowCalls--;
+            }
+        } else {
+            calls++;
+        }
+
+        byte outcome = 0;
+        if (failed) {
+            outcome |= FAILED;
+            failures++;
+        }
+        if (slow) {
+            outcome |= SLOW;
+            slowCalls++;
+        }
+        outcomes[position] = outcome;
+        position = (position + 1) % windowSize;
+
+        if (calls >= minCalls && (exceeds(failures, calls, failureRate) || exceeds(slowCalls, calls, slowCallRate))) {
+            transition(State.OPEN, now);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets current state.
+     *
+     * @return non-null state
+     */
+    State getState() {
+        return state;
+    }
+
+    /**
+     * Gets error rate of calls in the sliding window.
+     *
+     * @return error rate from 0 to 100
+     */
+    synchronized int getFailureRate() {
+        return calls > 0 ? failures * 100 / calls : 0;
+    }
+
+    /**
+     * Gets slow call rate of calls in the sliding window.
+     *
+     * @return slow call rate from 0 to 100
+     */
+    synchronized int getSlowCallRate() {
+        return calls > 0 ? slowCalls * 100 / calls : 0;
+    }
+
+    /**
+     * Gets how many times the circuit breaker has been opened.
+     *
+     * @return number of times being opened
+     */
+    long getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * Gets number of rejected calls.
+     *
+     * @return number of rejected calls
+     */
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
@@ -626,10 +626,15 @@ public interface ProtonClient extends AutoCloseable {
     default ProtonResponse executeAndWait(ProtonRequest<?> request) throws ProtonException {
         final ProtonRequest<?> sealedRequest = request.seal();
 
+        CompletableFuture<ProtonResponse> future = null;
         try {
-            return execute(sealedRequest).get();
+            future = execute(sealedRequest);
+            return future.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            if (future != null) { // so that the query can be cancelled on server side
+                future.cancel(false);
+            }
             throw ProtonException.forCancellation(e, sealedRequest.getServer());
         } catch (CancellationException e) {
             throw ProtonException.forCancellation(e, sealedRequest.getServer());
@@ -6,6 +6,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import com.timeplus.proton.client.config.ProtonOption;
 import com.timeplus.proton.client.config.ProtonDefaults;
@@ -18,6 +20,8 @@ import com.timeplus.proton.client.config.ProtonDefaults;
 public class ProtonClientBuilder {
     // expose method to change default thread pool in runtime? JMX?
     static final ExecutorService defaultExecutor;
+    // shared timer for delayed tasks like hedging, keep the work it runs short
+    static final ScheduledExecutorService defaultScheduler;
 
     static {
         int maxThreads = (int) ProtonDefaults.MAX_THREADS.getEffectiveDefaultValue();
@@ -33,6 +37,11 @@ public class ProtonClientBuilder {
 
         defaultExecutor = ProtonUtils.newThreadPool(ProtonClient.class.getSimpleName(), maxThreads,
                 maxThreads * 2, maxRequests, keepAliveTimeoutMs, false);
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                new ProtonThreadFactory(ProtonClient.class.getSimpleName() + "Scheduler"));
+        // drop cancelled timers right away instead of keeping them until due
+        scheduler.setRemoveOnCancelPolicy(true);
+        defaultScheduler = scheduler;
     }
 
     protected ProtonConfig config;
@@ -1,23 +1,35 @@
 package com.timeplus.proton.client;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import com.timeplus.proton.client.ProtonNode.Status;
 import com.timeplus.proton.client.logging.Logger;
@@ -25,28 +37,211 @@ import com.timeplus.proton.client.logging.LoggerFactory;
 
 /**
  * List of {@link ProtonNode}. By default, all nodes are considered as
- * healthy. When connection issue happened, corresponding node will be moved to
- * unhealthy list, where a background thread will validate its status time from
- * time and eventually bring them back to healthy list if no issue.
+ * healthy. When connection issue happened(only when
+ * {@link ProtonConfig#getFailureThreshold()} is greater than zero),
+ * corresponding node will be moved to unhealthy list, where
+ * {@link ProtonHealthChecker} will validate its status with exponential backoff
+ * and eventually bring them back to healthy list if no issue.
  *
  * <p>
  * When a node's protocol is {@link ProtonProtocol#ANY}, this class will
  * also try to probe the protocol by sending a packet to the port and analyze
  * response from server.
+ *
+ * <p>
+ * Besides static nodes, a service name, which may be resolved to multiple
+ * targets(e.g. SRV record), can be added via {@link #addService(ProtonNode)}.
+ * Targets of the service will be added to or removed from the cluster as DNS
+ * records change, see {@link ProtonDnsResolver}.
+ *
+ * <p>
+ * When {@link ProtonConfig#getZone()} is specified, nodes tagged with the zone
+ * are preferred. Requests spill over to nodes in other zones only when no node
+ * in the zone is available, or in-flight requests to the zone reached
+ * {@link ProtonConfig#getZoneMaxInFlight()}.
  */
-class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Serializable {
+class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Serializable, AutoCloseable {
     private static final long serialVersionUID = 8684489015067906319L;
 
     private static final Logger log = LoggerFactory.getLogger(ProtonCluster.class);
 
     private static final String PARAM_NODES = "nodes";
 
+    // number of recent response latencies kept for calculating hedge delay
+    private static final int LATENCY_SAMPLES = 256;
+    // minimum number of samples required before using percentile as hedge delay
+    private static final int MIN_LATENCY_SAMPLES = 32;
+    // weight of new sample when calculating exponentially weighted moving average
+    private static final double EWMA_ALPHA = 0.3D;
+    // maximum length of weighted round robin schedule
+    private static final int MAX_SCHEDULE_SIZE = 1024;
+
     /**
      * Enum of load balancing policy.
      */
     public enum LoadBalancingPolicy {
         ROUND_ROBIN, // nothing fancy
-        PICK_FIRST // stick with the first healthy node
+        PICK_FIRST, // stick with the first healthy node
+        WEIGHTED_ROUND_ROBIN, // smooth weighted round robin based on node weight
+        LEAST_IN_FLIGHT, // node with least in-flight requests
+        P2C_EWMA // better one of two random nodes, based on latency(EWMA) and in-flight requests
+    }
+
+    /**
+     * Runtime statistics of a node, which are used for load balancing.
+     */
+    static final class NodeStats {
+        final AtomicInteger inFlight = new AtomicInteger(0);
+        final AtomicLong latency = new AtomicLong(0L);
+        // consecutive connection failures
+        final AtomicInteger failures = new AtomicInteger(0);
+        // null means no circuit breaker
+        final ProtonCircuitBreaker breaker;
+        // lazily created by getConcurrencyLimiter()
+        volatile ProtonConcurrencyLimiter limiter;
+
+        NodeStats(ProtonConfig config) {
+            this.breaker = config.getCircuitBreakerWindowSize() > 0 ? new ProtonCircuitBreaker(config) : null;
+        }
+
+        boolean isAvailable() {
+            return breaker == null || breaker.isAvailable();
+        }
+
+        boolean tryAcquire() {
+            return breaker == null || breaker.tryAcquire();
+        }
+
+        void update(long nanos) {
+            long prev;
+            long next;
+            do {
+                prev = latency.get();
+                next = prev == 0L ? nanos : (long) (prev + (nanos - prev) * EWMA_ALPHA);
+            } while (!latency.compareAndSet(prev, Math.max(next, 1L)));
+        }
+
+        double getCost() {
+            // unsampled node has zero latency, so that it'll be picked up soon
+            return (latency.get() + 1D) * (inFlight.get() + 1);
+        }
+    }
+
+    /**
+     * Immutable list of healthy nodes, along with pre-calculated schedule for
+     * weighted round robin. It's replaced as a whole whenever node status changed,
+     * so that node selection does not need any lock.
+     */
+    static final class NodeList implements Serializable {
+        private static final long serialVersionUID = -3570587327462937128L;
+
+        static final NodeList EMPTY = new NodeList(new ProtonNode[0]);
+
+        static int gcd(int a, int b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        static ProtonNode[] newSchedule(ProtonNode[] nodes) {
+            int len = nodes.length;
+            int[] weights = new int[len];
+            long total = 0L;
+            int divisor = 0;
+            for (int i = 0; i < len; i++) {
+                int w = Math.max(nodes[i].getWeight(), 0);
+                weights[i] = w;
+                total += w;
+                if (w > 0) {
+                    divisor = gcd(w, divisor);
+                }
+            }
+
+            if (total == 0L) { // non-positive weight for all nodes
+                Arrays.fill(weights, 1);
+                total = len;
+            } else {
+                long scaled = 0L;
+                for (int i = 0; i < len; i++) {
+                    int w = weights[i] / divisor;
+                    if (w > 0 && total / divisor > MAX_SCHEDULE_SIZE) {
+                        w = (int) Math.max((long) w * MAX_SCHEDULE_SIZE / (total / divisor), 1L);
+                    }
+                    weights[i] = w;
+                    scaled += w;
+                }
+                total = scaled;
+            }
+
+            // smooth weighted round robin, same as nginx
+            ProtonNode[] schedule = new ProtonNode[(int) total];
+            long[] current = new long[len];
+            for (int i = 0; i < schedule.length; i++) {
+                int best = 0;
+                for (int j = 0; j < len; j++) {
+                    current[j] += weights[j];
+                    if (current[j] > current[best]) {
+                        best = j;
+                    }
+                }
+                current[best] -= total;
+                schedule[i] = nodes[best];
+            }
+            return schedule;
+        }
+
+        final ProtonNode[] nodes;
+        final ProtonNode[] schedule;
+
+        NodeList(ProtonNode[] nodes) {
+            this.nodes = nodes;
+            this.schedule = newSchedule(nodes);
+        }
+
+        boolean contains(ProtonNode node) {
+            for (ProtonNode n : nodes) {
+                if (n.equals(node)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        NodeList add(ProtonNode node) {
+            if (contains(node)) {
+                return this;
+            }
+
+            ProtonNode[] list = Arrays.copyOf(nodes, nodes.length + 1);
+            list[nodes.length] = node;
+            return new NodeList(list);
+        }
+
+        NodeList remove(ProtonNode node) {
+            if (!contains(node)) {
+                return this;
+            }
+
+            List<ProtonNode> list = new ArrayList<>(nodes.length);
+            for (ProtonNode n : nodes) {
+                if (!n.equals(node)) {
+                    list.add(n);
+                }
+            }
+            return list.isEmpty() ? EMPTY : new NodeList(list.toArray(new ProtonNode[0]));
+        }
+    }
+
+    /**
+     * Service and its current targets.
+     */
+    static final class Service {
+        final Consumer<List<InetSocketAddress>> listener;
+        // guarded by this
+        final Map<String, ProtonNode> targets;
+
+        Service(Consumer<List<InetSocketAddress>> listener) {
+            this.listener = listener;
+            this.targets = new LinkedHashMap<>();
+        }
     }
 
     /**
@@ -54,10 +249,13 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
      */
     public static class Builder {
         private final List<ProtonNode> nodes;
+        private final List<ProtonNode> services;
         private LoadBalancingPolicy lbPolicy;
+        private ProtonConfig config;
 
         private Builder() {
             nodes = new LinkedList<>();
+            services = new LinkedList<>();
         }
 
         /**
@@ -114,25 +312,56 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
          * @return this builder
          */
         public Builder merge(ProtonCluster cluster) {
-            for (ProtonNode node : ProtonChecker.nonNull(cluster, "cluster").nodes) {
+            for (ProtonNode node : ProtonChecker.nonNull(cluster, "cluster").nodes.nodes) {
                 addNode(node);
             }
 
             return this;
         }
 
+        /**
+         * Add service, see {@link ProtonCluster#addService(ProtonNode)}.
+         *
+         * @param service non-null service
+         * @return this builder
+         */
+        public Builder addService(ProtonNode service) {
+            if (!services.contains(ProtonChecker.nonNull(service, "service"))) {
+                services.add(service);
+            }
+
+            return this;
+        }
+
         public Builder withLbPolicy(LoadBalancingPolicy policy) {
             this.lbPolicy = policy;
             return this;
         }
 
+        /**
+         * Sets configuration of the cluster, which is also used for creating
+         * clients for health check, so that they share same credentials and
+         * options(e.g. SSL settings).
+         *
+         * @param config configuration, null means default
+         * @return this builder
+         */
+        public Builder withConfig(ProtonConfig config) {
+            this.config = config;
+            return this;
+        }
+
         /**
          * Build the cluster object.
          *
          * @return cluster
          */
         public ProtonCluster build() {
-            return new ProtonCluster(lbPolicy, nodes);
+            ProtonCluster cluster = new ProtonCluster(lbPolicy, config, nodes);
+            for (ProtonNode service : services) {
+                cluster.addService(service);
+            }
+            return cluster;
         }
     }
 
@@ -219,18 +448,79 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
         return new ProtonCluster(null, nodes);
     }
 
-    protected static void handleUncaughtException(Thread r, Throwable t) {
-        log.warn("Exception caught from thread: " + r, t);
+    // java.net.http is not available in Java 8
+    private static final String HTTP_CONNECT_TIMEOUT = "java.net.http.HttpConnectTimeoutException";
+    private static final String HTTP_TIMEOUT = "java.net.http.HttpTimeoutException";
+
+    private static boolean isInstance(Throwable e, String className) {
+        for (Class<?> c = e.getClass(); c != null; c = c.getSuperclass()) {
+            if (className.equals(c.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given error is caused by connection issue, which indicates the
+     * node is not healthy and the request was not sent at all. Only
+     * transport-level exceptions raised by the client itself, including connect
+     * timeout, are considered, error codes reported by server(e.g. a downstream
+     * shard is unreachable) are not. It's shared by passive health check, circuit
+     * breaker and {@link ProtonRetryExecution}.
+     *
+     * @param error error, could be null
+     * @return true if it's caused by connection issue; false otherwise
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ConnectException || e instanceof NoRouteToHostException
+                    || e instanceof PortUnreachableException || e instanceof UnknownHostException
+                    || (e instanceof SocketTimeoutException && "connect timed out".equals(e.getMessage()))
+                    || isInstance(e, HTTP_CONNECT_TIMEOUT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given error is caused by timeout on client side. Timeout
+     * reported by server(e.g. {@code max_execution_time} exceeded) is not
+     * considered, as the node is still responsive.
+     *
+     * @param error error, could be null
+     * @return true if it's caused by timeout; false otherwise
+     */
+    static boolean isTimeout(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof SocketTimeoutException || e instanceof TimeoutException || isInstance(e, HTTP_TIMEOUT)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private final AtomicBoolean checking;
-    private final transient ScheduledExecutorService scheduledExecutor;
-    private final List<ProtonNode> unhealthyNodes;
+    private final ProtonConfig config;
+    private final String zone;
+    private final AtomicLong spillovers;
+    // unhealthy node and number of failed checks
+    private transient Map<ProtonNode, AtomicInteger> unhealthyNodes;
 
     private final AtomicInteger index;
-    private final List<ProtonNode> nodes;
+    // nodes in the order they were defined, regardless of their status
+    private final ProtonNode[] staticNodes;
+    private volatile NodeList nodes;
     private final LoadBalancingPolicy lbPolicy;
 
+    private final AtomicLongArray latencies;
+    private final AtomicLong latencyCounter;
+    private transient Map<ProtonNode, NodeStats> stats;
+    private transient Map<ProtonNode, Service> services;
+    // clients for health check, created using configuration of the cluster
+    private transient Map<ProtonProtocol, ProtonClient> checkers;
+    private transient volatile boolean closed;
+
     /**
      * Constructor cluster object using list of nodes.
      *
@@ -248,57 +538,97 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
      * @param nodes  list of nodes
      */
     protected ProtonCluster(LoadBalancingPolicy policy, Collection<ProtonNode> nodes) {
+        this(policy, null, nodes);
+    }
+
+    /**
+     * Constructor cluster object using list of nodes.
+     *
+     * @param policy load balancing policy
+     * @param config configuration for health check, null means default
+     * @param nodes  list of nodes
+     */
+    protected ProtonCluster(LoadBalancingPolicy policy, ProtonConfig config, Collection<ProtonNode> nodes) {
         this.lbPolicy = policy == null ? LoadBalancingPolicy.ROUND_ROBIN : policy;
+        this.config = config == null ? new ProtonConfig() : config;
+        this.zone = ProtonChecker.isNullOrBlank(this.config.getZone()) ? null : this.config.getZone();
+        this.spillovers = new AtomicLong(0L);
 
-        this.checking = new AtomicBoolean(false);
         this.index = new AtomicInteger(0);
 
-        int size = ProtonChecker.nonNull(nodes, PARAM_NODES).size();
-
-        this.nodes = Collections.synchronizedList(new ArrayList<>(size));
-        this.unhealthyNodes = Collections.synchronizedList(new ArrayList<>(size));
+        this.latencies = new AtomicLongArray(LATENCY_SAMPLES);
+        this.latencyCounter = new AtomicLong(0L);
+        this.stats = new ConcurrentHashMap<>();
+        this.services = new ConcurrentHashMap<>();
+        this.checkers = new ConcurrentHashMap<>();
 
-        // should make it a static member
-        this.scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread thread = new Thread(r, ProtonCluster.class.getSimpleName());
-                thread.setDaemon(true);
-                thread.setUncaughtExceptionHandler(ProtonCluster::handleUncaughtException);
-                return thread;
-            }
-        });
+        this.nodes = NodeList.EMPTY;
+        this.unhealthyNodes = new ConcurrentHashMap<>();
 
+        List<ProtonNode> list = new ArrayList<>(ProtonChecker.nonNull(nodes, PARAM_NODES).size());
         for (ProtonNode node : nodes) {
             if (node == null) {
                 continue;
             }
 
-            probe(node).setManager(this::update);
+            ProtonNode n = probe(node);
+            if (!list.contains(n)) {
+                list.add(n);
+                n.setManager(this::update);
+            }
+        }
+        this.staticNodes = list.toArray(new ProtonNode[0]);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // runtime state is not serialized, only nodes and services to manage
+        out.writeObject(new ArrayList<>(unhealthyNodes.keySet()));
+        out.writeObject(new ArrayList<>(services.keySet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        List<ProtonNode> unhealthy = (List<ProtonNode>) in.readObject();
+        List<ProtonNode> list = (List<ProtonNode>) in.readObject();
+
+        this.stats = new ConcurrentHashMap<>();
+        this.services = new ConcurrentHashMap<>();
+        this.checkers = new ConcurrentHashMap<>();
+        this.unhealthyNodes = new ConcurrentHashMap<>();
+
+        // deserialized nodes are not managed by anyone
+        for (ProtonNode node : nodes.nodes) {
+            node.setManager(this::update);
+        }
+        for (ProtonNode node : unhealthy) {
+            node.setManager(this::update);
+            update(node, Status.UNHEALTHY);
+        }
+        for (ProtonNode service : list) {
+            addService(service);
         }
     }
 
     protected synchronized void update(ProtonNode node, Status status) {
         switch (status) {
             case UNMANAGED:
-                nodes.remove(node);
+                nodes = nodes.remove(node);
                 unhealthyNodes.remove(node);
+                stats.remove(node);
                 break;
             case MANAGED:
             case HEALTHY:
                 unhealthyNodes.remove(node);
-                if (!nodes.contains(node)) {
-                    nodes.add(node);
-                }
+                getStats(node).failures.set(0);
+                nodes = nodes.add(node);
                 break;
             case UNHEALTHY:
-                nodes.remove(node);
-                if (!unhealthyNodes.contains(node)) {
-                    unhealthyNodes.add(node);
-
-                    if (!checking.get()) {
-                        this.scheduledExecutor.execute(this::check);
-                    }
+                nodes = nodes.remove(node);
+                AtomicInteger failures = new AtomicInteger(0);
+                if (unhealthyNodes.putIfAbsent(node, failures) == null) {
+                    scheduleCheck(node, failures);
                 }
                 break;
             default:
@@ -306,38 +636,386 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
         }
     }
 
-    protected void check() {
-        if (checking.compareAndSet(false, true)) {
+    /**
+     * Adds a service, whose host name will be resolved to targets using
+     * {@link ProtonDnsResolver#subscribe(ProtonProtocol, String, int, Consumer)}.
+     * Each target becomes a node of the cluster, which inherits everything but
+     * address from the service. New targets will be added and removed targets
+     * will be removed automatically, until {@link #removeService(ProtonNode)} is
+     * called.
+     *
+     * @param service non-null service
+     */
+    public void addService(ProtonNode service) {
+        ProtonChecker.nonNull(service, "service");
+        Service s = new Service(addresses -> onServiceChange(service, addresses));
+        if (services.putIfAbsent(service, s) == null) {
+            ProtonDnsResolver.getInstance().subscribe(service.getProtocol(), service.getHost(), service.getPort(),
+                    s.listener);
+        }
+    }
+
+    /**
+     * Removes a service and all its targets from the cluster.
+     *
+     * @param service non-null service
+     */
+    public void removeService(ProtonNode service) {
+        Service s = services.remove(ProtonChecker.nonNull(service, "service"));
+        if (s == null) {
+            return;
+        }
+
+        ProtonDnsResolver.getInstance().unsubscribe(service.getHost(), service.getPort(), s.listener);
+        synchronized (s) {
+            for (ProtonNode node : s.targets.values()) {
+                node.setManager(null);
+            }
+            s.targets.clear();
+        }
+    }
+
+    /**
+     * Gets current targets of the given service.
+     *
+     * @param service non-null service
+     * @return non-null targets
+     */
+    List<ProtonNode> getServiceTargets(ProtonNode service) {
+        Service s = services.get(service);
+        if (s == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (s) {
+            return new ArrayList<>(s.targets.values());
+        }
+    }
+
+    private void onServiceChange(ProtonNode service, List<InetSocketAddress> addresses) {
+        Service s = services.get(service);
+        if (s == null) {
             return;
         }
 
-        // detect flaky node and check it in a different way(less frequency)
-        try {
-            boolean passed = true;
-            int timeout = 5000;
-            for (int i = 0; i < unhealthyNodes.size(); i++) {
-                ProtonNode node = probe(unhealthyNodes.get(i), timeout);
+        synchronized (s) {
+            if (services.get(service) != s) {
+                // removed
+                return;
+            }
+
+            Map<String, ProtonNode> targets = new LinkedHashMap<>();
+            for (InetSocketAddress address : addresses) {
+                // resolved addresses may share same host name, use IP to tell them apart
+                String key = ProtonDnsResolver.getKey(address.isUnresolved() ? address.getHostString()
+                        : address.getAddress().getHostAddress(), address.getPort());
+                ProtonNode node = s.targets.remove(key);
+                if (node == null) {
+                    // keep host name(e.g. SRV target) for SSL hostname verification and SNI, while
+                    // the resolved IP is carried by the address
+                    node = probe(ProtonNode.builder(service).address(service.getProtocol(), address).build(),
+                            config.getConnectionTimeout());
+                    log.debug("Adding target %s of service %s", node, service);
+                    node.setManager(this::update);
+                }
+                targets.put(key, node);
+            }
+
+            for (ProtonNode node : s.targets.values()) {
+                log.debug("Removing target %s of service %s", node, service);
+                node.setManager(null);
+            }
+            s.targets.clear();
+            s.targets.putAll(targets);
+        }
+    }
 
-                // probe is faster than ping but it cannot tell if the server works or not
-                boolean isAlive = false;
-                try (ProtonClient client = ProtonClient.newInstance(node.getProtocol())) {
-                    isAlive = client.ping(node, timeout);
+    private void scheduleCheck(ProtonNode node, AtomicInteger failures) {
+        if (closed) {
+            return;
+        }
+
+        long delay = ProtonHealthChecker.getBackoffDelay(failures.get(), config.getHealthCheckInterval(),
+                config.getHealthCheckMaxInterval());
+        ProtonHealthChecker.getInstance().schedule(() -> check(node, failures), delay);
+    }
+
+    /**
+     * Checks the unhealthy node, and schedules next check with exponential backoff
+     * if it's still unhealthy. There's at most one scheduled check for each node.
+     *
+     * @param node     non-null unhealthy node
+     * @param failures number of failed checks
+     */
+    private void check(ProtonNode node, AtomicInteger failures) {
+        // stop when the node recovered, or removed and marked as unhealthy again
+        if (closed || unhealthyNodes.get(node) != failures) {
+            return;
+        }
+
+        if (ProtonHealthChecker.getInstance().check(node, config,
+                p -> checkers.computeIfAbsent(p, k -> ProtonHealthChecker.newClient(config, k)))) {
+            update(node, Status.HEALTHY);
+        } else if (!closed && unhealthyNodes.get(node) == failures) {
+            failures.incrementAndGet();
+            scheduleCheck(node, failures);
+        }
+
+        // nothing left to check, release connections held by the clients
+        if (closed || unhealthyNodes.isEmpty()) {
+            closeCheckers();
+        }
+    }
+
+    private void closeCheckers() {
+        for (Map.Entry<ProtonProtocol, ProtonClient> entry : checkers.entrySet()) {
+            // a new client will be created if it's still needed by another check
+            if (checkers.remove(entry.getKey(), entry.getValue())) {
+                try {
+                    entry.getValue().close();
                 } catch (Exception e) {
-                    // ignore
+                    log.debug("Failed to close health check client due to: %s", e.getMessage());
                 }
-                if (isAlive) { // another configuration?
-                    update(node, Status.HEALTHY);
-                } else {
-                    passed = false;
+            }
+        }
+    }
+
+    // just for testing purpose
+    final int getHealthCheckClients() {
+        return checkers.size();
+    }
+
+    /**
+     * Stops health check of unhealthy nodes and closes clients used for it. The
+     * cluster remains usable, but unhealthy nodes will not be brought back
+     * anymore.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeCheckers();
+    }
+
+    /**
+     * Gets statistics of the given node.
+     *
+     * @param node non-null node
+     * @return non-null statistics
+     */
+    NodeStats getStats(ProtonNode node) {
+        return stats.computeIfAbsent(node, n -> new NodeStats(config));
+    }
+
+    /**
+     * Gets concurrency limiter of the given node, which is shared by all clients
+     * connected to this cluster, and discarded along with other statistics when
+     * the node is no longer managed by the cluster. It's created using
+     * configuration of the first request sent to the node, so clients sharing
+     * the cluster should use same concurrency options.
+     *
+     * @param node   non-null node
+     * @param config non-null configuration of the request
+     * @return non-null concurrency limiter
+     */
+    ProtonConcurrencyLimiter getConcurrencyLimiter(ProtonNode node, ProtonConfig config) {
+        NodeStats s = getStats(node);
+        ProtonConcurrencyLimiter limiter = s.limiter;
+        if (limiter == null) {
+            synchronized (s) {
+                if ((limiter = s.limiter) == null) {
+                    s.limiter = limiter = new ProtonConcurrencyLimiter(node, config);
                 }
             }
+        }
+        return limiter;
+    }
+
+    /**
+     * Gets circuit breaker of the given node.
+     *
+     * @param node non-null node
+     * @return circuit breaker, null when it's disabled
+     */
+    ProtonCircuitBreaker getCircuitBreaker(ProtonNode node) {
+        return getStats(node).breaker;
+    }
+
+    private boolean isAvailable(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        return s == null || s.isAvailable();
+    }
+
+    private boolean tryAcquire(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        return s == null || s.tryAcquire();
+    }
+
+    /**
+     * Gets generation of circuit breaker of the given node, which should be
+     * taken before sending a request and passed to
+     * {@link #onRequestEnd(ProtonNode, long, long, Throwable)}.
+     *
+     * @param node non-null node
+     * @return generation of circuit breaker, always zero when it's disabled
+     */
+    protected long getGeneration(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        return s != null && s.breaker != null ? s.breaker.getGeneration() : 0L;
+    }
+
+    /**
+     * Marks start of a request sent to the given node.
+     *
+     * @param node non-null node
+     * @return start time in nanoseconds, which should be passed to
+     *         {@link #onRequestEnd(ProtonNode, long, Throwable)}
+     */
+    protected long onRequestStart(ProtonNode node) {
+        getStats(node).inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks end of a request sent to the given node. Latency will be recorded
+     * only when the request succeeded, and the node will be marked as unhealthy
+     * after {@link ProtonConfig#getFailureThreshold()} consecutive connection
+     * failures. Result of the request, except cancellation, will also be recorded
+     * in circuit breaker of the node.
+     *
+     * @param node      non-null node
+     * @param startTime start time returned from {@link #onRequestStart(ProtonNode)}
+     * @param error     error occurred, null means the request succeeded
+     */
+    protected void onRequestEnd(ProtonNode node, long startTime, Throwable error) {
+        onRequestEnd(node, startTime, getGeneration(node), error);
+    }
+
+    /**
+     * Marks end of a request sent to the given node. Same as
+     * {@link #onRequestEnd(ProtonNode, long, Throwable)}, except result of the
+     * request will be ignored by circuit breaker, if its state changed after the
+     * request was sent.
+     *
+     * @param node       non-null node
+     * @param startTime  start time returned from
+     *                   {@link #onRequestStart(ProtonNode)}
+     * @param generation generation returned from
+     *                   {@link #getGeneration(ProtonNode)} before sending the
+     *                   request
+     * @param error      error occurred, null means the request succeeded
+     */
+    protected void onRequestEnd(ProtonNode node, long startTime, long generation, Throwable error) {
+        final NodeStats s = getStats(node);
+        final long nanos = System.nanoTime() - startTime;
+        final boolean connectionFailure = isConnectionFailure(error);
+        s.inFlight.decrementAndGet();
+        if (error == null) {
+            s.failures.set(0);
+            s.update(nanos);
+            recordLatency(nanos);
+        } else if (connectionFailure) {
+            int threshold = config.getFailureThreshold();
+            if (threshold > 0 && s.failures.incrementAndGet() >= threshold && nodes.contains(node)) {
+                log.debug("Marking %s as unhealthy due to: %s", node, error.getMessage());
+                update(node, Status.UNHEALTHY);
+            }
+        }
+
+        if (s.breaker != null && !(error instanceof CancellationException)
+                && s.breaker.record(generation, connectionFailure || isTimeout(error), nanos)) {
+            log.debug("Circuit breaker of %s is open, error rate %d%%, slow call rate %d%%", node,
+                    s.breaker.getFailureRate(), s.breaker.getSlowCallRate());
+        }
+    }
+
+    /**
+     * Gets number of in-flight requests sent to the given node.
+     *
+     * @param node non-null node
+     * @return number of in-flight requests
+     */
+    public int getInFlightRequests(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        return s != null ? s.inFlight.get() : 0;
+    }
+
+    /**
+     * Gets exponentially weighted moving average of response latency of the given
+     * node.
+     *
+     * @param node non-null node
+     * @return latency in nanoseconds, 0 means no sample
+     */
+    public long getLatency(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        return s != null ? s.latency.get() : 0L;
+    }
+
+    /**
+     * Records response latency, which will be used for calculating hedge delay.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    protected void recordLatency(long nanos) {
+        if (nanos > 0L) {
+            latencies.set((int) (latencyCounter.getAndIncrement() % LATENCY_SAMPLES), nanos);
+        }
+    }
 
-            if (!passed) {
-                this.scheduledExecutor.schedule(this::check, 3L, TimeUnit.SECONDS);
+    /**
+     * Gets delay before sending a hedged request to another node.
+     *
+     * @param percentile   percentile(1 to 99) of recent response latencies, 0 or
+     *                     any other value means using {@code defaultDelay}
+     * @param defaultDelay default delay in milliseconds, which is used when
+     *                     percentile is not specified or there's no sufficient
+     *                     samples
+     * @return delay in milliseconds
+     */
+    public long getHedgeDelay(int percentile, long defaultDelay) {
+        long count = latencyCounter.get();
+        if (percentile < 1 || percentile > 99 || count < MIN_LATENCY_SAMPLES) {
+            return defaultDelay;
+        }
+
+        int size = (int) Math.min(count, LATENCY_SAMPLES);
+        long[] samples = new long[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = latencies.get(i);
+        }
+        Arrays.sort(samples);
+        return Math.max(TimeUnit.NANOSECONDS.toMillis(samples[size * percentile / 100]), 1L);
+    }
+
+    /**
+     * Gets next healthy node matching the given selector, excluding the given
+     * one. Unlike {@link #apply(ProtonNodeSelector)}, it does not change the
+     * position of round robin. Same as the latter, nodes with open circuit
+     * breaker are skipped, and permission is acquired from circuit breaker of the
+     * returned node.
+     *
+     * @param t        node selector, could be null
+     * @param excluded node to exclude, could be null
+     * @return next healthy node, or null when there's none
+     */
+    public ProtonNode next(ProtonNodeSelector t, ProtonNode excluded) {
+        boolean noSelector = t == null || t == ProtonNodeSelector.EMPTY;
+
+        ProtonNode[] list = nodes.nodes;
+        int len = list.length;
+        int idx = len > 0 ? Math.abs(index.get() % len) : 0;
+        // prefer nodes in the same zone
+        for (Boolean local : zone == null ? new Boolean[] { null } : new Boolean[] { true, false }) {
+            for (int i = 0; i < len; i++) {
+                ProtonNode node = list[(idx + i) % len];
+                if (!node.equals(excluded) && (noSelector || t.match(node)) && inZone(node, local)
+                        && tryAcquire(node)) {
+                    return node;
+                }
             }
-        } finally {
-            checking.set(false);
         }
+
+        return null;
     }
 
     /**
@@ -355,7 +1033,28 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
      * @return if there's at least one node is available for access
      */
     public boolean hasNode() {
-        return !this.nodes.isEmpty();
+        return this.nodes.nodes.length > 0;
+    }
+
+    /**
+     * Gets all nodes defined in the cluster, in the order they were added and
+     * regardless of their status. Targets of services are not included.
+     *
+     * @return unmodifible list of nodes
+     */
+    public List<ProtonNode> getNodes() {
+        return Collections.unmodifiableList(Arrays.asList(staticNodes));
+    }
+
+    /**
+     * Checks if the given node is healthy, meaning it's in the list of available
+     * nodes.
+     *
+     * @param node non-null node
+     * @return true if the node is healthy; false otherwise
+     */
+    public boolean isHealthy(ProtonNode node) {
+        return nodes.contains(node);
     }
 
     /**
@@ -364,49 +1063,258 @@ class ProtonCluster implements Function<ProtonNodeSelector, ProtonNode>, Seriali
      * @return unmodifible list of nodes
      */
     public List<ProtonNode> getAvailableNodes() {
-        return Collections.unmodifiableList(nodes);
+        return Collections.unmodifiableList(Arrays.asList(nodes.nodes));
     }
 
-    @Override
-    public synchronized ProtonNode apply(ProtonNodeSelector t) {
-        boolean noSelector = t == null || t == ProtonNodeSelector.EMPTY;
+    /**
+     * Selects a node from non-empty list of candidates according to load
+     * balancing policy. This is only used by
+     * {@link LoadBalancingPolicy#LEAST_IN_FLIGHT} and
+     * {@link LoadBalancingPolicy#P2C_EWMA}.
+     *
+     * @param candidates non-empty list of candidates
+     * @param idx        position of round robin
+     * @return selected node
+     */
+    private ProtonNode select(List<ProtonNode> candidates, int idx) {
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
 
-        if (nodes.isEmpty()) {
-            // TODO wait until timed out?
-            throw new IllegalArgumentException("No healthy node available");
+        ProtonNode selected = null;
+        switch (lbPolicy) {
+            case LEAST_IN_FLIGHT: {
+                // rotate the starting point so that idle nodes are evenly used
+                int offset = Math.floorMod(idx, size);
+                int min = Integer.MAX_VALUE;
+                for (int i = 0; i < size; i++) {
+                    ProtonNode node = candidates.get((offset + i) % size);
+                    int count = getInFlightRequests(node);
+                    if (count < min) {
+                        min = count;
+                        selected = node;
+                    }
+                }
+                break;
+            }
+            case P2C_EWMA: {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int i = random.nextInt(size);
+                int j = random.nextInt(size - 1);
+                if (j >= i) {
+                    j++;
+                }
+                ProtonNode a = candidates.get(i);
+                ProtonNode b = candidates.get(j);
+                selected = getStats(a).getCost() <= getStats(b).getCost() ? a : b;
+                break;
+            }
+            default:
+                selected = candidates.get(0);
+                break;
         }
+        return selected;
+    }
 
-        if (lbPolicy == LoadBalancingPolicy.PICK_FIRST) {
-            return nodes.get(0);
+    /**
+     * Gets zone of the cluster.
+     *
+     * @return zone, null means no zone affinity
+     */
+    public String getZone() {
+        return zone;
+    }
+
+    /**
+     * Gets number of requests spilled over to nodes in other zones.
+     *
+     * @return number of requests sent to other zones
+     */
+    public long getSpilloverCount() {
+        return spillovers.get();
+    }
+
+    /**
+     * Checks if the given node is in the expected zone.
+     *
+     * @param node  non-null node
+     * @param local true for nodes in the zone; false for nodes in other zones;
+     *              null for all nodes
+     * @return true if the node is in expected zone; false otherwise
+     */
+    private boolean inZone(ProtonNode node, Boolean local) {
+        return local == null || local.booleanValue() == node.getTags().contains(zone);
+    }
+
+    /**
+     * Checks if there's capacity left for the zone, according to
+     * {@link ProtonConfig#getZoneMaxInFlight()}.
+     *
+     * @param arr non-null nodes
+     * @return true if more requests can be sent to the zone; false otherwise
+     */
+    private boolean hasZoneCapacity(ProtonNode[] arr) {
+        int limit = config.getZoneMaxInFlight();
+        if (limit <= 0) {
+            return true;
         }
 
-        int idx = index.get();
-        ProtonNode matched = null;
-        for (int i = idx; i < nodes.size(); i++) {
-            ProtonNode node = nodes.get(i);
-            if (noSelector || t.match(node)) {
-                matched = node;
-                index.compareAndSet(idx, i + 1);
-                break;
+        int count = 0;
+        for (ProtonNode node : arr) {
+            if (inZone(node, true)) {
+                NodeStats s = stats.get(node);
+                count += s != null ? s.inFlight.get() : 0;
             }
         }
+        return count < limit;
+    }
+
+    /**
+     * Checks if the given node is below its concurrency limit.
+     *
+     * @param node non-null node
+     * @return true if the node can take more requests without waiting; false
+     *         otherwise
+     */
+    private boolean hasCapacity(ProtonNode node) {
+        NodeStats s = stats.get(node);
+        ProtonConcurrencyLimiter limiter = s != null ? s.limiter : null;
+        return limiter == null || limiter.hasCapacity();
+    }
+
+    /**
+     * Checks if the given node can be picked, regardless of its circuit breaker.
+     *
+     * @param node     non-null node
+     * @param t        node selector, could be null
+     * @param local    whether to accept node in the zone, see
+     *                 {@link #inZone(ProtonNode, Boolean)}
+     * @param capacity whether to accept only node below its concurrency limit
+     * @return true if the node can be picked; false otherwise
+     */
+    private boolean accept(ProtonNode node, ProtonNodeSelector t, Boolean local, boolean capacity) {
+        return (t == null || t == ProtonNodeSelector.EMPTY || t.match(node)) && inZone(node, local)
+                && (!capacity || hasCapacity(node));
+    }
 
-        if (matched == null && idx > 0) {
-            for (int i = 0; i < Math.min(idx, nodes.size()); i++) {
-                ProtonNode node = nodes.get(i);
-                if (noSelector || t.match(node)) {
-                    matched = node;
-                    index.compareAndSet(idx, i + 1);
-                    break;
+    /**
+     * Picks a node according to load balancing policy.
+     *
+     * @param list     non-empty list of nodes
+     * @param t        node selector, could be null
+     * @param local    whether to pick node in the zone, see
+     *                 {@link #inZone(ProtonNode, Boolean)}
+     * @param capacity whether to pick only node below its concurrency limit
+     * @param idx      position of round robin
+     * @return selected node, or null when there's none
+     */
+    private ProtonNode pick(NodeList list, ProtonNodeSelector t, Boolean local, boolean capacity, int idx) {
+        final ProtonNode[] arr = list.nodes;
+        final int len = arr.length;
+
+        // nodes with open circuit breaker will be skipped
+        if (lbPolicy == LoadBalancingPolicy.PICK_FIRST) {
+            for (ProtonNode node : arr) {
+                if (inZone(node, local) && (!capacity || hasCapacity(node)) && tryAcquire(node)) {
+                    return node;
                 }
             }
+            return null;
+        } else if (lbPolicy == LoadBalancingPolicy.LEAST_IN_FLIGHT || lbPolicy == LoadBalancingPolicy.P2C_EWMA) {
+            List<ProtonNode> candidates = new ArrayList<>(len);
+            for (ProtonNode node : arr) {
+                if (accept(node, t, local, capacity) && isAvailable(node)) {
+                    candidates.add(node);
+                }
+            }
+
+            // permission might be taken by others, try next one in that case
+            while (!candidates.isEmpty()) {
+                ProtonNode selected = select(candidates, idx);
+                if (tryAcquire(selected)) {
+                    return selected;
+                }
+                candidates.remove(selected);
+            }
+            return null;
         }
 
-        if (matched == null) {
-            throw new IllegalArgumentException(ProtonUtils
-                    .format("No healthy node found from a list of %d(index=%d)", nodes.size(), index.get()));
+        if (lbPolicy == LoadBalancingPolicy.WEIGHTED_ROUND_ROBIN) {
+            ProtonNode[] schedule = list.schedule;
+            int size = schedule.length;
+            int start = Math.floorMod(idx, size);
+            for (int i = 0; i < size; i++) {
+                ProtonNode node = schedule[(start + i) % size];
+                if (accept(node, t, local, capacity) && tryAcquire(node)) {
+                    return node;
+                }
+            }
+            // fall back to round robin, as only nodes without weight are available
+        }
+
+        int start = Math.floorMod(idx, len);
+        for (int i = 0; i < len; i++) {
+            ProtonNode node = arr[(start + i) % len];
+            if (accept(node, t, local, capacity) && tryAcquire(node)) {
+                return node;
+            }
         }
+        return null;
+    }
 
-        return matched;
+    /**
+     * Picks a node, preferring the ones below their concurrency limit. Node
+     * reached the limit will be picked only when there's no other choice, and
+     * requests sent to it will be queued, see
+     * {@link ProtonConfig#getConcurrencyQueueTimeout()}.
+     *
+     * @param list  non-empty list of nodes
+     * @param t     node selector, could be null
+     * @param local whether to pick node in the zone, see
+     *              {@link #inZone(ProtonNode, Boolean)}
+     * @param idx   position of round robin
+     * @return selected node, or null when there's none
+     */
+    private ProtonNode pick(NodeList list, ProtonNodeSelector t, Boolean local, int idx) {
+        ProtonNode node = pick(list, t, local, true, idx);
+        return node != null ? node : pick(list, t, local, false, idx);
+    }
+
+    @Override
+    public ProtonNode apply(ProtonNodeSelector t) {
+        // lock-free, the snapshot won't change even if node status changed
+        final NodeList list = nodes;
+        final int len = list.nodes.length;
+        if (len == 0) {
+            // TODO wait until timed out?
+            throw new IllegalArgumentException("No healthy node available");
+        }
+
+        // take the position only once, so that fallbacks won't skew round robin
+        final int idx = index.getAndIncrement();
+        ProtonNode node;
+        if (zone == null) {
+            node = pick(list, t, null, idx);
+        } else if (hasZoneCapacity(list.nodes)) {
+            node = pick(list, t, Boolean.TRUE, idx);
+            if (node == null && (node = pick(list, t, Boolean.FALSE, idx)) != null) {
+                spillovers.incrementAndGet();
+            }
+        } else {
+            // zone is saturated, but it's still better than nothing
+            node = pick(list, t, Boolean.FALSE, idx);
+            if (node != null) {
+                spillovers.incrementAndGet();
+            } else {
+                node = pick(list, t, Boolean.TRUE, idx);
+            }
+        }
+
+        if (node == null) {
+            throw new IllegalArgumentException(
+                    ProtonUtils.format("No healthy node found from a list of %d", len));
+        }
+        return node;
     }
 }
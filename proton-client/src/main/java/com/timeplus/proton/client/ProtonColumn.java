@@ -10,7 +10,10 @@ import java.util.Objects;
 import java.util.TimeZone;
 
 /**
- * This class represents a column defined in database.
+ * This class represents a column defined in database. It's immutable. Parsed
+ * column types, as well as parsed column lists, are cached by their string
+ * representation, so {@link #of(String, String)} and {@link #parse(String)}
+ * only need to apply column name when the same type shows up again.
  */
 public final class ProtonColumn implements Serializable {
     private static final long serialVersionUID = 8228660689532259640L;
@@ -25,6 +28,11 @@ public final class ProtonColumn implements Serializable {
     private static final String KEYWORD_MAP = ProtonDataType.map.name();
     private static final String KEYWORD_NESTED = ProtonDataType.nested.name();
 
+    private static final ProtonCache<String, ProtonColumn> typeCache = ProtonCache.create(1000, 300L,
+            ProtonColumn::parseType);
+    private static final ProtonCache<String, List<ProtonColumn>> columnsCache = ProtonCache
+            .create(ProtonCache.DEFAULT_CACHE_SIZE, 300L, ProtonColumn::parseColumns);
+
     private String originalTypeName;
     private String columnName;
 
@@ -199,7 +207,8 @@ public final class ProtonColumn implements Serializable {
                     aggFunc = ProtonAggregateFunction.of(pIndex > 0 ? p.substring(0, pIndex) : p);
                     isFirst = false;
                 } else {
-                    nestedColumns.add(ProtonColumn.of("", p));
+                    // not going through cache as it's being loaded
+                    nestedColumns.add(parseType(p));
                 }
             }
             column = new ProtonColumn(ProtonDataType.valueOf(matchedKeyword), name,
@@ -255,7 +264,7 @@ public final class ProtonColumn implements Serializable {
             }
             i = ProtonUtils.skipBrackets(args, index, len, '(');
             String originalTypeName = args.substring(startIndex, i);
-            List<ProtonColumn> nestedColumns = parse(args.substring(index + 1, i - 1));
+            List<ProtonColumn> nestedColumns = parseColumns(args.substring(index + 1, i - 1));
             if (nestedColumns.isEmpty()) {
                 throw new IllegalArgumentException("Nested should have at least one nested column");
             }
@@ -379,24 +388,16 @@ public final class ProtonColumn implements Serializable {
                 new ProtonColumn(dataType, columnName, null, nullable, false, null, Arrays.asList(nestedColumns)));
     }
 
-    public static ProtonColumn of(String columnName, String columnType) {
-        if (columnName == null || columnType == null) {
-            throw new IllegalArgumentException("Non-null columnName and columnType are required");
-        }
-
+    private static ProtonColumn parseType(String columnType) {
         List<ProtonColumn> list = new ArrayList<>(1);
-        readColumn(columnType, 0, columnType.length(), columnName, list);
+        readColumn(columnType, 0, columnType.length(), "", list);
         if (list.size() != 1) { // should not happen
             throw new IllegalArgumentException("Failed to parse given column");
         }
         return list.get(0);
     }
 
-    public static List<ProtonColumn> parse(String args) {
-        if (args == null || args.isEmpty()) {
-            return Collections.emptyList();
-        }
-
+    private static List<ProtonColumn> parseColumns(String args) {
         String name = null;
         ProtonColumn column = null;
         List<ProtonColumn> list = new LinkedList<>();
@@ -429,6 +430,22 @@ public final class ProtonColumn implements Serializable {
         return Collections.unmodifiableList(c);
     }
 
+    public static ProtonColumn of(String columnName, String columnType) {
+        if (columnName == null || columnType == null) {
+            throw new IllegalArgumentException("Non-null columnName and columnType are required");
+        }
+
+        return typeCache.get(columnType).withColumnName(columnName);
+    }
+
+    public static List<ProtonColumn> parse(String args) {
+        if (args == null || args.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return columnsCache.get(args);
+    }
+
     private ProtonColumn(ProtonDataType dataType, String columnName, String originalTypeName, boolean nullable,
             boolean lowCardinality, List<String> parameters, List<ProtonColumn> nestedColumns) {
         this.aggFuncType = null;
@@ -459,6 +476,34 @@ public final class ProtonColumn implements Serializable {
         this.estimatedByteLength = 0;
     }
 
+    /**
+     * Gets column with the given name. Since column is immutable, everything
+     * except name is shared with this one.
+     *
+     * @param columnName non-null column name
+     * @return this column if it has the same name; otherwise a new column
+     */
+    private ProtonColumn withColumnName(String columnName) {
+        if (this.columnName.equals(columnName)) {
+            return this;
+        }
+
+        ProtonColumn column = new ProtonColumn(dataType, columnName, originalTypeName, nullable, lowCardinality,
+                null, null);
+        column.aggFuncType = aggFuncType;
+        column.timeZone = timeZone;
+        column.precision = precision;
+        column.scale = scale;
+        column.nested = nested;
+        column.parameters = parameters;
+        column.enumConstants = enumConstants;
+        column.arrayLevel = arrayLevel;
+        column.arrayBaseColumn = arrayBaseColumn;
+        column.fixedByteLength = fixedByteLength;
+        column.estimatedByteLength = estimatedByteLength;
+        return column;
+    }
+
     public boolean isAggregateFunction() {
         // || dataType == ProtonDataType.SimpleAggregateFunction;
         return dataType == ProtonDataType.aggregate_function;
@@ -522,7 +567,7 @@ public final class ProtonColumn implements Serializable {
         return nullable;
     }
 
-    boolean isLowCardinality() {
+    public boolean isLowCardinality() {
         return lowCardinality;
     }
 
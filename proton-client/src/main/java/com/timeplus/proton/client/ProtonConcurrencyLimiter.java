@@ -0,0 +1,277 @@
+package com.timeplus.proton.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive concurrency limiter of a node. It's scoped to the cluster when the
+ * node belongs to {@link ProtonCluster}, so that it's shared by clients
+ * connected to the cluster and taken into account when picking node, or
+ * otherwise scoped to the client sending requests to the node. The limit
+ * starts from
+ * {@link ProtonConfig#getInitialConcurrencyLimit()} and it's adjusted after
+ * each request using gradient of latency - it grows when short-term latency is
+ * close to long-term latency, and shrinks when latency goes up or request timed
+ * out, so that excess requests are queued on client side instead of
+ * overwhelming the node.
+ */
+final class ProtonConcurrencyLimiter {
+    // error code of TOO_MANY_SIMULTANEOUS_QUERIES
+    static final int ERROR_TOO_MANY_QUERIES = 202;
+
+    private static final double SHORT_ALPHA = 0.2D;
+    private static final double LONG_ALPHA = 0.01D;
+    private static final double TOLERANCE = 1.5D;
+    private static final double SMOOTHING = 0.2D;
+    private static final double BACKOFF_RATIO = 0.9D;
+
+    /**
+     * Checks if the given error indicates that the node is overloaded, that is,
+     * either the request timed out on client side, or the node rejected it due
+     * to too many simultaneous queries.
+     *
+     * @param error error, could be null
+     * @return true if the node is overloaded; false otherwise
+     */
+    static boolean isOverloaded(Throwable error) {
+        if (ProtonCluster.isTimeout(error)) {
+            return true;
+        }
+
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ProtonException && ((ProtonException) e).getErrorCode() == ERROR_TOO_MANY_QUERIES) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final ProtonNode node;
+    private final int maxLimit;
+
+    // below fields are guarded by this
+    private final Deque<CompletableFuture<Void>> waiters;
+    private double limit;
+    private double shortRtt;
+    private double longRtt;
+    private int inFlight;
+
+    private final AtomicLong rejectedCount;
+
+    ProtonConcurrencyLimiter(ProtonNode node, ProtonConfig config) {
+        this.node = node;
+        this.maxLimit = Math.max(config.getConcurrencyLimit(), 1);
+
+        this.waiters = new ArrayDeque<>();
+        this.limit = Math.min(Math.max(config.getInitialConcurrencyLimit(), 1), maxLimit);
+        this.shortRtt = 0D;
+        this.longRtt = 0D;
+        this.inFlight = 0;
+
+        this.rejectedCount = new AtomicLong(0L);
+    }
+
+    private ProtonException newRejection() {
+        return ProtonException.of(new RejectedExecutionException(
+                ProtonUtils.format("Concurrency limit(%d) of %s reached", getLimit(), node)), node);
+    }
+
+    private void reject(CompletableFuture<Void> future) {
+        if (!future.isDone()) {
+            ProtonException rejection = newRejection();
+            // counted before completion so that it's visible to the caller
+            rejectedCount.incrementAndGet();
+            if (!future.completeExceptionally(rejection)) {
+                rejectedCount.decrementAndGet();
+            }
+        }
+    }
+
+    // removes timed out or cancelled waiters at the head of the queue, so that
+    // the first waiter, if any, is still waiting
+    private void purge() {
+        while (!waiters.isEmpty() && waiters.peek().isDone()) {
+            waiters.poll();
+        }
+    }
+
+    private void update(long rtt) {
+        if (longRtt == 0D) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) * SHORT_ALPHA;
+            longRtt += (rtt - longRtt) * LONG_ALPHA;
+        }
+        // recover quickly when latency drops, for example, after a slow query
+        if (longRtt > shortRtt * 2D) {
+            longRtt *= 0.95D;
+        }
+
+        double gradient = Math.max(0.5D, Math.min(1D, TOLERANCE * longRtt / Math.max(shortRtt, 1D)));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (inFlight < limit / 2D) {
+            // not enough load to tell if the node can handle more
+            newLimit = Math.min(newLimit, limit);
+        }
+        limit = Math.min(Math.max(limit * (1D - SMOOTHING) + newLimit * SMOOTHING, 1D), maxLimit);
+    }
+
+    /**
+     * Tries to acquire permit without waiting.
+     *
+     * @return true if permit acquired; false otherwise
+     */
+    synchronized boolean tryAcquire() {
+        purge();
+        if (waiters.isEmpty() && inFlight < (int) limit) {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Acquires permit. The request will be queued when the node reached
+     * concurrency limit, and rejected when timed out.
+     *
+     * @param timeout timeout in milliseconds, zero or negative number means no
+     *                wait
+     * @return non-null future, which completes when permit acquired
+     */
+    CompletableFuture<Void> acquire(long timeout) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            purge();
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                future.complete(null);
+                return future;
+            } else if (timeout > 0L) {
+                waiters.add(future);
+            }
+        }
+
+        if (timeout <= 0L) {
+            reject(future);
+        } else {
+            // timed out waiter is left in the queue and skipped later
+            ScheduledFuture<?> timer = ProtonClientBuilder.defaultScheduler.schedule(() -> {
+                reject(future);
+                synchronized (this) {
+                    purge();
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+            // the timer is no longer needed once permit is granted or the request
+            // is cancelled
+            future.whenComplete((v, e) -> timer.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * Adjusts the limit according to result of the request, without releasing
+     * permit. Latency is measured until the response is received, regardless how
+     * long it takes to read the response.
+     *
+     * @param startTime start time in nanoseconds, zero means the request was
+     *                  never sent
+     * @param error     error occurred, null means the request succeeded
+     */
+    synchronized void onResponse(long startTime, Throwable error) {
+        if (startTime != 0L) {
+            if (error == null) {
+                update(System.nanoTime() - startTime);
+            } else if (isOverloaded(error)) {
+                limit = Math.max(limit * BACKOFF_RATIO, 1D);
+            }
+        }
+    }
+
+    /**
+     * Releases permit and adjusts the limit according to result of the request.
+     *
+     * @param startTime start time in nanoseconds, zero means the request was
+     *                  never sent
+     * @param error     error occurred, null means the request succeeded
+     */
+    void release(long startTime, Throwable error) {
+        onResponse(startTime, error);
+        release();
+    }
+
+    /**
+     * Releases permit and dispatches queued requests.
+     */
+    void release() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                granted.add(waiters.poll());
+                inFlight++;
+            }
+        }
+
+        for (CompletableFuture<Void> f : granted) {
+            if (!f.complete(null)) {
+                // cancelled by caller
+                release();
+            }
+        }
+    }
+
+    /**
+     * Gets current limit.
+     *
+     * @return current limit, at least one
+     */
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets number of in-flight requests.
+     *
+     * @return number of in-flight requests
+     */
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets number of queued requests.
+     *
+     * @return number of queued requests
+     */
+    synchronized int getQueueSize() {
+        purge();
+        return waiters.size();
+    }
+
+    /**
+     * Checks if the node can take more requests without waiting.
+     *
+     * @return true if the node has capacity; false otherwise
+     */
+    synchronized boolean hasCapacity() {
+        purge();
+        return waiters.isEmpty() && inFlight < (int) limit;
+    }
+
+    /**
+     * Gets number of rejected requests.
+     *
+     * @return number of rejected requests
+     */
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -101,6 +102,16 @@ public class ProtonConfig implements Serializable {
 
     // common options optimized for read
     private final boolean async;
+    private final int cancelDelay;
+    private final int circuitBreakerWindowSize;
+    private final int circuitBreakerMinCalls;
+    private final int circuitBreakerFailureRate;
+    private final int circuitBreakerSlowCallDuration;
+    private final int circuitBreakerSlowCallRate;
+    private final int circuitBreakerWaitDuration;
+    private final int circuitBreakerHalfOpenCalls;
+    private final int concurrencyLimit;
+    private final int concurrencyQueueTimeout;
     private final String clientName;
     private final boolean compressServerResponse;
     private final ProtonCompression compressAlgorithm;
@@ -110,14 +121,29 @@ public class ProtonConfig implements Serializable {
     private final int decompressLevel;
     private final int connectionTimeout;
     private final String database;
+    private final int failureThreshold;
     private final ProtonFormat format;
+    private final int healthCheckInterval;
+    private final int healthCheckMaxInterval;
+    private final String healthCheckQuery;
+    private final int hedgeDelay;
+    private final int hedgePercentile;
+    private final int initialConcurrencyLimit;
     private final int maxBufferSize;
     private final int maxExecutionTime;
     private final int maxQueuedBuffers;
+    private final int maxQueuedCancellations;
     private final int maxQueuedRequests;
     private final long maxResultRows;
+    private final int maxRetries;
     private final int maxThreads;
+    private final int maxBulkRequestsPerNode;
+    private final ProtonPriority priority;
+    private final int priorityQueueTimeout;
+    private final int priorityReservedSlots;
+    private final int prioritySlots;
     private final boolean retry;
+    private final int retryInterval;
     private final boolean reuseValueWrapper;
     private final boolean serverInfo;
     private final TimeZone serverTimeZone;
@@ -130,11 +156,16 @@ public class ProtonConfig implements Serializable {
     private final String sslRootCert;
     private final String sslCert;
     private final String sslKey;
+    private final Set<String> stringDictionaryColumns;
+    private final boolean stringDictionaryForLowCardinality;
+    private final int stringDictionarySize;
     private final boolean useObjectsInArray;
     private final boolean useServerTimeZone;
     private final boolean useServerTimeZoneForDates;
     private final TimeZone timeZoneForDate;
     private final TimeZone useTimeZone;
+    private final String zone;
+    private final int zoneMaxInFlight;
 
     // client specific options
     private final Map<ProtonOption, Serializable> options;
@@ -179,6 +210,16 @@ public class ProtonConfig implements Serializable {
         }
 
         this.async = (boolean) getOption(ProtonClientOption.ASYNC, ProtonDefaults.ASYNC);
+        this.cancelDelay = (int) getOption(ProtonClientOption.CANCEL_DELAY);
+        this.circuitBreakerWindowSize = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_WINDOW_SIZE);
+        this.circuitBreakerMinCalls = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_MIN_CALLS);
+        this.circuitBreakerFailureRate = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_FAILURE_RATE);
+        this.circuitBreakerSlowCallDuration = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_SLOW_CALL_DURATION);
+        this.circuitBreakerSlowCallRate = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_SLOW_CALL_RATE);
+        this.circuitBreakerWaitDuration = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_WAIT_DURATION);
+        this.circuitBreakerHalfOpenCalls = (int) getOption(ProtonClientOption.CIRCUIT_BREAKER_HALF_OPEN_CALLS);
+        this.concurrencyLimit = (int) getOption(ProtonClientOption.CONCURRENCY_LIMIT);
+        this.concurrencyQueueTimeout = (int) getOption(ProtonClientOption.CONCURRENCY_QUEUE_TIMEOUT);
         this.clientName = (String) getOption(ProtonClientOption.CLIENT_NAME);
         this.compressServerResponse = (boolean) getOption(ProtonClientOption.COMPRESS);
         this.compressAlgorithm = (ProtonCompression) getOption(ProtonClientOption.COMPRESS_ALGORITHM);
@@ -188,14 +229,29 @@ public class ProtonConfig implements Serializable {
         this.decompressLevel = (int) getOption(ProtonClientOption.DECOMPRESS_LEVEL);
         this.connectionTimeout = (int) getOption(ProtonClientOption.CONNECTION_TIMEOUT);
         this.database = (String) getOption(ProtonClientOption.DATABASE, ProtonDefaults.DATABASE);
+        this.failureThreshold = (int) getOption(ProtonClientOption.FAILURE_THRESHOLD);
         this.format = (ProtonFormat) getOption(ProtonClientOption.FORMAT, ProtonDefaults.FORMAT);
+        this.healthCheckInterval = (int) getOption(ProtonClientOption.HEALTH_CHECK_INTERVAL);
+        this.healthCheckMaxInterval = (int) getOption(ProtonClientOption.HEALTH_CHECK_MAX_INTERVAL);
+        this.healthCheckQuery = (String) getOption(ProtonClientOption.HEALTH_CHECK_QUERY);
+        this.hedgeDelay = (int) getOption(ProtonClientOption.HEDGE_DELAY);
+        this.hedgePercentile = (int) getOption(ProtonClientOption.HEDGE_PERCENTILE);
+        this.initialConcurrencyLimit = (int) getOption(ProtonClientOption.INITIAL_CONCURRENCY_LIMIT);
         this.maxBufferSize = (int) getOption(ProtonClientOption.MAX_BUFFER_SIZE);
         this.maxExecutionTime = (int) getOption(ProtonClientOption.MAX_EXECUTION_TIME);
         this.maxQueuedBuffers = (int) getOption(ProtonClientOption.MAX_QUEUED_BUFFERS);
+        this.maxQueuedCancellations = (int) getOption(ProtonClientOption.MAX_QUEUED_CANCELLATIONS);
         this.maxQueuedRequests = (int) getOption(ProtonClientOption.MAX_QUEUED_REQUESTS);
         this.maxResultRows = (long) getOption(ProtonClientOption.MAX_RESULT_ROWS);
+        this.maxRetries = (int) getOption(ProtonClientOption.MAX_RETRIES);
         this.maxThreads = (int) getOption(ProtonClientOption.MAX_THREADS_PER_CLIENT);
+        this.maxBulkRequestsPerNode = (int) getOption(ProtonClientOption.MAX_BULK_REQUESTS_PER_NODE);
+        this.priority = (ProtonPriority) getOption(ProtonClientOption.PRIORITY);
+        this.priorityQueueTimeout = (int) getOption(ProtonClientOption.PRIORITY_QUEUE_TIMEOUT);
+        this.priorityReservedSlots = (int) getOption(ProtonClientOption.PRIORITY_RESERVED_SLOTS);
+        this.prioritySlots = (int) getOption(ProtonClientOption.PRIORITY_SLOTS);
         this.retry = (boolean) getOption(ProtonClientOption.RETRY);
+        this.retryInterval = (int) getOption(ProtonClientOption.RETRY_INTERVAL);
         this.reuseValueWrapper = (boolean) getOption(ProtonClientOption.REUSE_VALUE_WRAPPER);
         this.serverInfo = !ProtonChecker.isNullOrBlank((String) getOption(ProtonClientOption.SERVER_TIME_ZONE))
                 && !ProtonChecker.isNullOrBlank((String) getOption(ProtonClientOption.SERVER_VERSION));
@@ -211,6 +267,16 @@ public class ProtonConfig implements Serializable {
         this.sslRootCert = (String) getOption(ProtonClientOption.SSL_ROOT_CERTIFICATE);
         this.sslCert = (String) getOption(ProtonClientOption.SSL_CERTIFICATE);
         this.sslKey = (String) getOption(ProtonClientOption.SSL_KEY);
+        Set<String> columns = new LinkedHashSet<>();
+        for (String name : ((String) getOption(ProtonClientOption.STRING_DICTIONARY_COLUMNS)).split(",")) {
+            if (!(name = name.trim()).isEmpty()) {
+                columns.add(name);
+            }
+        }
+        this.stringDictionaryColumns = Collections.unmodifiableSet(columns);
+        this.stringDictionaryForLowCardinality = (boolean) getOption(
+                ProtonClientOption.STRING_DICTIONARY_FOR_LOW_CARDINALITY);
+        this.stringDictionarySize = (int) getOption(ProtonClientOption.STRING_DICTIONARY_SIZE);
         this.useObjectsInArray = (boolean) getOption(ProtonClientOption.USE_OBJECTS_IN_ARRAYS);
         this.useServerTimeZone = (boolean) getOption(ProtonClientOption.USE_SERVER_TIME_ZONE);
         this.useServerTimeZoneForDates = (boolean) getOption(ProtonClientOption.USE_SERVER_TIME_ZONE_FOR_DATES);
@@ -220,6 +286,8 @@ public class ProtonConfig implements Serializable {
                 : TimeZone.getTimeZone(timeZone);
         this.useTimeZone = this.useServerTimeZone ? this.serverTimeZone : tz;
         this.timeZoneForDate = this.useServerTimeZoneForDates ? this.useTimeZone : null;
+        this.zone = (String) getOption(ProtonClientOption.ZONE);
+        this.zoneMaxInFlight = (int) getOption(ProtonClientOption.ZONE_MAX_IN_FLIGHT);
 
         if (credentials == null) {
             this.credentials = ProtonCredentials.fromUserAndPassword((String) getOption(ProtonDefaults.USER),
@@ -235,6 +303,46 @@ public class ProtonConfig implements Serializable {
         return async;
     }
 
+    public int getCancelDelay() {
+        return cancelDelay;
+    }
+
+    public int getCircuitBreakerWindowSize() {
+        return circuitBreakerWindowSize;
+    }
+
+    public int getCircuitBreakerMinCalls() {
+        return circuitBreakerMinCalls;
+    }
+
+    public int getCircuitBreakerFailureRate() {
+        return circuitBreakerFailureRate;
+    }
+
+    public int getCircuitBreakerSlowCallDuration() {
+        return circuitBreakerSlowCallDuration;
+    }
+
+    public int getCircuitBreakerSlowCallRate() {
+        return circuitBreakerSlowCallRate;
+    }
+
+    public int getCircuitBreakerWaitDuration() {
+        return circuitBreakerWaitDuration;
+    }
+
+    public int getCircuitBreakerHalfOpenCalls() {
+        return circuitBreakerHalfOpenCalls;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getConcurrencyQueueTimeout() {
+        return concurrencyQueueTimeout;
+    }
+
     public String getClientName() {
         return clientName;
     }
@@ -271,10 +379,38 @@ public class ProtonConfig implements Serializable {
         return database;
     }
 
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
     public ProtonFormat getFormat() {
         return format;
     }
 
+    public int getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public int getHealthCheckMaxInterval() {
+        return healthCheckMaxInterval;
+    }
+
+    public String getHealthCheckQuery() {
+        return healthCheckQuery;
+    }
+
+    public int getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public int getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public int getInitialConcurrencyLimit() {
+        return initialConcurrencyLimit;
+    }
+
     public int getMaxBufferSize() {
         return maxBufferSize;
     }
@@ -287,6 +423,10 @@ public class ProtonConfig implements Serializable {
         return maxQueuedBuffers;
     }
 
+    public int getMaxQueuedCancellations() {
+        return maxQueuedCancellations;
+    }
+
     public int getMaxQueuedRequests() {
         return maxQueuedRequests;
     }
@@ -295,14 +435,42 @@ public class ProtonConfig implements Serializable {
         return maxResultRows;
     }
 
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
     public int getMaxThreadsPerClient() {
         return maxThreads;
     }
 
+    public int getMaxBulkRequestsPerNode() {
+        return maxBulkRequestsPerNode;
+    }
+
+    public ProtonPriority getPriority() {
+        return priority;
+    }
+
+    public int getPriorityQueueTimeout() {
+        return priorityQueueTimeout;
+    }
+
+    public int getPriorityReservedSlots() {
+        return priorityReservedSlots;
+    }
+
+    public int getPrioritySlots() {
+        return prioritySlots;
+    }
+
     public boolean isRetry() {
         return retry;
     }
 
+    public int getRetryInterval() {
+        return retryInterval;
+    }
+
     public boolean isReuseValueWrapper() {
         return reuseValueWrapper;
     }
@@ -356,6 +524,32 @@ public class ProtonConfig implements Serializable {
         return sslKey;
     }
 
+    public Set<String> getStringDictionaryColumns() {
+        return stringDictionaryColumns;
+    }
+
+    public boolean isStringDictionaryForLowCardinality() {
+        return stringDictionaryForLowCardinality;
+    }
+
+    public int getStringDictionarySize() {
+        return stringDictionarySize;
+    }
+
+    /**
+     * Checks whether values of the given string column should be deduplicated
+     * using a dictionary.
+     *
+     * @param column non-null column
+     * @return true if dictionary should be used; false otherwise
+     */
+    public boolean isStringDictionaryEnabled(ProtonColumn column) {
+        return stringDictionarySize > 0
+                && ((stringDictionaryForLowCardinality && column.isLowCardinality())
+                        || (!stringDictionaryColumns.isEmpty()
+                                && stringDictionaryColumns.contains(column.getColumnName())));
+    }
+
     public boolean isUseObjectsInArray() {
         return useObjectsInArray;
     }
@@ -388,6 +582,14 @@ public class ProtonConfig implements Serializable {
         return useTimeZone;
     }
 
+    public String getZone() {
+        return zone;
+    }
+
+    public int getZoneMaxInFlight() {
+        return zoneMaxInFlight;
+    }
+
     public ProtonCredentials getDefaultCredentials() {
         return this.credentials;
     }
@@ -8,6 +8,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.timeplus.proton.client.data.ProtonRowMapper;
+
 /**
  * This defines a data processor for dealing with one or multiple
  * {@link ProtonFormat}.
@@ -123,4 +125,17 @@ public abstract class ProtonDataProcessor {
      * @return non-null iterable collection
      */
     public abstract Iterable<ProtonRecord> records();
+
+    /**
+     * Returns an iterable collection of objects mapped from records, see
+     * {@link ProtonRowMapper}. Same as {@link #records()}, it's not supposed to
+     * be called for more than once.
+     *
+     * @param <T>   type of the object
+     * @param clazz non-null class of the object
+     * @return non-null iterable collection
+     */
+    public <T> Iterable<T> records(Class<T> clazz) {
+        return ProtonRowMapper.of(clazz, columns).mapAll(records());
+    }
 }
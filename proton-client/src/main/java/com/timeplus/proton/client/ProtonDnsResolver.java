@@ -1,6 +1,22 @@
 package com.timeplus.proton.client;
 
+import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 import com.timeplus.proton.client.config.ProtonDefaults;
 import com.timeplus.proton.client.logging.Logger;
@@ -11,13 +27,117 @@ import com.timeplus.proton.client.naming.SrvResolver;
  * Default DNS resolver. It tries to look up service record (SRV record) when
  * {@link ProtonDefaults#SRV_RESOLVE} is set to
  * {@code true}.
+ *
+ * <p>
+ * Resolved names are cached no longer than TTL of the record and
+ * {@link ProtonDefaults#DNS_CACHE_TTL}. Cached name will be refreshed in
+ * background before it expires, and it will be served for at most
+ * {@link ProtonDefaults#DNS_STALE_TTL} after expiration when the name cannot be
+ * resolved. Names failed to resolve without stale addresses to serve are cached
+ * as well for a short while(see {@link #NEGATIVE_TTL}), so that they won't be
+ * looked up again and again. Listeners subscribed via
+ * {@link #subscribe(ProtonProtocol, String, int, Consumer)} will be notified
+ * when resolved addresses changed.
  */
 public class ProtonDnsResolver {
     private static final Logger log = LoggerFactory.getLogger(ProtonDnsResolver.class);
 
+    // refresh in background when 80% of TTL elapsed
+    private static final int REFRESH_PERCENT = 80;
+    // minimum interval in milliseconds between lookups of a failed name
+    private static final long RETRY_INTERVAL = 1000L;
+
+    /**
+     * Time in milliseconds to cache a name failed to resolve, same as default
+     * {@code networkaddress.cache.negative.ttl} of JVM.
+     */
+    protected static final long NEGATIVE_TTL = 10000L;
+
     private static final ProtonDnsResolver instance = ProtonUtils.getService(ProtonDnsResolver.class,
             new ProtonDnsResolver());
 
+    /**
+     * Result of a DNS lookup.
+     */
+    protected static final class Answer {
+        private final List<InetSocketAddress> addresses;
+        private final long ttl;
+
+        /**
+         * Default constructor.
+         *
+         * @param addresses non-empty resolved addresses
+         * @param ttl       time to live in milliseconds
+         */
+        public Answer(List<InetSocketAddress> addresses, long ttl) {
+            if (ProtonChecker.nonNull(addresses, "addresses").isEmpty()) {
+                throw new IllegalArgumentException("Non-empty addresses are required");
+            }
+            this.addresses = Collections.unmodifiableList(new ArrayList<>(addresses));
+            this.ttl = Math.max(ttl, 0L);
+        }
+
+        /**
+         * Gets resolved addresses.
+         *
+         * @return non-empty resolved addresses
+         */
+        public List<InetSocketAddress> getAddresses() {
+            return addresses;
+        }
+
+        /**
+         * Gets time to live.
+         *
+         * @return time to live in milliseconds
+         */
+        public long getTtl() {
+            return ttl;
+        }
+    }
+
+    /**
+     * Cached answer, which is null when failed to resolve the name. Time fields
+     * are in milliseconds, see {@link #now()}.
+     */
+    static final class Entry {
+        final Answer answer;
+        final long refreshTime;
+        final long expireTime;
+        final long staleTime;
+
+        final AtomicBoolean refreshing;
+
+        Entry(Answer answer, long refreshTime, long expireTime, long staleTime) {
+            this.answer = answer;
+            this.refreshTime = refreshTime;
+            this.expireTime = expireTime;
+            this.staleTime = staleTime;
+
+            this.refreshing = new AtomicBoolean(false);
+        }
+    }
+
+    /**
+     * Listeners of a name, which is refreshed periodically.
+     */
+    static final class Subscription {
+        final ProtonProtocol protocol;
+        final String host;
+        final int port;
+
+        final List<Consumer<List<InetSocketAddress>>> listeners;
+        volatile ScheduledFuture<?> future;
+
+        Subscription(ProtonProtocol protocol, String host, int port) {
+            this.protocol = protocol;
+            this.host = host;
+            this.port = port;
+
+            this.listeners = new CopyOnWriteArrayList<>();
+        }
+    }
+
     protected static ProtonDnsResolver newInstance() {
         ProtonDnsResolver resolver = null;
 
@@ -36,7 +156,281 @@ public class ProtonDnsResolver {
         return instance;
     }
 
+    static String getKey(String host, int port) {
+        return new StringBuilder().append(host).append(':').append(port).toString();
+    }
+
+    private final long cacheTtl;
+    private final long staleTtl;
+    private final LongSupplier clock;
+    private final Executor executor;
+
+    private final Map<String, Entry> cache;
+    private final Map<String, Subscription> subscriptions;
+
+    /**
+     * Default constructor using {@link ProtonDefaults#DNS_CACHE_TTL} and
+     * {@link ProtonDefaults#DNS_STALE_TTL}.
+     */
+    public ProtonDnsResolver() {
+        this(TimeUnit.SECONDS.toMillis((int) ProtonDefaults.DNS_CACHE_TTL.getEffectiveDefaultValue()),
+                TimeUnit.SECONDS.toMillis((int) ProtonDefaults.DNS_STALE_TTL.getEffectiveDefaultValue()));
+    }
+
+    /**
+     * Constructor using customized cache settings.
+     *
+     * @param cacheTtl maximum time in milliseconds to cache resolved name, zero or
+     *                 negative number means no cache
+     * @param staleTtl time in milliseconds to serve expired name when failed to
+     *                 resolve, zero or negative number means never
+     */
+    protected ProtonDnsResolver(long cacheTtl, long staleTtl) {
+        this(cacheTtl, staleTtl, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()),
+                task -> ProtonClient.getExecutorService().execute(task));
+    }
+
+    /**
+     * Constructor using customized cache settings, clock and executor.
+     *
+     * @param cacheTtl maximum time in milliseconds to cache resolved name, zero or
+     *                 negative number means no cache
+     * @param staleTtl time in milliseconds to serve expired name when failed to
+     *                 resolve, zero or negative number means never
+     * @param clock    non-null clock returning current time in milliseconds, which
+     *                 is only used for measuring elapsed time
+     * @param executor non-null executor for refreshing names in background
+     */
+    protected ProtonDnsResolver(long cacheTtl, long staleTtl, LongSupplier clock, Executor executor) {
+        this.cacheTtl = Math.max(cacheTtl, 0L);
+        this.staleTtl = Math.max(staleTtl, 0L);
+        this.clock = ProtonChecker.nonNull(clock, "clock");
+        this.executor = ProtonChecker.nonNull(executor, "executor");
+
+        this.cache = new ConcurrentHashMap<>();
+        this.subscriptions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets current time in milliseconds, which is only used for measuring elapsed
+     * time.
+     *
+     * @return current time in milliseconds
+     */
+    protected long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Looks up the given name without cache.
+     *
+     * @param protocol non-null protocol
+     * @param host     non-null host name
+     * @param port     port number
+     * @return non-null answer
+     * @throws IOException when failed to resolve the name
+     */
+    protected Answer lookup(ProtonProtocol protocol, String host, int port) throws IOException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        List<InetSocketAddress> list = new ArrayList<>(addresses.length);
+        for (InetAddress a : addresses) {
+            // keep host name for SSL, addresses are still told apart by IP
+            list.add(new InetSocketAddress(InetAddress.getByAddress(host, a.getAddress()), port));
+        }
+        // JVM does not expose TTL of the record
+        return new Answer(list, cacheTtl);
+    }
+
+    /**
+     * Looks up the given name and updates cache.
+     *
+     * @param protocol non-null protocol
+     * @param host     non-null host name
+     * @param port     port number
+     * @param key      non-null cache key
+     * @param current  current entry in cache, could be null
+     * @return cached entry, null or entry without answer when failed to resolve
+     *         and nothing to serve
+     */
+    private Entry refresh(ProtonProtocol protocol, String host, int port, String key, Entry current) {
+        final long now = now();
+        Entry entry = null;
+        try {
+            Answer answer = lookup(protocol, host, port);
+            long ttl = Math.min(answer.getTtl(), cacheTtl);
+            entry = new Entry(answer, now + ttl * REFRESH_PERCENT / 100, now + ttl, now + ttl + staleTtl);
+            if (cacheTtl > 0L) {
+                cache.put(key, entry);
+            }
+
+            if (current == null || current.answer == null
+                    || !new HashSet<>(current.answer.getAddresses()).equals(new HashSet<>(answer.getAddresses()))) {
+                notify(key, answer.getAddresses());
+            }
+        } catch (Exception e) {
+            if (current != null && current.answer != null && now < current.staleTime) {
+                log.debug("Failed to resolve [%s], serving stale addresses %s due to: %s", key,
+                        current.answer.getAddresses(), e.getMessage());
+                // retry later instead of looking up again and again
+                entry = new Entry(current.answer, now + RETRY_INTERVAL, now + RETRY_INTERVAL, current.staleTime);
+                cache.put(key, entry);
+            } else if (cacheTtl > 0L) {
+                log.debug("Failed to resolve [%s] due to: %s", key, e.getMessage());
+                // negative cache, in case it's never going to be resolved
+                long ttl = Math.min(NEGATIVE_TTL, cacheTtl);
+                entry = new Entry(null, now + ttl, now + ttl, now + ttl);
+                cache.put(key, entry);
+            } else {
+                log.debug("Failed to resolve [%s] due to: %s", key, e.getMessage());
+            }
+        }
+
+        return entry;
+    }
+
+    private void refreshAsync(ProtonProtocol protocol, String host, int port, String key, Entry current) {
+        if (!current.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh(protocol, host, port, key, current);
+                } finally {
+                    current.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            current.refreshing.set(false);
+            log.debug("Failed to refresh [%s] due to: %s", key, e.getMessage());
+        }
+    }
+
+    private void notify(String key, List<InetSocketAddress> addresses) {
+        Subscription s = subscriptions.get(key);
+        if (s == null) {
+            return;
+        }
+
+        for (Consumer<List<InetSocketAddress>> listener : s.listeners) {
+            try {
+                listener.accept(addresses);
+            } catch (Exception e) {
+                log.warn("Failed to notify listener of [%s]", key, e);
+            }
+        }
+    }
+
+    private void scheduleRefresh(Subscription s, String key) {
+        Entry entry = cache.get(key);
+        long delay = entry != null ? Math.max(entry.refreshTime - now(), RETRY_INTERVAL) : RETRY_INTERVAL;
+        s.future = ProtonClientBuilder.defaultScheduler.schedule(() -> {
+            if (subscriptions.get(key) != s) {
+                return;
+            }
+
+            try {
+                executor.execute(() -> {
+                    if (subscriptions.get(key) == s) {
+                        resolveAll(s.protocol, s.host, s.port);
+                        scheduleRefresh(s, key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Failed to refresh [%s] due to: %s", key, e.getMessage());
+                scheduleRefresh(s, key);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Resolves the given name to all addresses. Cached addresses will be returned
+     * as long as they're not expired, or the name cannot be resolved but the
+     * addresses are still within {@link ProtonDefaults#DNS_STALE_TTL}.
+     *
+     * @param protocol non-null protocol
+     * @param host     non-null host name
+     * @param port     port number
+     * @return non-empty list of addresses, which only contains unresolved address
+     *         when failed to resolve the name
+     */
+    public List<InetSocketAddress> resolveAll(ProtonProtocol protocol, String host, int port) {
+        if (protocol == null || host == null) {
+            throw new IllegalArgumentException("Non-null protocol and host are required");
+        }
+
+        final String key = getKey(host, port);
+        Entry entry = cache.get(key);
+        long now = now();
+        if (entry == null || now >= entry.expireTime) {
+            entry = refresh(protocol, host, port, key, entry);
+        } else if (entry.answer != null && now >= entry.refreshTime) {
+            refreshAsync(protocol, host, port, key, entry);
+        }
+
+        return entry != null && entry.answer != null ? entry.answer.getAddresses()
+                : Collections.singletonList(new InetSocketAddress(host, port));
+    }
+
+    /**
+     * Resolves the given name to socket address.
+     *
+     * @param protocol non-null protocol
+     * @param host     non-null host name
+     * @param port     port number
+     * @return non-null socket address, which is the first one returned from
+     *         {@link #resolveAll(ProtonProtocol, String, int)}
+     */
     public InetSocketAddress resolve(ProtonProtocol protocol, String host, int port) {
-        return new InetSocketAddress(host, port);
+        return resolveAll(protocol, host, port).get(0);
+    }
+
+    /**
+     * Subscribes changes of the given name, which will be refreshed periodically
+     * in background until unsubscribed. Listener will be called once using current
+     * addresses, and again whenever the addresses changed.
+     *
+     * @param protocol non-null protocol
+     * @param host     non-null host name
+     * @param port     port number
+     * @param listener non-null listener
+     */
+    public void subscribe(ProtonProtocol protocol, String host, int port,
+            Consumer<List<InetSocketAddress>> listener) {
+        ProtonChecker.nonNull(listener, "listener");
+        List<InetSocketAddress> addresses = resolveAll(protocol, host, port);
+
+        final String key = getKey(host, port);
+        Subscription s = subscriptions.computeIfAbsent(key, k -> {
+            Subscription newSubscription = new Subscription(protocol, host, port);
+            scheduleRefresh(newSubscription, k);
+            return newSubscription;
+        });
+        s.listeners.add(listener);
+        listener.accept(addresses);
+    }
+
+    /**
+     * Unsubscribes changes of the given name.
+     *
+     * @param host     non-null host name
+     * @param port     port number
+     * @param listener non-null listener
+     */
+    public void unsubscribe(String host, int port, Consumer<List<InetSocketAddress>> listener) {
+        final String key = getKey(host, port);
+        subscriptions.computeIfPresent(key, (k, s) -> {
+            s.listeners.remove(listener);
+            if (!s.listeners.isEmpty()) {
+                return s;
+            }
+
+            ScheduledFuture<?> future = s.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+            return null;
+        });
     }
 }
@@ -0,0 +1,126 @@
+package com.timeplus.proton.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.logging.Logger;
+import com.timeplus.proton.client.logging.LoggerFactory;
+
+/**
+ * JVM-wide health checker for unhealthy nodes in {@link ProtonCluster}. Checks
+ * are scheduled by the shared scheduler and executed using a small dedicated
+ * thread pool, so the number of clusters does not affect how many threads are
+ * used for health check, and slow checks will not compete with requests for
+ * {@link ProtonClient#getExecutorService()}. Each cluster reuses one client for
+ * each protocol, which is created using configuration of the cluster, see
+ * {@link #newClient(ProtonConfig, ProtonProtocol)}, until there's no unhealthy
+ * node to check or the cluster is closed.
+ */
+final class ProtonHealthChecker {
+    private static final Logger log = LoggerFactory.getLogger(ProtonHealthChecker.class);
+
+    // upper bound of the exponent, to avoid overflow
+    private static final int MAX_BACKOFF_EXPONENT = 20;
+    // threads for running blocking checks, idle ones will be terminated
+    private static final int MAX_THREADS = 2;
+    private static final long KEEP_ALIVE_TIMEOUT = 60000L;
+
+    private static final ProtonHealthChecker instance = new ProtonHealthChecker();
+
+    static ProtonHealthChecker getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets delay before next check using exponential backoff with jitter. Half of
+     * the delay is fixed and the other half is random, so that checks against
+     * flapping nodes will not be synchronized.
+     *
+     * @param failures    number of failed checks
+     * @param interval    initial interval in milliseconds
+     * @param maxInterval maximum interval in milliseconds
+     * @return delay in milliseconds
+     */
+    static long getBackoffDelay(int failures, long interval, long maxInterval) {
+        interval = Math.max(interval, 1L);
+        maxInterval = Math.max(maxInterval, interval);
+
+        long delay = Math.min(interval << Math.max(Math.min(failures, MAX_BACKOFF_EXPONENT), 0), maxInterval);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1L);
+    }
+
+    /**
+     * Creates a synchronous client for checking nodes of the given protocol. It
+     * inherits credentials and options(e.g. SSL settings) from the given
+     * configuration, but uses shared thread pool and never cancels queries.
+     *
+     * @param config   non-null configuration of the cluster
+     * @param protocol non-null protocol
+     * @return new client
+     */
+    static ProtonClient newClient(ProtonConfig config, ProtonProtocol protocol) {
+        return ProtonClient.builder().config(config).nodeSelector(ProtonNodeSelector.of(protocol))
+                .option(ProtonClientOption.ASYNC, false)
+                .option(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0)
+                .option(ProtonClientOption.MAX_THREADS_PER_CLIENT, 0).build();
+    }
+
+    private final ExecutorService executor;
+
+    private ProtonHealthChecker() {
+        executor = ProtonUtils.newThreadPool(ProtonHealthChecker.class.getSimpleName(), MAX_THREADS, MAX_THREADS, 0,
+                KEEP_ALIVE_TIMEOUT, true);
+    }
+
+    /**
+     * Schedules a check.
+     *
+     * @param task  non-null task
+     * @param delay delay in milliseconds
+     */
+    void schedule(Runnable task, long delay) {
+        ProtonClientBuilder.defaultScheduler.schedule(() -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.debug("Failed to run health check due to: %s", e.getMessage());
+                schedule(task, delay);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks if the given node is healthy. It uses
+     * {@link ProtonClient#ping(ProtonNode, int)} when
+     * {@link ProtonConfig#getHealthCheckQuery()} is empty, or executes the query
+     * otherwise.
+     *
+     * @param node    non-null node to check
+     * @param config  non-null configuration
+     * @param clients non-null function to get client for a protocol
+     * @return true if the node is healthy; false otherwise
+     */
+    boolean check(ProtonNode node, ProtonConfig config, Function<ProtonProtocol, ProtonClient> clients) {
+        int timeout = config.getConnectionTimeout();
+        String query = config.getHealthCheckQuery();
+        try {
+            // probe is faster than ping but it cannot tell if the server works or not
+            ProtonNode n = ProtonCluster.probe(node, timeout);
+            ProtonClient client = clients.apply(n.getProtocol());
+            if (ProtonChecker.isNullOrEmpty(query)) {
+                return client.ping(n, timeout);
+            }
+
+            client.connect(n).query(query).executeAndWait().close();
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to check %s due to: %s", node, e.getMessage());
+            return false;
+        }
+    }
+}
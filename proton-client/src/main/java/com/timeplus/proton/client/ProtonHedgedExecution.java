@@ -0,0 +1,122 @@
+package com.timeplus.proton.client;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.timeplus.proton.client.logging.Logger;
+import com.timeplus.proton.client.logging.LoggerFactory;
+
+/**
+ * Hedged execution of an idempotent request against {@link ProtonCluster}.
+ * The request is sent to the selected node first, and when there's no response
+ * within hedge delay, same query(using same query id) will be sent to another
+ * healthy node in the cluster. The first response wins, and the other one will
+ * be cancelled on server side using {@code KILL QUERY}, regardless of
+ * {@link com.timeplus.proton.client.config.ProtonClientOption#MAX_QUEUED_CANCELLATIONS}.
+ */
+final class ProtonHedgedExecution {
+    private static final Logger log = LoggerFactory.getLogger(ProtonHedgedExecution.class);
+
+    private final AbstractClient<?> client;
+    private final ProtonCluster cluster;
+    private final ProtonRequest<?> request;
+    private final String queryId;
+
+    private final CompletableFuture<ProtonResponse> result;
+    private final AtomicInteger inFlight;
+    private final Map<ProtonNode, CompletableFuture<ProtonResponse>> attempts;
+
+    ProtonHedgedExecution(AbstractClient<?> client, ProtonCluster cluster, ProtonRequest<?> sealedRequest) {
+        this.client = ProtonChecker.nonNull(client, "client");
+        this.cluster = ProtonChecker.nonNull(cluster, "cluster");
+        this.request = ProtonChecker.nonNull(sealedRequest, "request");
+        this.queryId = sealedRequest.getQueryId().orElseGet(() -> UUID.randomUUID().toString());
+
+        this.result = new CompletableFuture<>();
+        this.inFlight = new AtomicInteger(0);
+        this.attempts = new ConcurrentHashMap<>();
+    }
+
+    private void attempt(ProtonNode node) {
+        inFlight.incrementAndGet();
+
+        CompletableFuture<ProtonResponse> future;
+        try {
+            ProtonRequest<?> req = request.seal(node, queryId);
+            future = client.track(req, client.observe(req), true);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        attempts.put(node, future);
+        future.whenComplete((r, e) -> {
+            if (e == null) {
+                if (result.complete(r)) {
+                    cancelOthers(node);
+                } else {
+                    abandon(node, r);
+                }
+            } else if (inFlight.decrementAndGet() <= 0) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void hedge(ProtonNode primary) {
+        if (result.isDone()) {
+            return;
+        }
+
+        ProtonNode node = cluster.next(request.getConfig().getNodeSelector(), primary);
+        if (node != null) {
+            log.debug("No response from %s after hedge delay, sending query [%s] to %s", primary, queryId, node);
+            attempt(node);
+        }
+    }
+
+    private void cancelOthers(ProtonNode winner) {
+        for (Entry<ProtonNode, CompletableFuture<ProtonResponse>> entry : attempts.entrySet()) {
+            // cancelled query will be killed on server side, see AbstractClient.track()
+            if (!entry.getKey().equals(winner)) {
+                entry.getValue().cancel(false);
+            }
+        }
+    }
+
+    private void abandon(ProtonNode node, ProtonResponse response) {
+        client.killQuery(node, queryId);
+        AbstractClient.closeQuietly(response);
+    }
+
+    /**
+     * Executes the request.
+     *
+     * @return non-null future to get the first response
+     */
+    CompletableFuture<ProtonResponse> execute() {
+        final ProtonNode primary = request.getServer();
+        attempt(primary);
+
+        if (!result.isDone()) {
+            long delay = cluster.getHedgeDelay(request.getConfig().getHedgePercentile(),
+                    request.getConfig().getHedgeDelay());
+            ScheduledFuture<?> timer = ProtonClientBuilder.defaultScheduler.schedule(() -> hedge(primary), delay,
+                    TimeUnit.MILLISECONDS);
+            result.whenComplete((r, e) -> {
+                timer.cancel(false);
+                if (e != null) {
+                    cancelOthers(null);
+                }
+            });
+        }
+
+        return result;
+    }
+}
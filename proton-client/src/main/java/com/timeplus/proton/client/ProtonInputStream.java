@@ -77,6 +77,11 @@ public abstract class ProtonInputStream extends InputStream {
             }
         }
 
+        @Override
+        boolean isEndOfStream() {
+            return closed || buffer == ProtonByteBuffer.EMPTY_BUFFER;
+        }
+
         @Override
         public int available() throws IOException {
             if (closed || buffer == ProtonByteBuffer.EMPTY_BUFFER) {
@@ -268,6 +273,7 @@ public abstract class ProtonInputStream extends InputStream {
 
         private int position;
         private int limit;
+        private boolean eof;
 
         WrappedInputStream(InputStream input, int bufferSize, Runnable afterClose) {
             super(afterClose);
@@ -278,6 +284,7 @@ public abstract class ProtonInputStream extends InputStream {
 
             position = 0;
             limit = 0;
+            eof = false;
         }
 
         private void ensureOpen() throws IOException {
@@ -310,6 +317,7 @@ public abstract class ProtonInputStream extends InputStream {
             while (offset < len) {
                 int read = in.read(buf, offset, len - offset);
                 if (read == -1) {
+                    eof = true;
                     break;
                 } else {
                     offset += read;
@@ -321,6 +329,11 @@ public abstract class ProtonInputStream extends InputStream {
             return limit > position;
         }
 
+        @Override
+        boolean isEndOfStream() {
+            return closed || (eof && position >= limit);
+        }
+
         @Override
         public int available() throws IOException {
             return limit > position || updateBuffer() ? limit - position : 0;
@@ -721,8 +734,22 @@ public abstract class ProtonInputStream extends InputStream {
             return "";
         }
 
-        ProtonByteBuffer buf = read(byteLength);
-        return new String(buf.array, buf.position, buf.length, charset != null ? charset : StandardCharsets.UTF_8);
+        return read(byteLength).asString(charset);
+    }
+
+    /**
+     * Reads string from the input stream as a byte buffer, without decoding or
+     * copying bytes when possible. {@link #readVarInt()} will be called
+     * automatically to understand byte length of the string. The returned buffer
+     * may reference internal buffer of the input stream, so it's only valid until
+     * next read.
+     *
+     * @return non-null byte buffer
+     * @throws IOException when failed to read value from input stream, not able to
+     *                     retrieve all bytes, or reached end of the stream
+     */
+    public ProtonByteBuffer readStringBuffer() throws IOException {
+        return read(readVarInt());
     }
 
     /**
@@ -798,6 +825,18 @@ public abstract class ProtonInputStream extends InputStream {
         return (int) result;
     }
 
+    /**
+     * Checks, without blocking, if there's no more data to read. It's
+     * conservative as a stream not knowing whether there's more data will
+     * return false.
+     *
+     * @return true if the input stream has been closed or reached end of the
+     *         stream; false otherwise
+     */
+    boolean isEndOfStream() {
+        return closed;
+    }
+
     /**
      * Checks if the input stream has been closed or not.
      *
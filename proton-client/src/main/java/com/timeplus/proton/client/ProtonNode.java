@@ -619,11 +619,13 @@ public class ProtonNode implements Function<ProtonNodeSelector, ProtonNode>, Ser
     /**
      * Sets manager for this node.
      * 
-     * @param manager function to manage status of the node
+     * @param manager function to manage status of the node, null means to detach
+     *                from current manager
      */
     public synchronized void setManager(BiConsumer<ProtonNode, Status> manager) {
         if (this.manager != null && !this.manager.equals(manager)) {
             this.manager.accept(this, Status.UNMANAGED);
+            this.manager = null;
         }
 
         if (manager != null && !manager.equals(this.manager)) {
@@ -0,0 +1,19 @@
+package com.timeplus.proton.client;
+
+/**
+ * Defines priority of a request, from high to low.
+ */
+public enum ProtonPriority {
+    /**
+     * Latency-sensitive request, for example, dashboard query.
+     */
+    INTERACTIVE,
+    /**
+     * Default priority.
+     */
+    NORMAL,
+    /**
+     * Throughput-oriented request, for example, large export or ETL.
+     */
+    BULK
+}
@@ -0,0 +1,119 @@
+package com.timeplus.proton.client;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.timeplus.proton.client.logging.Logger;
+import com.timeplus.proton.client.logging.LoggerFactory;
+
+/**
+ * Cancels abandoned queries on server side by sending {@code KILL QUERY} over
+ * a side connection. Cancellations are kept in a bounded queue and sent one
+ * after another using {@link ProtonClient#getExecutorService()}, new ones will
+ * be discarded when the queue is full.
+ */
+final class ProtonQueryCanceller implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ProtonQueryCanceller.class);
+
+    private final Supplier<ProtonClient> clientSupplier;
+    private final BlockingQueue<Entry<ProtonNode, String>> queue;
+    private final AtomicBoolean draining;
+
+    private volatile ProtonClient client;
+    private volatile boolean closed;
+
+    /**
+     * Default constructor.
+     *
+     * @param clientSupplier non-null supplier of the client for sending
+     *                       {@code KILL QUERY}, which will be invoked only once
+     * @param capacity       capacity of the queue, must be greater than zero
+     */
+    ProtonQueryCanceller(Supplier<ProtonClient> clientSupplier, int capacity) {
+        this.clientSupplier = ProtonChecker.nonNull(clientSupplier, "clientSupplier");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.draining = new AtomicBoolean(false);
+
+        this.client = null;
+        this.closed = false;
+    }
+
+    private void drain() {
+        do {
+            try {
+                Entry<ProtonNode, String> entry;
+                while (!closed && (entry = queue.poll()) != null) {
+                    kill(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                draining.set(false);
+            }
+            // in case there's new cancellation queued right after the last poll
+        } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void kill(ProtonNode server, String queryId) {
+        try {
+            ProtonClient c = client;
+            if (c == null) {
+                client = c = clientSupplier.get();
+                if (closed) {
+                    c.close();
+                    return;
+                }
+            }
+
+            c.connect(server).query(ProtonUtils.format("KILL QUERY WHERE query_id=%s ASYNC",
+                    ProtonValues.convertToQuotedString(queryId))).executeAndWait().close();
+            log.debug("Cancelled query [%s] on %s", queryId, server);
+        } catch (Exception e) {
+            log.debug("Failed to cancel query [%s] on %s due to: %s", queryId, server, e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels a query on server side asynchronously.
+     *
+     * @param server  server that the query was sent to
+     * @param queryId query id
+     * @return true if the cancellation has been queued; false otherwise
+     */
+    boolean cancel(ProtonNode server, String queryId) {
+        if (closed || server == null || ProtonChecker.isNullOrEmpty(queryId)) {
+            return false;
+        }
+
+        if (!queue.offer(new SimpleImmutableEntry<>(server, queryId))) {
+            log.warn("Too many pending cancellations(%d), discarded query [%s] on %s", queue.size(), queryId,
+                    server);
+            return false;
+        }
+
+        if (draining.compareAndSet(false, true)) {
+            try {
+                ProtonClient.getExecutorService().execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                log.debug("Failed to drain cancellation queue due to: %s", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+
+        ProtonClient c = client;
+        client = null;
+        if (c != null) {
+            c.close();
+        }
+    }
+}
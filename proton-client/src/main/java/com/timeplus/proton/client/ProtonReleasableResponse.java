@@ -0,0 +1,108 @@
+package com.timeplus.proton.client;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wrapper of {@link ProtonResponse}, which holds a permit(e.g. of concurrency
+ * limiter) until the response is closed, so that streaming response counts
+ * toward the limit until all data has been read or discarded.
+ */
+final class ProtonReleasableResponse implements ProtonResponse {
+    private static final long serialVersionUID = 4460185187813263745L;
+
+    /**
+     * Wraps the given response, or releases the permit right away when there's
+     * nothing to read.
+     *
+     * @param response response, could be null
+     * @param release  non-null action to release the permit
+     * @return wrapped response, or the same response when it's either null or
+     *         {@link ProtonResponse#EMPTY}
+     */
+    static ProtonResponse of(ProtonResponse response, Runnable release) {
+        if (response == null || response == ProtonResponse.EMPTY) {
+            release.run();
+            return response;
+        }
+        return new ProtonReleasableResponse(response, release);
+    }
+
+    /**
+     * Releases permits held by the given response without closing it. Wrappers
+     * like {@link ProtonCancellableResponse} are unwrapped.
+     *
+     * @param response response, could be null
+     */
+    static void release(ProtonResponse response) {
+        while (response != null) {
+            if (response instanceof ProtonReleasableResponse) {
+                ProtonReleasableResponse r = (ProtonReleasableResponse) response;
+                r.release();
+                response = r.response;
+            } else if (response instanceof ProtonCancellableResponse) {
+                response = ((ProtonCancellableResponse) response).getResponse();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private final ProtonResponse response;
+    private final transient Runnable release;
+    private final AtomicBoolean released;
+
+    private ProtonReleasableResponse(ProtonResponse response, Runnable release) {
+        this.response = ProtonChecker.nonNull(response, "response");
+        this.release = ProtonChecker.nonNull(release, "release");
+        this.released = new AtomicBoolean(false);
+    }
+
+    private void release() {
+        if (release != null && released.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+
+    @Override
+    public List<ProtonColumn> getColumns() {
+        return response.getColumns();
+    }
+
+    @Override
+    public ProtonResponseSummary getSummary() {
+        return response.getSummary();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return response.getInputStream();
+    }
+
+    @Override
+    public Iterable<ProtonRecord> records() {
+        return response.records();
+    }
+
+    @Override
+    public <T> Iterable<T> records(Class<T> clazz) {
+        return response.records(clazz);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!response.isClosed()) {
+                response.close();
+            }
+        } finally {
+            release(this);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return response.isClosed();
+    }
+}
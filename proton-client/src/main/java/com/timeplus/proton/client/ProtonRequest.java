@@ -20,6 +20,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.timeplus.proton.client.config.ProtonClientOption;
@@ -40,11 +41,16 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
      */
     public static class Mutation extends ProtonRequest<Mutation> {
         protected Mutation(ProtonRequest<?> request, boolean sealed) {
-            super(request.getClient(), request.server, sealed);
+            this(request, request.server, sealed);
+        }
+
+        Mutation(ProtonRequest<?> request, Function<ProtonNodeSelector, ProtonNode> server, boolean sealed) {
+            super(request.getClient(), server, request.cluster, sealed);
 
             this.options.putAll(request.options);
             this.settings.putAll(request.settings);
 
+            this.progressListener = request.progressListener;
             this.sessionId = request.sessionId;
         }
 
@@ -171,6 +177,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
                 req.namedParameters.putAll(namedParameters);
 
                 req.input = input;
+                req.progressListener = progressListener;
                 req.queryId = queryId;
                 req.sessionId = sessionId;
                 req.sql = sql;
@@ -180,6 +187,25 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
 
             return req;
         }
+
+        @Override
+        Mutation seal(ProtonNode node, String queryId) {
+            Mutation req = new Mutation(this, ProtonChecker.nonNull(node, "node"), true);
+            req.externalTables.addAll(externalTables);
+            req.options.putAll(options);
+            req.settings.putAll(settings);
+
+            req.namedParameters.putAll(namedParameters);
+
+            req.input = input;
+            req.progressListener = progressListener;
+            req.queryId = ProtonChecker.nonBlank(queryId, "queryId");
+            req.sessionId = sessionId;
+            req.sql = sql;
+
+            req.preparedQuery = preparedQuery;
+            return req;
+        }
     }
 
     private static final long serialVersionUID = 4990313525960702287L;
@@ -187,6 +213,8 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
     private final boolean sealed;
 
     private transient ProtonClient client;
+    // original cluster, which is unknown to sealed request otherwise
+    private final transient ProtonCluster cluster;
 
     protected final ProtonConfig clientConfig;
     protected final Function<ProtonNodeSelector, ProtonNode> server;
@@ -197,6 +225,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
     protected final Map<String, String> namedParameters;
 
     protected transient CompletableFuture<InputStream> input;
+    protected transient Consumer<ProtonResponseSummary.Progress> progressListener;
     protected String queryId;
     protected String sessionId;
     protected String sql;
@@ -206,9 +235,14 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
     protected transient ProtonConfig config;
     protected transient List<String> statements;
 
-    @SuppressWarnings("unchecked")
     protected ProtonRequest(ProtonClient client, Function<ProtonNodeSelector, ProtonNode> server,
             boolean sealed) {
+        this(client, server, server instanceof ProtonCluster ? (ProtonCluster) server : null, sealed);
+    }
+
+    @SuppressWarnings("unchecked")
+    ProtonRequest(ProtonClient client, Function<ProtonNodeSelector, ProtonNode> server, ProtonCluster cluster,
+            boolean sealed) {
         if (client == null || server == null) {
             throw new IllegalArgumentException("Non-null client and server are required");
         }
@@ -216,6 +250,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         this.client = client;
         this.clientConfig = client.getConfig();
         this.server = (Function<ProtonNodeSelector, ProtonNode> & Serializable) server::apply;
+        this.cluster = cluster;
         this.sealed = sealed;
 
         this.externalTables = new LinkedList<>();
@@ -231,6 +266,15 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         }
     }
 
+    /**
+     * Gets cluster the request was created for.
+     *
+     * @return cluster, or null when the request is for a specific node
+     */
+    ProtonCluster getCluster() {
+        return cluster;
+    }
+
     protected ProtonClient getClient() {
         if (client == null) {
             client = ProtonClient.builder().config(clientConfig).build();
@@ -264,12 +308,13 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
      * @return copy of this request
      */
     public ProtonRequest<SelfT> copy() {
-        ProtonRequest<SelfT> req = new ProtonRequest<>(getClient(), server, false);
+        ProtonRequest<SelfT> req = new ProtonRequest<>(getClient(), server, cluster, false);
         req.externalTables.addAll(externalTables);
         req.options.putAll(options);
         req.settings.putAll(settings);
         req.namedParameters.putAll(namedParameters);
         req.input = input;
+        req.progressListener = progressListener;
         req.queryId = queryId;
         req.sessionId = sessionId;
         req.sql = sql;
@@ -286,6 +331,32 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         return this.sealed;
     }
 
+    /**
+     * Checks if the request is an idempotent read, which can be safely sent to
+     * another node or more than once. Mutation, request with input stream, and
+     * request bound to a session are never idempotent.
+     *
+     * @return true if the request is an idempotent read; false otherwise
+     */
+    public boolean isIdempotent() {
+        if (this instanceof Mutation || hasInputStream() || !ProtonChecker.isNullOrEmpty(sessionId)) {
+            return false;
+        }
+
+        switch (ProtonUtils.getLeadingKeyword(getQuery())) {
+            case "DESC":
+            case "DESCRIBE":
+            case "EXISTS":
+            case "EXPLAIN":
+            case "SELECT":
+            case "SHOW":
+            case "WITH":
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Checks if the request contains any input stream.
      *
@@ -360,6 +431,24 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         return getConfig().getFormat();
     }
 
+    /**
+     * Gets priority of the request.
+     *
+     * @return priority of the request
+     */
+    public ProtonPriority getPriority() {
+        return getConfig().getPriority();
+    }
+
+    /**
+     * Gets listener of query progress.
+     *
+     * @return listener of query progress
+     */
+    public Optional<Consumer<ProtonResponseSummary.Progress>> getProgressListener() {
+        return Optional.ofNullable(progressListener);
+    }
+
     /**
      * Gets query id.
      *
@@ -664,6 +753,38 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         return (SelfT) this;
     }
 
+    /**
+     * Sets priority of the request. Requests of higher priority are sent first
+     * when all execution slots are taken, see
+     * {@link ProtonClientOption#PRIORITY_SLOTS},
+     * {@link ProtonClientOption#PRIORITY_RESERVED_SLOTS} and
+     * {@link ProtonClientOption#MAX_BULK_REQUESTS_PER_NODE}.
+     *
+     * @param priority priority, null means {@link ProtonPriority#NORMAL}
+     * @return the request itself
+     */
+    public SelfT priority(ProtonPriority priority) {
+        return option(ProtonClientOption.PRIORITY, priority != null ? priority : ProtonPriority.NORMAL);
+    }
+
+    /**
+     * Sets listener of query progress. Depending on the protocol and
+     * configuration, the listener may receive zero or more progress updates from
+     * server, in the thread getting the response, before any data being read. It
+     * should be lightweight and should not block.
+     *
+     * @param listener listener of query progress, null means no listener
+     * @return the request itself
+     */
+    @SuppressWarnings("unchecked")
+    public SelfT progress(Consumer<ProtonResponseSummary.Progress> listener) {
+        checkSealed();
+
+        this.progressListener = listener;
+
+        return (SelfT) this;
+    }
+
     /**
      * Sets an option. {@code option} is for configuring client's behaviour, while
      * {@code setting} is for server.
@@ -1327,6 +1448,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         this.namedParameters.clear();
 
         this.input = null;
+        this.progressListener = null;
         this.sql = null;
         this.preparedQuery = null;
         this.queryId = null;
@@ -1347,7 +1469,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
 
         if (!isSealed()) {
             // no idea which node we'll connect to until now
-            req = new ProtonRequest<>(client, getServer(), true);
+            req = new ProtonRequest<>(client, getServer(), cluster, true);
             req.externalTables.addAll(externalTables);
             req.options.putAll(options);
             req.settings.putAll(settings);
@@ -1355,6 +1477,7 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
             req.namedParameters.putAll(namedParameters);
 
             req.input = input;
+            req.progressListener = progressListener;
             req.queryId = queryId;
             req.sessionId = sessionId;
             req.sql = sql;
@@ -1364,6 +1487,32 @@ public class ProtonRequest<SelfT extends ProtonRequest<SelfT>> implements Serial
         return req;
     }
 
+    /**
+     * Creates a sealed request for the given node and query id. Unlike
+     * {@link #seal()}, a new sealed request will be always created.
+     *
+     * @param node    non-null node to send the request to
+     * @param queryId non-null query id
+     * @return sealed request
+     */
+    ProtonRequest<SelfT> seal(ProtonNode node, String queryId) {
+        ProtonRequest<SelfT> req = new ProtonRequest<>(getClient(), ProtonChecker.nonNull(node, "node"), cluster,
+                true);
+        req.externalTables.addAll(externalTables);
+        req.options.putAll(options);
+        req.settings.putAll(settings);
+
+        req.namedParameters.putAll(namedParameters);
+
+        req.input = input;
+        req.progressListener = progressListener;
+        req.queryId = ProtonChecker.nonBlank(queryId, "queryId");
+        req.sessionId = sessionId;
+        req.sql = sql;
+        req.preparedQuery = preparedQuery;
+        return req;
+    }
+
     /**
      * Creates a new request for mutation.
      *
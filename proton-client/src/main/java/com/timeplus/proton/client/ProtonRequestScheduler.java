@@ -0,0 +1,223 @@
+package com.timeplus.proton.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Priority scheduler of requests sent by a client. Each request, synchronous or
+ * not, holds an execution slot until the response is closed, so that streaming
+ * response counts until all data has been read, and the number of slots is
+ * {@link ProtonConfig#getPrioritySlots()}, which has nothing to do with the
+ * thread pool of the client. Higher priority requests are
+ * dispatched first, and {@link ProtonConfig#getPriorityReservedSlots()} slots
+ * are reserved for each higher priority, so that a burst of
+ * {@link ProtonPriority#BULK} requests cannot starve
+ * {@link ProtonPriority#INTERACTIVE} ones. Concurrent bulk requests to a node
+ * are further limited by {@link ProtonConfig#getMaxBulkRequestsPerNode()}.
+ * Queued requests are rejected after
+ * {@link ProtonConfig#getPriorityQueueTimeout()}, so that a caller holding all
+ * slots will not wait for itself forever.
+ */
+final class ProtonRequestScheduler {
+    static final class Waiter {
+        final CompletableFuture<Void> future;
+        final ProtonPriority priority;
+        final ProtonNode node;
+        final int slots;
+        final int bulkLimit;
+
+        Waiter(ProtonPriority priority, ProtonNode node, int slots, int bulkLimit) {
+            this.future = new CompletableFuture<>();
+            this.priority = priority;
+            this.node = node;
+            this.slots = slots;
+            this.bulkLimit = bulkLimit;
+        }
+    }
+
+    private final int capacity;
+
+    // below fields are guarded by this
+    private final List<Deque<Waiter>> lanes;
+    private final Map<ProtonNode, Integer> bulkRequests;
+    private int inFlight;
+
+    ProtonRequestScheduler(ProtonConfig config) {
+        this(config.getPrioritySlots());
+    }
+
+    ProtonRequestScheduler(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+
+        ProtonPriority[] priorities = ProtonPriority.values();
+        this.lanes = new ArrayList<>(priorities.length);
+        for (int i = 0; i < priorities.length; i++) {
+            this.lanes.add(new ArrayDeque<>());
+        }
+        this.bulkRequests = new HashMap<>();
+        this.inFlight = 0;
+    }
+
+    private boolean canStart(ProtonPriority priority, ProtonNode node, int slots, int bulkLimit) {
+        if (inFlight >= slots) {
+            return false;
+        } else if (priority == ProtonPriority.BULK && bulkLimit > 0) {
+            Integer count = bulkRequests.get(node);
+            return count == null || count < bulkLimit;
+        }
+        return true;
+    }
+
+    private void start(ProtonPriority priority, ProtonNode node) {
+        inFlight++;
+        if (priority == ProtonPriority.BULK) {
+            bulkRequests.merge(node, 1, Integer::sum);
+        }
+    }
+
+    private ProtonException newRejection(ProtonPriority priority, ProtonNode node, long timeout) {
+        return ProtonException.of(new RejectedExecutionException(ProtonUtils.format(
+                "No execution slot available for %s request within %d ms", priority, timeout)), node);
+    }
+
+    private boolean hasWaiters(ProtonPriority priority) {
+        for (int i = 0, len = priority.ordinal(); i <= len; i++) {
+            if (!lanes.get(i).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets number of execution slots available to the given priority.
+     *
+     * @param priority non-null priority
+     * @param reserved number of slots reserved for each higher priority
+     * @return number of execution slots, at least one
+     */
+    int getSlots(ProtonPriority priority, int reserved) {
+        return reserved > 0 ? Math.max(capacity - reserved * priority.ordinal(), 1) : capacity;
+    }
+
+    /**
+     * Acquires an execution slot.
+     *
+     * @param priority  non-null priority
+     * @param node      non-null node the request will be sent to
+     * @param reserved  number of slots reserved for each higher priority
+     * @param bulkLimit maximum concurrent bulk requests to the node, zero or
+     *                  negative number means no limit
+     * @param timeout   maximum time in milliseconds to wait, zero or negative
+     *                  number means to reject immediately
+     * @return non-null future, which completes when the slot is acquired, or
+     *         completes exceptionally with {@link ProtonException} caused by
+     *         {@link RejectedExecutionException} when timed out
+     */
+    CompletableFuture<Void> acquire(ProtonPriority priority, ProtonNode node, int reserved, int bulkLimit,
+            long timeout) {
+        final Waiter waiter = new Waiter(priority, node, getSlots(priority, reserved), bulkLimit);
+        synchronized (this) {
+            // requests of same or higher priority go first
+            if (!hasWaiters(priority) && canStart(priority, node, waiter.slots, bulkLimit)) {
+                start(priority, node);
+                waiter.future.complete(null);
+                return waiter.future;
+            }
+            if (timeout <= 0L) {
+                waiter.future.completeExceptionally(newRejection(priority, node, timeout));
+                return waiter.future;
+            }
+            lanes.get(priority.ordinal()).add(waiter);
+        }
+
+        ScheduledFuture<?> timer = ProtonClientBuilder.defaultScheduler.schedule(
+                () -> waiter.future.completeExceptionally(newRejection(priority, node, timeout)), timeout,
+                TimeUnit.MILLISECONDS);
+        waiter.future.whenComplete((v, e) -> {
+            timer.cancel(false);
+            if (e != null) {
+                // cancelled by caller or timed out
+                synchronized (this) {
+                    lanes.get(priority.ordinal()).remove(waiter);
+                }
+            }
+        });
+        return waiter.future;
+    }
+
+    /**
+     * Releases the execution slot and dispatches queued requests.
+     *
+     * @param priority non-null priority
+     * @param node     non-null node the request was sent to
+     */
+    void release(ProtonPriority priority, ProtonNode node) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            if (priority == ProtonPriority.BULK) {
+                bulkRequests.computeIfPresent(node, (k, v) -> v > 1 ? v - 1 : null);
+            }
+
+            for (Deque<Waiter> lane : lanes) {
+                for (Iterator<Waiter> it = lane.iterator(); it.hasNext();) {
+                    Waiter w = it.next();
+                    if (w.future.isDone()) {
+                        it.remove();
+                    } else if (canStart(w.priority, w.node, w.slots, w.bulkLimit)) {
+                        it.remove();
+                        start(w.priority, w.node);
+                        granted.add(w);
+                    } else if (inFlight >= w.slots) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (Waiter w : granted) {
+            if (!w.future.complete(null)) {
+                // cancelled by caller
+                release(w.priority, w.node);
+            }
+        }
+    }
+
+    /**
+     * Gets number of execution slots.
+     *
+     * @return number of execution slots
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets number of in-flight requests.
+     *
+     * @return number of in-flight requests
+     */
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets number of queued requests of the given priority.
+     *
+     * @param priority non-null priority
+     * @return number of queued requests
+     */
+    synchronized int getQueueSize(ProtonPriority priority) {
+        return lanes.get(priority.ordinal()).size();
+    }
+}
@@ -13,6 +13,8 @@ import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import com.timeplus.proton.client.data.ProtonRowMapper;
+
 /**
  * This encapsulates a server reponse. Depending on concrete implementation, it
  * could be either an in-memory list or a wrapped input stream with
@@ -112,6 +114,20 @@ public interface ProtonResponse extends AutoCloseable, Serializable {
      */
     Iterable<ProtonRecord> records();
 
+    /**
+     * Returns an iterable collection of objects mapped from records, using
+     * {@link ProtonRowMapper}. Same as {@link #records()}, it's not supposed to
+     * be called for more than once.
+     *
+     * @param <T>   type of the object
+     * @param clazz non-null class of the object, which must have a no-argument
+     *              constructor
+     * @return non-null iterable collection
+     */
+    default <T> Iterable<T> records(Class<T> clazz) {
+        return ProtonRowMapper.of(clazz, getColumns()).mapAll(records());
+    }
+
     /**
      * Pipes the contents of this response into the given output stream.
      *
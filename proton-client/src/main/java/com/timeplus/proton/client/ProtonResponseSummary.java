@@ -23,6 +23,7 @@ public class ProtonResponseSummary implements Serializable {
         private final long total_rows_to_read;
         private final long written_rows;
         private final long written_bytes;
+        private final long elapsed_ns;
 
         /**
          * Default constructor.
@@ -35,11 +36,27 @@ public class ProtonResponseSummary implements Serializable {
          */
         public Progress(long read_rows, long read_bytes, long total_rows_to_read, long written_rows,
                 long written_bytes) {
+            this(read_rows, read_bytes, total_rows_to_read, written_rows, written_bytes, 0L);
+        }
+
+        /**
+         * Default constructor.
+         *
+         * @param read_rows          Number of rows read
+         * @param read_bytes         Volume of data read in bytes
+         * @param total_rows_to_read Total number of rows to be read
+         * @param written_rows       Number of rows written
+         * @param written_bytes      Volume of data written in bytes
+         * @param elapsed_ns         Elapsed time in nanoseconds
+         */
+        public Progress(long read_rows, long read_bytes, long total_rows_to_read, long written_rows,
+                long written_bytes, long elapsed_ns) {
             this.read_rows = read_rows;
             this.read_bytes = read_bytes;
             this.total_rows_to_read = total_rows_to_read;
             this.written_rows = written_rows;
             this.written_bytes = written_bytes;
+            this.elapsed_ns = elapsed_ns;
         }
 
         public long getReadRows() {
@@ -61,6 +78,10 @@ public class ProtonResponseSummary implements Serializable {
         public long getWrittenBytes() {
             return written_bytes;
         }
+
+        public long getElapsedTime() {
+            return elapsed_ns;
+        }
     }
 
     /**
@@ -0,0 +1,206 @@
+package com.timeplus.proton.client;
+
+import java.io.EOFException;
+import java.net.SocketException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.timeplus.proton.client.logging.Logger;
+import com.timeplus.proton.client.logging.LoggerFactory;
+
+/**
+ * Execution of a request with retry and failover. Failed request will be
+ * retried when it failed to connect to the server(see
+ * {@link ProtonCluster#isConnectionFailure(Throwable)}), as the request was
+ * not sent at all, or when connection was reset, timed out or server was
+ * temporarily unavailable(see {@link AbstractClient#isTransientFailure(Throwable)}) but
+ * only if the request is idempotent. Errors reported by server(e.g. timeout
+ * exceeded or syntax error) are never retried, as they will most likely happen
+ * again. For request against {@link ProtonCluster}, retry goes to next healthy
+ * node unless the request is in a session.
+ *
+ * <p>
+ * When the failed query might be still running on server side, it will be
+ * killed using {@link AbstractClient#killQuery(ProtonNode, String)}, and retry
+ * on the same node uses a new query id to avoid conflict with the old one.
+ *
+ * <p>
+ * Retries are limited by {@link ProtonConfig#getMaxRetries()}(0 by default) and
+ * {@link ProtonConfig#getSocketTimeout()}, and delayed with exponential
+ * backoff starting from {@link ProtonConfig#getRetryInterval()}.
+ */
+final class ProtonRetryExecution {
+    private static final Logger log = LoggerFactory.getLogger(ProtonRetryExecution.class);
+
+    /**
+     * Checks if the given request can be retried at all. Request with input
+     * stream or external tables cannot be retried, as data cannot be read twice.
+     *
+     * @param request non-null request
+     * @return true if the request can be retried; false otherwise
+     */
+    static boolean isRetryable(ProtonRequest<?> request) {
+        return !request.hasInputStream() && request.getExternalTables().isEmpty();
+    }
+
+    /**
+     * Checks if the given error is caused by connection reset or timeout, see
+     * {@link ProtonCluster#isTimeout(Throwable)}.
+     *
+     * @param error error, could be null
+     * @return true if connection was reset or timed out; false otherwise
+     */
+    static boolean isResetOrTimeout(Throwable error) {
+        if (ProtonCluster.isTimeout(error)) {
+            return true;
+        }
+
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof SocketException || e instanceof EOFException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final AbstractClient<?> client;
+    private final ProtonCluster cluster;
+    private final ProtonRequest<?> request;
+    private final ProtonConfig config;
+
+    private final String queryId;
+    private final boolean tracking;
+    private final boolean idempotent;
+    private final boolean failover;
+    private final long deadline;
+
+    private final CompletableFuture<ProtonResponse> result;
+    private volatile CompletableFuture<ProtonResponse> current;
+    // attempts are sequential
+    private int retries;
+
+    ProtonRetryExecution(AbstractClient<?> client, ProtonRequest<?> sealedRequest) {
+        this.client = ProtonChecker.nonNull(client, "client");
+        this.request = ProtonChecker.nonNull(sealedRequest, "request");
+        this.cluster = sealedRequest.getCluster();
+        this.config = sealedRequest.getConfig();
+
+        this.queryId = sealedRequest.getQueryId().orElse(null);
+        // query id is required for cancelling the query on server side
+        this.tracking = config.getMaxQueuedCancellations() > 0;
+        this.idempotent = sealedRequest.isIdempotent();
+        // session is bound to the node
+        this.failover = cluster != null && !sealedRequest.getSessionId().isPresent();
+        int timeout = config.getSocketTimeout();
+        this.deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0L;
+
+        this.result = new CompletableFuture<>();
+        this.retries = 0;
+    }
+
+    private boolean shouldRetry(Throwable error) {
+        return ProtonCluster.isConnectionFailure(error)
+                || (idempotent && (isResetOrTimeout(error) || client.isTransientFailure(error)));
+    }
+
+    private void attempt(ProtonRequest<?> req, boolean first) {
+        CompletableFuture<ProtonResponse> future;
+        if (first) {
+            // same as before, exception will be thrown directly
+            future = tracking ? client.track(req, client.observe(req)) : client.observe(req);
+        } else {
+            try {
+                future = tracking ? client.track(req, client.observe(req)) : client.observe(req);
+            } catch (Exception e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+        }
+
+        current = future;
+        future.whenComplete((r, e) -> {
+            if (e == null) {
+                if (!result.complete(r)) {
+                    // cancelled by caller
+                    AbstractClient.closeQuietly(r);
+                }
+            } else if (!result.isDone() && !retry(req, e)) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private boolean retry(ProtonRequest<?> failed, Throwable error) {
+        if (retries >= config.getMaxRetries() || !shouldRetry(error)) {
+            return false;
+        }
+
+        int interval = config.getRetryInterval();
+        long delay = ProtonHealthChecker.getBackoffDelay(retries, interval, Long.MAX_VALUE);
+        if (deadline != 0L && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadline >= 0L) {
+            return false;
+        }
+        retries++;
+
+        final ProtonNode failedNode = failed.getServer();
+        String id = failed.getQueryId().orElse(null);
+        // the failed query was sent and might be still running, unless failed to connect
+        final boolean running = !ProtonCluster.isConnectionFailure(error);
+        if (running && id != null) {
+            client.killQuery(failedNode, id);
+        }
+
+        ProtonNode node = failover ? cluster.next(config.getNodeSelector(), failedNode) : null;
+        if (node == null) {
+            node = failedNode;
+        }
+        // generated query id is never reused, and neither is the given one when the
+        // failed query might be still running on the same node
+        if (id != null && (queryId == null || (running && node.equals(failedNode)))) {
+            id = UUID.randomUUID().toString();
+        }
+        final ProtonRequest<?> req = id == null && node.equals(request.getServer()) ? request
+                : request.seal(node, id != null ? id : UUID.randomUUID().toString());
+        log.debug("Retrying(%d/%d) on %s in %d ms due to: %s", retries, config.getMaxRetries(), node, delay,
+                error.getMessage());
+
+        if (config.isAsync()) {
+            ProtonClientBuilder.defaultScheduler.schedule(() -> {
+                if (!result.isDone()) {
+                    attempt(req, false);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } else {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            attempt(req, false);
+        }
+        return true;
+    }
+
+    /**
+     * Executes the request.
+     *
+     * @return non-null future to get response
+     */
+    CompletableFuture<ProtonResponse> execute() {
+        ProtonRequest<?> req = request;
+        if (tracking && queryId == null) {
+            req = request.seal(request.getServer(), UUID.randomUUID().toString());
+        }
+        attempt(req, true);
+
+        result.whenComplete((r, e) -> {
+            CompletableFuture<ProtonResponse> f = current;
+            if (result.isCancelled() && f != null) {
+                f.cancel(false);
+            }
+        });
+        return result;
+    }
+}
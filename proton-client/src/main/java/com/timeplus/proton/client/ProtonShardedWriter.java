@@ -0,0 +1,369 @@
+package com.timeplus.proton.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import com.timeplus.proton.client.ProtonRequest.Mutation;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.data.ProtonCityHash;
+import com.timeplus.proton.client.data.ProtonPipedStream;
+
+/**
+ * Writer routes each row to its shard, according to sharding key of the row.
+ * It maintains one streaming insert for each shard, so that rows are written
+ * directly into the shard instead of going through a distributed stream on
+ * server side. Shards are nodes of the cluster in the order they were added,
+ * and like distributed stream, the row goes to a shard by
+ * {@code hash(key) % sum(weight)}, see {@link ProtonNode#getWeight()}.
+ *
+ * <p>
+ * Shards are fixed regardless of node status, so that a row always goes to the
+ * same shard. Writing into an unhealthy shard fails instead, and writing into a
+ * shard not reading data blocks for at most
+ * {@link ProtonConfig#getSocketTimeout()}.
+ *
+ * <p>
+ * It's NOT thread-safe, but inserts of different shards run in parallel.
+ *
+ * @param <T> type of row
+ */
+public class ProtonShardedWriter<T> implements Closeable {
+    /**
+     * Function for calculating hash of sharding key.
+     */
+    public enum ShardingFunction {
+        /**
+         * Same as {@code cityHash64(key)}. Byte array will be used as is, and
+         * other types of keys, except number and boolean, will be converted to
+         * UTF-8 string first. Like server, number(as well as boolean) is not hashed
+         * by CityHash but {@code intHash64} of its bits, so its type must have same
+         * width as the column, for example: {@link Integer} for int32 and uint32,
+         * {@link Long} for int64 and uint64.
+         */
+        CITY_HASH_64 {
+            @Override
+            long hash(Object key) {
+                if (key instanceof Number || key instanceof Boolean) {
+                    return intHash64(toBits(key) ^ INT_HASH_64_SEED);
+                }
+
+                byte[] bytes = key instanceof byte[] ? (byte[]) key
+                        : String.valueOf(key).getBytes(StandardCharsets.UTF_8);
+                return ProtonCityHash.cityHash64(bytes, 0, bytes.length);
+            }
+        },
+        /**
+         * Same as {@code key % sum(weight)}, only applicable to numeric keys, which
+         * are treated as unsigned 64-bit integers.
+         */
+        MODULO {
+            @Override
+            long hash(Object key) {
+                if (!(key instanceof Number)) {
+                    throw new IllegalArgumentException(
+                            ProtonUtils.format("Numeric sharding key is required but we got [%s]", key));
+                }
+                return ((Number) key).longValue();
+            }
+        };
+
+        abstract long hash(Object key);
+    }
+
+    /**
+     * Function for writing a row into output stream, using format of the
+     * request(e.g. {@link ProtonFormat#RowBinary}).
+     *
+     * @param <T> type of row
+     */
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        /**
+         * Writes the row into output stream.
+         *
+         * @param row    row to write
+         * @param output non-null output stream
+         * @throws IOException when failed to write data
+         */
+        void write(T row, OutputStream output) throws IOException;
+    }
+
+    /**
+     * Streaming insert of a shard.
+     */
+    private static final class Shard {
+        final ProtonNode node;
+        final ProtonPipedStream stream;
+        final CompletableFuture<ProtonResponse> future;
+
+        Shard(ProtonNode node, ProtonPipedStream stream, CompletableFuture<ProtonResponse> future) {
+            this.node = node;
+            this.stream = stream;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Creates a sharded writer.
+     *
+     * @param <T>          type of row
+     * @param request      non-null mutation request with table and format, nodes
+     *                     of the cluster it connected to will be used as shards,
+     *                     see {@link ProtonCluster#getNodes()}
+     * @param keyExtractor non-null function to extract sharding key from row
+     * @param function     non-null sharding function
+     * @param writer       non-null function to write row
+     * @return sharded writer
+     */
+    public static <T> ProtonShardedWriter<T> of(Mutation request, Function<T, ?> keyExtractor,
+            ShardingFunction function, RowWriter<T> writer) {
+        ProtonCluster cluster = ProtonChecker.nonNull(request, "request").getCluster();
+        // nodes in the order they were defined, so that mapping never changes
+        List<ProtonNode> nodes = cluster != null ? cluster.getNodes()
+                : Collections.singletonList(request.getServer());
+        return new ProtonShardedWriter<>(request, nodes, keyExtractor, function, writer);
+    }
+
+    // same as IntHash64Impl on server side
+    static final long INT_HASH_64_SEED = 0x4CF2D2BAAE6DA887L;
+
+    /**
+     * Same as {@code intHash64()} on server side, which is the finalizer of
+     * MurmurHash3.
+     *
+     * @param x value to hash
+     * @return hash
+     */
+    static long intHash64(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * Gets bits of the given number as an unsigned 64-bit integer, the same way
+     * as server does when hashing a number, that is, bits of narrower type are
+     * zero-extended instead of sign-extended.
+     *
+     * @param value non-null number or boolean
+     * @return bits of the value
+     * @throws IllegalArgumentException when width of the number is unknown
+     */
+    static long toBits(Object value) {
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? 1L : 0L;
+        } else if (value instanceof Byte) {
+            return ((Byte) value).byteValue() & 0xFFL;
+        } else if (value instanceof Short) {
+            return ((Short) value).shortValue() & 0xFFFFL;
+        } else if (value instanceof Integer) {
+            return ((Integer) value).intValue() & 0xFFFFFFFFL;
+        } else if (value instanceof Long) {
+            return ((Long) value).longValue();
+        } else if (value instanceof Float) {
+            return Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL;
+        } else if (value instanceof Double) {
+            return Double.doubleToRawLongBits((Double) value);
+        } else {
+            throw new IllegalArgumentException(ProtonUtils.format(
+                    "Unsupported numeric sharding key [%s] of %s, please use byte array instead", value,
+                    value.getClass()));
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private final Mutation request;
+    private final ProtonCluster cluster;
+    private final ProtonNode[] nodes;
+    private final long[] thresholds;
+    private final Function<T, ?> keyExtractor;
+    private final ShardingFunction function;
+    private final RowWriter<T> writer;
+
+    private final Shard[] shards;
+    private boolean closed;
+
+    protected ProtonShardedWriter(Mutation request, List<ProtonNode> nodes, Function<T, ?> keyExtractor,
+            ShardingFunction function, RowWriter<T> writer) {
+        this.request = ProtonChecker.nonNull(request, "request");
+        this.cluster = request.getCluster();
+        this.keyExtractor = ProtonChecker.nonNull(keyExtractor, "keyExtractor");
+        this.function = ProtonChecker.nonNull(function, "function");
+        this.writer = ProtonChecker.nonNull(writer, "writer");
+
+        int size = ProtonChecker.nonNull(nodes, "nodes").size();
+        if (size == 0) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.nodes = nodes.toArray(new ProtonNode[size]);
+        this.thresholds = new long[size];
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            // shard with zero weight receives nothing
+            total += Math.max(this.nodes[i].getWeight(), 0);
+            thresholds[i] = total;
+        }
+        if (total == 0L) {
+            throw new IllegalArgumentException("At least one shard should have positive weight");
+        }
+
+        this.shards = new Shard[size];
+        this.closed = false;
+    }
+
+    /**
+     * Gets index of the shard, which the given sharding key belongs to.
+     *
+     * @param key sharding key
+     * @return index of the shard
+     */
+    protected int getShardIndex(Object key) {
+        long slot = Long.remainderUnsigned(function.hash(key), thresholds[thresholds.length - 1]);
+        for (int i = 0; i < thresholds.length; i++) {
+            if (slot < thresholds[i]) {
+                return i;
+            }
+        }
+        // should never happen
+        return thresholds.length - 1;
+    }
+
+    /**
+     * Starts streaming insert of the given shard.
+     *
+     * @param node non-null shard
+     * @return non-null streaming insert
+     * @throws IOException when the shard is unhealthy
+     */
+    private Shard newShard(ProtonNode node) throws IOException {
+        if (cluster != null && !cluster.isHealthy(node)) {
+            // rows cannot go to other shards
+            throw new IOException(ProtonUtils.format("Shard %s is unavailable", node));
+        }
+
+        Mutation m = new Mutation(request, node, false);
+        m.sql = request.sql;
+        ProtonConfig c = m.getConfig();
+        // reader of the stream may never come, so writing must not block forever
+        int timeout = c.getSocketTimeout();
+        ProtonPipedStream stream = new ProtonPipedStream(c.getMaxBufferSize(), c.getMaxQueuedBuffers(),
+                timeout > 0 ? timeout : (int) ProtonClientOption.SOCKET_TIMEOUT.getDefaultValue());
+        m.data(stream.getInput());
+        // the insert has to read data in a separate thread
+        CompletableFuture<ProtonResponse> future = m.getConfig().isAsync() ? m.execute()
+                : CompletableFuture.supplyAsync(m::execute, ProtonClient.getExecutorService())
+                        .thenCompose(Function.identity());
+        return new Shard(node, stream, future);
+    }
+
+    /**
+     * Writes a row into its shard.
+     *
+     * @param row row to write
+     * @throws IOException when failed to write data
+     */
+    public void write(T row) throws IOException {
+        if (closed) {
+            throw new IOException("Writer has been closed");
+        }
+
+        int index = getShardIndex(keyExtractor.apply(row));
+        Shard shard = shards[index];
+        if (shard == null) {
+            shards[index] = shard = newShard(nodes[index]);
+        } else if (shard.future.isCompletedExceptionally()) {
+            throw new IOException(ProtonUtils.format("Insert into shard %s failed", shard.node),
+                    unwrap(shard.future.handle((r, e) -> e).getNow(null)));
+        }
+
+        try {
+            writer.write(row, shard.stream);
+        } catch (IOException e) {
+            throw new IOException(ProtonUtils.format("Failed to write into shard %s", shard.node), e);
+        }
+    }
+
+    /**
+     * Flushes buffered data of all shards.
+     *
+     * @throws IOException when failed to flush data
+     */
+    public void flush() throws IOException {
+        for (Shard shard : shards) {
+            if (shard != null) {
+                shard.stream.flush();
+            }
+        }
+    }
+
+    /**
+     * Ends streaming inserts and waits for their responses.
+     *
+     * @return non-null summaries, one for each shard has data
+     * @throws IOException when failed to insert data into any shard
+     */
+    public List<ProtonResponseSummary> finish() throws IOException {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        closed = true;
+
+        IOException error = null;
+        for (Shard shard : shards) {
+            if (shard != null) {
+                try {
+                    shard.stream.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+
+        List<ProtonResponseSummary> summaries = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            if (shard == null) {
+                continue;
+            }
+
+            try (ProtonResponse response = shard.future.get()) {
+                summaries.add(response.getSummary());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Thread was interrupted", e);
+            } catch (Exception e) {
+                if (error == null) {
+                    error = new IOException(ProtonUtils.format("Insert into shard %s failed", shard.node),
+                            unwrap(e));
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+        return summaries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+}
@@ -10,6 +10,7 @@ import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayDeque;
@@ -565,6 +566,31 @@ public final class ProtonUtils {
         return service;
     }
 
+    /**
+     * Gets last modified time of the given file, which is searched in current
+     * directory and then home directory, same as
+     * {@link #getFileInputStream(String)}.
+     *
+     * @param file path to the file, could be null
+     * @return last modified time in milliseconds, or 0L if the file is not found
+     *         on file system(e.g. it's in classpath)
+     */
+    public static long getFileLastModified(String file) {
+        if (ProtonChecker.isNullOrEmpty(file)) {
+            return 0L;
+        }
+
+        try {
+            Path path = Paths.get(file);
+            if (!Files.exists(path) && !path.isAbsolute()) {
+                path = Paths.get(HOME_DIR, file);
+            }
+            return Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0L;
+        } catch (IOException | InvalidPathException e) {
+            return 0L;
+        }
+    }
+
     /**
      * Search file in current directory, home directory, and then classpath, Get
      * input stream to read the given file.
@@ -706,6 +732,45 @@ public final class ProtonUtils {
         return builder.toString();
     }
 
+    /**
+     * Gets leading keyword of the given query, after skipping whitespaces,
+     * comments and opening brackets.
+     *
+     * @param sql query, could be null
+     * @return non-null upper-cased keyword, empty string when there's none
+     */
+    public static String getLeadingKeyword(String sql) {
+        if (sql == null || sql.isEmpty()) {
+            return "";
+        }
+
+        int len = sql.length();
+        int startIndex = -1;
+        for (int i = 0; i < len; i++) {
+            char ch = sql.charAt(i);
+            char nextCh = i + 1 < len ? sql.charAt(i + 1) : '\0';
+
+            if (ch == '-' && nextCh == '-') {
+                i = skipSingleLineComment(sql, i + 2, len) - 1;
+            } else if (ch == '/' && nextCh == '*') {
+                i = skipMultiLineComment(sql, i + 2, len) - 1;
+            } else if (!Character.isWhitespace(ch) && ch != '(') {
+                startIndex = i;
+                break;
+            }
+        }
+
+        if (startIndex < 0) {
+            return "";
+        }
+
+        int endIndex = startIndex;
+        while (endIndex < len && Character.isLetter(sql.charAt(endIndex))) {
+            endIndex++;
+        }
+        return sql.substring(startIndex, endIndex).toUpperCase(Locale.ROOT);
+    }
+
     public static String getProperty(String key, Properties... props) {
         return getProperty(key, null, props);
     }
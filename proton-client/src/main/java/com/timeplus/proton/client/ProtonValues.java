@@ -45,6 +45,7 @@ import com.timeplus.proton.client.data.ProtonGeoRingValue;
 import com.timeplus.proton.client.data.ProtonIntegerValue;
 import com.timeplus.proton.client.data.ProtonIpv4Value;
 import com.timeplus.proton.client.data.ProtonIpv6Value;
+import com.timeplus.proton.client.data.ProtonLongDecimalValue;
 import com.timeplus.proton.client.data.ProtonLongValue;
 import com.timeplus.proton.client.data.ProtonMapValue;
 import com.timeplus.proton.client.data.ProtonNestedValue;
@@ -1028,9 +1029,12 @@ public final class ProtonValues {
             case float64:
                 value = ProtonDoubleValue.ofNull();
                 break;
-            case decimal:
             case decimal32:
             case decimal64:
+                value = column == null ? ProtonBigDecimalValue.ofNull()
+                        : ProtonLongDecimalValue.ofNull(column.getScale());
+                break;
+            case decimal:
             case decimal128:
             case decimal256:
                 value = ProtonBigDecimalValue.ofNull();
@@ -54,6 +54,63 @@ public enum ProtonClientOption implements ProtonOption {
      */
     DECOMPRESS_LEVEL("decompress_level", 3, "Compression level for request, from 0 to 9(low to high)"),
 
+    /**
+     * Delay in milliseconds for reading remaining data when closing a response
+     * early, before cancelling the query on server side.
+     */
+    CANCEL_DELAY("cancel_delay", 1000,
+            "Delay in milliseconds for reading remaining data when closing a response early, before cancelling the query on server side."),
+    /**
+     * Number of recent calls to a node kept in sliding window of its circuit
+     * breaker, 0 or negative number(default) means no circuit breaker.
+     */
+    CIRCUIT_BREAKER_WINDOW_SIZE("circuit_breaker_window_size", 0,
+            "Number of recent calls to a node kept in sliding window of its circuit breaker, 0 or negative number means no circuit breaker."),
+    /**
+     * Minimum number of calls in the sliding window before calculating error rate
+     * and slow call rate.
+     */
+    CIRCUIT_BREAKER_MIN_CALLS("circuit_breaker_min_calls", 20,
+            "Minimum number of calls in the sliding window before calculating error rate and slow call rate."),
+    /**
+     * Error rate(1 to 100) of calls in the sliding window, which opens the
+     * circuit breaker.
+     */
+    CIRCUIT_BREAKER_FAILURE_RATE("circuit_breaker_failure_rate", 50,
+            "Error rate(1 to 100) of calls in the sliding window, which opens the circuit breaker. Only connection failures and timeouts are considered as errors."),
+    /**
+     * Duration in milliseconds for a call to be considered as slow, 0 or negative
+     * number means no slow call detection.
+     */
+    CIRCUIT_BREAKER_SLOW_CALL_DURATION("circuit_breaker_slow_call_duration", 0,
+            "Duration in milliseconds for a call to be considered as slow, 0 or negative number means no slow call detection."),
+    /**
+     * Slow call rate(1 to 100) of calls in the sliding window, which opens the
+     * circuit breaker.
+     */
+    CIRCUIT_BREAKER_SLOW_CALL_RATE("circuit_breaker_slow_call_rate", 100,
+            "Slow call rate(1 to 100) of calls in the sliding window, which opens the circuit breaker."),
+    /**
+     * Duration in milliseconds an open circuit breaker waits before half-open.
+     */
+    CIRCUIT_BREAKER_WAIT_DURATION("circuit_breaker_wait_duration", 30000,
+            "Duration in milliseconds an open circuit breaker waits before half-open."),
+    /**
+     * Number of trial calls permitted when circuit breaker is half-open.
+     */
+    CIRCUIT_BREAKER_HALF_OPEN_CALLS("circuit_breaker_half_open_calls", 3,
+            "Number of trial calls permitted when circuit breaker is half-open, all of them must succeed to close the circuit breaker."),
+    /**
+     * Maximum concurrent requests to a node, 0 or negative number means no limit.
+     */
+    CONCURRENCY_LIMIT("concurrency_limit", 0,
+            "Maximum concurrent requests to a node, actual limit is adjusted adaptively based on observed latency. 0 or negative number means no limit."),
+    /**
+     * Maximum time in milliseconds to wait when a node reached its concurrency
+     * limit.
+     */
+    CONCURRENCY_QUEUE_TIMEOUT("concurrency_queue_timeout", 0,
+            "Maximum time in milliseconds to wait when a node reached its concurrency limit, 0 or negative number means to reject immediately."),
     /**
      * Connection timeout in milliseconds.
      */
@@ -63,10 +120,53 @@ public enum ProtonClientOption implements ProtonOption {
      * Default database.
      */
     DATABASE("database", "", "Default database."),
+    /**
+     * Number of consecutive connection failures before marking a node in the
+     * cluster as unhealthy, 0 or negative number(default) means no passive health
+     * check.
+     */
+    FAILURE_THRESHOLD("failure_threshold", 0,
+            "Number of consecutive connection failures before marking a node in the cluster as unhealthy, 0 or negative number means no passive health check."),
     /**
      * Default format.
      */
     FORMAT("format", ProtonFormat.TabSeparated, "Default format."),
+    /**
+     * Initial interval in milliseconds for checking an unhealthy node in the
+     * cluster, which grows exponentially(with jitter) after each failed check.
+     */
+    HEALTH_CHECK_INTERVAL("health_check_interval", 3000,
+            "Initial interval in milliseconds for checking an unhealthy node in the cluster, which grows exponentially(with jitter) after each failed check."),
+    /**
+     * Maximum interval in milliseconds for checking an unhealthy node in the
+     * cluster.
+     */
+    HEALTH_CHECK_MAX_INTERVAL("health_check_max_interval", 60000,
+            "Maximum interval in milliseconds for checking an unhealthy node in the cluster."),
+    /**
+     * Query for checking an unhealthy node in the cluster, empty string means
+     * ping.
+     */
+    HEALTH_CHECK_QUERY("health_check_query", "",
+            "Query for checking an unhealthy node in the cluster, empty string means ping."),
+    /**
+     * Delay in milliseconds before sending the same read-only query to another
+     * node in the cluster, 0 or negative number means no hedging.
+     */
+    HEDGE_DELAY("hedge_delay", 0,
+            "Delay in milliseconds before sending the same read-only query to another node in the cluster, 0 or negative number means no hedging."),
+    /**
+     * Percentile(1 to 99) of recent response latencies used as hedge delay, 0
+     * means always use {@link #HEDGE_DELAY}.
+     */
+    HEDGE_PERCENTILE("hedge_percentile", 0,
+            "Percentile(1 to 99) of recent response latencies used as hedge delay, 0 means always use hedge_delay."),
+    /**
+     * Initial concurrency limit of a node, only works when
+     * {@link #CONCURRENCY_LIMIT} is greater than zero.
+     */
+    INITIAL_CONCURRENCY_LIMIT("initial_concurrency_limit", 20,
+            "Initial concurrency limit of a node, only works when concurrency_limit is greater than zero."),
     /**
      * Whether to log leading comment(as log_comment in system.query_log) of the
      * query.
@@ -77,6 +177,12 @@ public enum ProtonClientOption implements ProtonOption {
      * Maximum buffer size in byte used for streaming.
      */
     MAX_BUFFER_SIZE("max_buffer_size", 8 * 1024, "Maximum buffer size in byte used for streaming."),
+    /**
+     * Maximum concurrent requests of {@link ProtonPriority#BULK} priority to a
+     * node.
+     */
+    MAX_BULK_REQUESTS_PER_NODE("max_bulk_requests_per_node", 0,
+            "Maximum concurrent requests of BULK priority to a node, 0 or negative number means no limit."),
     /**
      * Maximum comression block size in byte, only useful when {@link #DECOMPRESS}
      * is {@code true}.
@@ -91,6 +197,13 @@ public enum ProtonClientOption implements ProtonOption {
      */
     MAX_QUEUED_BUFFERS("max_queued_buffers", 0,
             "Maximum queued in-memory buffers, 0 or negative number means no limit."),
+    /**
+     * Maximum queued cancellations of abandoned queries. It's disabled by
+     * default, set to a positive number to cancel abandoned queries on server
+     * side.
+     */
+    MAX_QUEUED_CANCELLATIONS("max_queued_cancellations", 0,
+            "Maximum queued cancellations(KILL QUERY) of abandoned queries, 0 or negative number means no cancellation on server side."),
     /**
      * Maxium queued requests. When {@link #MAX_THREADS_PER_CLIENT} is greater than
      * zero, this will also be applied to client's thread pool as well.
@@ -102,15 +215,54 @@ public enum ProtonClientOption implements ProtonOption {
     MAX_RESULT_ROWS("max_result_rows", 0L,
             "Limit on the number of rows in the result."
                     + "Also checked for subqueries, and on remote servers when running parts of a distributed query."),
+    /**
+     * Maximum retries of a failed request. Retry is opt-in, as a retried query
+     * runs again on server side.
+     */
+    MAX_RETRIES("max_retries", 0,
+            "Maximum retries of a failed request, only works when retry is enabled. 0 or negative number means no retry."),
     /**
      * Maximum size of thread pool for each client.
      */
     MAX_THREADS_PER_CLIENT("max_threads_per_client", 0,
             "Size of thread pool for each client instance, 0 or negative number means the client will use shared thread pool."),
+    /**
+     * Priority of the request.
+     */
+    PRIORITY("priority", ProtonPriority.NORMAL,
+            "Priority of the request, one of INTERACTIVE, NORMAL and BULK. Only works when priority_reserved_slots or max_bulk_requests_per_node is greater than zero."),
+    /**
+     * Maximum time in milliseconds to wait for an execution slot, see
+     * {@link #PRIORITY_SLOTS}. As a slot is held until the response is closed,
+     * the request is rejected instead of waiting forever, for example, when the
+     * caller issues nested queries while reading results.
+     */
+    PRIORITY_QUEUE_TIMEOUT("priority_queue_timeout", 30 * 1000,
+            "Maximum time in milliseconds to wait for an execution slot when priority_reserved_slots or max_bulk_requests_per_node is greater than zero, 0 or negative number means to reject immediately."),
+    /**
+     * Number of execution slots reserved for each higher priority, see
+     * {@link #PRIORITY_SLOTS}.
+     */
+    PRIORITY_RESERVED_SLOTS("priority_reserved_slots", 0,
+            "Number of execution slots reserved for each higher priority - INTERACTIVE requests may use all slots, while NORMAL requests cannot use the last N slots and BULK requests cannot use the last 2N. 0 or negative number means no reservation."),
+    /**
+     * Number of execution slots of a client, that is, maximum concurrent requests
+     * when {@link #PRIORITY_RESERVED_SLOTS} or
+     * {@link #MAX_BULK_REQUESTS_PER_NODE} is greater than zero. A slot is held
+     * until the response is closed, regardless of the thread pool and whether
+     * the request is synchronous or not.
+     */
+    PRIORITY_SLOTS("priority_slots", 32,
+            "Number of execution slots of a client, that is, maximum concurrent requests when priority_reserved_slots or max_bulk_requests_per_node is greater than zero. A slot is held until the response is closed."),
     /**
      * Whether to enable retry.
      */
     RETRY("retry", true, "Whether to retry when there's connection issue."),
+    /**
+     * Initial interval in milliseconds between retries.
+     */
+    RETRY_INTERVAL("retry_interval", 100,
+            "Initial interval in milliseconds between retries, which grows exponentially with jitter."),
     /**
      * Whether to reuse wrapper of value(e.g. ProtonValue or
      * ProtonRecord) for memory efficiency.
@@ -159,6 +311,22 @@ public enum ProtonClientOption implements ProtonOption {
      * SSL key.
      */
     SSL_KEY("sslkey", "", "SSL/TLS key."),
+    /**
+     * Comma separated names of string columns, whose values will be deduplicated
+     * using a per-column dictionary.
+     */
+    STRING_DICTIONARY_COLUMNS("string_dictionary_columns", "",
+            "Comma separated names of string columns, whose values will be deduplicated using a per-column dictionary, for example: status,country."),
+    /**
+     * Whether to deduplicate values of low_cardinality string columns.
+     */
+    STRING_DICTIONARY_FOR_LOW_CARDINALITY("string_dictionary_for_low_cardinality", false,
+            "Whether to deduplicate values of low_cardinality string columns using a per-column dictionary."),
+    /**
+     * Maximum number of distinct values kept in dictionary of a string column.
+     */
+    STRING_DICTIONARY_SIZE("string_dictionary_size", 256,
+            "Maximum number of distinct values kept in dictionary of a string column, values not in the dictionary will be read as usual once it's full."),
     /**
      * Whether to use objects in array or not.
      */
@@ -181,7 +349,18 @@ public enum ProtonClientOption implements ProtonOption {
      * false.
      */
     USE_TIME_ZONE("use_time_zone", "", "Time zone of all DateTime* values. "
-            + "Only used when use_server_time_zone is false. Empty value means client time zone.");
+            + "Only used when use_server_time_zone is false. Empty value means client time zone."),
+    /**
+     * Zone of the client. Nodes tagged with same zone are preferred, and other
+     * nodes will be used only when no node in the zone is available.
+     */
+    ZONE("zone", "",
+            "Zone of the client, nodes tagged with same zone are preferred. Empty value means no zone affinity."),
+    /**
+     * Maximum in-flight requests to the zone.
+     */
+    ZONE_MAX_IN_FLIGHT("zone_max_in_flight", 0,
+            "Maximum in-flight requests to nodes in the zone before spilling over to other zones, 0 or negative number means no limit.");
 
     private final String key;
     private final Serializable defaultValue;
@@ -11,7 +11,11 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
@@ -23,6 +27,38 @@ import com.timeplus.proton.client.ProtonSslContextProvider;
 import com.timeplus.proton.client.ProtonUtils;
 
 public class ProtonDefaultSslContextProvider implements ProtonSslContextProvider {
+    /**
+     * SSL context along with last modified time of the files it was built from.
+     */
+    private static final class CachedContext {
+        final List<Long> versions;
+        final SSLContext context;
+
+        CachedContext(List<Long> versions, SSLContext context) {
+            this.versions = versions;
+            this.context = context;
+        }
+    }
+
+    /**
+     * SSL contexts shared among connections using same SSL configuration. Reusing
+     * the context avoids reloading certificates for each connection, and more
+     * importantly, it keeps the client session cache so that TLS sessions can be
+     * resumed instead of doing full handshake every time. There's only one
+     * context for each configuration, and it will be replaced once any of the
+     * files is changed.
+     */
+    private static final Map<List<Object>, CachedContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * Removes all cached SSL contexts, so that they will be built again on next
+     * use. This is useful when certificates were replaced without changing last
+     * modified time of the files.
+     */
+    public static void clearCache() {
+        contexts.clear();
+    }
+
     /**
      * An insecure {@link javax.net.ssl.TrustManager}, that don't validate the
      * certificate.
@@ -102,10 +138,44 @@ public class ProtonDefaultSslContextProvider implements ProtonSslContextProvider
         return ctx;
     }
 
+    /**
+     * Gets cached SSL context, or builds a new one using
+     * {@link #getJavaSslContext(ProtonConfig)} if it's not in cache or any of the
+     * certificate and key files has been changed since it was built.
+     *
+     * @param config non-null configuration
+     * @return non-null SSL context
+     * @throws SSLException when failed to build SSL context
+     */
+    protected SSLContext getCachedSslContext(ProtonConfig config) throws SSLException {
+        List<Object> key = Arrays.asList(getClass(), config.getSslMode(), config.getSslRootCert(),
+                config.getSslCert(), config.getSslKey());
+        List<Long> versions = Arrays.asList(ProtonUtils.getFileLastModified(config.getSslRootCert()),
+                ProtonUtils.getFileLastModified(config.getSslCert()),
+                ProtonUtils.getFileLastModified(config.getSslKey()));
+        CachedContext existing = contexts.get(key);
+        if (existing != null && existing.versions.equals(versions)) {
+            return existing.context;
+        }
+
+        // failed attempt will not be cached
+        CachedContext created = new CachedContext(versions, getJavaSslContext(config));
+        if (existing == null ? contexts.putIfAbsent(key, created) != null
+                : !contexts.replace(key, existing, created)) {
+            // built by another thread at the same time
+            existing = contexts.get(key);
+            if (existing != null && existing.versions.equals(versions)) {
+                return existing.context;
+            }
+        }
+        return created.context;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> Optional<T> getSslContext(Class<? extends T> sslContextClass, ProtonConfig config)
             throws SSLException {
-        return SSLContext.class == sslContextClass ? Optional.of((T) getJavaSslContext(config)) : Optional.empty();
+        return SSLContext.class == sslContextClass ? Optional.of((T) getCachedSslContext(config))
+                : Optional.empty();
     }
 }
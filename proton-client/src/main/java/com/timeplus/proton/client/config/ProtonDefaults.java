@@ -88,7 +88,18 @@ public enum ProtonDefaults implements ProtonOption {
      * {@link SrvResolver}(e.g. resolve SRV record to
      * extract both host and port from a given name).
      */
-    SRV_RESOLVE("srv_resolve", false, "Whether to resolve DNS SRV name.");
+    SRV_RESOLVE("srv_resolve", false, "Whether to resolve DNS SRV name."),
+    /**
+     * Maximum time in seconds to cache resolved DNS names, defaults to 60 seconds.
+     */
+    DNS_CACHE_TTL("dns_cache_ttl", 60,
+            "Maximum time in seconds to cache resolved DNS names, smaller TTL of the record takes precedence. 0 or negative number means no cache."),
+    /**
+     * Time in seconds to serve expired DNS names when failed to resolve, defaults
+     * to 300 seconds.
+     */
+    DNS_STALE_TTL("dns_stale_ttl", 300,
+            "Time in seconds to serve expired DNS names when failed to resolve, 0 or negative number means never serve expired names.");
 
     private final String key;
     private final Serializable defaultValue;
@@ -14,7 +14,6 @@ import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -22,6 +21,7 @@ import java.time.ZoneOffset;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import com.timeplus.proton.client.ProtonByteBuffer;
 import com.timeplus.proton.client.ProtonChecker;
 import com.timeplus.proton.client.ProtonDataType;
 import com.timeplus.proton.client.ProtonInputStream;
@@ -598,6 +598,18 @@ public final class BinaryStreamUtils {
         output.write(reverse(value.getAddress()));
     }
 
+    /**
+     * Write IPv4 address to given output stream.
+     *
+     * @param output non-null output stream
+     * @param bits   address as 32 bits in network byte order
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeInet4Address(OutputStream output, int bits) throws IOException {
+        writeInt32(output, bits);
+    }
+
     /**
      * Read Inet6Address from given input stream.
      *
@@ -622,6 +634,22 @@ public final class BinaryStreamUtils {
         output.write(value.getAddress());
     }
 
+    /**
+     * Write IPv6 address to given output stream.
+     *
+     * @param output   non-null output stream
+     * @param highBits first 64 bits of the address in network byte order
+     * @param lowBits  last 64 bits of the address in network byte order
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeInet6Address(OutputStream output, long highBits, long lowBits) throws IOException {
+        byte[] bytes = new byte[16];
+        setInt64(bytes, 0, Long.reverseBytes(highBits));
+        setInt64(bytes, 8, Long.reverseBytes(lowBits));
+        output.write(bytes);
+    }
+
     /**
      * Read a byte from given input stream. Same as
      * {@link ProtonInputStream#readByte()}.
@@ -1017,8 +1045,10 @@ public final class BinaryStreamUtils {
      *                     end of the stream
      */
     public static UUID readUuid(ProtonInputStream input) throws IOException {
-        byte[] bytes = input.readBytes(16);
-        return new UUID(toInt64(bytes, 0), toInt64(bytes, 8));
+        ProtonByteBuffer buf = input.read(16);
+        byte[] bytes = buf.array();
+        int offset = buf.position();
+        return new UUID(toInt64(bytes, offset), toInt64(bytes, offset + 8));
     }
 
     /**
@@ -1030,8 +1060,23 @@ public final class BinaryStreamUtils {
      *                     end of the stream
      */
     public static void writeUuid(OutputStream output, java.util.UUID value) throws IOException {
-        writeInt64(output, value.getMostSignificantBits());
-        writeInt64(output, value.getLeastSignificantBits());
+        writeUuid(output, value.getMostSignificantBits(), value.getLeastSignificantBits());
+    }
+
+    /**
+     * Write a UUID to given output stream.
+     *
+     * @param output       non-null output stream
+     * @param mostSigBits  most significant 64 bits of the UUID
+     * @param leastSigBits least significant 64 bits of the UUID
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeUuid(OutputStream output, long mostSigBits, long leastSigBits) throws IOException {
+        byte[] bytes = new byte[16];
+        setInt64(bytes, 0, mostSigBits);
+        setInt64(bytes, 8, leastSigBits);
+        output.write(bytes);
     }
 
     /**
@@ -1143,6 +1188,19 @@ public final class BinaryStreamUtils {
                         ProtonValues.TYPE_BIG_DECIMAL, DECIMAL32_MIN, DECIMAL32_MAX).intValue());
     }
 
+    /**
+     * Write an unscaled Decimal32 value(4 bytes) to given output stream.
+     *
+     * @param output        non-null output stream
+     * @param unscaledValue unscaled value of the decimal
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeUnscaledDecimal32(OutputStream output, long unscaledValue) throws IOException {
+        writeInt32(output, (int) ProtonChecker.between(unscaledValue, ProtonValues.TYPE_LONG,
+                DECIMAL32_MIN.longValue(), DECIMAL32_MAX.longValue()));
+    }
+
     /**
      * Read big decimal(8 bytes) from gicen input stream.
      *
@@ -1176,6 +1234,19 @@ public final class BinaryStreamUtils {
                         ProtonValues.TYPE_BIG_DECIMAL, DECIMAL64_MIN, DECIMAL64_MAX).longValue());
     }
 
+    /**
+     * Write an unscaled Decimal64 value(8 bytes) to given output stream.
+     *
+     * @param output        non-null output stream
+     * @param unscaledValue unscaled value of the decimal
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeUnscaledDecimal64(OutputStream output, long unscaledValue) throws IOException {
+        writeInt64(output, ProtonChecker.between(unscaledValue, ProtonValues.TYPE_LONG, DECIMAL64_MIN.longValue(),
+                DECIMAL64_MAX.longValue()));
+    }
+
     /**
      * Read big decimal(16 bytes) from given input stream.
      *
@@ -1440,8 +1511,7 @@ public final class BinaryStreamUtils {
     public static LocalDateTime readDateTime32(ProtonInputStream input, TimeZone tz) throws IOException {
         long time = readUnsignedInt32(input);
 
-        return LocalDateTime.ofInstant(Instant.ofEpochSecond(time < 0L ? 0L : time),
-                tz != null ? tz.toZoneId() : ProtonValues.UTC_ZONE);
+        return ProtonZoneOffsets.of(tz).toLocalDateTime(time < 0L ? 0L : time, 0);
     }
 
     /**
@@ -1454,10 +1524,20 @@ public final class BinaryStreamUtils {
      *                     end of the stream
      */
     public static void writeDateTime32(OutputStream output, LocalDateTime value, TimeZone tz) throws IOException {
-        long time = tz == null || tz.equals(ProtonValues.UTC_TIMEZONE) ? value.toEpochSecond(ZoneOffset.UTC)
-                : value.atZone(tz.toZoneId()).toEpochSecond();
+        writeDateTime32(output, tz == null || tz.equals(ProtonValues.UTC_TIMEZONE) ? value.toEpochSecond(ZoneOffset.UTC)
+                : ProtonZoneOffsets.of(tz).toEpochSecond(value));
+    }
 
-        writeUnsignedInt32(output, ProtonChecker.between(time, ProtonValues.TYPE_DATE_TIME, 0L, DATETIME_MAX));
+    /**
+     * Write a datetime, in seconds since epoch, to given output stream.
+     *
+     * @param output      non-null output stream
+     * @param epochSecond seconds since epoch
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeDateTime32(OutputStream output, long epochSecond) throws IOException {
+        writeUnsignedInt32(output, ProtonChecker.between(epochSecond, ProtonValues.TYPE_DATE_TIME, 0L, DATETIME_MAX));
     }
 
     /**
@@ -1488,20 +1568,33 @@ public final class BinaryStreamUtils {
         long value = readInt64(input);
         int nanoSeconds = 0;
         if (ProtonChecker.between(scale, ProtonValues.PARAM_SCALE, 0, 9) > 0) {
-            int factor = BASES[scale];
-            nanoSeconds = (int) (value % factor);
-            value /= factor;
-            if (nanoSeconds < 0) {
-                nanoSeconds += factor;
-                value--;
-            }
-            if (nanoSeconds > 0L) {
-                nanoSeconds *= BASES[9 - scale];
-            }
+            nanoSeconds = getNanoOfSecond(value, scale);
+            value = getEpochSecond(value, scale);
         }
 
-        return LocalDateTime.ofInstant(Instant.ofEpochSecond(value, nanoSeconds),
-                tz != null ? tz.toZoneId() : ProtonValues.UTC_ZONE);
+        return ProtonZoneOffsets.of(tz).toLocalDateTime(value, nanoSeconds);
+    }
+
+    /**
+     * Gets seconds since epoch from the given datetime64 value.
+     *
+     * @param value datetime64 value
+     * @param scale scale of the datetime, must between 0 and 9 inclusive
+     * @return seconds since epoch
+     */
+    public static long getEpochSecond(long value, int scale) {
+        return scale > 0 ? Math.floorDiv(value, (long) BASES[scale]) : value;
+    }
+
+    /**
+     * Gets nano of second from the given datetime64 value.
+     *
+     * @param value datetime64 value
+     * @param scale scale of the datetime, must between 0 and 9 inclusive
+     * @return nano of second, from 0 to 999,999,999
+     */
+    public static int getNanoOfSecond(long value, int scale) {
+        return scale > 0 ? (int) Math.floorMod(value, (long) BASES[scale]) * BASES[9 - scale] : 0;
     }
 
     /**
@@ -1530,15 +1623,28 @@ public final class BinaryStreamUtils {
      */
     public static void writeDateTime64(OutputStream output, LocalDateTime value, int scale, TimeZone tz)
             throws IOException {
-        long v = ProtonChecker.between(
-                tz == null || tz.equals(ProtonValues.UTC_TIMEZONE) ? value.toEpochSecond(ZoneOffset.UTC)
-                        : value.atZone(tz.toZoneId()).toEpochSecond(),
-                ProtonValues.TYPE_DATE_TIME, DATETIME64_MIN, DATETIME64_MAX);
+        writeDateTime64(output, tz == null || tz.equals(ProtonValues.UTC_TIMEZONE) ? value.toEpochSecond(ZoneOffset.UTC)
+                : ProtonZoneOffsets.of(tz).toEpochSecond(value), value.getNano(), scale);
+    }
+
+    /**
+     * Write a datetime, in seconds since epoch and nano of second, to given output
+     * stream.
+     *
+     * @param output       non-null output stream
+     * @param epochSecond  seconds since epoch
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @param scale        scale of the datetime, must between 0 and 9 inclusive
+     * @throws IOException when failed to write value to output stream or reached
+     *                     end of the stream
+     */
+    public static void writeDateTime64(OutputStream output, long epochSecond, int nanoOfSecond, int scale)
+            throws IOException {
+        long v = ProtonChecker.between(epochSecond, ProtonValues.TYPE_DATE_TIME, DATETIME64_MIN, DATETIME64_MAX);
         if (ProtonChecker.between(scale, ProtonValues.PARAM_SCALE, 0, 9) > 0) {
             v *= BASES[scale];
-            int nanoSeconds = value.getNano();
-            if (nanoSeconds > 0L) {
-                v += nanoSeconds / BASES[9 - scale];
+            if (nanoOfSecond > 0) {
+                v += nanoOfSecond / BASES[9 - scale];
             }
         }
 
@@ -120,6 +120,37 @@ public class ProtonCityHash {
         return k2;
     }
 
+    private static long hashLen17to32(byte[] s, int pos, int len) {
+        long a = fetch64(s, pos) * k1;
+        long b = fetch64(s, pos + 8);
+        long c = fetch64(s, pos + len - 8) * k2;
+        long d = fetch64(s, pos + len - 16) * k0;
+        return hashLen16(rotate(a - b, 43) + rotate(c, 30) + d, a + rotate(b ^ k3, 20) - c + len);
+    }
+
+    private static long hashLen33to64(byte[] s, int pos, int len) {
+        long z = fetch64(s, pos + 24);
+        long a = fetch64(s, pos) + (len + fetch64(s, pos + len - 16)) * k0;
+        long b = rotate(a + z, 52);
+        long c = rotate(a, 37);
+        a += fetch64(s, pos + 8);
+        c += rotate(a, 7);
+        a += fetch64(s, pos + 16);
+        long vf = a + z;
+        long vs = b + rotate(a, 31) + c;
+        a = fetch64(s, pos + 16) + fetch64(s, pos + len - 32);
+        z = fetch64(s, pos + len - 8);
+        b = rotate(a + z, 52);
+        c = rotate(a, 37);
+        a += fetch64(s, pos + len - 24);
+        c += rotate(a, 7);
+        a += fetch64(s, pos + len - 16);
+        long wf = a + z;
+        long ws = b + rotate(a, 31) + c;
+        long r = shiftMix((vf + ws) * k2 + (wf + vs) * k0);
+        return shiftMix(r * k0 + vs) * k2;
+    }
+
     private static long[] weakHashLen32WithSeeds(long w, long x, long y, long z, long a, long b) {
 
         a += w;
@@ -243,6 +274,52 @@ public class ProtonCityHash {
         return new long[] { hashLen16(x + v[1], w[1]) + y, hashLen16(x + w[1], y + v[1]) };
     }
 
+    /**
+     * Calculates 64-bit hash of the given bytes, which is same as function
+     * {@code cityHash64(str)} in Proton.
+     *
+     * @param s   non-null byte array
+     * @param pos start position
+     * @param len length of bytes to hash
+     * @return 64-bit hash
+     */
+    public static long cityHash64(byte[] s, int pos, int len) {
+        if (len <= 32) {
+            return len <= 16 ? hashLen0to16(s, pos, len) : hashLen17to32(s, pos, len);
+        } else if (len <= 64) {
+            return hashLen33to64(s, pos, len);
+        }
+
+        // hash the end first, and then keep 56 bytes of state: v, w, x, y, and z
+        long x = fetch64(s, pos);
+        long y = fetch64(s, pos + len - 16) ^ k1;
+        long z = fetch64(s, pos + len - 56) ^ k0;
+        long[] v = weakHashLen32WithSeeds(s, pos + len - 64, len, y);
+        long[] w = weakHashLen32WithSeeds(s, pos + len - 32, len * k1, k0);
+        z += shiftMix(v[1]) * k1;
+        x = rotate(z + x, 39) * k1;
+        y = rotate(y, 33) * k1;
+
+        // operate on 64-byte chunks
+        len = (len - 1) & ~63;
+        do {
+            x = rotate(x + y + v[0] + fetch64(s, pos + 16), 37) * k1;
+            y = rotate(y + v[1] + fetch64(s, pos + 48), 42) * k1;
+            x ^= w[1];
+            y ^= v[0];
+            z = rotate(z ^ w[0], 33);
+            v = weakHashLen32WithSeeds(s, pos, v[1] * k1, x + w[0]);
+            w = weakHashLen32WithSeeds(s, pos + 32, z + w[1], y);
+            long t = z;
+            z = x;
+            x = t;
+            pos += 64;
+            len -= 64;
+        } while (len != 0);
+
+        return hashLen16(hashLen16(v[0], w[0]) + shiftMix(y) * k1 + z, hashLen16(v[1], w[1]) + x);
+    }
+
     static long[] cityHash128(byte[] s, int pos, int len) {
 
         if (len >= 16) {
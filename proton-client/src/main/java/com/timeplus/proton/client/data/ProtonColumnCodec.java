@@ -0,0 +1,652 @@
+package com.timeplus.proton.client.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import com.timeplus.proton.client.ProtonByteBuffer;
+import com.timeplus.proton.client.ProtonCache;
+import com.timeplus.proton.client.ProtonChecker;
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonDataType;
+import com.timeplus.proton.client.ProtonDeserializer;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonSerializer;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+
+/**
+ * {@link com.timeplus.proton.client.ProtonFormat#RowBinary} codec of a column.
+ * It's a tree built once for the column, including array element, map key and
+ * value, as well as members of tuple and nested, so that type resolution is not
+ * repeated for each cell or element. Array of non-nullable fixed-width numbers
+ * is copied between stream and primitive array as a whole, array of uuid and IP
+ * addresses is read as a whole as well, and values of string column may be
+ * deduplicated using {@link ProtonStringDictionary} when it's enabled in
+ * configuration. Codecs are stateless and shared among threads, while
+ * dictionary belongs to the caller(see {@link #newDictionary(ProtonConfig)}).
+ * Value wrappers are reused within one call only.
+ */
+final class ProtonColumnCodec {
+    /**
+     * Column decoder.
+     */
+    @FunctionalInterface
+    interface Decoder {
+        ProtonValue decode(ProtonValue ref, ProtonConfig config, ProtonInputStream input) throws IOException;
+    }
+
+    /**
+     * Column encoder.
+     */
+    @FunctionalInterface
+    interface Encoder {
+        void encode(ProtonValue value, ProtonConfig config, OutputStream output) throws IOException;
+    }
+
+    private static final ProtonCache<ProtonColumn, ProtonColumnCodec> cache = ProtonCache.create(1000, 300L,
+            ProtonColumnCodec::new);
+
+    /**
+     * Gets codec of the given column.
+     *
+     * @param column non-null column
+     * @return non-null codec
+     */
+    static ProtonColumnCodec of(ProtonColumn column) {
+        return cache.get(ProtonChecker.nonNull(column, "column"));
+    }
+
+    private static Decoder bind(ProtonColumn column) {
+        final ProtonDeserializer<ProtonValue> func = ProtonRowBinaryProcessor.getMappedFunctions()
+                .getDeserializer(column.getDataType());
+        return (r, f, i) -> func.deserialize(r, f, column, i);
+    }
+
+    private static Encoder bindEncoder(ProtonColumn column) {
+        final ProtonSerializer<ProtonValue> func = ProtonRowBinaryProcessor.getMappedFunctions()
+                .getSerializer(column.getDataType());
+        return (v, f, o) -> func.serialize(v, f, column, o);
+    }
+
+    private static Decoder newDateTimeDecoder(ProtonColumn column) {
+        final TimeZone tz = column.getTimeZone();
+        final int scale = column.getScale();
+        if (column.getDataType() == ProtonDataType.datetime32
+                || (column.getDataType() == ProtonDataType.datetime && scale == 0)) {
+            return tz == null
+                    ? (r, f, i) -> ProtonDateTimeValue.ofEpochSecond(r, BinaryStreamUtils.readUnsignedInt32(i), 0, 0,
+                            f.getUseTimeZone())
+                    : (r, f, i) -> ProtonOffsetDateTimeValue.ofEpochSecond(r, BinaryStreamUtils.readUnsignedInt32(i),
+                            0, 0, tz);
+        }
+
+        return tz == null ? (r, f, i) -> {
+            long v = BinaryStreamUtils.readInt64(i);
+            return ProtonDateTimeValue.ofEpochSecond(r, BinaryStreamUtils.getEpochSecond(v, scale),
+                    BinaryStreamUtils.getNanoOfSecond(v, scale), scale, f.getUseTimeZone());
+        } : (r, f, i) -> {
+            long v = BinaryStreamUtils.readInt64(i);
+            return ProtonOffsetDateTimeValue.ofEpochSecond(r, BinaryStreamUtils.getEpochSecond(v, scale),
+                    BinaryStreamUtils.getNanoOfSecond(v, scale), scale, tz);
+        };
+    }
+
+    /**
+     * Gets byte width of the given data type, when array of it can be copied
+     * from/to a primitive array as a whole, or 0 when elements must be handled
+     * one by one.
+     *
+     * @param column non-null base column of array
+     * @return byte width of an element, or 0 if bulk copy is not possible
+     */
+    private static int getBulkWidth(ProtonColumn column) {
+        if (column.isNullable()) {
+            return 0;
+        }
+
+        switch (column.getDataType()) {
+            case int8:
+                return Byte.BYTES;
+            case int16:
+                return Short.BYTES;
+            case int32:
+            case float32:
+                return Integer.BYTES;
+            case int64:
+            case float64:
+                return Long.BYTES;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Reads {@code length * width} bytes and wraps them as a little-endian view.
+     * The view shares the receive buffer whenever possible, so it must be consumed
+     * before next read.
+     *
+     * @param input  non-null input stream
+     * @param length number of elements
+     * @param width  byte width of an element
+     * @return non-null little-endian view of the bytes
+     * @throws IOException when failed to read from the input stream
+     */
+    private static ByteBuffer readBuffer(ProtonInputStream input, int length, int width) throws IOException {
+        ProtonByteBuffer buf = input.read(length * width);
+        return ByteBuffer.wrap(buf.array(), buf.position(), buf.length()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer newBuffer(OutputStream output, int length, int width) throws IOException {
+        BinaryStreamUtils.writeVarInt(output, length);
+        return ByteBuffer.allocate(length * width).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates decoder for array of non-nullable uuid, ipv4 or ipv6. Elements are
+     * read at once and converted to objects directly from the bytes, instead of
+     * going through a value wrapper and a byte array for each of them.
+     *
+     * @param column non-null array column
+     * @return decoder, or null if the array is not supported
+     */
+    private static Decoder newAddressArrayDecoder(ProtonColumn column) {
+        final ProtonColumn baseColumn = column.getArrayBaseColumn();
+        if (column.getArrayNestedLevel() > 1 || baseColumn.isNullable()) {
+            return null;
+        }
+
+        switch (baseColumn.getDataType()) {
+            case uuid:
+                return (r, f, i) -> {
+                    UUID[] array = new UUID[BinaryStreamUtils.readVarInt(i)];
+                    ProtonByteBuffer buf = i.read(array.length * 16);
+                    byte[] bytes = buf.array();
+                    for (int k = 0, offset = buf.position(), len = array.length; k < len; k++, offset += 16) {
+                        array[k] = new UUID(BinaryStreamUtils.toInt64(bytes, offset),
+                                BinaryStreamUtils.toInt64(bytes, offset + 8));
+                    }
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            case ipv4:
+                return (r, f, i) -> {
+                    Inet4Address[] array = new Inet4Address[BinaryStreamUtils.readVarInt(i)];
+                    ProtonByteBuffer buf = i.read(array.length * 4);
+                    byte[] bytes = buf.array();
+                    for (int k = 0, offset = buf.position(), len = array.length; k < len; k++, offset += 4) {
+                        array[k] = ProtonValues.convertToIpv4(BinaryStreamUtils.toInt32(bytes, offset));
+                    }
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            case ipv6:
+                return (r, f, i) -> {
+                    Inet6Address[] array = new Inet6Address[BinaryStreamUtils.readVarInt(i)];
+                    ProtonByteBuffer buf = i.read(array.length * 16);
+                    byte[] bytes = buf.array();
+                    // Inet6Address copies the given bytes so the array can be reused
+                    byte[] addr = new byte[16];
+                    for (int k = 0, offset = buf.position(), len = array.length; k < len; k++, offset += 16) {
+                        System.arraycopy(bytes, offset, addr, 0, addr.length);
+                        array[k] = Inet6Address.getByAddress(null, addr, null);
+                    }
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            default:
+                return null;
+        }
+    }
+
+    private static Decoder newArrayDecoder(ProtonColumn column) {
+        final ProtonColumn baseColumn = column.getArrayBaseColumn();
+        final int level = column.getArrayNestedLevel();
+        final Class<?> javaClass = baseColumn.getDataType().getPrimitiveClass();
+        final Decoder addresses = newAddressArrayDecoder(column);
+        if (addresses != null) {
+            return addresses;
+        } else if (level > 1 || !javaClass.isPrimitive()) {
+            final Decoder element = new ProtonColumnCodec(column.getNestedColumns().get(0)).decoder;
+            return (r, f, i) -> {
+                int length = BinaryStreamUtils.readVarInt(i);
+                Object[] array = (Object[]) ProtonValues.createPrimitiveArray(javaClass, length, level);
+                for (int k = 0; k < length; k++) {
+                    array[k] = element.decode(null, f, i).asObject();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        }
+
+        // same wrapper is used for all elements
+        final Decoder element = new ProtonColumnCodec(baseColumn).decoder;
+        final int width = getBulkWidth(baseColumn);
+        if (width > 0) {
+            // little-endian elements are copied as a whole
+            if (byte.class == javaClass) {
+                return (r, f, i) -> (r == null ? ProtonValues.newValue(f, column) : r)
+                        .update(i.readBytes(BinaryStreamUtils.readVarInt(i)));
+            } else if (short.class == javaClass) {
+                return (r, f, i) -> {
+                    short[] array = new short[BinaryStreamUtils.readVarInt(i)];
+                    readBuffer(i, array.length, width).asShortBuffer().get(array);
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            } else if (int.class == javaClass) {
+                return (r, f, i) -> {
+                    int[] array = new int[BinaryStreamUtils.readVarInt(i)];
+                    readBuffer(i, array.length, width).asIntBuffer().get(array);
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            } else if (long.class == javaClass) {
+                return (r, f, i) -> {
+                    long[] array = new long[BinaryStreamUtils.readVarInt(i)];
+                    readBuffer(i, array.length, width).asLongBuffer().get(array);
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            } else if (float.class == javaClass) {
+                return (r, f, i) -> {
+                    float[] array = new float[BinaryStreamUtils.readVarInt(i)];
+                    readBuffer(i, array.length, width).asFloatBuffer().get(array);
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            } else if (double.class == javaClass) {
+                return (r, f, i) -> {
+                    double[] array = new double[BinaryStreamUtils.readVarInt(i)];
+                    readBuffer(i, array.length, width).asDoubleBuffer().get(array);
+                    return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+                };
+            }
+        }
+
+        if (byte.class == javaClass) {
+            return (r, f, i) -> {
+                byte[] array = new byte[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asByte();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        } else if (short.class == javaClass) {
+            return (r, f, i) -> {
+                short[] array = new short[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asShort();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        } else if (int.class == javaClass) {
+            return (r, f, i) -> {
+                int[] array = new int[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asInteger();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        } else if (long.class == javaClass) {
+            return (r, f, i) -> {
+                long[] array = new long[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asLong();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        } else if (float.class == javaClass) {
+            return (r, f, i) -> {
+                float[] array = new float[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asFloat();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        } else if (double.class == javaClass) {
+            return (r, f, i) -> {
+                double[] array = new double[BinaryStreamUtils.readVarInt(i)];
+                ProtonValue v = null;
+                for (int k = 0, len = array.length; k < len; k++) {
+                    array[k] = (v = element.decode(v, f, i)).asDouble();
+                }
+                return (r == null ? ProtonValues.newValue(f, column) : r).update(array);
+            };
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: " + javaClass);
+    }
+
+    private static Encoder newArrayEncoder(ProtonColumn column) {
+        final ProtonColumn baseColumn = column.getArrayBaseColumn();
+        final int level = column.getArrayNestedLevel();
+        final Class<?> javaClass = baseColumn.getDataType().getPrimitiveClass();
+        if (level > 1 || !javaClass.isPrimitive()) {
+            final ProtonColumn nestedColumn = column.getNestedColumns().get(0);
+            final Encoder element = new ProtonColumnCodec(nestedColumn).encoder;
+            return (v, f, o) -> {
+                Object[] array = v.asArray();
+                ProtonValue ev = ProtonValues.newValue(f, nestedColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (Object e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        }
+
+        final Encoder element = new ProtonColumnCodec(baseColumn).encoder;
+        final int width = getBulkWidth(baseColumn);
+        if (width > 0) {
+            if (byte.class == javaClass) {
+                return (v, f, o) -> {
+                    byte[] array = (byte[]) v.asObject();
+                    BinaryStreamUtils.writeVarInt(o, array.length);
+                    o.write(array);
+                };
+            } else if (short.class == javaClass) {
+                return (v, f, o) -> {
+                    short[] array = (short[]) v.asObject();
+                    ByteBuffer buffer = newBuffer(o, array.length, width);
+                    buffer.asShortBuffer().put(array);
+                    o.write(buffer.array());
+                };
+            } else if (int.class == javaClass) {
+                return (v, f, o) -> {
+                    int[] array = (int[]) v.asObject();
+                    ByteBuffer buffer = newBuffer(o, array.length, width);
+                    buffer.asIntBuffer().put(array);
+                    o.write(buffer.array());
+                };
+            } else if (long.class == javaClass) {
+                return (v, f, o) -> {
+                    long[] array = (long[]) v.asObject();
+                    ByteBuffer buffer = newBuffer(o, array.length, width);
+                    buffer.asLongBuffer().put(array);
+                    o.write(buffer.array());
+                };
+            } else if (float.class == javaClass) {
+                return (v, f, o) -> {
+                    float[] array = (float[]) v.asObject();
+                    ByteBuffer buffer = newBuffer(o, array.length, width);
+                    buffer.asFloatBuffer().put(array);
+                    o.write(buffer.array());
+                };
+            } else if (double.class == javaClass) {
+                return (v, f, o) -> {
+                    double[] array = (double[]) v.asObject();
+                    ByteBuffer buffer = newBuffer(o, array.length, width);
+                    buffer.asDoubleBuffer().put(array);
+                    o.write(buffer.array());
+                };
+            }
+        }
+
+        if (byte.class == javaClass) {
+            return (v, f, o) -> {
+                byte[] array = (byte[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (byte e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        } else if (short.class == javaClass) {
+            return (v, f, o) -> {
+                short[] array = (short[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (short e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        } else if (int.class == javaClass) {
+            return (v, f, o) -> {
+                int[] array = (int[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (int e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        } else if (long.class == javaClass) {
+            return (v, f, o) -> {
+                long[] array = (long[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (long e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        } else if (float.class == javaClass) {
+            return (v, f, o) -> {
+                float[] array = (float[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (float e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        } else if (double.class == javaClass) {
+            return (v, f, o) -> {
+                double[] array = (double[]) v.asObject();
+                ProtonValue ev = ProtonValues.newValue(f, baseColumn);
+                BinaryStreamUtils.writeVarInt(o, array.length);
+                for (double e : array) {
+                    element.encode(ev.update(e), f, o);
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: " + javaClass);
+    }
+
+    private static ProtonColumnCodec[] newMemberCodecs(List<ProtonColumn> columns) {
+        ProtonColumnCodec[] codecs = new ProtonColumnCodec[columns.size()];
+        int index = 0;
+        for (ProtonColumn col : columns) {
+            codecs[index++] = new ProtonColumnCodec(col);
+        }
+        return codecs;
+    }
+
+    private final ProtonColumn column;
+    private final Decoder decoder;
+    private final Encoder encoder;
+
+    private ProtonColumnCodec(ProtonColumn column) {
+        this.column = column;
+
+        final Decoder d;
+        final Encoder e;
+        switch (column.getDataType()) {
+            case datetime:
+            case datetime32:
+            case datetime64:
+                d = newDateTimeDecoder(column);
+                e = bindEncoder(column);
+                break;
+            case array:
+                d = newArrayDecoder(column);
+                e = newArrayEncoder(column);
+                break;
+            case map: {
+                final ProtonColumn keyCol = column.getKeyInfo();
+                final ProtonColumn valCol = column.getValueInfo();
+                final ProtonColumnCodec key = new ProtonColumnCodec(keyCol);
+                final ProtonColumnCodec val = new ProtonColumnCodec(valCol);
+                d = (r, f, i) -> {
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    for (int k = 0, len = BinaryStreamUtils.readVarInt(i); k < len; k++) {
+                        map.put(key.decoder.decode(null, f, i).asObject(), val.decoder.decode(null, f, i).asObject());
+                    }
+                    return ProtonMapValue.of(map, valCol.getDataType().getObjectClass(),
+                            valCol.getDataType().getObjectClass());
+                };
+                e = (v, f, o) -> {
+                    Map<Object, Object> map = v.asMap();
+                    BinaryStreamUtils.writeVarInt(o, map.size());
+                    if (!map.isEmpty()) {
+                        ProtonValue kVal = ProtonValues.newValue(f, keyCol);
+                        ProtonValue vVal = ProtonValues.newValue(f, valCol);
+                        for (Entry<Object, Object> entry : map.entrySet()) {
+                            key.encoder.encode(kVal.update(entry.getKey()), f, o);
+                            val.encoder.encode(vVal.update(entry.getValue()), f, o);
+                        }
+                    }
+                };
+                break;
+            }
+            case nested: {
+                final List<ProtonColumn> columns = column.getNestedColumns();
+                final ProtonColumnCodec[] members = newMemberCodecs(columns);
+                d = (r, f, i) -> {
+                    Object[][] values = new Object[members.length][];
+                    for (int l = 0; l < members.length; l++) {
+                        Decoder md = members[l].decoder;
+                        Object[] nvalues = new Object[BinaryStreamUtils.readVarInt(i)];
+                        for (int j = 0; j < nvalues.length; j++) {
+                            nvalues[j] = md.decode(null, f, i).asObject();
+                        }
+                        values[l] = nvalues;
+                    }
+                    return ProtonNestedValue.of(r, columns, values);
+                };
+                e = (v, f, o) -> {
+                    Object[][] values = (Object[][]) v.asObject();
+                    for (int l = 0; l < members.length; l++) {
+                        ProtonColumnCodec m = members[l];
+                        Object[] nvalues = values[l];
+                        ProtonValue nv = ProtonValues.newValue(f, m.column);
+                        BinaryStreamUtils.writeVarInt(o, nvalues.length);
+                        for (Object obj : nvalues) {
+                            m.encoder.encode(nv.update(obj), f, o);
+                        }
+                    }
+                };
+                break;
+            }
+            case tuple: {
+                final ProtonColumnCodec[] members = newMemberCodecs(column.getNestedColumns());
+                d = (r, f, i) -> {
+                    List<Object> tupleValues = new ArrayList<>(members.length);
+                    for (ProtonColumnCodec m : members) {
+                        tupleValues.add(m.decoder.decode(null, f, i).asObject());
+                    }
+                    return ProtonTupleValue.of(r, tupleValues);
+                };
+                e = (v, f, o) -> {
+                    Iterator<Object> it = v.asTuple().iterator();
+                    for (ProtonColumnCodec m : members) {
+                        ProtonValue tv = ProtonValues.newValue(f, m.column);
+                        m.encoder.encode(it.hasNext() ? tv.update(it.next()) : tv, f, o);
+                    }
+                };
+                break;
+            }
+            default:
+                d = bind(column);
+                e = bindEncoder(column);
+                break;
+        }
+
+        if (column.isNullable()) {
+            this.decoder = (r, f, i) -> BinaryStreamUtils.readNull(i)
+                    ? (r == null ? ProtonValues.newValue(f, column) : r.resetToNullOrEmpty())
+                    : d.decode(r, f, i);
+            this.encoder = (v, f, o) -> {
+                if (v.isNullOrEmpty()) {
+                    BinaryStreamUtils.writeNull(o);
+                } else {
+                    BinaryStreamUtils.writeNonNull(o);
+                    e.encode(v, f, o);
+                }
+            };
+        } else {
+            this.decoder = d;
+            this.encoder = e;
+        }
+    }
+
+    /**
+     * Gets column of the codec.
+     *
+     * @return non-null column
+     */
+    ProtonColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * Creates a new dictionary for deduplicating values of the column. It's
+     * supposed to be used for reading one result only, as it's sized by the
+     * given configuration and not thread-safe.
+     *
+     * @param config non-null configuration
+     * @return dictionary, or null when the column is not a string column or it's
+     *         not enabled in configuration
+     */
+    ProtonStringDictionary newDictionary(ProtonConfig config) {
+        return column.getDataType() == ProtonDataType.string && config.isStringDictionaryEnabled(column)
+                ? new ProtonStringDictionary(config.getStringDictionarySize())
+                : null;
+    }
+
+    /**
+     * Reads a value.
+     *
+     * @param ref    wrapper object can be reused, could be null
+     * @param config non-null configuration
+     * @param input  non-null input stream
+     * @return deserialized value which might be the same instance as {@code ref}
+     * @throws IOException when failed to read data from input stream
+     */
+    ProtonValue read(ProtonValue ref, ProtonConfig config, ProtonInputStream input) throws IOException {
+        return decoder.decode(ref, config, input);
+    }
+
+    /**
+     * Writes a value.
+     *
+     * @param value  non-null value
+     * @param config non-null configuration
+     * @param output non-null output stream
+     * @throws IOException when failed to write data into output stream
+     */
+    void write(ProtonValue value, ProtonConfig config, OutputStream output) throws IOException {
+        encoder.encode(value, config, output);
+    }
+
+    /**
+     * Reads a value using the given dictionary. String value found in the
+     * dictionary shares the same {@link String} instance with others, but byte
+     * array is never shared.
+     *
+     * @param ref        wrapper object can be reused, could be null
+     * @param config     non-null configuration
+     * @param dictionary dictionary created by {@link #newDictionary(ProtonConfig)},
+     *                   could be null
+     * @param input      non-null input stream
+     * @return deserialized value which might be the same instance as {@code ref}
+     * @throws IOException when failed to read data from input stream
+     */
+    ProtonValue read(ProtonValue ref, ProtonConfig config, ProtonStringDictionary dictionary,
+            ProtonInputStream input) throws IOException {
+        if (dictionary == null) {
+            return decoder.decode(ref, config, input);
+        } else if (column.isNullable() && BinaryStreamUtils.readNull(input)) {
+            return ref == null ? ProtonValues.newValue(config, column) : ref.resetToNullOrEmpty();
+        }
+
+        ProtonByteBuffer buf = input.readStringBuffer();
+        ProtonStringDictionary.Entry entry = dictionary.get(buf);
+        return entry != null ? ProtonStringValue.of(ref, entry.value) : ProtonStringValue.of(ref, buf.asBinary());
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Objects;
 import java.util.TimeZone;
 
 import com.timeplus.proton.client.ProtonChecker;
@@ -45,7 +46,7 @@ public class ProtonDateTimeValue extends ProtonObjectValue<LocalDateTime> {
      */
     public static ProtonDateTimeValue ofNull(ProtonValue ref, int scale, TimeZone tz) {
         return ref instanceof ProtonDateTimeValue
-                ? (ProtonDateTimeValue) ((ProtonDateTimeValue) ref).set(null)
+                ? ((ProtonDateTimeValue) ref).set(null)
                 : new ProtonDateTimeValue(null, scale, tz);
     }
 
@@ -85,7 +86,7 @@ public class ProtonDateTimeValue extends ProtonObjectValue<LocalDateTime> {
      */
     public static ProtonDateTimeValue of(ProtonValue ref, LocalDateTime value, int scale, TimeZone tz) {
         return ref instanceof ProtonDateTimeValue
-                ? (ProtonDateTimeValue) ((ProtonDateTimeValue) ref).set(value)
+                ? ((ProtonDateTimeValue) ref).set(value)
                 : new ProtonDateTimeValue(value, scale, tz);
     }
 
@@ -105,70 +106,169 @@ public class ProtonDateTimeValue extends ProtonObjectValue<LocalDateTime> {
         return of(ref, dateTime, scale, tz);
     }
 
+    /**
+     * Update value of the given object or create a new instance if {@code ref} is
+     * null or it's in a different time zone.
+     *
+     * @param ref          object to update, could be null
+     * @param epochSecond  seconds since epoch
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @param scale        scale, only used when creating a new instance
+     * @param tz           time zone, null is treated as {@code UTC}
+     * @return same object as {@code ref} or a new instance
+     */
+    public static ProtonDateTimeValue ofEpochSecond(ProtonValue ref, long epochSecond, int nanoOfSecond, int scale,
+            TimeZone tz) {
+        return (ref instanceof ProtonDateTimeValue && ((ProtonDateTimeValue) ref).isSameTimeZone(tz)
+                ? (ProtonDateTimeValue) ref
+                : new ProtonDateTimeValue(null, scale, tz)).updateEpochSecond(epochSecond, nanoOfSecond);
+    }
+
     private final int scale;
     private final TimeZone tz;
 
+    // whether the value is held as epoch second and nano of second, value in
+    // parent class is only a cache of it when this is true
+    private boolean epoch;
+    private long epochSecond;
+    private int nanoOfSecond;
+
     protected ProtonDateTimeValue(LocalDateTime value, int scale, TimeZone tz) {
         super(value);
         this.scale = ProtonChecker.between(scale, ProtonValues.PARAM_SCALE, 0, 9);
         this.tz = tz != null ? tz : ProtonValues.UTC_TIMEZONE;
     }
 
+    /**
+     * Checks if the value is in the given time zone.
+     *
+     * @param tz time zone, null is treated as {@code UTC}
+     * @return true if the value is in the given time zone; false otherwise
+     */
+    public boolean isSameTimeZone(TimeZone tz) {
+        return this.tz == tz || this.tz.equals(tz != null ? tz : ProtonValues.UTC_TIMEZONE);
+    }
+
+    @Override
+    protected ProtonDateTimeValue set(LocalDateTime value) {
+        epoch = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Updates value using seconds since epoch and nano of second. Local date time
+     * will not be created until it's needed.
+     *
+     * @param epochSecond  seconds since epoch
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @return this object
+     */
+    public ProtonDateTimeValue updateEpochSecond(long epochSecond, int nanoOfSecond) {
+        super.set(null);
+        this.epoch = true;
+        this.epochSecond = epochSecond;
+        this.nanoOfSecond = nanoOfSecond;
+        return this;
+    }
+
+    /**
+     * Gets seconds since epoch.
+     *
+     * @return seconds since epoch, or 0 when it's null
+     */
+    public long getEpochSecond() {
+        if (epoch) {
+            return epochSecond;
+        }
+
+        LocalDateTime v = super.getValue();
+        return v == null ? 0L : ProtonZoneOffsets.of(tz).toEpochSecond(v);
+    }
+
+    /**
+     * Gets nano of second.
+     *
+     * @return nano of second, or 0 when it's null
+     */
+    public int getNanoOfSecond() {
+        if (epoch) {
+            return nanoOfSecond;
+        }
+
+        LocalDateTime v = super.getValue();
+        return v == null ? 0 : v.getNano();
+    }
+
     public int getScale() {
         return scale;
     }
 
+    public TimeZone getTimeZone() {
+        return tz;
+    }
+
+    @Override
+    public LocalDateTime getValue() {
+        LocalDateTime v = super.getValue();
+        if (v == null && epoch) {
+            super.set(v = ProtonZoneOffsets.of(tz).toLocalDateTime(epochSecond, nanoOfSecond));
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !epoch && super.getValue() == null;
+    }
+
     @Override
     public ProtonDateTimeValue copy(boolean deep) {
-        return new ProtonDateTimeValue(getValue(), scale, tz);
+        return epoch ? new ProtonDateTimeValue(null, scale, tz).updateEpochSecond(epochSecond, nanoOfSecond)
+                : new ProtonDateTimeValue(super.getValue(), scale, tz);
     }
 
     @Override
     public byte asByte() {
-        return isNullOrEmpty() ? (byte) 0 : (byte) getValue().atZone(tz.toZoneId()).toEpochSecond();
+        return (byte) getEpochSecond();
     }
 
     @Override
     public short asShort() {
-        return isNullOrEmpty() ? (short) 0 : (short) getValue().atZone(tz.toZoneId()).toEpochSecond();
+        return (short) getEpochSecond();
     }
 
     @Override
     public int asInteger() {
-        return isNullOrEmpty() ? 0 : (int) getValue().atZone(tz.toZoneId()).toEpochSecond();
+        return (int) getEpochSecond();
     }
 
     @Override
     public long asLong() {
-        return isNullOrEmpty() ? 0L : getValue().atZone(tz.toZoneId()).toEpochSecond();
+        return getEpochSecond();
     }
 
     @Override
     public float asFloat() {
-        return isNullOrEmpty() ? 0F
-                : getValue().atZone(tz.toZoneId()).toEpochSecond()
-                        + getValue().getNano() / ProtonValues.NANOS.floatValue();
+        return getEpochSecond() + getNanoOfSecond() / ProtonValues.NANOS.floatValue();
     }
 
     @Override
     public double asDouble() {
-        return isNullOrEmpty() ? 0D
-                : getValue().atZone(tz.toZoneId()).toEpochSecond()
-                        + getValue().getNano() / ProtonValues.NANOS.doubleValue();
+        return getEpochSecond() + getNanoOfSecond() / ProtonValues.NANOS.doubleValue();
     }
 
     @Override
     public BigInteger asBigInteger() {
-        return isNullOrEmpty() ? null : BigInteger.valueOf(getValue().atZone(tz.toZoneId()).toEpochSecond());
+        return isNullOrEmpty() ? null : BigInteger.valueOf(getEpochSecond());
     }
 
     @Override
     public BigDecimal asBigDecimal(int scale) {
-        LocalDateTime value = getValue();
         BigDecimal v = null;
-        if (value != null) {
-            int nanoSeconds = value.getNano();
-            v = new BigDecimal(BigInteger.valueOf(value.atZone(tz.toZoneId()).toEpochSecond()), scale);
+        if (!isNullOrEmpty()) {
+            int nanoSeconds = getNanoOfSecond();
+            v = new BigDecimal(BigInteger.valueOf(getEpochSecond()), scale);
             if (scale != 0 && nanoSeconds != 0) {
                 v = v.add(BigDecimal.valueOf(nanoSeconds).divide(ProtonValues.NANOS).setScale(scale,
                         RoundingMode.HALF_UP));
@@ -189,7 +289,7 @@ public class ProtonDateTimeValue extends ProtonObjectValue<LocalDateTime> {
 
     @Override
     public Instant asInstant(int scale) {
-        return isNullOrEmpty() ? null : getValue().atZone(tz.toZoneId()).toInstant();
+        return isNullOrEmpty() ? null : Instant.ofEpochSecond(getEpochSecond(), getNanoOfSecond());
     }
 
     @Override
@@ -384,4 +484,26 @@ public class ProtonDateTimeValue extends ProtonObjectValue<LocalDateTime> {
         }
         return this;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ProtonDateTimeValue v = (ProtonDateTimeValue) obj;
+        if (epoch && v.epoch && isSameTimeZone(v.tz)) {
+            return epochSecond == v.epochSecond && nanoOfSecond == v.nanoOfSecond;
+        }
+
+        LocalDateTime d = getValue();
+        return d == null ? v.getValue() == null : d.equals(v.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getValue());
+    }
 }
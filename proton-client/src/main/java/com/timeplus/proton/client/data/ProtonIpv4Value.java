@@ -16,7 +16,8 @@ import com.timeplus.proton.client.ProtonValue;
 import com.timeplus.proton.client.ProtonValues;
 
 /**
- * Wraper class of Inet4Address.
+ * Wraper class of Inet4Address. Values read from a stream are kept as an
+ * integer, and {@link Inet4Address} is only created when it's really needed.
  */
 public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
     /**
@@ -35,7 +36,7 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonIpv4Value ofNull(ProtonValue ref) {
-        return ref instanceof ProtonIpv4Value ? (ProtonIpv4Value) ((ProtonIpv4Value) ref).set(null)
+        return ref instanceof ProtonIpv4Value ? ((ProtonIpv4Value) ref).set(null)
                 : new ProtonIpv4Value(null);
     }
 
@@ -58,17 +59,95 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonIpv4Value of(ProtonValue ref, Inet4Address value) {
-        return ref instanceof ProtonIpv4Value ? (ProtonIpv4Value) ((ProtonIpv4Value) ref).set(value)
+        return ref instanceof ProtonIpv4Value ? ((ProtonIpv4Value) ref).set(value)
                 : new ProtonIpv4Value(value);
     }
 
+    /**
+     * Wrap the given address bits.
+     *
+     * @param bits address as 32 bits in network byte order, for example
+     *             {@code 0x7F000001} for 127.0.0.1
+     * @return object representing the value
+     */
+    public static ProtonIpv4Value of(int bits) {
+        return of(null, bits);
+    }
+
+    /**
+     * Update address bits of the given object or create a new instance if
+     * {@code ref} is null.
+     *
+     * @param ref  object to update, could be null
+     * @param bits address as 32 bits in network byte order
+     * @return same object as {@code ref} or a new instance if it's null
+     */
+    public static ProtonIpv4Value of(ProtonValue ref, int bits) {
+        return (ref instanceof ProtonIpv4Value ? (ProtonIpv4Value) ref : new ProtonIpv4Value(null)).update(bits);
+    }
+
+    // whether the bits are up-to-date, value in parent class is only a cache of
+    // them when this is true
+    private boolean compact;
+    private int bits;
+
     protected ProtonIpv4Value(Inet4Address value) {
         super(value);
     }
 
+    @Override
+    protected ProtonIpv4Value set(Inet4Address value) {
+        compact = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Checks whether the value is held as an integer.
+     *
+     * @return true if the value is held as an integer; false otherwise
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Gets address as 32 bits in network byte order.
+     *
+     * @return address bits, or 0 when it's null
+     */
+    public int getBits() {
+        if (compact) {
+            return bits;
+        }
+
+        Inet4Address v = super.getValue();
+        return v == null ? 0 : Integer.reverseBytes(BinaryStreamUtils.toInt32(v.getAddress(), 0));
+    }
+
+    @Override
+    public Inet4Address getValue() {
+        Inet4Address v = super.getValue();
+        if (v == null && compact) {
+            super.set(v = ProtonValues.convertToIpv4(bits));
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !compact && super.getValue() == null;
+    }
+
     @Override
     public ProtonIpv4Value copy(boolean deep) {
-        return new ProtonIpv4Value(getValue());
+        ProtonIpv4Value v = new ProtonIpv4Value(null);
+        return compact ? v.update(bits) : v.set(super.getValue());
+    }
+
+    private String toHostAddress() {
+        return new StringBuilder(15).append(bits >>> 24).append('.').append((bits >> 16) & 0xFF).append('.')
+                .append((bits >> 8) & 0xFF).append('.').append(bits & 0xFF).toString();
     }
 
     @Override
@@ -91,12 +170,18 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
 
     @Override
     public long asLong() {
+        if (compact) {
+            return 0xFFFFFFFFL & bits;
+        }
         BigInteger bigInt = asBigInteger();
         return bigInt == null ? 0L : bigInt.longValue();
     }
 
     @Override
     public BigInteger asBigInteger() {
+        if (compact) {
+            return BigInteger.valueOf(0xFFFFFFFFL & bits);
+        }
         return isNullOrEmpty() ? null : new BigInteger(1, getValue().getAddress());
     }
 
@@ -139,7 +224,7 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
             return null;
         }
 
-        String str = String.valueOf(getValue().getHostAddress());
+        String str = compact ? toHostAddress() : String.valueOf(getValue().getHostAddress());
         if (length > 0) {
             ProtonChecker.notWithDifferentLength(str.getBytes(charset == null ? StandardCharsets.UTF_8 : charset),
                     length);
@@ -153,7 +238,8 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
         if (isNullOrEmpty()) {
             return ProtonValues.NULL_EXPR;
         }
-        return new StringBuilder().append('\'').append(getValue().getHostAddress()).append('\'').toString();
+        return new StringBuilder().append('\'').append(compact ? toHostAddress() : getValue().getHostAddress())
+                .append('\'').toString();
     }
 
     @Override
@@ -168,7 +254,9 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
 
     @Override
     public ProtonIpv4Value update(int value) {
-        set(ProtonValues.convertToIpv4(value));
+        super.set(null);
+        this.compact = true;
+        this.bits = value;
         return this;
     }
 
@@ -280,6 +368,8 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
     public ProtonIpv4Value update(ProtonValue value) {
         if (value == null) {
             resetToNullOrEmpty();
+        } else if (value instanceof ProtonIpv4Value && ((ProtonIpv4Value) value).compact) {
+            update(((ProtonIpv4Value) value).bits);
         } else {
             set(value.asInet4Address());
         }
@@ -297,4 +387,23 @@ public class ProtonIpv4Value extends ProtonObjectValue<Inet4Address> {
         }
         return this;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ProtonIpv4Value v = (ProtonIpv4Value) obj;
+        boolean isNull = isNullOrEmpty();
+        return isNull == v.isNullOrEmpty() && (isNull || getBits() == v.getBits());
+    }
+
+    @Override
+    public int hashCode() {
+        // same as parent class, which uses Inet4Address.hashCode()
+        return 31 + (isNullOrEmpty() ? 0 : getBits());
+    }
 }
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
+import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -16,7 +17,8 @@ import com.timeplus.proton.client.ProtonValue;
 import com.timeplus.proton.client.ProtonValues;
 
 /**
- * Wraper class of Inet6Address.
+ * Wraper class of Inet6Address. Values read from a stream are kept as two
+ * longs, and {@link Inet6Address} is only created when it's really needed.
  */
 public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
     /**
@@ -35,7 +37,7 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonIpv6Value ofNull(ProtonValue ref) {
-        return ref instanceof ProtonIpv6Value ? (ProtonIpv6Value) ((ProtonIpv6Value) ref).set(null)
+        return ref instanceof ProtonIpv6Value ? ((ProtonIpv6Value) ref).set(null)
                 : new ProtonIpv6Value(null);
     }
 
@@ -58,17 +60,142 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonIpv6Value of(ProtonValue ref, Inet6Address value) {
-        return ref instanceof ProtonIpv6Value ? (ProtonIpv6Value) ((ProtonIpv6Value) ref).set(value)
+        return ref instanceof ProtonIpv6Value ? ((ProtonIpv6Value) ref).set(value)
                 : new ProtonIpv6Value(value);
     }
 
+    /**
+     * Wrap the given address bits.
+     *
+     * @param highBits first 64 bits of the address in network byte order
+     * @param lowBits  last 64 bits of the address in network byte order
+     * @return object representing the value
+     */
+    public static ProtonIpv6Value of(long highBits, long lowBits) {
+        return of(null, highBits, lowBits);
+    }
+
+    /**
+     * Update address bits of the given object or create a new instance if
+     * {@code ref} is null.
+     *
+     * @param ref      object to update, could be null
+     * @param highBits first 64 bits of the address in network byte order
+     * @param lowBits  last 64 bits of the address in network byte order
+     * @return same object as {@code ref} or a new instance if it's null
+     */
+    public static ProtonIpv6Value of(ProtonValue ref, long highBits, long lowBits) {
+        return (ref instanceof ProtonIpv6Value ? (ProtonIpv6Value) ref : new ProtonIpv6Value(null))
+                .update(highBits, lowBits);
+    }
+
+    private static void appendHex(StringBuilder builder, long bits) {
+        for (int i = 48; i >= 0; i -= 16) {
+            builder.append(Integer.toHexString((int) (bits >>> i) & 0xFFFF));
+            if (i > 0) {
+                builder.append(':');
+            }
+        }
+    }
+
+    // whether the bits are up-to-date, value in parent class is only a cache of
+    // them when this is true
+    private boolean compact;
+    private long highBits;
+    private long lowBits;
+
     protected ProtonIpv6Value(Inet6Address value) {
         super(value);
     }
 
+    private byte[] toBytes() {
+        byte[] bytes = new byte[16];
+        BinaryStreamUtils.setInt64(bytes, 0, Long.reverseBytes(highBits));
+        BinaryStreamUtils.setInt64(bytes, 8, Long.reverseBytes(lowBits));
+        return bytes;
+    }
+
+    @Override
+    protected ProtonIpv6Value set(Inet6Address value) {
+        compact = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Updates address bits.
+     *
+     * @param highBits first 64 bits of the address in network byte order
+     * @param lowBits  last 64 bits of the address in network byte order
+     * @return this object
+     */
+    public ProtonIpv6Value update(long highBits, long lowBits) {
+        super.set(null);
+        this.compact = true;
+        this.highBits = highBits;
+        this.lowBits = lowBits;
+        return this;
+    }
+
+    /**
+     * Checks whether the value is held as two longs.
+     *
+     * @return true if the value is held as two longs; false otherwise
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Gets first 64 bits of the address in network byte order.
+     *
+     * @return high bits of the address, or 0 when it's null
+     */
+    public long getHighBits() {
+        if (compact) {
+            return highBits;
+        }
+
+        Inet6Address v = super.getValue();
+        return v == null ? 0L : Long.reverseBytes(BinaryStreamUtils.toInt64(v.getAddress(), 0));
+    }
+
+    /**
+     * Gets last 64 bits of the address in network byte order.
+     *
+     * @return low bits of the address, or 0 when it's null
+     */
+    public long getLowBits() {
+        if (compact) {
+            return lowBits;
+        }
+
+        Inet6Address v = super.getValue();
+        return v == null ? 0L : Long.reverseBytes(BinaryStreamUtils.toInt64(v.getAddress(), 8));
+    }
+
+    @Override
+    public Inet6Address getValue() {
+        Inet6Address v = super.getValue();
+        if (v == null && compact) {
+            try {
+                super.set(v = Inet6Address.getByAddress(null, toBytes(), null));
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !compact && super.getValue() == null;
+    }
+
     @Override
     public ProtonIpv6Value copy(boolean deep) {
-        return new ProtonIpv6Value(getValue());
+        ProtonIpv6Value v = new ProtonIpv6Value(null);
+        return compact ? v.update(highBits, lowBits) : v.set(super.getValue());
     }
 
     @Override
@@ -97,6 +224,9 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
 
     @Override
     public BigInteger asBigInteger() {
+        if (compact) {
+            return new BigInteger(1, toBytes());
+        }
         return isNullOrEmpty() ? null : new BigInteger(1, getValue().getAddress());
     }
 
@@ -139,7 +269,7 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
             return null;
         }
 
-        String str = String.valueOf(getValue().getHostAddress());
+        String str = compact ? toHostAddress() : String.valueOf(getValue().getHostAddress());
         if (length > 0) {
             ProtonChecker.notWithDifferentLength(str.getBytes(charset == null ? StandardCharsets.UTF_8 : charset),
                     length);
@@ -153,7 +283,23 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
         if (isNullOrEmpty()) {
             return ProtonValues.NULL_EXPR;
         }
-        return new StringBuilder().append('\'').append(getValue().getHostAddress()).append('\'').toString();
+        return new StringBuilder().append('\'').append(compact ? toHostAddress() : getValue().getHostAddress())
+                .append('\'').toString();
+    }
+
+    /**
+     * Formats address bits the same way as {@link Inet6Address#getHostAddress()}
+     * does for an address without scope, so that {@link Inet6Address} is not
+     * needed.
+     *
+     * @return non-null host address
+     */
+    private String toHostAddress() {
+        StringBuilder builder = new StringBuilder(39);
+        appendHex(builder, highBits);
+        builder.append(':');
+        appendHex(builder, lowBits);
+        return builder.toString();
     }
 
     @Override
@@ -275,6 +421,9 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
     public ProtonIpv6Value update(ProtonValue value) {
         if (value == null) {
             resetToNullOrEmpty();
+        } else if (value instanceof ProtonIpv6Value && ((ProtonIpv6Value) value).compact) {
+            ProtonIpv6Value v = (ProtonIpv6Value) value;
+            update(v.highBits, v.lowBits);
         } else {
             set(value.asInet6Address());
         }
@@ -292,4 +441,24 @@ public class ProtonIpv6Value extends ProtonObjectValue<Inet6Address> {
         }
         return this;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        // same as Inet6Address.equals(), which does not take scope into account
+        ProtonIpv6Value v = (ProtonIpv6Value) obj;
+        boolean isNull = isNullOrEmpty();
+        return isNull == v.isNullOrEmpty()
+                && (isNull || (getHighBits() == v.getHighBits() && getLowBits() == v.getLowBits()));
+    }
+
+    @Override
+    public int hashCode() {
+        return isNullOrEmpty() ? 31 : 31 * Long.hashCode(getHighBits()) + Long.hashCode(getLowBits());
+    }
 }
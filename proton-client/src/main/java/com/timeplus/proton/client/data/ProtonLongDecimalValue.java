@@ -0,0 +1,250 @@
+package com.timeplus.proton.client.data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+import com.timeplus.proton.client.ProtonChecker;
+import com.timeplus.proton.client.ProtonDataType;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+
+/**
+ * Wraper class of Decimal32 and Decimal64. It keeps unscaled long value along
+ * with scale, and only creates {@link BigDecimal} when it's really needed.
+ */
+public class ProtonLongDecimalValue extends ProtonBigDecimalValue {
+    private static final long serialVersionUID = -5826455745357410379L;
+
+    private static final long[] POWERS_OF_TEN = new long[ProtonDataType.decimal64.getMaxScale() + 1];
+    // exact double for 10^0 - 10^22
+    private static final int MAX_EXACT_DOUBLE_SCALE = 22;
+    // any long within +/- 2^53 is an exact double
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    static {
+        long v = 1L;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = v;
+            v *= 10L;
+        }
+    }
+
+    /**
+     * Create a new instance representing null value.
+     *
+     * @param scale scale of the decimal
+     * @return new instance representing null value
+     */
+    public static ProtonLongDecimalValue ofNull(int scale) {
+        return ofNull(null, scale);
+    }
+
+    /**
+     * Update given value to null or create a new instance if {@code ref} is null.
+     *
+     * @param ref   object to update, could be null
+     * @param scale scale of the decimal
+     * @return same object as {@code ref} or a new instance if it's null
+     */
+    public static ProtonLongDecimalValue ofNull(ProtonValue ref, int scale) {
+        return ref instanceof ProtonLongDecimalValue && ((ProtonLongDecimalValue) ref).scale == scale
+                ? ((ProtonLongDecimalValue) ref).set(null)
+                : new ProtonLongDecimalValue(scale);
+    }
+
+    /**
+     * Wrap the given unscaled value.
+     *
+     * @param unscaledValue unscaled value
+     * @param scale         scale of the decimal
+     * @return object representing the value
+     */
+    public static ProtonLongDecimalValue of(long unscaledValue, int scale) {
+        return of(null, unscaledValue, scale);
+    }
+
+    /**
+     * Update unscaled value of the given object or create a new instance if
+     * {@code ref} is null.
+     *
+     * @param ref           object to update, could be null
+     * @param unscaledValue unscaled value
+     * @param scale         scale of the decimal
+     * @return same object as {@code ref} or a new instance if it's null
+     */
+    public static ProtonLongDecimalValue of(ProtonValue ref, long unscaledValue, int scale) {
+        return (ref instanceof ProtonLongDecimalValue && ((ProtonLongDecimalValue) ref).scale == scale
+                ? (ProtonLongDecimalValue) ref
+                : new ProtonLongDecimalValue(scale)).updateUnscaledValue(unscaledValue);
+    }
+
+    private final int scale;
+
+    // whether unscaledValue is up-to-date, value in parent class is only a cache
+    // of it when this is true
+    private boolean compact;
+    private long unscaledValue;
+
+    protected ProtonLongDecimalValue(int scale) {
+        super(null);
+
+        this.scale = ProtonChecker.between(scale, ProtonValues.PARAM_SCALE, 0, ProtonDataType.decimal64.getMaxScale());
+    }
+
+    @Override
+    protected ProtonLongDecimalValue set(BigDecimal value) {
+        compact = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Updates unscaled value, which is the decimal multiplied by 10 to the power
+     * of {@link #getScale()}.
+     *
+     * @param unscaledValue unscaled value
+     * @return this object
+     */
+    public ProtonLongDecimalValue updateUnscaledValue(long unscaledValue) {
+        super.set(null);
+        this.compact = true;
+        this.unscaledValue = unscaledValue;
+        return this;
+    }
+
+    /**
+     * Checks whether the value is held as unscaled long.
+     *
+     * @return true if the value is held as unscaled long; false otherwise
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Gets unscaled value, which is the decimal multiplied by 10 to the power of
+     * {@link #getScale()}.
+     *
+     * @return unscaled value, or 0 when it's null
+     * @throws ArithmeticException when the value cannot fit into a long
+     */
+    public long getUnscaledValue() {
+        if (compact) {
+            return unscaledValue;
+        }
+
+        BigDecimal v = super.getValue();
+        return v == null ? 0L : v.setScale(scale, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    @Override
+    public BigDecimal getValue() {
+        BigDecimal v = super.getValue();
+        if (v == null && compact) {
+            super.set(v = BigDecimal.valueOf(unscaledValue, scale));
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !compact && super.getValue() == null;
+    }
+
+    @Override
+    public ProtonLongDecimalValue copy(boolean deep) {
+        ProtonLongDecimalValue v = new ProtonLongDecimalValue(scale);
+        return compact ? v.updateUnscaledValue(unscaledValue) : v.set(super.getValue());
+    }
+
+    @Override
+    public long asLong() {
+        if (compact) {
+            if (scale == 0) {
+                return unscaledValue;
+            } else if (unscaledValue % POWERS_OF_TEN[scale] != 0L) {
+                // same as BigDecimal.longValueExact()
+                throw new ArithmeticException("Rounding necessary");
+            }
+            return unscaledValue / POWERS_OF_TEN[scale];
+        }
+        return super.asLong();
+    }
+
+    @Override
+    public double asDouble() {
+        if (compact && scale <= MAX_EXACT_DOUBLE_SCALE && unscaledValue < MAX_EXACT_DOUBLE
+                && unscaledValue > -MAX_EXACT_DOUBLE) {
+            // both operands are exact so the quotient is correctly rounded, same as
+            // BigDecimal.doubleValue()
+            return scale == 0 ? unscaledValue : (double) unscaledValue / POWERS_OF_TEN[scale];
+        }
+        return super.asDouble();
+    }
+
+    @Override
+    public BigDecimal asBigDecimal(int scale) {
+        return compact && this.scale == scale ? getValue() : super.asBigDecimal(scale);
+    }
+
+    @Override
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    public String toSqlExpression() {
+        return isNullOrEmpty() ? ProtonValues.NULL_EXPR : String.valueOf(getValue());
+    }
+
+    @Override
+    public ProtonLongDecimalValue update(long value) {
+        long p = POWERS_OF_TEN[scale];
+        long v = value * p;
+        if (v / p == value) {
+            return updateUnscaledValue(v);
+        }
+
+        super.update(value);
+        return this;
+    }
+
+    @Override
+    public ProtonLongDecimalValue update(int value) {
+        return update((long) value);
+    }
+
+    @Override
+    public ProtonLongDecimalValue update(ProtonValue value) {
+        if (value instanceof ProtonLongDecimalValue && ((ProtonLongDecimalValue) value).compact
+                && ((ProtonLongDecimalValue) value).scale == scale) {
+            return updateUnscaledValue(((ProtonLongDecimalValue) value).unscaledValue);
+        }
+
+        super.update(value);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ProtonLongDecimalValue v = (ProtonLongDecimalValue) obj;
+        if (compact && v.compact && scale == v.scale) {
+            return unscaledValue == v.unscaledValue;
+        }
+
+        BigDecimal b = getValue();
+        return b == null ? v.getValue() == null : b.equals(v.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getValue());
+    }
+}
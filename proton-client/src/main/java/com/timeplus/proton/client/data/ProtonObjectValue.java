@@ -120,7 +120,7 @@ public abstract class ProtonObjectValue<T> implements ProtonValue {
             return null;
         }
 
-        String str = value.toString();
+        String str = getValue().toString();
         if (length > 0) {
             ProtonChecker.notWithDifferentLength(str.getBytes(charset == null ? StandardCharsets.UTF_8 : charset),
                     length);
@@ -12,6 +12,7 @@ import java.time.OffsetDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Objects;
 import java.util.TimeZone;
 
 import com.timeplus.proton.client.ProtonChecker;
@@ -43,7 +44,7 @@ public class ProtonOffsetDateTimeValue extends ProtonObjectValue<OffsetDateTime>
      */
     public static ProtonOffsetDateTimeValue ofNull(ProtonValue ref, int scale, TimeZone tz) {
         return ref instanceof ProtonOffsetDateTimeValue
-                ? (ProtonOffsetDateTimeValue) ((ProtonOffsetDateTimeValue) ref).set(null)
+                ? ((ProtonOffsetDateTimeValue) ref).set(null)
                 : new ProtonOffsetDateTimeValue(null, scale, tz);
     }
 
@@ -77,72 +78,173 @@ public class ProtonOffsetDateTimeValue extends ProtonObjectValue<OffsetDateTime>
                     .toOffsetDateTime();
         }
         return ref instanceof ProtonOffsetDateTimeValue
-                ? (ProtonOffsetDateTimeValue) ((ProtonOffsetDateTimeValue) ref).set(v)
+                ? ((ProtonOffsetDateTimeValue) ref).set(v)
                 : new ProtonOffsetDateTimeValue(v, scale, tz);
     }
 
+    /**
+     * Update value of the given object or create a new instance if {@code ref} is
+     * null or it's in a different time zone.
+     *
+     * @param ref          object to update, could be null
+     * @param epochSecond  seconds since epoch
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @param scale        scale, only used when creating a new instance
+     * @param tz           time zone, null is treated as {@code UTC}
+     * @return same object as {@code ref} or a new instance
+     */
+    public static ProtonOffsetDateTimeValue ofEpochSecond(ProtonValue ref, long epochSecond, int nanoOfSecond,
+            int scale, TimeZone tz) {
+        return (ref instanceof ProtonOffsetDateTimeValue && ((ProtonOffsetDateTimeValue) ref).isSameTimeZone(tz)
+                ? (ProtonOffsetDateTimeValue) ref
+                : new ProtonOffsetDateTimeValue(null, scale, tz)).updateEpochSecond(epochSecond, nanoOfSecond);
+    }
+
     private final int scale;
     private final TimeZone tz;
 
+    // whether the value is held as epoch second and nano of second, value in
+    // parent class is only a cache of it when this is true
+    private boolean epoch;
+    private long epochSecond;
+    private int nanoOfSecond;
+
     protected ProtonOffsetDateTimeValue(OffsetDateTime value, int scale, TimeZone tz) {
         super(value);
         this.scale = ProtonChecker.between(scale, ProtonValues.PARAM_SCALE, 0, 9);
         this.tz = tz == null || tz.equals(ProtonValues.UTC_TIMEZONE) ? ProtonValues.UTC_TIMEZONE : tz;
     }
 
+    /**
+     * Checks if the value is in the given time zone.
+     *
+     * @param tz time zone, null is treated as {@code UTC}
+     * @return true if the value is in the given time zone; false otherwise
+     */
+    public boolean isSameTimeZone(TimeZone tz) {
+        return this.tz == tz || this.tz.equals(tz != null ? tz : ProtonValues.UTC_TIMEZONE);
+    }
+
+    @Override
+    protected ProtonOffsetDateTimeValue set(OffsetDateTime value) {
+        epoch = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Updates value using seconds since epoch and nano of second. Offset date time
+     * will not be created until it's needed.
+     *
+     * @param epochSecond  seconds since epoch
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @return this object
+     */
+    public ProtonOffsetDateTimeValue updateEpochSecond(long epochSecond, int nanoOfSecond) {
+        super.set(null);
+        this.epoch = true;
+        this.epochSecond = epochSecond;
+        this.nanoOfSecond = nanoOfSecond;
+        return this;
+    }
+
+    /**
+     * Gets seconds since epoch.
+     *
+     * @return seconds since epoch, or 0 when it's null
+     */
+    public long getEpochSecond() {
+        if (epoch) {
+            return epochSecond;
+        }
+
+        OffsetDateTime v = super.getValue();
+        return v == null ? 0L : v.toEpochSecond();
+    }
+
+    /**
+     * Gets nano of second.
+     *
+     * @return nano of second, or 0 when it's null
+     */
+    public int getNanoOfSecond() {
+        if (epoch) {
+            return nanoOfSecond;
+        }
+
+        OffsetDateTime v = super.getValue();
+        return v == null ? 0 : v.getNano();
+    }
+
     public int getScale() {
         return scale;
     }
 
+    public TimeZone getTimeZone() {
+        return tz;
+    }
+
+    @Override
+    public OffsetDateTime getValue() {
+        OffsetDateTime v = super.getValue();
+        if (v == null && epoch) {
+            super.set(v = ProtonZoneOffsets.of(tz).toOffsetDateTime(epochSecond, nanoOfSecond));
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !epoch && super.getValue() == null;
+    }
+
     @Override
     public ProtonOffsetDateTimeValue copy(boolean deep) {
-        return new ProtonOffsetDateTimeValue(getValue(), scale, tz);
+        return epoch ? new ProtonOffsetDateTimeValue(null, scale, tz).updateEpochSecond(epochSecond, nanoOfSecond)
+                : new ProtonOffsetDateTimeValue(super.getValue(), scale, tz);
     }
 
     @Override
     public byte asByte() {
-        return isNullOrEmpty() ? (byte) 0 : (byte) getValue().toEpochSecond();
+        return (byte) getEpochSecond();
     }
 
     @Override
     public short asShort() {
-        return isNullOrEmpty() ? (short) 0 : (short) getValue().toEpochSecond();
+        return (short) getEpochSecond();
     }
 
     @Override
     public int asInteger() {
-        return isNullOrEmpty() ? 0 : (int) getValue().toEpochSecond();
+        return (int) getEpochSecond();
     }
 
     @Override
     public long asLong() {
-        return isNullOrEmpty() ? 0L : getValue().toEpochSecond();
+        return getEpochSecond();
     }
 
     @Override
     public float asFloat() {
-        return isNullOrEmpty() ? 0F
-                : getValue().toEpochSecond() + getValue().getNano() / ProtonValues.NANOS.floatValue();
+        return getEpochSecond() + getNanoOfSecond() / ProtonValues.NANOS.floatValue();
     }
 
     @Override
     public double asDouble() {
-        return isNullOrEmpty() ? 0D
-                : getValue().toEpochSecond() + getValue().getNano() / ProtonValues.NANOS.doubleValue();
+        return getEpochSecond() + getNanoOfSecond() / ProtonValues.NANOS.doubleValue();
     }
 
     @Override
     public BigInteger asBigInteger() {
-        return isNullOrEmpty() ? null : BigInteger.valueOf(getValue().toEpochSecond());
+        return isNullOrEmpty() ? null : BigInteger.valueOf(getEpochSecond());
     }
 
     @Override
     public BigDecimal asBigDecimal(int scale) {
-        OffsetDateTime value = getValue();
         BigDecimal v = null;
-        if (value != null) {
-            int nanoSeconds = value.getNano();
-            v = new BigDecimal(BigInteger.valueOf(value.toEpochSecond()), scale);
+        if (!isNullOrEmpty()) {
+            int nanoSeconds = getNanoOfSecond();
+            v = new BigDecimal(BigInteger.valueOf(getEpochSecond()), scale);
             if (scale != 0 && nanoSeconds != 0) {
                 v = v.add(BigDecimal.valueOf(nanoSeconds).divide(ProtonValues.NANOS).setScale(scale,
                         RoundingMode.HALF_UP));
@@ -176,7 +278,7 @@ public class ProtonOffsetDateTimeValue extends ProtonObjectValue<OffsetDateTime>
             return null;
         }
 
-        return getValue().toInstant();
+        return Instant.ofEpochSecond(getEpochSecond(), getNanoOfSecond());
     }
 
     @Override
@@ -383,4 +485,26 @@ public class ProtonOffsetDateTimeValue extends ProtonObjectValue<OffsetDateTime>
         }
         return this;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ProtonOffsetDateTimeValue v = (ProtonOffsetDateTimeValue) obj;
+        if (epoch && v.epoch && isSameTimeZone(v.tz)) {
+            return epochSecond == v.epochSecond && nanoOfSecond == v.nanoOfSecond;
+        }
+
+        OffsetDateTime d = getValue();
+        return d == null ? v.getValue() == null : d.equals(v.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getValue());
+    }
 }
@@ -8,14 +8,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Map.Entry;
+import java.util.TimeZone;
 import java.util.function.Supplier;
 
 import com.timeplus.proton.client.ProtonAggregateFunction;
+import com.timeplus.proton.client.ProtonByteBuffer;
 import com.timeplus.proton.client.ProtonChecker;
 import com.timeplus.proton.client.ProtonColumn;
 import com.timeplus.proton.client.ProtonConfig;
@@ -38,129 +38,80 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
     public static class MappedFunctions {
         private static final MappedFunctions instance = new MappedFunctions();
 
-        private void writeArray(ProtonValue value, ProtonConfig config, ProtonColumn column,
-                                OutputStream output) throws IOException {
-            ProtonColumn nestedColumn = column.getNestedColumns().get(0);
-            ProtonColumn baseColumn = column.getArrayBaseColumn();
-            int level = column.getArrayNestedLevel();
-            Class<?> javaClass = baseColumn.getDataType().getPrimitiveClass();
-            if (level > 1 || !javaClass.isPrimitive()) {
-                Object[] array = value.asArray();
-                ProtonValue v = ProtonValues.newValue(config, nestedColumn);
-                int length = array.length;
-                BinaryStreamUtils.writeVarInt(output, length);
-                for (int i = 0; i < length; i++) {
-                    serialize(v.update(array[i]), config, nestedColumn, output);
-                }
-            } else {
-                ProtonValue v = ProtonValues.newValue(config, baseColumn);
-                if (byte.class == javaClass) {
-                    byte[] array = (byte[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else if (short.class == javaClass) {
-                    short[] array = (short[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else if (int.class == javaClass) {
-                    int[] array = (int[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else if (long.class == javaClass) {
-                    long[] array = (long[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else if (float.class == javaClass) {
-                    float[] array = (float[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else if (double.class == javaClass) {
-                    double[] array = (double[]) value.asObject();
-                    int length = array.length;
-                    BinaryStreamUtils.writeVarInt(output, length);
-                    for (int i = 0; i < length; i++) {
-                        serialize(v.update(array[i]), config, baseColumn, output);
-                    }
-                } else {
-                    throw new IllegalArgumentException("Unsupported primitive type: " + javaClass);
-                }
-            }
+        private final Map<ProtonAggregateFunction, ProtonDeserializer<ProtonValue>> aggDeserializers;
+        private final Map<ProtonAggregateFunction, ProtonSerializer<ProtonValue>> aggSerializers;
+
+        private final Map<ProtonDataType, ProtonDeserializer<? extends ProtonValue>> deserializers;
+        private final Map<ProtonDataType, ProtonSerializer<? extends ProtonValue>> serializers;
+
+        private static boolean isUnscaled(ProtonValue value, ProtonColumn column) {
+            return value instanceof ProtonLongDecimalValue && ((ProtonLongDecimalValue) value).isCompact()
+                    && ((ProtonLongDecimalValue) value).getScale() == column.getScale();
         }
 
-        private ProtonValue readArray(ProtonValue ref, ProtonConfig config, ProtonColumn nestedColumn,
-                ProtonColumn baseColumn, ProtonInputStream input, int length, int level) throws IOException {
-            Class<?> javaClass = baseColumn.getDataType().getPrimitiveClass();
-            if (level > 1 || !javaClass.isPrimitive()) {
-                Object[] array = (Object[]) ProtonValues.createPrimitiveArray(javaClass, length, level);
-                for (int i = 0; i < length; i++) {
-                    array[i] = deserialize(null, config, nestedColumn, input).asObject();
-                }
-                ref.update(array);
-            } else {
-                if (byte.class == javaClass) {
-                    byte[] array = new byte[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asByte();
-                    }
-                    ref.update(array);
-                } else if (short.class == javaClass) {
-                    short[] array = new short[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asShort();
-                    }
-                    ref.update(array);
-                } else if (int.class == javaClass) {
-                    int[] array = new int[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asInteger();
-                    }
-                    ref.update(array);
-                } else if (long.class == javaClass) {
-                    long[] array = new long[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asLong();
-                    }
-                    ref.update(array);
-                } else if (float.class == javaClass) {
-                    float[] array = new float[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asFloat();
-                    }
-                    ref.update(array);
-                } else if (double.class == javaClass) {
-                    double[] array = new double[length];
-                    for (int i = 0; i < length; i++) {
-                        array[i] = deserialize(null, config, baseColumn, input).asDouble();
-                    }
-                    ref.update(array);
-                } else {
-                    throw new IllegalArgumentException("Unsupported primitive type: " + javaClass);
-                }
-            }
+        private static ProtonValue readIpv6(ProtonValue ref, ProtonInputStream input) throws IOException {
+            // no copy when the bytes are already in the buffer
+            ProtonByteBuffer buf = input.read(16);
+            byte[] bytes = buf.array();
+            int offset = buf.position();
+            return ProtonIpv6Value.of(ref, Long.reverseBytes(BinaryStreamUtils.toInt64(bytes, offset)),
+                    Long.reverseBytes(BinaryStreamUtils.toInt64(bytes, offset + 8)));
+        }
 
-            return ref;
+        private static ProtonValue readUuid(ProtonValue ref, ProtonInputStream input) throws IOException {
+            ProtonByteBuffer buf = input.read(16);
+            byte[] bytes = buf.array();
+            int offset = buf.position();
+            return ProtonUuidValue.of(ref, BinaryStreamUtils.toInt64(bytes, offset),
+                    BinaryStreamUtils.toInt64(bytes, offset + 8));
         }
 
-        private final Map<ProtonAggregateFunction, ProtonDeserializer<ProtonValue>> aggDeserializers;
-        private final Map<ProtonAggregateFunction, ProtonSerializer<ProtonValue>> aggSerializers;
+        private static ProtonValue readDateTime32(ProtonValue ref, ProtonConfig config, ProtonColumn column,
+                ProtonInputStream input) throws IOException {
+            long time = BinaryStreamUtils.readUnsignedInt32(input);
+            return column.getTimeZone() == null
+                    ? ProtonDateTimeValue.ofEpochSecond(ref, time, 0, column.getScale(), config.getUseTimeZone())
+                    : ProtonOffsetDateTimeValue.ofEpochSecond(ref, time, 0, column.getScale(), column.getTimeZone());
+        }
 
-        private final Map<ProtonDataType, ProtonDeserializer<? extends ProtonValue>> deserializers;
-        private final Map<ProtonDataType, ProtonSerializer<? extends ProtonValue>> serializers;
+        private static ProtonValue readDateTime64(ProtonValue ref, ProtonConfig config, ProtonColumn column,
+                ProtonInputStream input) throws IOException {
+            long value = BinaryStreamUtils.readInt64(input);
+            int scale = column.getScale();
+            long epochSecond = BinaryStreamUtils.getEpochSecond(value, scale);
+            int nanoOfSecond = BinaryStreamUtils.getNanoOfSecond(value, scale);
+            return column.getTimeZone() == null
+                    ? ProtonDateTimeValue.ofEpochSecond(ref, epochSecond, nanoOfSecond, scale, config.getUseTimeZone())
+                    : ProtonOffsetDateTimeValue.ofEpochSecond(ref, epochSecond, nanoOfSecond, scale,
+                            column.getTimeZone());
+        }
+
+        private static void writeDateTime(ProtonValue value, ProtonConfig config, ProtonColumn column,
+                OutputStream output, boolean datetime64) throws IOException {
+            TimeZone tz = column.getTimeZoneOrDefault(config.getUseTimeZone());
+            long epochSecond;
+            int nanoOfSecond;
+            if (value instanceof ProtonDateTimeValue && ((ProtonDateTimeValue) value).isSameTimeZone(tz)) {
+                epochSecond = ((ProtonDateTimeValue) value).getEpochSecond();
+                nanoOfSecond = ((ProtonDateTimeValue) value).getNanoOfSecond();
+            } else if (value instanceof ProtonOffsetDateTimeValue
+                    && ((ProtonOffsetDateTimeValue) value).isSameTimeZone(tz)) {
+                epochSecond = ((ProtonOffsetDateTimeValue) value).getEpochSecond();
+                nanoOfSecond = ((ProtonOffsetDateTimeValue) value).getNanoOfSecond();
+            } else if (datetime64) {
+                BinaryStreamUtils.writeDateTime64(output, value.asDateTime(), column.getScale(), tz);
+                return;
+            } else {
+                BinaryStreamUtils.writeDateTime32(output, value.asDateTime(), tz);
+                return;
+            }
+
+            if (datetime64) {
+                BinaryStreamUtils.writeDateTime64(output, epochSecond, nanoOfSecond, column.getScale());
+            } else {
+                BinaryStreamUtils.writeDateTime32(output, epochSecond);
+            }
+        }
 
         private void buildMappingsForAggregateFunctions() {
             // aggregate functions
@@ -260,12 +211,24 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
                             c.getScale()),
                     ProtonDataType.decimal);
             buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> ProtonBigDecimalValue.of(r, BinaryStreamUtils.readDecimal32(i, c.getScale())),
-                    (v, f, c, o) -> BinaryStreamUtils.writeDecimal32(o, v.asBigDecimal(c.getScale()), c.getScale()),
+                    (r, f, c, i) -> ProtonLongDecimalValue.of(r, BinaryStreamUtils.readInt32(i), c.getScale()),
+                    (v, f, c, o) -> {
+                        if (isUnscaled(v, c)) {
+                            BinaryStreamUtils.writeUnscaledDecimal32(o, ((ProtonLongDecimalValue) v).getUnscaledValue());
+                        } else {
+                            BinaryStreamUtils.writeDecimal32(o, v.asBigDecimal(c.getScale()), c.getScale());
+                        }
+                    },
                     ProtonDataType.decimal32);
             buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> ProtonBigDecimalValue.of(r, BinaryStreamUtils.readDecimal64(i, c.getScale())),
-                    (v, f, c, o) -> BinaryStreamUtils.writeDecimal64(o, v.asBigDecimal(c.getScale()), c.getScale()),
+                    (r, f, c, i) -> ProtonLongDecimalValue.of(r, BinaryStreamUtils.readInt64(i), c.getScale()),
+                    (v, f, c, o) -> {
+                        if (isUnscaled(v, c)) {
+                            BinaryStreamUtils.writeUnscaledDecimal64(o, ((ProtonLongDecimalValue) v).getUnscaledValue());
+                        } else {
+                            BinaryStreamUtils.writeDecimal64(o, v.asBigDecimal(c.getScale()), c.getScale());
+                        }
+                    },
                     ProtonDataType.decimal64);
             buildMappings(deserializers, serializers,
                     (r, f, c, i) -> ProtonBigDecimalValue.of(r, BinaryStreamUtils.readDecimal128(i, c.getScale())),
@@ -287,45 +250,33 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
                             BinaryStreamUtils.readDate32(i, f.getTimeZoneForDate())),
                     (v, f, c, o) -> BinaryStreamUtils.writeDate32(o, v.asDate(), f.getTimeZoneForDate()),
                     ProtonDataType.date32);
-            buildMappings(deserializers, serializers, (r, f, c, i) -> c.getTimeZone() == null
-                    ? ProtonDateTimeValue.of(r,
-                            (c.getScale() > 0 ? BinaryStreamUtils.readDateTime64(i, c.getScale(), f.getUseTimeZone())
-                                    : BinaryStreamUtils.readDateTime(i, f.getUseTimeZone())),
-                            c.getScale(), f.getUseTimeZone())
-                    : ProtonOffsetDateTimeValue.of(r,
-                            (c.getScale() > 0 ? BinaryStreamUtils.readDateTime64(i, c.getScale(), c.getTimeZone())
-                                    : BinaryStreamUtils.readDateTime(i, c.getTimeZone())),
-                            c.getScale(), c.getTimeZone()),
-                    (v, f, c, o) -> BinaryStreamUtils.writeDateTime(o, v.asDateTime(), c.getScale(),
-                            c.getTimeZoneOrDefault(f.getUseTimeZone())),
-                    ProtonDataType.datetime);
-            buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> c.getTimeZone() == null
-                            ? ProtonDateTimeValue.of(r, BinaryStreamUtils.readDateTime(i, f.getUseTimeZone()), 0,
-                                    f.getUseTimeZone())
-                            : ProtonOffsetDateTimeValue.of(r, BinaryStreamUtils.readDateTime(i, c.getTimeZone()), 0,
-                                    c.getTimeZone()),
-                    (v, f, c, o) -> BinaryStreamUtils.writeDateTime32(o, v.asDateTime(),
-                            c.getTimeZoneOrDefault(f.getUseTimeZone())),
-                    ProtonDataType.datetime32);
-            buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> c.getTimeZone() == null ? ProtonDateTimeValue.of(r,
-                            BinaryStreamUtils.readDateTime64(i, c.getScale(), f.getUseTimeZone()), c.getScale(),
-                            f.getUseTimeZone())
-                            : ProtonOffsetDateTimeValue.of(r,
-                                    BinaryStreamUtils.readDateTime64(i, c.getScale(), c.getTimeZone()), c.getScale(),
-                                    c.getTimeZone()),
-                    (v, f, c, o) -> BinaryStreamUtils.writeDateTime64(o, v.asDateTime(), c.getScale(),
-                            c.getTimeZoneOrDefault(f.getUseTimeZone())),
-                    ProtonDataType.datetime64);
-
-            buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> ProtonIpv4Value.of(r, BinaryStreamUtils.readInet4Address(i)),
-                    (v, f, c, o) -> BinaryStreamUtils.writeInet4Address(o, v.asInet4Address()),
-                    ProtonDataType.ipv4);
             buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> ProtonIpv6Value.of(r, BinaryStreamUtils.readInet6Address(i)),
-                    (v, f, c, o) -> BinaryStreamUtils.writeInet6Address(o, v.asInet6Address()),
+                    (r, f, c, i) -> c.getScale() > 0 ? readDateTime64(r, f, c, i) : readDateTime32(r, f, c, i),
+                    (v, f, c, o) -> writeDateTime(v, f, c, o, c.getScale() > 0), ProtonDataType.datetime);
+            buildMappings(deserializers, serializers, MappedFunctions::readDateTime32,
+                    (v, f, c, o) -> writeDateTime(v, f, c, o, false), ProtonDataType.datetime32);
+            buildMappings(deserializers, serializers, MappedFunctions::readDateTime64,
+                    (v, f, c, o) -> writeDateTime(v, f, c, o, true), ProtonDataType.datetime64);
+
+            buildMappings(deserializers, serializers,
+                    (r, f, c, i) -> ProtonIpv4Value.of(r, BinaryStreamUtils.readInt32(i)),
+                    (v, f, c, o) -> {
+                        if (v instanceof ProtonIpv4Value && ((ProtonIpv4Value) v).isCompact()) {
+                            BinaryStreamUtils.writeInet4Address(o, ((ProtonIpv4Value) v).getBits());
+                        } else {
+                            BinaryStreamUtils.writeInet4Address(o, v.asInet4Address());
+                        }
+                    },
+                    ProtonDataType.ipv4);
+            buildMappings(deserializers, serializers, (r, f, c, i) -> readIpv6(r, i),
+                    (v, f, c, o) -> {
+                        if (v instanceof ProtonIpv6Value && ((ProtonIpv6Value) v).isCompact()) {
+                            ProtonIpv6Value ipv6 = (ProtonIpv6Value) v;
+                            BinaryStreamUtils.writeInet6Address(o, ipv6.getHighBits(), ipv6.getLowBits());
+                        } else {
+                            BinaryStreamUtils.writeInet6Address(o, v.asInet6Address());
+                        }
+                    },
                     ProtonDataType.ipv6);
 
             // string and uuid
@@ -336,8 +287,16 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
                     (r, f, c, i) -> ProtonStringValue.of(r, i.readBytes(i.readVarInt())),
                     (v, f, c, o) -> BinaryStreamUtils.writeString(o, v.asBinary()), ProtonDataType.string);
             buildMappings(deserializers, serializers,
-                    (r, f, c, i) -> ProtonUuidValue.of(r, BinaryStreamUtils.readUuid(i)),
-                    (v, f, c, o) -> BinaryStreamUtils.writeUuid(o, v.asUuid()), ProtonDataType.uuid);
+                    (r, f, c, i) -> readUuid(r, i),
+                    (v, f, c, o) -> {
+                        if (v instanceof ProtonUuidValue) {
+                            ProtonUuidValue uuid = (ProtonUuidValue) v;
+                            BinaryStreamUtils.writeUuid(o, uuid.getMostSignificantBits(),
+                                    uuid.getLeastSignificantBits());
+                        } else {
+                            BinaryStreamUtils.writeUuid(o, v.asUuid());
+                        }
+                    }, ProtonDataType.uuid);
 
             // geo types
             buildMappings(deserializers, serializers,
@@ -357,85 +316,10 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
                     (v, f, c, o) -> BinaryStreamUtils.writeGeoMultiPolygon(o, v.asObject(double[][][][].class)),
                     ProtonDataType.multi_polygon);
 
-            // advanced types
-            buildMappings(deserializers, serializers, (r, f, c, i) -> {
-                int length = BinaryStreamUtils.readVarInt(i);
-                if (r == null) {
-                    r = ProtonValues.newValue(f, c);
-                }
-                return readArray(r, f, c.getNestedColumns().get(0), c.getArrayBaseColumn(), i, length,
-                        c.getArrayNestedLevel());
-            }, this::writeArray, ProtonDataType.array);
-            buildMappings(deserializers, serializers, (r, f, c, i) -> {
-                Map<Object, Object> map = new LinkedHashMap<>();
-                ProtonColumn keyCol = c.getKeyInfo();
-                ProtonColumn valCol = c.getValueInfo();
-                for (int k = 0, len = BinaryStreamUtils.readVarInt(i); k < len; k++) {
-                    map.put(deserialize(null, f, keyCol, i).asObject(), deserialize(null, f, valCol, i).asObject());
-                }
-                return ProtonMapValue.of(map, valCol.getDataType().getObjectClass(),
-                        valCol.getDataType().getObjectClass());
-            }, (v, f, c, o) -> {
-                Map<Object, Object> map = v.asMap();
-                BinaryStreamUtils.writeVarInt(o, map.size());
-                if (!map.isEmpty()) {
-                    ProtonColumn keyCol = c.getKeyInfo();
-                    ProtonColumn valCol = c.getValueInfo();
-                    ProtonValue kVal = ProtonValues.newValue(f, keyCol);
-                    ProtonValue vVal = ProtonValues.newValue(f, valCol);
-                    for (Entry<Object, Object> e : map.entrySet()) {
-                        serialize(kVal.update(e.getKey()), f, keyCol, o);
-                        serialize(vVal.update(e.getValue()), f, valCol, o);
-                    }
-                }
-            }, ProtonDataType.map);
-            buildMappings(deserializers, serializers, (r, f, c, i) -> {
-                int count = c.getNestedColumns().size();
-                String[] names = new String[count];
-                Object[][] values = new Object[count][];
-                int l = 0;
-                for (ProtonColumn col : c.getNestedColumns()) {
-                    names[l] = col.getColumnName();
-                    int k = BinaryStreamUtils.readVarInt(i);
-                    Object[] nvalues = new Object[k];
-                    for (int j = 0; j < k; j++) {
-                        nvalues[j] = deserialize(null, f, col, i).asObject();
-                    }
-                    values[l++] = nvalues;
-                }
-                return ProtonNestedValue.of(r, c.getNestedColumns(), values);
-            }, (v, f, c, o) -> {
-                Object[][] values = (Object[][]) v.asObject();
-                int l = 0;
-                for (ProtonColumn col : c.getNestedColumns()) {
-                    Object[] nvalues = values[l++];
-                    int k = nvalues.length;
-                    ProtonValue nv = ProtonValues.newValue(f, col);
-                    BinaryStreamUtils.writeVarInt(o, k);
-                    for (int j = 0; j < k; j++) {
-                        serialize(nv.update(nvalues[j]), f, col, o);
-                    }
-                }
-            }, ProtonDataType.nested);
-            buildMappings(deserializers, serializers, (r, f, c, i) -> {
-                List<Object> tupleValues = new ArrayList<>(c.getNestedColumns().size());
-                for (ProtonColumn col : c.getNestedColumns()) {
-                    tupleValues.add(deserialize(null, f, col, i).asObject());
-                }
-                return ProtonTupleValue.of(r, tupleValues);
-            }, (v, f, c, o) -> {
-                List<Object> tupleValues = v.asTuple();
-                Iterator<Object> tupleIterator = tupleValues.iterator();
-                for (ProtonColumn col : c.getNestedColumns()) {
-                    // FIXME tooooo slow
-                    ProtonValue tv = ProtonValues.newValue(f, col);
-                    if (tupleIterator.hasNext()) {
-                        serialize(tv.update(tupleIterator.next()), f, col, o);
-                    } else {
-                        serialize(tv, f, col, o);
-                    }
-                }
-            }, ProtonDataType.tuple);
+            // advanced types, see ProtonColumnCodec
+            buildMappings(deserializers, serializers, (r, f, c, i) -> ProtonColumnCodec.of(c).read(r, f, i),
+                    (v, f, c, o) -> ProtonColumnCodec.of(c).write(v, f, o), ProtonDataType.array, ProtonDataType.map,
+                    ProtonDataType.nested, ProtonDataType.tuple);
         }
 
         private MappedFunctions() {
@@ -449,6 +333,38 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
             buildMappingsForDataTypes();
         }
 
+        /**
+         * Gets deserializer of the given data type, without handling nullability.
+         *
+         * @param type non-null data type
+         * @return non-null deserializer, which throws
+         *         {@link IllegalArgumentException} when the data type is not
+         *         supported
+         */
+        @SuppressWarnings("unchecked")
+        ProtonDeserializer<ProtonValue> getDeserializer(ProtonDataType type) {
+            ProtonDeserializer<ProtonValue> func = (ProtonDeserializer<ProtonValue>) deserializers.get(type);
+            return func != null ? func : (r, f, c, i) -> {
+                throw new IllegalArgumentException(ERROR_UNKNOWN_DATA_TYPE + c.getDataType().name());
+            };
+        }
+
+        /**
+         * Gets serializer of the given data type, without handling nullability.
+         *
+         * @param type non-null data type
+         * @return non-null serializer, which throws
+         *         {@link IllegalArgumentException} when the data type is not
+         *         supported
+         */
+        @SuppressWarnings("unchecked")
+        ProtonSerializer<ProtonValue> getSerializer(ProtonDataType type) {
+            ProtonSerializer<ProtonValue> func = (ProtonSerializer<ProtonValue>) serializers.get(type);
+            return func != null ? func : (v, f, c, o) -> {
+                throw new IllegalArgumentException(ERROR_UNKNOWN_DATA_TYPE + c.getDataType().name());
+            };
+        }
+
         @SuppressWarnings("unchecked")
         public ProtonValue deserialize(ProtonValue ref, ProtonConfig config, ProtonColumn column,
                 ProtonInputStream input) throws IOException {
@@ -489,12 +405,16 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
         return MappedFunctions.instance;
     }
 
-    // TODO this is where ASM should come into play...
     private class Records implements Iterator<ProtonRecord> {
+        private final ProtonRowCodec codec;
+        private final ProtonStringDictionary[] dictionaries;
         private final Supplier<ProtonSimpleRecord> factory;
         private ProtonSimpleRecord record;
 
         Records() {
+            codec = ProtonRowCodec.of(columns);
+            // scoped to the result, so values from other queries are not retained
+            dictionaries = codec.newDictionaries(config);
             int size = columns.size();
             if (config.isReuseValueWrapper()) {
                 ProtonValue[] values = new ProtonValue[size];
@@ -510,12 +430,9 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
             int size = columns.size();
             ProtonSimpleRecord currentRow = factory.get();
             ProtonValue[] values = currentRow.getValues();
-            ProtonColumn column = null;
             try {
-                MappedFunctions m = getMappedFunctions();
                 for (; index < size; index++) {
-                    column = columns.get(index);
-                    values[index] = m.deserialize(values[index], config, column, input);
+                    values[index] = codec.read(index, values[index], config, dictionaries, input);
                 }
             } catch (EOFException e) {
                 if (index == 0) { // end of the stream, which is fine
@@ -523,12 +440,12 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
                 } else {
                     throw new UncheckedIOException(
                             ProtonUtils.format("Reached end of the stream when reading column #%d(total %d): %s",
-                                    index + 1, size, column),
+                                    index + 1, size, columns.get(index)),
                             e);
                 }
             } catch (IOException e) {
-                throw new UncheckedIOException(
-                        ProtonUtils.format("Failed to read column #%d(total %d): %s", index + 1, size, column), e);
+                throw new UncheckedIOException(ProtonUtils.format("Failed to read column #%d(total %d): %s",
+                        index + 1, size, columns.get(index)), e);
             }
 
             return currentRow;
@@ -595,4 +512,36 @@ public class ProtonRowBinaryProcessor extends ProtonDataProcessor {
             }
         };
     }
+
+    @Override
+    public <T> Iterable<T> records(Class<T> clazz) {
+        if (columns.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // read objects directly from the stream, without going through records
+        final ProtonRowMapper<T> mapper = ProtonRowMapper.of(clazz, columns);
+        return () -> new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return input.available() > 0;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return mapper.read(config, input);
+                } catch (EOFException e) {
+                    throw new NoSuchElementException("No more record");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(
+                            ProtonUtils.format("Failed to read %s from stream", clazz.getName()), e);
+                }
+            }
+        };
+    }
 }
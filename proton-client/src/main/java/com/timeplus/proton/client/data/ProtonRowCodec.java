@@ -0,0 +1,145 @@
+package com.timeplus.proton.client.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.timeplus.proton.client.ProtonCache;
+import com.timeplus.proton.client.ProtonChecker;
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonUtils;
+import com.timeplus.proton.client.ProtonValue;
+
+/**
+ * Compiled {@link com.timeplus.proton.client.ProtonFormat#RowBinary} decoder
+ * and encoder of a list of columns. Everything depending on column - data type
+ * lookup, nullability, scale and time zone etc. - is resolved once when
+ * compiling(see {@link ProtonColumnCodec}), so reading or writing a row is a
+ * straight loop over codecs bound to each column. Compiled codecs are cached by
+ * columns.
+ */
+public final class ProtonRowCodec {
+    private static final ProtonCache<List<ProtonColumn>, ProtonRowCodec> cache = ProtonCache
+            .create(ProtonCache.DEFAULT_CACHE_SIZE, 300L, ProtonRowCodec::new);
+
+    /**
+     * Gets compiled codec of the given columns.
+     *
+     * @param columns non-null list of columns
+     * @return non-null codec
+     */
+    public static ProtonRowCodec of(List<ProtonColumn> columns) {
+        return cache.get(Collections.unmodifiableList(new ArrayList<>(ProtonChecker.nonNull(columns, "columns"))));
+    }
+
+    private final List<ProtonColumn> columns;
+    private final ProtonColumnCodec[] codecs;
+
+    private ProtonRowCodec(List<ProtonColumn> columns) {
+        int size = columns.size();
+        this.columns = columns;
+        this.codecs = new ProtonColumnCodec[size];
+        for (int i = 0; i < size; i++) {
+            codecs[i] = ProtonColumnCodec.of(columns.get(i));
+        }
+    }
+
+    /**
+     * Gets columns of the codec.
+     *
+     * @return non-null list of columns
+     */
+    public List<ProtonColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Reads a value of the given column.
+     *
+     * @param index  zero-based index of the column
+     * @param ref    wrapper object can be reused, could be null
+     * @param config non-null configuration
+     * @param input  non-null input stream
+     * @return deserialized value which might be the same instance as {@code ref}
+     * @throws IOException when failed to read data from input stream
+     */
+    public ProtonValue read(int index, ProtonValue ref, ProtonConfig config, ProtonInputStream input)
+            throws IOException {
+        return codecs[index].read(ref, config, input);
+    }
+
+    /**
+     * Creates dictionaries for reading one result, one for each column.
+     *
+     * @param config non-null configuration
+     * @return dictionaries, or null when none of the columns has dictionary
+     *         enabled
+     */
+    ProtonStringDictionary[] newDictionaries(ProtonConfig config) {
+        ProtonStringDictionary[] dictionaries = null;
+        for (int i = 0, size = codecs.length; i < size; i++) {
+            ProtonStringDictionary dict = codecs[i].newDictionary(config);
+            if (dict != null) {
+                if (dictionaries == null) {
+                    dictionaries = new ProtonStringDictionary[size];
+                }
+                dictionaries[i] = dict;
+            }
+        }
+        return dictionaries;
+    }
+
+    /**
+     * Reads a value of the given column using dictionary.
+     *
+     * @param index        zero-based index of the column
+     * @param ref          wrapper object can be reused, could be null
+     * @param config       non-null configuration
+     * @param dictionaries dictionaries created by
+     *                     {@link #newDictionaries(ProtonConfig)}, could be null
+     * @param input        non-null input stream
+     * @return deserialized value which might be the same instance as {@code ref}
+     * @throws IOException when failed to read data from input stream
+     */
+    ProtonValue read(int index, ProtonValue ref, ProtonConfig config, ProtonStringDictionary[] dictionaries,
+            ProtonInputStream input) throws IOException {
+        return codecs[index].read(ref, config, dictionaries != null ? dictionaries[index] : null, input);
+    }
+
+    /**
+     * Writes a value of the given column.
+     *
+     * @param index  zero-based index of the column
+     * @param value  non-null value
+     * @param config non-null configuration
+     * @param output non-null output stream
+     * @throws IOException when failed to write data into output stream
+     */
+    public void write(int index, ProtonValue value, ProtonConfig config, OutputStream output) throws IOException {
+        codecs[index].write(value, config, output);
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param values non-null values, one for each column
+     * @param config non-null configuration
+     * @param output non-null output stream
+     * @throws IOException when failed to write data into output stream
+     */
+    public void writeRow(ProtonValue[] values, ProtonConfig config, OutputStream output) throws IOException {
+        int size = codecs.length;
+        if (values.length != size) {
+            throw new IllegalArgumentException(ProtonUtils.format(
+                    "Mismatched count: we have %d columns but we got %d values", size, values.length));
+        }
+
+        for (int i = 0; i < size; i++) {
+            codecs[i].write(values[i], config, output);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package com.timeplus.proton.client.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.timeplus.proton.client.ProtonByteBuffer;
+import com.timeplus.proton.client.ProtonCache;
+import com.timeplus.proton.client.ProtonChecker;
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonDataType;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonRecord;
+import com.timeplus.proton.client.ProtonUtils;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+import com.timeplus.proton.client.ProtonWriter;
+
+/**
+ * Maps {@link com.timeplus.proton.client.ProtonFormat#RowBinary} rows to plain
+ * Java objects and vice versa. Columns are bound to fields once for each
+ * combination of class and columns, by name, ignoring case and underscores,
+ * so both {@code user_id} and {@code userId} go to field {@code userId}.
+ * Column without a matching field is skipped when reading, and it's an error
+ * when writing.
+ *
+ * <p>
+ * Fields are accessed through {@link MethodHandle}. Non-nullable bool, int8,
+ * int16, int32, int64, float32 and float64 columns bound to a field of the
+ * corresponding primitive type, as well as string columns bound to a
+ * {@link String} field, are read from and written to the stream directly,
+ * without boxing or going through {@link ProtonValue}. Everything else falls
+ * back to {@link ProtonColumnCodec} and
+ * {@link ProtonValue#asObject(Class)}/{@link ProtonValue#update(Object)}. Null
+ * value of a nullable column is read as default value(e.g. zero) when it's
+ * bound to a field of primitive type.
+ *
+ * <p>
+ * Reading requires a no-argument constructor and non-final fields, while
+ * writing works for any object, including immutable ones. Compiled mappers are
+ * cached and thread-safe.
+ *
+ * @param <T> type of the object
+ */
+public final class ProtonRowMapper<T> {
+    /**
+     * Reads value of a column into the given object.
+     */
+    @FunctionalInterface
+    interface Reader {
+        void read(Object obj, ProtonConfig config, ProtonInputStream input) throws Throwable; // NOSONAR
+    }
+
+    /**
+     * Writes value of a column from the given object.
+     */
+    @FunctionalInterface
+    interface Writer {
+        void write(Object obj, ProtonConfig config, OutputStream output) throws Throwable; // NOSONAR
+    }
+
+    private static final class Key {
+        final Class<?> clazz;
+        final List<ProtonColumn> columns;
+
+        Key(Class<?> clazz, List<ProtonColumn> columns) {
+            this.clazz = clazz;
+            this.columns = columns;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * clazz.hashCode() + columns.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return clazz == other.clazz && columns.equals(other.columns);
+        }
+    }
+
+    private static final ProtonCache<Key, ProtonRowMapper<?>> cache = ProtonCache
+            .create(ProtonCache.DEFAULT_CACHE_SIZE, 300L, k -> new ProtonRowMapper<>(k.clazz, k.columns));
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    /**
+     * Gets compiled mapper of the given class and columns.
+     *
+     * @param <T>     type of the object
+     * @param clazz   non-null class of the object
+     * @param columns non-null list of columns
+     * @return non-null mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ProtonRowMapper<T> of(Class<T> clazz, List<ProtonColumn> columns) {
+        return (ProtonRowMapper<T>) cache.get(new Key(ProtonChecker.nonNull(clazz, "clazz"),
+                Collections.unmodifiableList(new ArrayList<>(ProtonChecker.nonNull(columns, "columns")))));
+    }
+
+    static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    static Map<String, Field> getFields(Class<?> clazz) {
+        Map<String, Field> fields = new HashMap<>();
+        Map<String, Field> normalized = new HashMap<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                int modifiers = f.getModifiers();
+                if (f.isSynthetic() || Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                // fields declared in sub-class take precedence
+                fields.putIfAbsent(f.getName(), f);
+                normalized.putIfAbsent(normalize(f.getName()), f);
+            }
+        }
+
+        for (Map.Entry<String, Field> e : normalized.entrySet()) {
+            fields.putIfAbsent(e.getKey(), e.getValue());
+        }
+        return fields;
+    }
+
+    static RuntimeException unwrap(Throwable e) throws IOException {
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    /**
+     * Gets value of the given field, which is default value of the type when the
+     * value is null.
+     *
+     * @param type  non-null type of the field
+     * @param value value, could be null
+     * @return value of the field, only null when the type is not primitive
+     */
+    static Object toFieldValue(Class<?> type, Object value) {
+        return value == null && type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : value;
+    }
+
+    /**
+     * Reads a string, trailing zero bytes are trimmed same as
+     * {@link ProtonStringValue#asString()}.
+     *
+     * @param input non-null input stream
+     * @return non-null string
+     * @throws IOException when failed to read data from input stream
+     */
+    static String readString(ProtonInputStream input) throws IOException {
+        ProtonByteBuffer buf = input.readStringBuffer();
+        byte[] bytes = buf.array();
+        int offset = buf.position();
+        int end = buf.limit();
+        while (end > offset && bytes[end - 1] == 0) {
+            end--;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static Reader newReader(ProtonColumn column, Class<?> type, MethodHandle setter) {
+        final ProtonDataType dataType = column.getDataType();
+        // block body is required for invokeExact to be typed as returning void
+        if (!column.isNullable()) {
+            if (dataType == ProtonDataType.bool && type == boolean.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readBoolean(i));
+                };
+            } else if (dataType == ProtonDataType.int8 && type == byte.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, byte.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readInt8(i));
+                };
+            } else if (dataType == ProtonDataType.int16 && type == short.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, short.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readInt16(i));
+                };
+            } else if (dataType == ProtonDataType.int32 && type == int.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readInt32(i));
+                };
+            } else if (dataType == ProtonDataType.int64 && type == long.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readInt64(i));
+                };
+            } else if (dataType == ProtonDataType.float32 && type == float.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, float.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readFloat32(i));
+                };
+            } else if (dataType == ProtonDataType.float64 && type == double.class) {
+                final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+                return (o, f, i) -> {
+                    h.invokeExact(o, BinaryStreamUtils.readFloat64(i));
+                };
+            }
+        }
+
+        final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        if (dataType == ProtonDataType.string && type == String.class) {
+            final boolean nullable = column.isNullable();
+            return (o, f, i) -> {
+                h.invokeExact(o, (Object) (nullable && BinaryStreamUtils.readNull(i) ? null : readString(i)));
+            };
+        }
+
+        final ProtonColumnCodec codec = ProtonColumnCodec.of(column);
+        // primitives are boxed in asObject(Class)
+        final Class<?> javaClass = MethodType.methodType(type).wrap().returnType();
+        final boolean nullable = column.isNullable();
+        // null cannot be unboxed
+        final Object nullValue = toFieldValue(type, null);
+        return (o, f, i) -> {
+            ProtonValue v = codec.read(null, f, i);
+            Object value = nullable && v.isNullOrEmpty() ? null : v.asObject(javaClass);
+            h.invokeExact(o, value != null ? value : nullValue);
+        };
+    }
+
+    private static Writer newWriter(ProtonColumn column, Class<?> type, MethodHandle getter) {
+        final ProtonDataType dataType = column.getDataType();
+        if (!column.isNullable()) {
+            if (dataType == ProtonDataType.bool && type == boolean.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(boolean.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeBoolean(out, (boolean) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.int8 && type == byte.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(byte.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeInt8(out, (byte) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.int16 && type == short.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(short.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeInt16(out, (short) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.int32 && type == int.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(int.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeInt32(out, (int) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.int64 && type == long.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(long.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeInt64(out, (long) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.float32 && type == float.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(float.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeFloat32(out, (float) h.invokeExact(o));
+            } else if (dataType == ProtonDataType.float64 && type == double.class) {
+                final MethodHandle h = getter.asType(MethodType.methodType(double.class, Object.class));
+                return (o, f, out) -> BinaryStreamUtils.writeFloat64(out, (double) h.invokeExact(o));
+            }
+        }
+
+        final MethodHandle h = getter.asType(MethodType.methodType(Object.class, Object.class));
+        if (dataType == ProtonDataType.string && type == String.class && column.isNullable()) {
+            return (o, f, out) -> {
+                String s = (String) (Object) h.invokeExact(o);
+                if (s == null) {
+                    BinaryStreamUtils.writeNull(out);
+                } else {
+                    BinaryStreamUtils.writeNonNull(out);
+                    BinaryStreamUtils.writeString(out, s);
+                }
+            };
+        } else if (dataType == ProtonDataType.string && type == String.class) {
+            return (o, f, out) -> BinaryStreamUtils.writeString(out, (String) (Object) h.invokeExact(o));
+        }
+
+        final ProtonColumnCodec codec = ProtonColumnCodec.of(column);
+        return (o, f, out) -> {
+            Object obj = (Object) h.invokeExact(o);
+            ProtonValue v = ProtonValues.newValue(f, column);
+            codec.write(obj == null ? v.resetToNullOrEmpty() : v.update(obj), f, out);
+        };
+    }
+
+    private final Class<T> clazz;
+    private final List<ProtonColumn> columns;
+    private final MethodHandle constructor;
+    private final Reader[] readers;
+    private final Writer[] writers;
+    private final Field[] fields;
+    // why the object cannot be read, null means it's readable
+    private final String readError;
+
+    private ProtonRowMapper(Class<T> clazz, List<ProtonColumn> columns) {
+        this.clazz = clazz;
+        this.columns = columns;
+
+        int size = columns.size();
+        this.readers = new Reader[size];
+        this.writers = new Writer[size];
+        this.fields = new Field[size];
+
+        String error = null;
+        MethodHandle ctor = null;
+        try {
+            Constructor<T> c = clazz.getDeclaredConstructor();
+            c.setAccessible(true);
+            ctor = lookup.unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            error = ProtonUtils.format("No accessible no-argument constructor in %s", clazz.getName());
+        }
+        this.constructor = ctor;
+
+        Map<String, Field> fieldMap = getFields(clazz);
+        for (int i = 0; i < size; i++) {
+            ProtonColumn column = columns.get(i);
+            String name = column.getColumnName();
+            Field field = fieldMap.get(name);
+            if (field == null) {
+                field = fieldMap.get(normalize(name));
+            }
+
+            if (field == null) {
+                // skip value of the column
+                final ProtonColumnCodec codec = ProtonColumnCodec.of(column);
+                readers[i] = (o, f, in) -> codec.read(null, f, in);
+                continue;
+            }
+
+            Class<?> type = field.getType();
+            try {
+                field.setAccessible(true);
+                fields[i] = field;
+                writers[i] = newWriter(column, type, lookup.unreflectGetter(field));
+                if (Modifier.isFinal(field.getModifiers())) {
+                    if (error == null) {
+                        error = ProtonUtils.format("Field [%s] of %s is final", field.getName(), clazz.getName());
+                    }
+                } else {
+                    readers[i] = newReader(column, type, lookup.unreflectSetter(field));
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException(
+                        ProtonUtils.format("Failed to bind column [%s] to field [%s] of %s", name, field.getName(),
+                                clazz.getName()),
+                        e);
+            }
+        }
+        this.readError = error;
+    }
+
+    /**
+     * Gets class of the object.
+     *
+     * @return non-null class of the object
+     */
+    public Class<T> getObjectClass() {
+        return clazz;
+    }
+
+    /**
+     * Gets columns of the mapper.
+     *
+     * @return non-null list of columns
+     */
+    public List<ProtonColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Checks whether the object can be read from stream, which requires a
+     * no-argument constructor and non-final fields.
+     *
+     * @return true if the object can be read; false otherwise
+     */
+    public boolean isReadable() {
+        return readError == null;
+    }
+
+    private T newInstance() {
+        if (readError != null) {
+            throw new UnsupportedOperationException(readError);
+        }
+
+        try {
+            return clazz.cast((Object) constructor.invokeExact());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) { // NOSONAR
+            throw new IllegalStateException(
+                    ProtonUtils.format("Failed to create instance of %s", clazz.getName()), e);
+        }
+    }
+
+    /**
+     * Reads a row into a new object.
+     *
+     * @param config non-null configuration
+     * @param input  non-null input stream
+     * @return non-null object
+     * @throws IOException when failed to read data from input stream
+     */
+    public T read(ProtonConfig config, ProtonInputStream input) throws IOException {
+        T obj = newInstance();
+        try {
+            for (Reader r : readers) {
+                r.read(obj, config, input);
+            }
+        } catch (Throwable e) { // NOSONAR
+            throw unwrap(e);
+        }
+        return obj;
+    }
+
+    /**
+     * Converts a deserialized record into a new object. It's slower than
+     * {@link #read(ProtonConfig, ProtonInputStream)}, and it's mainly for formats
+     * other than {@link com.timeplus.proton.client.ProtonFormat#RowBinary}.
+     *
+     * @param record non-null record with same columns as the mapper
+     * @return non-null object
+     */
+    public T map(ProtonRecord record) {
+        T obj = newInstance();
+        for (int i = 0, len = Math.min(fields.length, record.size()); i < len; i++) {
+            Field f = fields[i];
+            if (f == null) {
+                continue;
+            }
+
+            Class<?> type = f.getType();
+            ProtonValue v = record.getValue(i);
+            try {
+                f.set(obj, toFieldValue(type, columns.get(i).isNullable() && v.isNullOrEmpty() ? null
+                        : v.asObject(MethodType.methodType(type).wrap().returnType())));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return obj;
+    }
+
+    /**
+     * Converts deserialized records into objects lazily, see
+     * {@link #map(ProtonRecord)}.
+     *
+     * @param records non-null records with same columns as the mapper
+     * @return non-null iterable collection of objects
+     */
+    public Iterable<T> mapAll(Iterable<ProtonRecord> records) {
+        ProtonChecker.nonNull(records, "records");
+        return () -> {
+            final Iterator<ProtonRecord> it = records.iterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return map(it.next());
+                }
+            };
+        };
+    }
+
+    /**
+     * Writes an object as a row.
+     *
+     * @param obj    non-null object
+     * @param config non-null configuration
+     * @param output non-null output stream
+     * @throws IOException when failed to write data into output stream
+     */
+    public void write(T obj, ProtonConfig config, OutputStream output) throws IOException {
+        ProtonChecker.nonNull(obj, "obj");
+        int index = 0;
+        try {
+            for (int len = writers.length; index < len; index++) {
+                Writer w = writers[index];
+                if (w == null) {
+                    throw new IllegalArgumentException(ProtonUtils.format("No field of %s is bound to column [%s]",
+                            clazz.getName(), columns.get(index).getColumnName()));
+                }
+                w.write(obj, config, output);
+            }
+        } catch (Throwable e) { // NOSONAR
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Writes objects as rows.
+     *
+     * @param rows   non-null objects
+     * @param config non-null configuration
+     * @param output non-null output stream
+     * @throws IOException when failed to write data into output stream
+     */
+    public void write(Iterable<? extends T> rows, ProtonConfig config, OutputStream output) throws IOException {
+        for (T row : ProtonChecker.nonNull(rows, "rows")) {
+            write(row, config, output);
+        }
+    }
+
+    /**
+     * Creates a writer of the given objects, for example, to be used in
+     * {@link com.timeplus.proton.client.ProtonClient#load(com.timeplus.proton.client.ProtonNode, String, com.timeplus.proton.client.ProtonFormat, com.timeplus.proton.client.ProtonCompression, ProtonWriter)}.
+     *
+     * @param rows   non-null objects
+     * @param config non-null configuration
+     * @return non-null writer
+     */
+    public ProtonWriter writer(Iterable<? extends T> rows, ProtonConfig config) {
+        ProtonChecker.nonNull(rows, "rows");
+        ProtonChecker.nonNull(config, "config");
+        return output -> write(rows, config, output);
+    }
+}
@@ -144,4 +144,14 @@ public class ProtonStreamResponse implements ProtonResponse {
 
         return processor.records();
     }
+
+    @Override
+    public <T> Iterable<T> records(Class<T> clazz) {
+        if (processor == null) {
+            throw new UnsupportedOperationException(
+                    "No data processor available for deserialization, please consider to use getInputStream instead");
+        }
+
+        return processor.records(clazz);
+    }
 }
@@ -0,0 +1,100 @@
+package com.timeplus.proton.client.data;
+
+import java.nio.charset.StandardCharsets;
+
+import com.timeplus.proton.client.ProtonByteBuffer;
+import com.timeplus.proton.client.ProtonChecker;
+
+/**
+ * Bounded dictionary of string values keyed by their UTF-8 bytes, so that
+ * repeated values in a column share same {@link String} and byte array
+ * instances instead of allocating new ones for each cell. It's an insert-only
+ * open addressing table - once it's full, unknown values are simply not
+ * cached. Lookup does not allocate when there's a hit. Dictionary is created
+ * for each result and it's not thread-safe.
+ */
+final class ProtonStringDictionary {
+    static final class Entry {
+        final int hash;
+        final byte[] bytes;
+        final String value;
+
+        Entry(int hash, byte[] bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final int MAX_PROBES = 8;
+
+    private final int capacity;
+    private final int mask;
+    private final Entry[] entries;
+    private int size;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity maximum number of distinct values to cache, must be
+     *                 positive
+     */
+    ProtonStringDictionary(int capacity) {
+        this.capacity = ProtonChecker.between(capacity, "capacity", 1, 1 << 20);
+
+        // keep load factor below 0.5
+        int len = Integer.highestOneBit(capacity) << 2;
+        this.mask = len - 1;
+        this.entries = new Entry[len];
+        this.size = 0;
+    }
+
+    /**
+     * Gets maximum number of distinct values to cache.
+     *
+     * @return capacity of the dictionary
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets number of cached values.
+     *
+     * @return number of cached values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets cached entry of the given bytes, or adds one when it's not cached and
+     * the dictionary is not full.
+     *
+     * @param buffer non-null byte buffer
+     * @return cached entry, or null when it cannot be cached
+     */
+    Entry get(ProtonByteBuffer buffer) {
+        // same as ProtonStringValue.asString(), trailing zero bytes will be
+        // trimmed so the value does not round trip - leave it as is
+        if (!buffer.isEmpty() && buffer.array()[buffer.limit() - 1] == 0) {
+            return null;
+        }
+
+        int h = buffer.contentHashCode();
+        h ^= h >>> 16;
+        for (int i = h & mask, probes = 0; probes < MAX_PROBES; i = (i + 1) & mask, probes++) {
+            Entry e = entries[i];
+            if (e == null) {
+                if (size >= capacity) {
+                    return null;
+                }
+                size++;
+                return entries[i] = new Entry(h, buffer.asBinary());
+            } else if (e.hash == h && buffer.contentEquals(e.bytes)) {
+                return e;
+            }
+        }
+        return null;
+    }
+}
@@ -4,16 +4,20 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.UUID;
+import com.timeplus.proton.client.ProtonChecker;
 import com.timeplus.proton.client.ProtonValue;
 import com.timeplus.proton.client.ProtonValues;
 
 /**
- * Wraper class of string.
+ * Wraper class of UUID. Values read from a stream are kept as two longs, and
+ * {@link UUID} is only created when it's really needed.
  */
 public class ProtonUuidValue extends ProtonObjectValue<UUID> {
     /**
@@ -32,7 +36,7 @@ public class ProtonUuidValue extends ProtonObjectValue<UUID> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonUuidValue ofNull(ProtonValue ref) {
-        return ref instanceof ProtonUuidValue ? (ProtonUuidValue) ((ProtonUuidValue) ref).set(null)
+        return ref instanceof ProtonUuidValue ? ((ProtonUuidValue) ref).set(null)
                 : new ProtonUuidValue(null);
     }
 
@@ -55,17 +59,122 @@ public class ProtonUuidValue extends ProtonObjectValue<UUID> {
      * @return same object as {@code ref} or a new instance if it's null
      */
     public static ProtonUuidValue of(ProtonValue ref, UUID value) {
-        return ref instanceof ProtonUuidValue ? (ProtonUuidValue) ((ProtonUuidValue) ref).set(value)
+        return ref instanceof ProtonUuidValue ? ((ProtonUuidValue) ref).set(value)
                 : new ProtonUuidValue(value);
     }
 
+    /**
+     * Wrap the given most and least significant bits.
+     *
+     * @param mostSigBits  most significant 64 bits of the UUID
+     * @param leastSigBits least significant 64 bits of the UUID
+     * @return object representing the value
+     */
+    public static ProtonUuidValue of(long mostSigBits, long leastSigBits) {
+        return of(null, mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Update most and least significant bits of the given object or create a new
+     * instance if {@code ref} is null.
+     *
+     * @param ref          object to update, could be null
+     * @param mostSigBits  most significant 64 bits of the UUID
+     * @param leastSigBits least significant 64 bits of the UUID
+     * @return same object as {@code ref} or a new instance if it's null
+     */
+    public static ProtonUuidValue of(ProtonValue ref, long mostSigBits, long leastSigBits) {
+        return (ref instanceof ProtonUuidValue ? (ProtonUuidValue) ref : new ProtonUuidValue(null))
+                .update(mostSigBits, leastSigBits);
+    }
+
+    // whether the bits are up-to-date, value in parent class is only a cache of
+    // them when this is true
+    private boolean compact;
+    private long mostSigBits;
+    private long leastSigBits;
+
     protected ProtonUuidValue(UUID value) {
         super(value);
     }
 
+    @Override
+    protected ProtonUuidValue set(UUID value) {
+        compact = false;
+        super.set(value);
+        return this;
+    }
+
+    /**
+     * Updates most and least significant bits of the UUID.
+     *
+     * @param mostSigBits  most significant 64 bits of the UUID
+     * @param leastSigBits least significant 64 bits of the UUID
+     * @return this object
+     */
+    public ProtonUuidValue update(long mostSigBits, long leastSigBits) {
+        super.set(null);
+        this.compact = true;
+        this.mostSigBits = mostSigBits;
+        this.leastSigBits = leastSigBits;
+        return this;
+    }
+
+    /**
+     * Checks whether the value is held as two longs.
+     *
+     * @return true if the value is held as two longs; false otherwise
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Gets most significant 64 bits of the UUID.
+     *
+     * @return most significant bits, or 0 when it's null
+     */
+    public long getMostSignificantBits() {
+        if (compact) {
+            return mostSigBits;
+        }
+
+        UUID v = super.getValue();
+        return v == null ? 0L : v.getMostSignificantBits();
+    }
+
+    /**
+     * Gets least significant 64 bits of the UUID.
+     *
+     * @return least significant bits, or 0 when it's null
+     */
+    public long getLeastSignificantBits() {
+        if (compact) {
+            return leastSigBits;
+        }
+
+        UUID v = super.getValue();
+        return v == null ? 0L : v.getLeastSignificantBits();
+    }
+
+    @Override
+    public UUID getValue() {
+        UUID v = super.getValue();
+        if (v == null && compact) {
+            super.set(v = new UUID(mostSigBits, leastSigBits));
+        }
+        return v;
+    }
+
+    @Override
+    public boolean isNullOrEmpty() {
+        return !compact && super.getValue() == null;
+    }
+
     @Override
     public ProtonUuidValue copy(boolean deep) {
-        return new ProtonUuidValue(getValue());
+        ProtonUuidValue v = new ProtonUuidValue(null);
+        return compact ? v.update(mostSigBits, leastSigBits) : v.set(super.getValue());
     }
 
     @Override
@@ -118,12 +227,50 @@ public class ProtonUuidValue extends ProtonObjectValue<UUID> {
         return getValue();
     }
 
+    @Override
+    public String asString(int length, Charset charset) {
+        if (isNullOrEmpty()) {
+            return null;
+        }
+
+        String str = compact ? toUuidString() : getValue().toString();
+        if (length > 0) {
+            ProtonChecker.notWithDifferentLength(str.getBytes(charset == null ? StandardCharsets.UTF_8 : charset),
+                    length);
+        }
+
+        return str;
+    }
+
     @Override
     public String toSqlExpression() {
         if (isNullOrEmpty()) {
             return ProtonValues.NULL_EXPR;
         }
-        return new StringBuilder().append('\'').append(getValue().toString()).append('\'').toString();
+        return new StringBuilder().append('\'').append(compact ? toUuidString() : getValue().toString())
+                .append('\'').toString();
+    }
+
+    /**
+     * Formats bits the same way as {@link UUID#toString()} does, so that
+     * {@link UUID} is not needed.
+     *
+     * @return non-null string representation of the UUID
+     */
+    private String toUuidString() {
+        StringBuilder builder = new StringBuilder(36);
+        appendHex(builder, mostSigBits >>> 32, 8).append('-');
+        appendHex(builder, mostSigBits >>> 16, 4).append('-');
+        appendHex(builder, mostSigBits, 4).append('-');
+        appendHex(builder, leastSigBits >>> 48, 4).append('-');
+        return appendHex(builder, leastSigBits, 12).toString();
+    }
+
+    private static StringBuilder appendHex(StringBuilder builder, long bits, int digits) {
+        for (int i = (digits - 1) * 4; i >= 0; i -= 4) {
+            builder.append(Character.forDigit((int) (bits >>> i) & 0xF, 16));
+        }
+        return builder;
     }
 
     @Override
@@ -242,6 +389,9 @@ public class ProtonUuidValue extends ProtonObjectValue<UUID> {
     public ProtonUuidValue update(ProtonValue value) {
         if (value == null) {
             resetToNullOrEmpty();
+        } else if (value instanceof ProtonUuidValue && ((ProtonUuidValue) value).compact) {
+            ProtonUuidValue v = (ProtonUuidValue) value;
+            update(v.mostSigBits, v.leastSigBits);
         } else {
             set(value.asUuid());
         }
@@ -257,4 +407,25 @@ public class ProtonUuidValue extends ProtonObjectValue<UUID> {
         }
         return this;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ProtonUuidValue v = (ProtonUuidValue) obj;
+        boolean isNull = isNullOrEmpty();
+        return isNull == v.isNullOrEmpty() && (isNull || (getMostSignificantBits() == v.getMostSignificantBits()
+                && getLeastSignificantBits() == v.getLeastSignificantBits()));
+    }
+
+    @Override
+    public int hashCode() {
+        // same as parent class, which uses UUID.hashCode()
+        long h = getMostSignificantBits() ^ getLeastSignificantBits();
+        return 31 + (isNullOrEmpty() ? 0 : ((int) (h >> 32) ^ (int) h));
+    }
 }
@@ -0,0 +1,154 @@
+package com.timeplus.proton.client.data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.TimeZone;
+
+import com.timeplus.proton.client.ProtonCache;
+import com.timeplus.proton.client.ProtonValues;
+
+/**
+ * Conversion between epoch second and local date time of a time zone. Instead
+ * of going through {@link ZoneRules} for each value, it remembers the offset
+ * along with the period it's valid for, which is from the previous transition
+ * to the next one, so that consecutive values in a column are mostly converted
+ * using a range check and simple arithmetic.
+ */
+final class ProtonZoneOffsets {
+    private static final class Period {
+        final long start;
+        final long end;
+        final ZoneOffset offset;
+
+        Period(long start, long end, ZoneOffset offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+
+    // local date time within one day of a transition could be ambiguous
+    private static final long MARGIN = 86400L;
+
+    private static final ProtonCache<TimeZone, ProtonZoneOffsets> cache = ProtonCache.create(100, 3600L,
+            ProtonZoneOffsets::new);
+
+    static final ProtonZoneOffsets UTC = new ProtonZoneOffsets(ProtonValues.UTC_TIMEZONE);
+
+    private static volatile ProtonZoneOffsets last = UTC;
+
+    /**
+     * Gets offsets of the given time zone.
+     *
+     * @param tz time zone, null is treated as UTC
+     * @return non-null offsets of the time zone
+     */
+    static ProtonZoneOffsets of(TimeZone tz) {
+        if (tz == null) {
+            return UTC;
+        }
+
+        ProtonZoneOffsets z = last;
+        if (z.tz != tz) {
+            last = z = cache.get(tz);
+        }
+        return z;
+    }
+
+    private final TimeZone tz;
+    private final ZoneId zone;
+    private final ZoneRules rules;
+
+    private volatile Period period;
+
+    private ProtonZoneOffsets(TimeZone tz) {
+        this.tz = tz;
+        this.zone = tz.toZoneId();
+        this.rules = zone.getRules();
+
+        this.period = rules.isFixedOffset()
+                ? new Period(Long.MIN_VALUE, Long.MAX_VALUE, rules.getOffset(Instant.EPOCH))
+                : getPeriod(0L);
+    }
+
+    private Period getPeriod(long epochSecond) {
+        // transitions happen at the beginning of a second
+        ZoneOffsetTransition prev = epochSecond == Long.MAX_VALUE ? null
+                : rules.previousTransition(Instant.ofEpochSecond(epochSecond + 1L));
+        ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochSecond(epochSecond));
+        return new Period(prev != null ? prev.toEpochSecond() : Long.MIN_VALUE,
+                next != null ? next.toEpochSecond() : Long.MAX_VALUE,
+                rules.getOffset(Instant.ofEpochSecond(epochSecond)));
+    }
+
+    /**
+     * Gets time zone.
+     *
+     * @return non-null time zone
+     */
+    TimeZone getTimeZone() {
+        return tz;
+    }
+
+    /**
+     * Gets zone offset at the given epoch second.
+     *
+     * @param epochSecond epoch second
+     * @return non-null zone offset
+     */
+    ZoneOffset getOffset(long epochSecond) {
+        Period p = period;
+        if (epochSecond < p.start || epochSecond >= p.end) {
+            period = p = getPeriod(epochSecond);
+        }
+        return p.offset;
+    }
+
+    /**
+     * Converts epoch second and nano adjustment to local date time.
+     *
+     * @param epochSecond  epoch second
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @return non-null local date time
+     */
+    LocalDateTime toLocalDateTime(long epochSecond, int nanoOfSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, getOffset(epochSecond));
+    }
+
+    /**
+     * Converts epoch second and nano adjustment to offset date time.
+     *
+     * @param epochSecond  epoch second
+     * @param nanoOfSecond nano of second, from 0 to 999,999,999
+     * @return non-null offset date time
+     */
+    OffsetDateTime toOffsetDateTime(long epochSecond, int nanoOfSecond) {
+        ZoneOffset offset = getOffset(epochSecond);
+        return OffsetDateTime.of(LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, offset), offset);
+    }
+
+    /**
+     * Converts local date time to epoch second. It's same as
+     * {@code value.atZone(zone).toEpochSecond()}.
+     *
+     * @param value non-null local date time
+     * @return epoch second
+     */
+    long toEpochSecond(LocalDateTime value) {
+        Period p = period;
+        long epochSecond = value.toEpochSecond(p.offset);
+        if (epochSecond - MARGIN >= p.start && epochSecond + MARGIN < p.end) {
+            return epochSecond;
+        }
+
+        // gap, overlap or a different period
+        epochSecond = value.atZone(zone).toEpochSecond();
+        getOffset(epochSecond);
+        return epochSecond;
+    }
+}
@@ -1,6 +1,13 @@
 package com.timeplus.proton.client.naming;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.timeplus.proton.client.ProtonDnsResolver;
 import com.timeplus.proton.client.ProtonProtocol;
@@ -10,49 +17,77 @@ import com.timeplus.proton.client.logging.LoggerFactory;
 import org.xbill.DNS.Lookup;
 import org.xbill.DNS.Record;
 import org.xbill.DNS.SRVRecord;
-import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 
 public class SrvResolver extends ProtonDnsResolver {
     private static final Logger log = LoggerFactory.getLogger(SrvResolver.class);
 
+    /**
+     * Looks up SRV records of the given name.
+     *
+     * @param srvDns non-null name of the service
+     * @return non-empty records, ordered by priority(lower first) and then
+     *         weight(higher first)
+     * @throws IOException when failed to look up
+     */
+    protected SRVRecord[] lookupRecords(String srvDns) throws IOException {
+        Lookup lookup = new Lookup(srvDns, Type.SRV);
+        Record[] records = lookup.run();
+        if (records == null || records.length == 0) {
+            throw new UnknownHostException(srvDns + ": " + lookup.getErrorString());
+        }
+
+        SRVRecord[] array = new SRVRecord[records.length];
+        for (int i = 0; i < records.length; i++) {
+            array[i] = (SRVRecord) records[i];
+        }
+        Arrays.sort(array, Comparator.comparingInt(SRVRecord::getPriority)
+                .thenComparing(Comparator.comparingInt(SRVRecord::getWeight).reversed()));
+        return array;
+    }
+
+    /**
+     * Looks up one SRV record of the given name.
+     *
+     * @param srvDns        name of the service
+     * @param basedOnWeight whether to pick the record with lowest weight, or the
+     *                      first one otherwise
+     * @return SRV record, or null if not found
+     * @deprecated will be removed in the future, please use
+     *             {@link #lookupRecords(String)} or
+     *             {@link #resolve(ProtonProtocol, String, int)} instead
+     */
+    @Deprecated
     protected SRVRecord lookup(String srvDns, boolean basedOnWeight) {
-        Record[] records = null;
+        SRVRecord[] records;
         try {
-            records = new Lookup(srvDns, Type.SRV).run();
-        } catch (TextParseException e) {
-            // fallback to a cached entry?
+            records = lookupRecords(srvDns);
+        } catch (IOException e) {
             log.warn("Not able to resolve given DNS query: [%s]", srvDns, e);
+            return null;
         }
 
-        SRVRecord record = null;
-        if (records != null) {
-            if (basedOnWeight) {
-                for (int i = 0; i < records.length; i++) {
-                    SRVRecord rec = (SRVRecord) records[i];
-                    if (record == null || record.getWeight() > rec.getWeight()) {
-                        record = rec;
-                    }
+        SRVRecord record = records[0];
+        if (basedOnWeight) {
+            for (SRVRecord rec : records) {
+                if (record.getWeight() > rec.getWeight()) {
+                    record = rec;
                 }
-            } else {
-                record = (SRVRecord) records[0];
             }
         }
-
         return record;
     }
 
     @Override
-    public InetSocketAddress resolve(ProtonProtocol protocol, String host, int port) {
-        if (protocol == null || host == null) {
-            throw new IllegalArgumentException("Non-null protocol and host are required");
-        }
-
-        SRVRecord r = lookup(host, false);
-        if (r != null) {
-            host = r.getName().canonicalize().toString(true);
-            port = r.getPort();
+    protected Answer lookup(ProtonProtocol protocol, String host, int port) throws IOException {
+        SRVRecord[] records = lookupRecords(host);
+        List<InetSocketAddress> list = new ArrayList<>(records.length);
+        long ttl = Long.MAX_VALUE;
+        for (SRVRecord rec : records) {
+            // keep target name of the record, which is needed for SSL
+            list.add(new InetSocketAddress(rec.getTarget().canonicalize().toString(true), rec.getPort()));
+            ttl = Math.min(ttl, rec.getTTL());
         }
-        return new InetSocketAddress(host, port);
+        return new Answer(list, TimeUnit.SECONDS.toMillis(ttl));
     }
 }
@@ -1,9 +1,21 @@
 package com.timeplus.proton.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -30,6 +42,183 @@ public class AbstractClientTest {
         }
     }
 
+    static class PendingClient extends AbstractClient<Object> {
+        // shared with side client for cancellation
+        static final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+        static final List<CompletableFuture<ProtonResponse>> futures = Collections
+                .synchronizedList(new ArrayList<>());
+
+        @Override
+        protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+            queries.add(sealedRequest.getQuery());
+            CompletableFuture<ProtonResponse> future = sealedRequest.isIdempotent() ? new CompletableFuture<>()
+                    : CompletableFuture.completedFuture(ProtonResponse.EMPTY);
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        protected ProtonClient newSideClient(ProtonConfig config) {
+            PendingClient client = new PendingClient();
+            client.init(new ProtonConfig(Collections.singletonMap(ProtonClientOption.ASYNC, false), null, null,
+                    null));
+            return client;
+        }
+
+        @Override
+        protected Object newConnection(Object connection, ProtonNode server, ProtonRequest<?> request) {
+            return server;
+        }
+
+        @Override
+        protected void closeConnection(Object connection, boolean force) {
+            // nothing to close
+        }
+    }
+
+    static ProtonResponse newResponse(InputStream input) {
+        return new ProtonResponse() {
+            private static final long serialVersionUID = 1L;
+
+            private boolean closed;
+
+            @Override
+            public List<ProtonColumn> getColumns() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public ProtonResponseSummary getSummary() {
+                return ProtonResponseSummary.EMPTY;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return input;
+            }
+
+            @Override
+            public Iterable<ProtonRecord> records() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+                closed = true;
+            }
+
+            @Override
+            public boolean isClosed() {
+                return closed;
+            }
+        };
+    }
+
+    @Test(groups = { "unit" })
+    public void testCancelQuery() throws Exception {
+        PendingClient.queries.clear();
+        PendingClient.futures.clear();
+        PendingClient client = new PendingClient();
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.CANCEL_DELAY, 0);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 10);
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            ProtonNode node = ProtonNode.builder().build();
+            // cancelled before getting response
+            CompletableFuture<ProtonResponse> future = client.connect(node).query("select 1", "q1").execute();
+            Assert.assertTrue(future.cancel(false));
+            ProtonClusterTest.waitFor(PendingClient.queries, 2);
+            Assert.assertEquals(PendingClient.queries,
+                    Arrays.asList("select 1", "KILL QUERY WHERE query_id='q1' ASYNC"));
+            // late response should be discarded without another cancellation
+            PendingClient.futures.get(0).complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(PendingClient.queries.size(), 2);
+
+            // closed before reading all data
+            PendingClient.queries.clear();
+            PendingClient.futures.clear();
+            future = client.connect(node).query("select 2", "q2").execute();
+            PendingClient.futures.get(0).complete(ProtonResponse.EMPTY);
+            future.get().close();
+            ProtonClusterTest.waitFor(PendingClient.queries, 2);
+            Assert.assertEquals(PendingClient.queries,
+                    Arrays.asList("select 2", "KILL QUERY WHERE query_id='q2' ASYNC"));
+
+            // closed after reading all data
+            PendingClient.queries.clear();
+            PendingClient.futures.clear();
+            future = client.connect(node).query("select 4", "q4").execute();
+            ProtonInputStream input = ProtonInputStream.of(new ByteArrayInputStream(new byte[] { 1 }));
+            PendingClient.futures.get(0).complete(newResponse(input));
+            ProtonResponse response = future.get();
+            Assert.assertEquals(response.getInputStream().read(), 1);
+            Assert.assertEquals(response.getInputStream().read(), -1);
+            response.close();
+            Assert.assertTrue(input.isClosed());
+            Thread.sleep(100L);
+            Assert.assertEquals(PendingClient.queries, Collections.singletonList("select 4"));
+
+            // query id is generated when not specified
+            PendingClient.queries.clear();
+            PendingClient.futures.clear();
+            future = client.connect(node).query("select 3").execute();
+            Assert.assertTrue(future.cancel(false));
+            ProtonClusterTest.waitFor(PendingClient.queries, 2);
+            Assert.assertEquals(PendingClient.queries.size(), 2);
+            Assert.assertTrue(PendingClient.queries.get(1).startsWith("KILL QUERY WHERE query_id='"));
+        } finally {
+            client.close();
+        }
+
+        // no cancellation on server side
+        PendingClient.queries.clear();
+        client.init(new ProtonConfig(Collections.singletonMap(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0),
+                null, null, null));
+        try {
+            Assert.assertTrue(client.connect(ProtonNode.builder().build()).query("select 1").execute().cancel(false));
+            Thread.sleep(100L);
+            Assert.assertEquals(PendingClient.queries, Collections.singletonList("select 1"));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testConcurrentGetConnection() throws Exception {
+        SimpleClient client = new SimpleClient();
+        client.init(new ProtonConfig());
+        ProtonRequest<?> req = client.connect(ProtonNode.builder().build());
+        Object[] conn = client.getConnection(req);
+
+        int threads = 16;
+        CountDownLatch latch = new CountDownLatch(threads);
+        List<Object[]> list = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < 1000; j++) {
+                        list.add(new Object[] { client.getConnection(req), client.getConfig() });
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        Assert.assertTrue(latch.await(10000L, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(list.size(), threads * 1000);
+        for (Object[] pair : list) {
+            Assert.assertTrue(pair[0] == conn, "Should always reuse the same connection");
+            Assert.assertTrue(pair[1] == client.getConfig(), "Should always get the same config");
+        }
+        client.close();
+    }
+
     @Test(groups = { "unit" })
     public void testClose() {
         SimpleClient sc = new SimpleClient();
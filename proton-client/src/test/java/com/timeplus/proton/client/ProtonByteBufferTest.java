@@ -1,5 +1,8 @@
 package com.timeplus.proton.client;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -54,4 +57,39 @@ public class ProtonByteBufferTest {
         Assert.assertEquals(ProtonByteBuffer.newInstance().update(new byte[] { 1, 2, 3 }, 1, 2),
                 ProtonByteBuffer.of(new byte[] { 1, 2, 3 }, 1, 2));
     }
+
+    @Test(groups = { "unit" })
+    public void testContent() {
+        byte[] bytes = "[abc你好]".getBytes(StandardCharsets.UTF_8);
+        ProtonByteBuffer buf = ProtonByteBuffer.of(bytes, 1, bytes.length - 2);
+        Assert.assertEquals(buf.asUnicodeString(), "abc你好");
+        Assert.assertEquals(buf.asString(null), "abc你好");
+        Assert.assertEquals(ProtonByteBuffer.of(bytes, 1, 3).asAsciiString(), "abc");
+        Assert.assertEquals(buf.asBinary(), "abc你好".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(ProtonByteBuffer.newInstance().asBinary(), ProtonByteBuffer.EMPTY_BYTES);
+        Assert.assertEquals(ProtonByteBuffer.newInstance().asUnicodeString(), "");
+
+        Assert.assertTrue(buf.startsWith(new byte[0]));
+        Assert.assertTrue(buf.startsWith(new byte[] { 0x61, 0x62 }));
+        Assert.assertFalse(buf.startsWith(new byte[] { 0x62 }));
+        Assert.assertFalse(ProtonByteBuffer.of(bytes, 1, 1).startsWith(new byte[] { 0x61, 0x62 }));
+        Assert.assertThrows(IllegalArgumentException.class, () -> buf.startsWith(null));
+
+        byte[] copy = buf.asBinary();
+        Assert.assertTrue(buf.contentEquals(copy));
+        Assert.assertTrue(buf.contentEquals(ProtonByteBuffer.of(copy)));
+        Assert.assertNotEquals(ProtonByteBuffer.of(copy), buf);
+        Assert.assertFalse(buf.contentEquals((byte[]) null));
+        Assert.assertFalse(buf.contentEquals((ProtonByteBuffer) null));
+        Assert.assertFalse(buf.contentEquals(new byte[] { 0x61, 0x62, 0x63 }));
+        Assert.assertEquals(buf.contentHashCode(), Arrays.hashCode(copy));
+        Assert.assertEquals(ProtonByteBuffer.newInstance().contentHashCode(), Arrays.hashCode(new byte[0]));
+
+        Assert.assertEquals(buf.contentCompareTo(ProtonByteBuffer.of(copy)), 0);
+        Assert.assertTrue(ProtonByteBuffer.of(bytes, 1, 3).contentCompareTo(buf) < 0);
+        Assert.assertTrue(buf.contentCompareTo(ProtonByteBuffer.of(bytes, 1, 3)) > 0);
+        // unsigned comparison
+        Assert.assertTrue(ProtonByteBuffer.of(new byte[] { 0x7F }).contentCompareTo(
+                ProtonByteBuffer.of(new byte[] { (byte) 0x80 })) < 0);
+    }
 }
@@ -0,0 +1,117 @@
+package com.timeplus.proton.client;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.timeplus.proton.client.ProtonCircuitBreaker.State;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonCircuitBreakerTest {
+    static ProtonConfig newConfig(int waitDuration) {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_WINDOW_SIZE, 10);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_MIN_CALLS, 4);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_FAILURE_RATE, 50);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_SLOW_CALL_DURATION, 100);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_SLOW_CALL_RATE, 80);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_WAIT_DURATION, waitDuration);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_HALF_OPEN_CALLS, 2);
+        return new ProtonConfig(options, null, null, null);
+    }
+
+    @Test(groups = { "unit" })
+    public void testFailureRate() {
+        ProtonCircuitBreaker breaker = new ProtonCircuitBreaker(newConfig(60000));
+        Assert.assertEquals(breaker.getState(), State.CLOSED);
+        // not enough calls
+        Assert.assertFalse(breaker.record(true, 1L));
+        Assert.assertFalse(breaker.record(true, 1L));
+        Assert.assertFalse(breaker.record(false, 1L));
+        Assert.assertEquals(breaker.getFailureRate(), 66);
+        Assert.assertTrue(breaker.record(false, 1L));
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+        Assert.assertEquals(breaker.getOpenCount(), 1L);
+
+        Assert.assertFalse(breaker.isAvailable());
+        Assert.assertFalse(breaker.tryAcquire());
+        Assert.assertEquals(breaker.getRejectedCount(), 1L);
+        // late response does not matter
+        Assert.assertFalse(breaker.record(false, 1L));
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+    }
+
+    @Test(groups = { "unit" })
+    public void testSlowCallRate() {
+        ProtonCircuitBreaker breaker = new ProtonCircuitBreaker(newConfig(60000));
+        long slow = TimeUnit.MILLISECONDS.toNanos(100L);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertFalse(breaker.record(false, i % 2 == 0 ? slow : 1L));
+        }
+        Assert.assertEquals(breaker.getSlowCallRate(), 50);
+        // sliding window drops the oldest calls
+        for (int i = 0; i < 2; i++) {
+            Assert.assertFalse(breaker.record(false, slow));
+        }
+        Assert.assertEquals(breaker.getSlowCallRate(), 60);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertFalse(breaker.record(false, slow));
+        }
+        Assert.assertTrue(breaker.record(false, slow));
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+    }
+
+    @Test(groups = { "unit" })
+    public void testHalfOpen() {
+        ProtonCircuitBreaker breaker = new ProtonCircuitBreaker(newConfig(0));
+        for (int i = 0; i < 4; i++) {
+            breaker.record(true, 1L);
+        }
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+
+        // no wait, so it's half-open right away
+        Assert.assertTrue(breaker.isAvailable());
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertEquals(breaker.getState(), State.HALF_OPEN);
+        Assert.assertTrue(breaker.record(true, 1L));
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+        Assert.assertEquals(breaker.getOpenCount(), 2L);
+
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertFalse(breaker.record(false, 1L));
+        Assert.assertEquals(breaker.getState(), State.HALF_OPEN);
+        Assert.assertFalse(breaker.record(false, 1L));
+        Assert.assertEquals(breaker.getState(), State.CLOSED);
+        Assert.assertEquals(breaker.getFailureRate(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testStaleResult() {
+        ProtonCircuitBreaker breaker = new ProtonCircuitBreaker(newConfig(0));
+        long generation = breaker.getGeneration();
+        for (int i = 0; i < 4; i++) {
+            breaker.record(generation, true, 1L);
+        }
+        Assert.assertEquals(breaker.getState(), State.OPEN);
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertEquals(breaker.getState(), State.HALF_OPEN);
+        Assert.assertNotEquals(breaker.getGeneration(), generation);
+
+        // late responses of calls made before opening are not trial calls
+        Assert.assertFalse(breaker.record(generation, false, 1L));
+        Assert.assertFalse(breaker.record(generation, false, 1L));
+        Assert.assertFalse(breaker.record(generation, true, 1L));
+        Assert.assertEquals(breaker.getState(), State.HALF_OPEN);
+
+        generation = breaker.getGeneration();
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertFalse(breaker.record(generation, false, 1L));
+        Assert.assertFalse(breaker.record(generation, false, 1L));
+        Assert.assertEquals(breaker.getState(), State.CLOSED);
+    }
+}
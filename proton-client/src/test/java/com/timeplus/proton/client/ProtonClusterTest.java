@@ -0,0 +1,550 @@
+package com.timeplus.proton.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonClusterTest {
+    static class HedgingClient extends AbstractClient<Object> {
+        // shared with side client for cancellation
+        static final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+            ProtonNode node = sealedRequest.getServer();
+            queries.add(node.getHost() + ": " + sealedRequest.getQuery());
+            // slow node never responds to read-only queries
+            return "slow".equals(node.getHost()) && sealedRequest.isIdempotent() ? new CompletableFuture<>()
+                    : CompletableFuture.completedFuture(ProtonResponse.EMPTY);
+        }
+
+        @Override
+        protected ProtonClient newSideClient(ProtonConfig config) {
+            HedgingClient client = new HedgingClient();
+            client.init(new ProtonConfig(Collections.singletonMap(ProtonClientOption.ASYNC, false), null, null,
+                    null));
+            return client;
+        }
+
+        @Override
+        protected Object newConnection(Object connection, ProtonNode server, ProtonRequest<?> request) {
+            return server;
+        }
+
+        @Override
+        protected void closeConnection(Object connection, boolean force) {
+            // nothing to close
+        }
+    }
+
+    static ProtonNode newNode(String host) {
+        return ProtonNode.builder().host(host).port(ProtonProtocol.HTTP).build();
+    }
+
+    static void waitFor(List<String> queries, int size) throws InterruptedException {
+        for (int i = 0; i < 100 && queries.size() < size; i++) {
+            Thread.sleep(20L);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testHedgeDelay() {
+        ProtonCluster cluster = ProtonCluster.of(newNode("a"));
+        Assert.assertEquals(cluster.getHedgeDelay(0, 10L), 10L);
+        Assert.assertEquals(cluster.getHedgeDelay(95, 10L), 10L);
+
+        for (int i = 1; i <= 100; i++) {
+            cluster.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Assert.assertEquals(cluster.getHedgeDelay(0, 10L), 10L);
+        Assert.assertEquals(cluster.getHedgeDelay(100, 10L), 10L);
+        Assert.assertEquals(cluster.getHedgeDelay(50, 10L), 51L);
+        Assert.assertEquals(cluster.getHedgeDelay(95, 10L), 96L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testRoundRobin() throws Exception {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonNode c = newNode("c");
+        ProtonCluster cluster = ProtonCluster.of(a, b, c);
+        Assert.assertEquals(cluster.apply(null), a);
+        Assert.assertEquals(cluster.apply(null), b);
+        Assert.assertEquals(cluster.apply(null), c);
+        Assert.assertEquals(cluster.apply(null), a);
+
+        b.updateStatus(ProtonNode.Status.UNHEALTHY);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, c));
+        for (int i = 0; i < 6; i++) {
+            Assert.assertNotEquals(cluster.apply(null), b);
+        }
+        b.updateStatus(ProtonNode.Status.HEALTHY);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, c, b));
+
+        // each concurrent call moves the cursor exactly once
+        Map<ProtonNode, AtomicInteger> counters = new ConcurrentHashMap<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 300; j++) {
+                    counters.computeIfAbsent(cluster.apply(null), n -> new AtomicInteger()).incrementAndGet();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assert.assertEquals(counters.size(), 3);
+        for (AtomicInteger counter : counters.values()) {
+            Assert.assertEquals(counter.get(), 400);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testWeightedRoundRobin() {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).weight(3).build();
+        ProtonNode b = ProtonNode.builder().host("b").port(ProtonProtocol.HTTP).weight(1).build();
+        ProtonNode c = ProtonNode.builder().host("c").port(ProtonProtocol.HTTP).weight(0).build();
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b, c)
+                .withLbPolicy(ProtonCluster.LoadBalancingPolicy.WEIGHTED_ROUND_ROBIN).build();
+        List<String> hosts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            hosts.add(cluster.apply(null).getHost());
+        }
+        // smooth, so that heavier node will not be picked consecutively all the time
+        Assert.assertEquals(hosts, Arrays.asList("a", "a", "b", "a", "a", "a", "b", "a"));
+        // zero weight is only used when there's no other choice
+        Assert.assertEquals(ProtonCluster.builder().addNodes(c)
+                .withLbPolicy(ProtonCluster.LoadBalancingPolicy.WEIGHTED_ROUND_ROBIN).build().apply(null), c);
+    }
+
+    @Test(groups = { "unit" })
+    public void testLeastInFlight() {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withLbPolicy(ProtonCluster.LoadBalancingPolicy.LEAST_IN_FLIGHT).build();
+        long startTime = cluster.onRequestStart(a);
+        Assert.assertEquals(cluster.getInFlightRequests(a), 1);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(cluster.apply(null), b);
+        }
+
+        cluster.onRequestStart(b);
+        cluster.onRequestStart(b);
+        Assert.assertEquals(cluster.apply(null), a);
+        cluster.onRequestEnd(a, startTime, null);
+        Assert.assertEquals(cluster.getInFlightRequests(a), 0);
+        Assert.assertTrue(cluster.getLatency(a) > 0L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testPowerOfTwoChoices() {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withLbPolicy(ProtonCluster.LoadBalancingPolicy.P2C_EWMA).build();
+        cluster.getStats(a).update(TimeUnit.MILLISECONDS.toNanos(500L));
+        cluster.getStats(b).update(TimeUnit.MILLISECONDS.toNanos(5L));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(cluster.apply(null), b);
+        }
+
+        // slow node wins when the fast one is busy
+        for (int i = 0; i < 200; i++) {
+            cluster.onRequestStart(b);
+        }
+        Assert.assertEquals(cluster.apply(null), a);
+
+        cluster.getStats(a).update(TimeUnit.MILLISECONDS.toNanos(100L));
+        Assert.assertEquals(TimeUnit.NANOSECONDS.toMillis(cluster.getLatency(a) + 1L), 380L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testBackoffDelay() {
+        for (int i = 0; i < 10; i++) {
+            long delay = ProtonHealthChecker.getBackoffDelay(0, 1000L, 8000L);
+            Assert.assertTrue(delay >= 500L && delay <= 1000L, "Delay should be between 500 and 1000: " + delay);
+            delay = ProtonHealthChecker.getBackoffDelay(2, 1000L, 8000L);
+            Assert.assertTrue(delay >= 2000L && delay <= 4000L, "Delay should be between 2000 and 4000: " + delay);
+            delay = ProtonHealthChecker.getBackoffDelay(Integer.MAX_VALUE, 1000L, 8000L);
+            Assert.assertTrue(delay >= 4000L && delay <= 8000L, "Delay should be between 4000 and 8000: " + delay);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testHealthCheckClient() {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.SSL, true);
+        options.put(ProtonClientOption.DATABASE, "db1");
+        ProtonConfig config = new ProtonConfig(options, ProtonCredentials.fromUserAndPassword("u1", "p1"), null,
+                null);
+        ProtonClient client = ProtonHealthChecker.newClient(config, ProtonProtocol.HTTP);
+        try {
+            ProtonConfig c = client.getConfig();
+            Assert.assertEquals(c.getDefaultCredentials().getUserName(), "u1");
+            Assert.assertTrue(c.isSsl());
+            Assert.assertEquals(c.getDatabase(), "db1");
+            Assert.assertFalse(c.isAsync());
+            Assert.assertEquals(c.getMaxQueuedCancellations(), 0);
+            Assert.assertEquals(c.getNodeSelector().getPreferredProtocols(),
+                    Collections.singletonList(ProtonProtocol.HTTP));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testHealthCheckLifecycle() throws Exception {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.HEALTH_CHECK_INTERVAL, 10);
+        options.put(ProtonClientOption.HEALTH_CHECK_MAX_INTERVAL, 20);
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withConfig(new ProtonConfig(options, null, null, null)).build();
+
+        // ProtonTestClient always succeeds, and its client is closed afterwards
+        a.updateStatus(ProtonNode.Status.UNHEALTHY);
+        for (int i = 0; i < 100
+                && (cluster.getAvailableNodes().size() < 2 || cluster.getHealthCheckClients() > 0); i++) {
+            Thread.sleep(20L);
+        }
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(b, a));
+        Assert.assertEquals(cluster.getHealthCheckClients(), 0);
+
+        // no more check after the cluster is closed
+        cluster.close();
+        a.updateStatus(ProtonNode.Status.UNHEALTHY);
+        Thread.sleep(200L);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(b));
+        Assert.assertEquals(cluster.getHealthCheckClients(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testPassiveHealthCheck() {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        // disabled by default
+        Assert.assertEquals(new ProtonConfig().getFailureThreshold(), 0);
+
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.FAILURE_THRESHOLD, 2);
+        options.put(ProtonClientOption.HEALTH_CHECK_INTERVAL, 60000);
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withConfig(new ProtonConfig(options, null, null, null)).build();
+
+        Assert.assertTrue(ProtonCluster.isConnectionFailure(
+                new CompletionException(ProtonException.of(new ConnectException("refused"), a))));
+        Assert.assertFalse(ProtonCluster.isConnectionFailure(ProtonException.of("Code: 60. DB::Exception", a)));
+        // error code reported by server, e.g. a downstream shard is unreachable
+        Assert.assertFalse(ProtonCluster.isConnectionFailure(ProtonException.of("Code: 210. DB::Exception", a)));
+        Assert.assertFalse(ProtonCluster.isConnectionFailure(null));
+
+        // server-side error does not count
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), ProtonException.of("Code: 60. DB::Exception", a));
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), ProtonException.of("Code: 210. DB::Exception", a));
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), new ConnectException("refused"));
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, b));
+        // success resets the counter
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), null);
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), new ConnectException("refused"));
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, b));
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), new UnknownHostException("a"));
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(b));
+        Assert.assertEquals(cluster.apply(null), b);
+
+        a.updateStatus(ProtonNode.Status.HEALTHY);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(b, a));
+    }
+
+    @Test(groups = { "unit" })
+    public void testCircuitBreaker() {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        // disabled by default
+        Assert.assertNull(ProtonCluster.of(a, b).getCircuitBreaker(a));
+
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_WINDOW_SIZE, 5);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_MIN_CALLS, 5);
+        options.put(ProtonClientOption.FAILURE_THRESHOLD, 0);
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withConfig(new ProtonConfig(options, null, null, null)).build();
+
+        Assert.assertTrue(ProtonCluster.isTimeout(ProtonException.of(new SocketTimeoutException("Read timed out"), a)));
+        Assert.assertFalse(ProtonCluster.isTimeout(new ConnectException("refused")));
+        // max_execution_time exceeded on a healthy node
+        Assert.assertFalse(ProtonCluster.isTimeout(ProtonException.of("Code: 159. DB::Exception", a)));
+
+        for (int i = 0; i < 3; i++) {
+            cluster.onRequestEnd(a, cluster.onRequestStart(a), new SocketTimeoutException("Read timed out"));
+        }
+        // cancellation and server-side error are not failures
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), new CancellationException());
+        // server-side timeout(e.g. max_execution_time exceeded) is not a failure either
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), ProtonException.of("Code: 159. DB::Exception", a));
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.CLOSED);
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), null);
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.OPEN);
+
+        // still in the list but never selected
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, b));
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(cluster.apply(null), b);
+        }
+        Assert.assertNull(cluster.next(null, b));
+        Assert.assertTrue(cluster.getCircuitBreaker(a).getRejectedCount() > 0L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testCircuitBreakerPermit() throws Exception {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_WINDOW_SIZE, 5);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_MIN_CALLS, 5);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_WAIT_DURATION, 300);
+        options.put(ProtonClientOption.CIRCUIT_BREAKER_HALF_OPEN_CALLS, 1);
+        options.put(ProtonClientOption.FAILURE_THRESHOLD, 0);
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                .withLbPolicy(ProtonCluster.LoadBalancingPolicy.LEAST_IN_FLIGHT)
+                .withConfig(new ProtonConfig(options, null, null, null)).build();
+
+        long generation = cluster.getGeneration(a);
+        long startTime = cluster.onRequestStart(a);
+        for (int i = 0; i < 5; i++) {
+            cluster.onRequestEnd(a, cluster.onRequestStart(a), new SocketTimeoutException("Read timed out"));
+        }
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.OPEN);
+        Thread.sleep(400L);
+
+        // failover takes the only trial call
+        Assert.assertEquals(cluster.next(null, b), a);
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.HALF_OPEN);
+        Assert.assertNull(cluster.next(null, b));
+        // a has less in-flight requests but no permission
+        cluster.onRequestStart(b);
+        cluster.onRequestStart(b);
+        Assert.assertEquals(cluster.apply(null), b);
+
+        // late response of the request sent before opening is not a trial
+        cluster.onRequestEnd(a, startTime, generation, null);
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.HALF_OPEN);
+        generation = cluster.getGeneration(a);
+        cluster.onRequestEnd(a, cluster.onRequestStart(a), generation, null);
+        Assert.assertEquals(cluster.getCircuitBreaker(a).getState(), ProtonCircuitBreaker.State.CLOSED);
+    }
+
+    @Test(groups = { "unit" })
+    public void testZoneAffinity() {
+        ProtonNode a = ProtonNode.builder(newNode("a")).addTag("z1").build();
+        ProtonNode b = ProtonNode.builder(newNode("b")).addTag("z1").build();
+        ProtonNode c = ProtonNode.builder(newNode("c")).addTag("z2").build();
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ZONE, "z1");
+        options.put(ProtonClientOption.ZONE_MAX_IN_FLIGHT, 2);
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(c, a, b)
+                .withConfig(new ProtonConfig(options, null, null, null)).build();
+        Assert.assertEquals(cluster.getZone(), "z1");
+
+        for (int i = 0; i < 6; i++) {
+            Assert.assertTrue(cluster.apply(null) != c);
+        }
+        Assert.assertEquals(cluster.next(null, a), b);
+        Assert.assertEquals(cluster.next(null, b), a);
+        Assert.assertEquals(cluster.getSpilloverCount(), 0L);
+
+        // zone is saturated
+        long t1 = cluster.onRequestStart(a);
+        long t2 = cluster.onRequestStart(b);
+        Assert.assertEquals(cluster.apply(null), c);
+        Assert.assertEquals(cluster.apply(null), c);
+        Assert.assertEquals(cluster.getSpilloverCount(), 2L);
+        // selector is still respected
+        Assert.assertTrue(cluster.apply(ProtonNodeSelector.of("z1")) != c);
+        cluster.onRequestEnd(a, t1, null);
+        cluster.onRequestEnd(b, t2, null);
+        Assert.assertTrue(cluster.apply(null) != c);
+
+        // no node available in the zone
+        a.setManager(null);
+        b.setManager(null);
+        Assert.assertEquals(cluster.apply(null), c);
+        Assert.assertEquals(cluster.next(null, null), c);
+        Assert.assertEquals(cluster.getSpilloverCount(), 3L);
+
+        // no zone affinity
+        cluster = ProtonCluster.of(c, a, b);
+        Assert.assertNull(cluster.getZone());
+        Assert.assertEquals(cluster.apply(null), c);
+        Assert.assertEquals(cluster.getSpilloverCount(), 0L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testNext() {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonCluster cluster = ProtonCluster.of(a, b);
+        Assert.assertEquals(cluster.next(null, a), b);
+        Assert.assertEquals(cluster.next(ProtonNodeSelector.EMPTY, b), a);
+        Assert.assertEquals(cluster.next(null, null), a);
+        Assert.assertNull(ProtonCluster.of(a).next(null, a));
+    }
+
+    @Test(groups = { "unit" })
+    public void testSerialization() throws Exception {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonNode c = newNode("c");
+        ProtonCluster cluster = ProtonCluster.of(a, b, c);
+        c.updateStatus(ProtonNode.Status.UNHEALTHY);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(cluster);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            cluster = (ProtonCluster) ois.readObject();
+        }
+
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a, b));
+        ProtonNode n = cluster.apply(null);
+        cluster.onRequestEnd(n, cluster.onRequestStart(n), null);
+        Assert.assertTrue(cluster.getLatency(n) > 0L);
+        Assert.assertEquals(cluster.next(null, a), b);
+        Assert.assertTrue(cluster.getServiceTargets(a).isEmpty());
+
+        // nodes are managed by the deserialized cluster
+        ProtonNode d = cluster.getAvailableNodes().get(0);
+        d.updateStatus(ProtonNode.Status.UNHEALTHY);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(b));
+    }
+
+    @Test(groups = { "unit" })
+    public void testService() {
+        ProtonNode a = newNode("a");
+        ProtonNode service = ProtonNode.builder().host("localhost").port(ProtonProtocol.HTTP, 8123).addTag("svc")
+                .build();
+        ProtonCluster cluster = ProtonCluster.builder().addNodes(a).addService(service).build();
+        List<ProtonNode> targets = cluster.getServiceTargets(service);
+        Assert.assertFalse(targets.isEmpty());
+        for (ProtonNode n : targets) {
+            // host name is kept, and targets are told apart by resolved IP
+            Assert.assertEquals(n.getHost(), "localhost");
+            Assert.assertFalse(n.getAddress().isUnresolved());
+            Assert.assertTrue(n.getAddress().getAddress().isLoopbackAddress());
+            Assert.assertEquals(n.getPort(), 8123);
+            Assert.assertEquals(n.getTags(), service.getTags());
+            Assert.assertTrue(cluster.getAvailableNodes().contains(n));
+        }
+        Assert.assertEquals(cluster.getAvailableNodes().size(), targets.size() + 1);
+
+        cluster.removeService(service);
+        Assert.assertTrue(cluster.getServiceTargets(service).isEmpty());
+        Assert.assertEquals(cluster.getAvailableNodes(), Collections.singletonList(a));
+        for (ProtonNode n : targets) {
+            // detached from the cluster
+            n.updateStatus(ProtonNode.Status.UNHEALTHY);
+            n.updateStatus(ProtonNode.Status.HEALTHY);
+        }
+        Assert.assertEquals(cluster.getAvailableNodes(), Collections.singletonList(a));
+    }
+
+    @Test(groups = { "unit" })
+    public void testHedgedRequest() throws Exception {
+        ProtonNode slow = newNode("slow");
+        ProtonNode fast = newNode("fast");
+        ProtonCluster cluster = ProtonCluster.of(slow, fast);
+
+        HedgingClient.queries.clear();
+        HedgingClient client = new HedgingClient();
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        // duplicate query is killed even without MAX_QUEUED_CANCELLATIONS
+        options.put(ProtonClientOption.HEDGE_DELAY, 50);
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            Assert.assertEquals(client.connect(cluster).query("select 1", "q1").execute().get(3, TimeUnit.SECONDS)
+                    .getSummary(), ProtonResponse.EMPTY.getSummary());
+            waitFor(HedgingClient.queries, 3);
+            Assert.assertEquals(HedgingClient.queries,
+                    Arrays.asList("slow: select 1", "fast: select 1", "slow: KILL QUERY WHERE query_id='q1' ASYNC"));
+
+            // no hedging for specific node
+            HedgingClient.queries.clear();
+            Assert.assertFalse(client.connect(slow).query("select 1").execute().isDone());
+            Assert.assertEquals(HedgingClient.queries.size(), 1);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testHedgedRequestRelease() throws Exception {
+        ProtonNode a = newNode("a");
+        ProtonNode b = newNode("b");
+        ProtonCluster cluster = ProtonCluster.of(a, b);
+
+        HedgingClient.queries.clear();
+        Map<String, CompletableFuture<ProtonResponse>> pending = new ConcurrentHashMap<>();
+        HedgingClient client = new HedgingClient() {
+            @Override
+            protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+                if (!sealedRequest.isIdempotent()) {
+                    return super.send(sealedRequest);
+                }
+                CompletableFuture<ProtonResponse> future = new CompletableFuture<>();
+                pending.put(sealedRequest.getServer().getHost(), future);
+                return future;
+            }
+        };
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.HEDGE_DELAY, 50);
+        options.put(ProtonClientOption.CONCURRENCY_LIMIT, 10);
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            CompletableFuture<ProtonResponse> future = client.connect(cluster).query("select 1", "q1").execute();
+            for (int i = 0; i < 100 && pending.size() < 2; i++) {
+                Thread.sleep(20L);
+            }
+            Assert.assertEquals(pending.size(), 2);
+
+            // loser completes after the winner but before it's cancelled
+            future.whenComplete((r, e) -> pending.get("b").complete(ProtonConcurrencyLimiterTest.newResponse()));
+            pending.get("a").complete(ProtonConcurrencyLimiterTest.newResponse());
+            ProtonResponse response = future.get(3, TimeUnit.SECONDS);
+
+            ProtonConcurrencyLimiter winner = cluster.getConcurrencyLimiter(a, client.getConfig());
+            ProtonConcurrencyLimiter loser = cluster.getConcurrencyLimiter(b, client.getConfig());
+            Assert.assertEquals(winner.getInFlight(), 1);
+            Assert.assertEquals(loser.getInFlight(), 0);
+            response.close();
+            Assert.assertEquals(winner.getInFlight(), 0);
+        } finally {
+            client.close();
+        }
+    }
+}
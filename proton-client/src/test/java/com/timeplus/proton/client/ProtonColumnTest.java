@@ -135,6 +135,31 @@ public class ProtonColumnTest {
         Assert.assertEquals(list.size(), 2);
     }
 
+    @Test(groups = { "unit" })
+    public void testCache() throws Exception {
+        String type = "nullable(tuple(low_cardinality(string), nested(a int8, b map(string, datetime64(3, 'UTC')))))";
+        ProtonColumn c1 = ProtonColumn.of("c1", type);
+        Assert.assertEquals(ProtonColumn.of("c1", type), c1);
+        Assert.assertSame(ProtonColumn.of("", type), ProtonColumn.of("", type));
+
+        ProtonColumn c2 = ProtonColumn.of("c2", type);
+        Assert.assertNotEquals(c2, c1);
+        Assert.assertEquals(c2.getColumnName(), "c2");
+        Assert.assertEquals(c2.getOriginalTypeName(), c1.getOriginalTypeName());
+        Assert.assertSame(c2.getNestedColumns(), c1.getNestedColumns());
+        Assert.assertTrue(c2.isNullable());
+        Assert.assertEquals(c2.getEstimatedLength(), c1.getEstimatedLength());
+        Assert.assertEquals(c2.hashCode(), ProtonColumn.parse("c2 " + type).get(0).hashCode());
+        Assert.assertEquals(c2, ProtonColumn.parse("c2 " + type).get(0));
+        Assert.assertEquals(ProtonColumn.of("", "array(datetime64(3))").getArrayBaseColumn().getScale(), 3);
+
+        String columns = "a " + type + ", b string";
+        Assert.assertSame(ProtonColumn.parse(columns), ProtonColumn.parse(columns));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> ProtonColumn.parse(columns).clear());
+        Assert.assertThrows(IllegalArgumentException.class, () -> ProtonColumn.of("c", "tuple()"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> ProtonColumn.of("c", "tuple()"));
+    }
+
     @Test(groups = { "unit" })
     public void testAggregationFunction() throws Exception {
         ProtonColumn column = ProtonColumn.of("agg_func", "aggregate_function(group_bitmap, uint32)");
@@ -0,0 +1,321 @@
+package com.timeplus.proton.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonConcurrencyLimiterTest {
+    static class PendingClient extends AbstractClient<Object> {
+        final Map<String, CompletableFuture<ProtonResponse>> responses = new HashMap<>();
+
+        @Override
+        protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+            CompletableFuture<ProtonResponse> future = new CompletableFuture<>();
+            synchronized (responses) {
+                responses.put(sealedRequest.getQuery(), future);
+            }
+            return future;
+        }
+
+        @Override
+        protected Object newConnection(Object connection, ProtonNode server, ProtonRequest<?> request) {
+            return server;
+        }
+
+        @Override
+        protected void closeConnection(Object connection, boolean force) {
+            // nothing to close
+        }
+
+        CompletableFuture<ProtonResponse> get(String query) {
+            synchronized (responses) {
+                return responses.get(query);
+            }
+        }
+    }
+
+    // response has data to read
+    static ProtonResponse newResponse() {
+        return new ProtonResponse() {
+            private static final long serialVersionUID = 1L;
+
+            private final ProtonInputStream input = ProtonInputStream
+                    .of(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+            @Override
+            public List<ProtonColumn> getColumns() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public ProtonResponseSummary getSummary() {
+                return ProtonResponseSummary.EMPTY;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return input;
+            }
+
+            @Override
+            public Iterable<ProtonRecord> records() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean isClosed() {
+                return input.isClosed();
+            }
+        };
+    }
+
+    static ProtonConfig newConfig(int limit, int initialLimit, int queueTimeout) {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ASYNC, true);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0);
+        options.put(ProtonClientOption.MAX_RETRIES, 0);
+        options.put(ProtonClientOption.CONCURRENCY_LIMIT, limit);
+        options.put(ProtonClientOption.INITIAL_CONCURRENCY_LIMIT, initialLimit);
+        options.put(ProtonClientOption.CONCURRENCY_QUEUE_TIMEOUT, queueTimeout);
+        return new ProtonConfig(options, null, null, null);
+    }
+
+    @Test(groups = { "unit" })
+    public void testAdaptiveLimit() {
+        ProtonNode node = ProtonClusterTest.newNode("limit");
+        ProtonConcurrencyLimiter limiter = new ProtonConcurrencyLimiter(node, newConfig(100, 4, 0));
+        Assert.assertEquals(limiter.getLimit(), 4);
+
+        // grows under load when latency is stable
+        for (int i = 0; i < 50; i++) {
+            int limit = limiter.getLimit();
+            for (int j = 0; j < limit; j++) {
+                Assert.assertTrue(limiter.tryAcquire());
+            }
+            Assert.assertFalse(limiter.tryAcquire());
+            for (int j = 0; j < limit; j++) {
+                limiter.release(System.nanoTime() - 1000000L, null);
+            }
+        }
+        int limit = limiter.getLimit();
+        Assert.assertTrue(limit > 4, "Limit should grow but it's " + limit);
+        Assert.assertTrue(limit <= 100);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+
+        // shrinks on timeout
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(System.nanoTime(), new SocketTimeoutException("Read timed out"));
+        Assert.assertTrue(limiter.getLimit() < limit);
+
+        // shrinks when latency goes up
+        limit = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(System.nanoTime() - 100000000L, null);
+        }
+        Assert.assertTrue(limiter.getLimit() < limit);
+
+        Assert.assertTrue(ProtonConcurrencyLimiter.isOverloaded(
+                ProtonException.of("Code: 202. DB::Exception: Too many simultaneous queries", node)));
+        Assert.assertFalse(ProtonConcurrencyLimiter.isOverloaded(
+                ProtonException.of("Code: 62. DB::Exception: Syntax error", node)));
+        // timeout on server side does not mean the node is overloaded
+        Assert.assertFalse(ProtonConcurrencyLimiter.isOverloaded(
+                ProtonException.of("Code: 159. DB::Exception: Timeout exceeded", node)));
+    }
+
+    @Test(groups = { "unit" })
+    public void testQueue() throws Exception {
+        ProtonNode node = ProtonClusterTest.newNode("queue");
+        ProtonConcurrencyLimiter limiter = new ProtonConcurrencyLimiter(node, newConfig(1, 1, 0));
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.hasCapacity());
+
+        // rejected immediately
+        CompletableFuture<Void> f = limiter.acquire(0L);
+        Assert.assertTrue(f.isCompletedExceptionally());
+        Assert.assertEquals(limiter.getRejectedCount(), 1L);
+
+        // granted on release
+        f = limiter.acquire(5000L);
+        Assert.assertFalse(f.isDone());
+        Assert.assertEquals(limiter.getQueueSize(), 1);
+        limiter.release(0L, null);
+        Assert.assertNull(f.get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(limiter.getInFlight(), 1);
+        Assert.assertEquals(limiter.getQueueSize(), 0);
+
+        // rejected when timed out
+        f = limiter.acquire(50L);
+        try {
+            f.get(3, TimeUnit.SECONDS);
+            Assert.fail("Should be rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertEquals(limiter.getRejectedCount(), 2L);
+        Assert.assertEquals(limiter.getQueueSize(), 0);
+
+        // cancelled waiter does not hold permit
+        f = limiter.acquire(5000L);
+        f.cancel(false);
+        limiter.release(0L, null);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+        Assert.assertTrue(limiter.hasCapacity());
+    }
+
+    @Test(groups = { "unit" })
+    public void testQueueTimer() throws Exception {
+        ScheduledThreadPoolExecutor scheduler = (ScheduledThreadPoolExecutor) ProtonClientBuilder.defaultScheduler;
+        int timers = scheduler.getQueue().size();
+
+        ProtonNode node = ProtonClusterTest.newNode("timer");
+        ProtonConcurrencyLimiter limiter = new ProtonConcurrencyLimiter(node, newConfig(1, 1, 0));
+        Assert.assertTrue(limiter.tryAcquire());
+        List<CompletableFuture<Void>> list = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            list.add(limiter.acquire(60000L));
+        }
+        Assert.assertEquals(limiter.getQueueSize(), 20);
+        Assert.assertTrue(scheduler.getQueue().size() >= timers + 20);
+
+        // timers are gone once waiters are granted or cancelled
+        for (int i = 0; i < 10; i++) {
+            limiter.release(0L, null);
+            Assert.assertTrue(list.get(i).isDone());
+        }
+        for (int i = 10; i < 20; i++) {
+            list.get(i).cancel(false);
+        }
+        Assert.assertEquals(limiter.getQueueSize(), 0);
+        Assert.assertTrue(scheduler.getQueue().size() <= timers);
+        Assert.assertEquals(limiter.getRejectedCount(), 0L);
+    }
+
+    @Test(groups = { "unit" })
+    public void testObserve() throws Exception {
+        ProtonNode node = ProtonNode.builder().host("observe").port(ProtonProtocol.HTTP, 1).build();
+        PendingClient client = new PendingClient();
+        client.init(newConfig(1, 1, 5000));
+        try {
+            CompletableFuture<ProtonResponse> f1 = client.connect(node).query("select 1").execute();
+            CompletableFuture<ProtonResponse> f2 = client.connect(node).query("select 2").execute();
+            Assert.assertNotNull(client.get("select 1"));
+            // queued
+            Assert.assertNull(client.get("select 2"));
+            ProtonConcurrencyLimiter limiter = client
+                    .getConcurrencyLimiter(client.connect(node).query("select 3").seal());
+            Assert.assertEquals(limiter.getQueueSize(), 1);
+
+            client.get("select 1").complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(f1.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+            Assert.assertNotNull(client.get("select 2"));
+            client.get("select 2").complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(f2.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+            Assert.assertEquals(limiter.getInFlight(), 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testScope() {
+        ProtonNode node = ProtonNode.builder().host("scope").port(ProtonProtocol.HTTP, 1).build();
+        PendingClient c1 = new PendingClient();
+        c1.init(newConfig(1, 1, 0));
+        PendingClient c2 = new PendingClient();
+        c2.init(newConfig(8, 4, 0));
+        try {
+            // each client has its own limiter, created using its own configuration
+            ProtonConcurrencyLimiter l1 = c1.getConcurrencyLimiter(c1.connect(node).query("select 1").seal());
+            ProtonConcurrencyLimiter l2 = c2.getConcurrencyLimiter(c2.connect(node).query("select 1").seal());
+            Assert.assertNotSame(l1, l2);
+            Assert.assertEquals(l1.getLimit(), 1);
+            Assert.assertEquals(l2.getLimit(), 4);
+            Assert.assertSame(c1.getConcurrencyLimiter(c1.connect(node).query("select 2").seal()), l1);
+
+            PendingClient c3 = new PendingClient();
+            c3.init(newConfig(0, 4, 0));
+            Assert.assertNull(c3.getConcurrencyLimiter(c3.connect(node).query("select 1").seal()));
+            c3.close();
+
+            // limiter of a node in cluster is shared by clients connected to the
+            // cluster, and discarded when the node is no longer managed
+            ProtonNode a = ProtonClusterTest.newNode("a");
+            ProtonCluster cluster = ProtonCluster.of(a);
+            ProtonConcurrencyLimiter l3 = c1.getConcurrencyLimiter(c1.connect(cluster).query("select 1").seal());
+            Assert.assertNotNull(l3);
+            Assert.assertSame(c2.getConcurrencyLimiter(c2.connect(cluster).query("select 1").seal()), l3);
+            a.updateStatus(ProtonNode.Status.UNMANAGED);
+            Assert.assertNotSame(cluster.getConcurrencyLimiter(a, c1.getConfig()), l3);
+        } finally {
+            c1.close();
+            c2.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testReleaseOnClose() throws Exception {
+        ProtonNode node = ProtonNode.builder().host("close").port(ProtonProtocol.HTTP, 1).build();
+        PendingClient client = new PendingClient();
+        client.init(newConfig(1, 1, 5000));
+        try {
+            ProtonConcurrencyLimiter limiter = client
+                    .getConcurrencyLimiter(client.connect(node).query("select 0").seal());
+            CompletableFuture<ProtonResponse> f1 = client.connect(node).query("select 1").execute();
+            CompletableFuture<ProtonResponse> f2 = client.connect(node).query("select 2").execute();
+            client.get("select 1").complete(newResponse());
+            ProtonResponse r1 = f1.get(1, TimeUnit.SECONDS);
+            // response is still being read
+            Assert.assertEquals(limiter.getInFlight(), 1);
+            Assert.assertEquals(limiter.getQueueSize(), 1);
+            Assert.assertNull(client.get("select 2"));
+
+            r1.close();
+            r1.close();
+            Assert.assertEquals(limiter.getInFlight(), 1);
+            Assert.assertNotNull(client.get("select 2"));
+
+            // abandoned response is released as well
+            f2.cancel(false);
+            client.get("select 2").complete(newResponse());
+            Assert.assertEquals(limiter.getInFlight(), 0);
+
+            // failed request is released right away
+            CompletableFuture<ProtonResponse> f3 = client.connect(node).query("select 3").execute();
+            client.get("select 3").completeExceptionally(new IOException("fake error"));
+            Assert.assertThrows(ExecutionException.class, () -> f3.get(1, TimeUnit.SECONDS));
+            Assert.assertEquals(limiter.getInFlight(), 0);
+            Assert.assertTrue(limiter.hasCapacity());
+        } finally {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.timeplus.proton.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonDnsResolverTest {
+    static class TestResolver extends ProtonDnsResolver {
+        final AtomicLong time;
+        final AtomicInteger lookups = new AtomicInteger(0);
+        volatile List<InetSocketAddress> addresses;
+        volatile long ttl = 10000L;
+
+        TestResolver(long cacheTtl, long staleTtl) {
+            this(cacheTtl, staleTtl, new AtomicLong(0L));
+        }
+
+        private TestResolver(long cacheTtl, long staleTtl, AtomicLong time) {
+            // refresh in current thread
+            super(cacheTtl, staleTtl, time::get, Runnable::run);
+            this.time = time;
+        }
+
+        @Override
+        protected Answer lookup(ProtonProtocol protocol, String host, int port) throws IOException {
+            lookups.incrementAndGet();
+            if (addresses == null) {
+                throw new UnknownHostException(host);
+            }
+            return new Answer(addresses, ttl);
+        }
+    }
+
+    static InetSocketAddress address(String host, int port) {
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    @Test(groups = { "unit" })
+    public void testCache() throws Exception {
+        TestResolver resolver = new TestResolver(60000L, 0L);
+        resolver.addresses = Arrays.asList(address("a", 1), address("b", 2));
+        Assert.assertEquals(resolver.resolveAll(ProtonProtocol.ANY, "srv", 0), resolver.addresses);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        Assert.assertEquals(resolver.lookups.get(), 1);
+
+        // TTL of the record takes precedence
+        resolver.time.set(7999L);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        resolver.addresses = Collections.singletonList(address("c", 3));
+        resolver.time.set(10000L);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("c", 3));
+
+        // cache is disabled
+        resolver = new TestResolver(0L, 0L);
+        resolver.addresses = Collections.singletonList(address("a", 1));
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(resolver.lookups.get(), 2);
+    }
+
+    @Test(groups = { "unit" })
+    public void testRefreshAhead() throws Exception {
+        TestResolver resolver = new TestResolver(60000L, 0L);
+        resolver.addresses = Collections.singletonList(address("a", 1));
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(resolver.lookups.get(), 1);
+
+        resolver.addresses = Collections.singletonList(address("b", 2));
+        resolver.time.set(8000L);
+        // cached address is returned while refreshing in background
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("b", 2));
+        Assert.assertEquals(resolver.lookups.get(), 2);
+    }
+
+    @Test(groups = { "unit" })
+    public void testServeStale() throws Exception {
+        TestResolver resolver = new TestResolver(60000L, 5000L);
+        resolver.addresses = Collections.singletonList(address("a", 1));
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+
+        resolver.addresses = null;
+        resolver.time.set(10000L);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        Assert.assertEquals(resolver.lookups.get(), 2);
+        // no more lookup until retry interval elapsed
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        Assert.assertEquals(resolver.lookups.get(), 2);
+
+        resolver.time.set(15000L);
+        Assert.assertEquals(resolver.resolveAll(ProtonProtocol.ANY, "srv", 0),
+                Collections.singletonList(new InetSocketAddress("srv", 0)));
+
+        resolver.addresses = Collections.singletonList(address("b", 2));
+        // failure is cached
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), new InetSocketAddress("srv", 0));
+        resolver.time.set(15000L + ProtonDnsResolver.NEGATIVE_TTL);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("b", 2));
+    }
+
+    @Test(groups = { "unit" })
+    public void testNegativeCache() throws Exception {
+        TestResolver resolver = new TestResolver(60000L, 0L);
+        Assert.assertEquals(resolver.resolveAll(ProtonProtocol.ANY, "srv", 0),
+                Collections.singletonList(new InetSocketAddress("srv", 0)));
+        Assert.assertEquals(resolver.lookups.get(), 1);
+        resolver.time.set(ProtonDnsResolver.NEGATIVE_TTL - 1L);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(resolver.lookups.get(), 1);
+
+        resolver.addresses = Collections.singletonList(address("a", 1));
+        resolver.time.set(ProtonDnsResolver.NEGATIVE_TTL);
+        Assert.assertEquals(resolver.resolve(ProtonProtocol.ANY, "srv", 0), address("a", 1));
+        Assert.assertEquals(resolver.lookups.get(), 2);
+
+        // nothing cached when cache is disabled
+        resolver = new TestResolver(0L, 0L);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(resolver.lookups.get(), 2);
+    }
+
+    @Test(groups = { "unit" })
+    public void testLookup() throws Exception {
+        for (InetSocketAddress address : new ProtonDnsResolver(0L, 0L).lookup(ProtonProtocol.ANY, "localhost", 8123)
+                .getAddresses()) {
+            Assert.assertFalse(address.isUnresolved());
+            Assert.assertEquals(address.getHostString(), "localhost");
+            Assert.assertEquals(address.getPort(), 8123);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testSubscribe() throws Exception {
+        TestResolver resolver = new TestResolver(60000L, 0L);
+        resolver.addresses = Arrays.asList(address("a", 1), address("b", 2));
+
+        List<List<InetSocketAddress>> changes = Collections.synchronizedList(new ArrayList<>());
+        Consumer<List<InetSocketAddress>> listener = changes::add;
+        resolver.subscribe(ProtonProtocol.ANY, "srv", 0, listener);
+        Assert.assertEquals(changes, Collections.singletonList(resolver.addresses));
+
+        // same addresses in different order
+        resolver.addresses = Arrays.asList(address("b", 2), address("a", 1));
+        resolver.time.set(10000L);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(changes.size(), 1);
+
+        resolver.addresses = Collections.singletonList(address("b", 2));
+        resolver.time.set(20000L);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(changes.size(), 2);
+        Assert.assertEquals(changes.get(1), resolver.addresses);
+
+        resolver.unsubscribe("srv", 0, listener);
+        resolver.addresses = Collections.singletonList(address("c", 3));
+        resolver.time.set(30000L);
+        resolver.resolve(ProtonProtocol.ANY, "srv", 0);
+        Assert.assertEquals(changes.size(), 2);
+    }
+}
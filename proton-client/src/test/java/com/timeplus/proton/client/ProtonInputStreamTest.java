@@ -116,6 +116,29 @@ public class ProtonInputStreamTest {
         Assert.assertThrows(IOException.class, () -> empty.read());
     }
 
+    @Test(groups = { "unit" })
+    public void testEndOfStream() throws IOException {
+        ProtonInputStream in = ProtonInputStream.of(new ByteArrayInputStream(new byte[] { 1, 2 }));
+        Assert.assertFalse(in.isEndOfStream());
+        Assert.assertEquals(in.read(), 1);
+        Assert.assertFalse(in.isEndOfStream());
+        Assert.assertEquals(in.read(), 2);
+        Assert.assertEquals(in.available(), 0);
+        Assert.assertTrue(in.isEndOfStream());
+        in.close();
+        Assert.assertTrue(in.isEndOfStream());
+
+        BlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>();
+        queue.offer(ByteBuffer.wrap(new byte[] { 1 }));
+        in = ProtonInputStream.of(queue, 100);
+        Assert.assertFalse(in.isEndOfStream());
+        Assert.assertEquals(in.read(), 1);
+        Assert.assertFalse(in.isEndOfStream());
+        queue.offer(ProtonByteBuffer.EMPTY_BUFFER);
+        Assert.assertEquals(in.available(), 0);
+        Assert.assertTrue(in.isEndOfStream());
+    }
+
     @Test(groups = { "unit" })
     public void testBlockingInput() throws IOException {
         BlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>();
@@ -182,6 +205,23 @@ public class ProtonInputStreamTest {
         Assert.assertTrue(in.isClosed(), "Should have been closed");
     }
 
+    @Test(groups = { "unit" })
+    public void testReadStringBuffer() throws IOException {
+        byte[] bytes = new byte[] { 3, 0x61, 0x62, 0x63, 0, 2, 0x64, 0x65 };
+        BlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>();
+        queue.add(ByteBuffer.wrap(bytes));
+        queue.add(ProtonByteBuffer.EMPTY_BUFFER);
+        for (ProtonInputStream in : new ProtonInputStream[] {
+                ProtonInputStream.of(new ByteArrayInputStream(bytes)), ProtonInputStream.of(queue, 0) }) {
+            ProtonByteBuffer buf = in.readStringBuffer();
+            Assert.assertEquals(buf.asUnicodeString(), "abc");
+            Assert.assertTrue(buf.startsWith(new byte[] { 0x61 }));
+            Assert.assertTrue(in.readStringBuffer().isEmpty());
+            Assert.assertEquals(in.readString(null), "de");
+            Assert.assertThrows(EOFException.class, () -> in.readStringBuffer());
+        }
+    }
+
     @Test(groups = { "unit" })
     public void testSkipInput() throws IOException {
         Assert.assertEquals(ProtonInputStream.of(generateInputStream(new byte[0])).skip(0L), 0L);
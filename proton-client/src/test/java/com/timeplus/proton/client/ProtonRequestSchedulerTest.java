@@ -0,0 +1,209 @@
+package com.timeplus.proton.client;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.timeplus.proton.client.ProtonConcurrencyLimiterTest.PendingClient;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonRequestSchedulerTest {
+    @Test(groups = { "unit" })
+    public void testReservation() {
+        ProtonNode node = ProtonClusterTest.newNode("a");
+        ProtonRequestScheduler scheduler = new ProtonRequestScheduler(4);
+        Assert.assertEquals(scheduler.getSlots(ProtonPriority.INTERACTIVE, 1), 4);
+        Assert.assertEquals(scheduler.getSlots(ProtonPriority.NORMAL, 1), 3);
+        Assert.assertEquals(scheduler.getSlots(ProtonPriority.BULK, 1), 2);
+        Assert.assertEquals(scheduler.getSlots(ProtonPriority.BULK, 3), 1);
+        Assert.assertEquals(scheduler.getSlots(ProtonPriority.BULK, 0), 4);
+
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.BULK, node, 1, 0, 5000L).isDone());
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.BULK, node, 1, 0, 5000L).isDone());
+        CompletableFuture<Void> bulk = scheduler.acquire(ProtonPriority.BULK, node, 1, 0, 5000L);
+        Assert.assertFalse(bulk.isDone());
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.NORMAL, node, 1, 0, 5000L).isDone());
+        CompletableFuture<Void> normal = scheduler.acquire(ProtonPriority.NORMAL, node, 1, 0, 5000L);
+        Assert.assertFalse(normal.isDone());
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.INTERACTIVE, node, 1, 0, 5000L).isDone());
+        Assert.assertEquals(scheduler.getInFlight(), 4);
+
+        CompletableFuture<Void> interactive = scheduler.acquire(ProtonPriority.INTERACTIVE, node, 1, 0, 5000L);
+        Assert.assertFalse(interactive.isDone());
+
+        // higher priority goes first
+        scheduler.release(ProtonPriority.BULK, node);
+        Assert.assertTrue(interactive.isDone());
+        Assert.assertFalse(normal.isDone());
+        // reserved slot is not used by lower priority
+        scheduler.release(ProtonPriority.INTERACTIVE, node);
+        Assert.assertFalse(normal.isDone());
+        scheduler.release(ProtonPriority.INTERACTIVE, node);
+        Assert.assertTrue(normal.isDone());
+        Assert.assertFalse(bulk.isDone());
+        scheduler.release(ProtonPriority.NORMAL, node);
+        Assert.assertFalse(bulk.isDone());
+        scheduler.release(ProtonPriority.NORMAL, node);
+        Assert.assertTrue(bulk.isDone());
+        Assert.assertEquals(scheduler.getInFlight(), 2);
+    }
+
+    @Test(groups = { "unit" })
+    public void testBulkLimit() {
+        ProtonNode a = ProtonClusterTest.newNode("a");
+        ProtonNode b = ProtonClusterTest.newNode("b");
+        ProtonRequestScheduler scheduler = new ProtonRequestScheduler(4);
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.BULK, a, 0, 1, 5000L).isDone());
+        CompletableFuture<Void> f1 = scheduler.acquire(ProtonPriority.BULK, a, 0, 1, 5000L);
+        Assert.assertFalse(f1.isDone());
+        // waiting for a node won't block request to another node, when there's
+        // free slot
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.NORMAL, a, 0, 1, 5000L).isDone());
+        CompletableFuture<Void> f2 = scheduler.acquire(ProtonPriority.BULK, b, 0, 1, 5000L);
+        Assert.assertFalse(f2.isDone());
+        scheduler.release(ProtonPriority.NORMAL, a);
+        Assert.assertFalse(f1.isDone());
+        Assert.assertTrue(f2.isDone());
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.BULK), 1);
+
+        scheduler.release(ProtonPriority.BULK, a);
+        Assert.assertTrue(f1.isDone());
+        Assert.assertEquals(scheduler.getInFlight(), 2);
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.BULK), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testCancel() {
+        ProtonNode node = ProtonClusterTest.newNode("a");
+        ProtonRequestScheduler scheduler = new ProtonRequestScheduler(1);
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.NORMAL, node, 0, 0, 5000L).isDone());
+        CompletableFuture<Void> f = scheduler.acquire(ProtonPriority.NORMAL, node, 0, 0, 5000L);
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.NORMAL), 1);
+        f.cancel(false);
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.NORMAL), 0);
+        scheduler.release(ProtonPriority.NORMAL, node);
+        Assert.assertEquals(scheduler.getInFlight(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testTimeout() throws Exception {
+        ProtonNode node = ProtonClusterTest.newNode("a");
+        ProtonRequestScheduler scheduler = new ProtonRequestScheduler(1);
+        Assert.assertTrue(scheduler.acquire(ProtonPriority.NORMAL, node, 0, 0, 0L).isDone());
+
+        // rejected immediately
+        CompletableFuture<Void> f = scheduler.acquire(ProtonPriority.NORMAL, node, 0, 0, 0L);
+        Assert.assertTrue(f.isCompletedExceptionally());
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.NORMAL), 0);
+
+        // rejected when timed out
+        f = scheduler.acquire(ProtonPriority.NORMAL, node, 0, 0, 50L);
+        try {
+            f.get(3, TimeUnit.SECONDS);
+            Assert.fail("Should be rejected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertEquals(scheduler.getQueueSize(ProtonPriority.NORMAL), 0);
+        scheduler.release(ProtonPriority.NORMAL, node);
+        Assert.assertEquals(scheduler.getInFlight(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testNestedQuery() throws Exception {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ASYNC, false);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0);
+        options.put(ProtonClientOption.PRIORITY_SLOTS, 1);
+        options.put(ProtonClientOption.PRIORITY_RESERVED_SLOTS, 1);
+        options.put(ProtonClientOption.PRIORITY_QUEUE_TIMEOUT, 100);
+        ProtonNode node = ProtonNode.builder().host("nested").port(ProtonProtocol.HTTP, 1).build();
+        PendingClient client = new PendingClient();
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            CompletableFuture<ProtonResponse> f1 = client.connect(node).query("select 1").execute();
+            client.get("select 1").complete(ProtonConcurrencyLimiterTest.newResponse());
+            try (ProtonResponse r1 = f1.get(1, TimeUnit.SECONDS)) {
+                // the only slot is held by r1, so the nested query is rejected
+                // instead of waiting forever
+                CompletableFuture<ProtonResponse> f2 = client.connect(node).query("select 2").execute();
+                Assert.assertNull(client.get("select 2"));
+                try {
+                    f2.get(3, TimeUnit.SECONDS);
+                    Assert.fail("Should be rejected");
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+                }
+            }
+
+            CompletableFuture<ProtonResponse> f3 = client.connect(node).query("select 3").execute();
+            client.get("select 3").complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(f3.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testPriority() {
+        try (ProtonClient client = ProtonRetryExecutionTest.newClient(true, 0)) {
+            ProtonRequest<?> request = client.connect(ProtonClusterTest.newNode("a"));
+            Assert.assertEquals(request.getPriority(), ProtonPriority.NORMAL);
+            Assert.assertEquals(request.priority(ProtonPriority.BULK).getPriority(), ProtonPriority.BULK);
+            Assert.assertEquals(request.priority(null).getPriority(), ProtonPriority.NORMAL);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testSlots() throws Exception {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ASYNC, true);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0);
+        // slots are not sized by the thread pool
+        options.put(ProtonClientOption.MAX_THREADS_PER_CLIENT, 1);
+        options.put(ProtonClientOption.PRIORITY_SLOTS, 2);
+        options.put(ProtonClientOption.MAX_BULK_REQUESTS_PER_NODE, 1);
+        ProtonNode node = ProtonNode.builder().host("slots").port(ProtonProtocol.HTTP, 1).build();
+        PendingClient client = new PendingClient();
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            CompletableFuture<ProtonResponse> f1 = client.connect(node).priority(ProtonPriority.BULK)
+                    .query("select 1").execute();
+            CompletableFuture<ProtonResponse> f2 = client.connect(node).priority(ProtonPriority.BULK)
+                    .query("select 2").execute();
+            CompletableFuture<ProtonResponse> f3 = client.connect(node).query("select 3").execute();
+            CompletableFuture<ProtonResponse> f4 = client.connect(node).query("select 4").execute();
+            Assert.assertNotNull(client.get("select 1"));
+            Assert.assertNull(client.get("select 2"));
+            Assert.assertNotNull(client.get("select 3"));
+            Assert.assertNull(client.get("select 4"));
+
+            // bulk request still counts while its response is being read
+            client.get("select 1").complete(ProtonConcurrencyLimiterTest.newResponse());
+            ProtonResponse r1 = f1.get(1, TimeUnit.SECONDS);
+            Assert.assertNull(client.get("select 2"));
+            Assert.assertNull(client.get("select 4"));
+            // higher priority goes first
+            r1.close();
+            Assert.assertNotNull(client.get("select 4"));
+            Assert.assertNull(client.get("select 2"));
+
+            client.get("select 3").complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(f3.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+            Assert.assertNotNull(client.get("select 2"));
+            client.get("select 2").complete(ProtonResponse.EMPTY);
+            client.get("select 4").complete(ProtonResponse.EMPTY);
+            Assert.assertEquals(f2.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+            Assert.assertEquals(f4.get(1, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+        } finally {
+            client.close();
+        }
+    }
+}
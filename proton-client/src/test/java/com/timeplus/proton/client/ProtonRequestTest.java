@@ -2,6 +2,7 @@ package com.timeplus.proton.client;
 
 import java.io.ByteArrayInputStream;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -131,6 +132,22 @@ public class ProtonRequestTest {
         Assert.assertEquals(request.getFormat(), ProtonFormat.Arrow);
     }
 
+    @Test(groups = { "unit" })
+    public void testIdempotent() {
+        ProtonRequest<?> request = ProtonClient.newInstance().connect(ProtonNode.builder().build());
+        Assert.assertFalse(request.isIdempotent());
+        Assert.assertTrue(request.query("select 1").isIdempotent());
+        Assert.assertTrue(request.query("-- test\n with 1 as x select x").isIdempotent());
+        Assert.assertTrue(request.query("show databases").isIdempotent());
+        Assert.assertTrue(request.seal().isIdempotent());
+        Assert.assertFalse(request.query("insert into t values(1)").isIdempotent());
+        Assert.assertFalse(request.query("select 1").write().isIdempotent());
+        Assert.assertFalse(request.copy().session(UUID.randomUUID().toString()).isIdempotent());
+        Assert.assertFalse(request.copy()
+                .external(ProtonExternalTable.builder().content(new ByteArrayInputStream(new byte[0])).build())
+                .isIdempotent());
+    }
+
     @Test(groups = { "unit" })
     public void testOptions() {
         ProtonRequest<?> request = ProtonClient.newInstance().connect(ProtonNode.builder().build());
@@ -193,6 +210,27 @@ public class ProtonRequestTest {
                 "select '' as one, '2012-12-12 12:23:34.56789' as two, * from my_table where key='key' and arr[1] in numbers(10)");
     }
 
+    @Test(groups = { "unit" })
+    public void testProgressListener() {
+        ProtonRequest<?> request = ProtonClient.newInstance().connect(ProtonNode.builder().build());
+        Assert.assertFalse(request.getProgressListener().isPresent());
+
+        List<ProtonResponseSummary.Progress> list = new ArrayList<>();
+        request.progress(list::add);
+        Assert.assertTrue(request.getProgressListener().isPresent());
+        Assert.assertEquals(request.copy().getProgressListener(), request.getProgressListener());
+        Assert.assertEquals(request.seal().getProgressListener(), request.getProgressListener());
+        Assert.assertEquals(request.write().seal().getProgressListener(), request.getProgressListener());
+
+        ProtonResponseSummary.Progress progress = new ProtonResponseSummary.Progress(1L, 2L, 3L, 4L, 5L, 6L);
+        request.seal().getProgressListener().get().accept(progress);
+        Assert.assertEquals(list, Collections.singletonList(progress));
+        Assert.assertEquals(progress.getElapsedTime(), 6L);
+
+        Assert.assertThrows(IllegalStateException.class, () -> request.seal().progress(null));
+        Assert.assertFalse(request.reset().getProgressListener().isPresent());
+    }
+
     @Test(groups = { "unit" })
     public void testSeal() {
         ProtonRequest<?> request = ProtonClient.newInstance().connect(ProtonNode.builder().build());
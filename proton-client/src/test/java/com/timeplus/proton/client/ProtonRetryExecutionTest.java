@@ -0,0 +1,273 @@
+package com.timeplus.proton.client;
+
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonRetryExecutionTest {
+    static class FailingClient extends AbstractClient<Object> {
+        final List<String> queries;
+        final List<String> queryIds = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, Throwable> errors = new HashMap<>();
+
+        FailingClient() {
+            this(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        FailingClient(List<String> queries) {
+            this.queries = queries;
+        }
+
+        @Override
+        protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+            ProtonNode node = sealedRequest.getServer();
+            queries.add(node.getHost() + ": " + sealedRequest.getQuery());
+            queryIds.add(sealedRequest.getQueryId().orElse(""));
+            Throwable error = errors.get(node.getHost());
+            return error != null ? failedResponse(ProtonException.of(error, node))
+                    : CompletableFuture.completedFuture(ProtonResponse.EMPTY);
+        }
+
+        @Override
+        protected ProtonClient newSideClient(ProtonConfig config) {
+            // shares queries but never fails
+            FailingClient client = new FailingClient(queries);
+            client.init(new ProtonConfig(Collections.singletonMap(ProtonClientOption.ASYNC, false), null, null,
+                    null));
+            return client;
+        }
+
+        @Override
+        protected Object newConnection(Object connection, ProtonNode server, ProtonRequest<?> request) {
+            return server;
+        }
+
+        @Override
+        protected void closeConnection(Object connection, boolean force) {
+            // nothing to close
+        }
+    }
+
+    static FailingClient newClient(boolean async, int maxRetries) {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ASYNC, async);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0);
+        options.put(ProtonClientOption.MAX_RETRIES, maxRetries);
+        options.put(ProtonClientOption.RETRY_INTERVAL, 1);
+        FailingClient client = new FailingClient();
+        client.init(new ProtonConfig(options, null, null, null));
+        return client;
+    }
+
+    @Test(groups = { "unit" })
+    public void testClassification() {
+        ProtonNode node = ProtonClusterTest.newNode("a");
+        Assert.assertTrue(ProtonCluster.isConnectionFailure(ProtonException.of(new ConnectException(), node)));
+        Assert.assertTrue(ProtonCluster.isConnectionFailure(new SocketTimeoutException("connect timed out")));
+        Assert.assertFalse(ProtonCluster.isConnectionFailure(new SocketTimeoutException("Read timed out")));
+        Assert.assertFalse(ProtonCluster.isConnectionFailure(new SocketException("Connection reset")));
+
+        Assert.assertTrue(ProtonRetryExecution.isResetOrTimeout(new SocketException("Connection reset")));
+        Assert.assertTrue(ProtonRetryExecution.isResetOrTimeout(new SocketTimeoutException("Read timed out")));
+        Assert.assertFalse(ProtonRetryExecution.isResetOrTimeout(ProtonException.of("Code: 62. DB::Exception", node)));
+        // timeout reported by server
+        Assert.assertFalse(ProtonRetryExecution.isResetOrTimeout(ProtonException.of("Code: 159. DB::Exception", node)));
+
+        // timeouts of java.net.http.HttpClient, which is not available in Java 8
+        Throwable connectTimeout = newException("java.net.http.HttpConnectTimeoutException", "connect timed out");
+        Throwable timeout = newException("java.net.http.HttpTimeoutException", "request timed out");
+        if (connectTimeout != null && timeout != null) {
+            Assert.assertTrue(ProtonCluster.isConnectionFailure(ProtonException.of(connectTimeout, node)));
+            Assert.assertTrue(ProtonCluster.isTimeout(connectTimeout));
+            Assert.assertFalse(ProtonCluster.isConnectionFailure(timeout));
+            Assert.assertTrue(ProtonCluster.isTimeout(ProtonException.of(timeout, node)));
+            Assert.assertTrue(ProtonRetryExecution.isResetOrTimeout(timeout));
+        }
+    }
+
+    static Throwable newException(String className, String message) {
+        try {
+            return (Throwable) Class.forName(className).getConstructor(String.class).newInstance(message);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testFailover() throws Exception {
+        ProtonNode a = ProtonClusterTest.newNode("a");
+        ProtonNode b = ProtonClusterTest.newNode("b");
+
+        for (boolean async : new boolean[] { true, false }) {
+            ProtonCluster cluster = ProtonCluster.builder().addNodes(a, b)
+                    .withLbPolicy(ProtonCluster.LoadBalancingPolicy.PICK_FIRST).build();
+            FailingClient client = newClient(async, 2);
+            client.errors.put("a", new ConnectException("Connection refused"));
+            try {
+                Assert.assertEquals(client.connect(cluster).query("select 1").execute().get(3, TimeUnit.SECONDS),
+                        ProtonResponse.EMPTY);
+                Assert.assertEquals(client.queries, Arrays.asList("a: select 1", "b: select 1"));
+
+                // connection failure is retried even for non-idempotent request
+                client.queries.clear();
+                Assert.assertEquals(client.connect(cluster).query("insert into t values(1)").execute()
+                        .get(3, TimeUnit.SECONDS), ProtonResponse.EMPTY);
+                Assert.assertEquals(client.queries.size(), 2);
+                Assert.assertEquals(client.queries.get(1), "b: insert into t values(1)");
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testDefaultOptions() {
+        ProtonConfig config = new ProtonConfig();
+        Assert.assertTrue(config.isRetry());
+        Assert.assertEquals(config.getMaxRetries(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testQueryId() throws Exception {
+        ProtonNode a = ProtonClusterTest.newNode("a");
+
+        FailingClient client = newClient(true, 1);
+        client.errors.put("a", new SocketException("Connection reset"));
+        try {
+            try {
+                client.connect(a).query("select 1", "q1").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail after retries");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(ProtonRetryExecution.isResetOrTimeout(e));
+            }
+            ProtonClusterTest.waitFor(client.queries, 3);
+            // failed query was killed before retry, which used a new query id
+            Assert.assertEquals(client.queries.size(), 3);
+            Assert.assertTrue(client.queries.contains("a: KILL QUERY WHERE query_id='q1' ASYNC"));
+            Assert.assertEquals(client.queryIds.get(0), "q1");
+            Assert.assertNotEquals(client.queryIds.get(1), "q1");
+            Assert.assertNotEquals(client.queryIds.get(1), "");
+
+            // query was not sent, so it's safe to use same query id
+            client.queries.clear();
+            client.queryIds.clear();
+            client.errors.put("a", new ConnectException("Connection refused"));
+            try {
+                client.connect(a).query("select 1", "q2").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail after retries");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(ProtonCluster.isConnectionFailure(e));
+            }
+            Thread.sleep(100L);
+            Assert.assertEquals(client.queries, Arrays.asList("a: select 1", "a: select 1"));
+            Assert.assertEquals(client.queryIds, Arrays.asList("q2", "q2"));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testRetryBudget() throws Exception {
+        ProtonNode a = ProtonClusterTest.newNode("a");
+
+        FailingClient client = newClient(true, 2);
+        client.errors.put("a", new SocketException("Connection reset"));
+        try {
+            try {
+                client.connect(a).query("select 1").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail after retries");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(ProtonRetryExecution.isResetOrTimeout(e));
+            }
+            Assert.assertEquals(client.queries, Arrays.asList("a: select 1", "a: select 1", "a: select 1"));
+
+            // reset is not retried for non-idempotent request
+            client.queries.clear();
+            try {
+                client.connect(a).query("insert into t values(1)").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail without retry");
+            } catch (ExecutionException e) {
+                Assert.assertEquals(client.queries.size(), 1);
+            }
+
+            // neither server-side error
+            client.queries.clear();
+            client.errors.put("a", new Exception("Code: 62. DB::Exception: Syntax error"));
+            try {
+                client.connect(a).query("select 1").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail without retry");
+            } catch (ExecutionException e) {
+                Assert.assertEquals(client.queries.size(), 1);
+            }
+            client.queries.clear();
+            client.errors.put("a", new Exception("Code: 159. DB::Exception: Timeout exceeded"));
+            try {
+                client.connect(a).query("select 1").execute().get(3, TimeUnit.SECONDS);
+                Assert.fail("Should fail without retry");
+            } catch (ExecutionException e) {
+                Assert.assertEquals(client.queries.size(), 1);
+            }
+        } finally {
+            client.close();
+        }
+
+        // retry is disabled
+        client = newClient(true, 0);
+        client.errors.put("a", new ConnectException("Connection refused"));
+        try {
+            client.connect(a).query("select 1").execute().get(3, TimeUnit.SECONDS);
+            Assert.fail("Should fail without retry");
+        } catch (ExecutionException e) {
+            Assert.assertEquals(client.queries.size(), 1);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testAbandonedResponse() throws Exception {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.ASYNC, true);
+        options.put(ProtonClientOption.MAX_QUEUED_CANCELLATIONS, 0);
+        options.put(ProtonClientOption.MAX_RETRIES, 1);
+        options.put(ProtonClientOption.CONCURRENCY_LIMIT, 10);
+        CompletableFuture<ProtonResponse> pending = new CompletableFuture<>();
+        FailingClient client = new FailingClient() {
+            @Override
+            protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+                return pending;
+            }
+        };
+        client.init(new ProtonConfig(options, null, null, null));
+        try {
+            ProtonNode node = ProtonClusterTest.newNode("a");
+            ProtonConcurrencyLimiter limiter = client
+                    .getConcurrencyLimiter(client.connect(node).query("select 1").seal());
+            CompletableFuture<ProtonResponse> future = client.connect(node).query("select 1").execute();
+            Assert.assertEquals(limiter.getInFlight(), 1);
+
+            // response arrives right after the caller cancelled the request
+            future.whenComplete((r, e) -> pending.complete(ProtonConcurrencyLimiterTest.newResponse()));
+            future.cancel(false);
+            Assert.assertTrue(pending.isDone());
+            Assert.assertEquals(limiter.getInFlight(), 0);
+        } finally {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.timeplus.proton.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.timeplus.proton.client.ProtonShardedWriter.ShardingFunction;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonShardedWriterTest {
+    static class InsertClient extends AbstractClient<Object> {
+        static final Map<String, byte[]> inserts = new ConcurrentHashMap<>();
+
+        @Override
+        protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+            return CompletableFuture.supplyAsync(() -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (InputStream in = sealedRequest.getInputStream().get()) {
+                    int b;
+                    while ((b = in.read()) != -1) {
+                        out.write(b);
+                    }
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                inserts.put(sealedRequest.getServer().getHost() + ": " + sealedRequest.getQuery(),
+                        out.toByteArray());
+                return ProtonResponse.EMPTY;
+            });
+        }
+
+        @Override
+        protected Object newConnection(Object connection, ProtonNode server, ProtonRequest<?> request) {
+            return server;
+        }
+
+        @Override
+        protected void closeConnection(Object connection, boolean force) {
+            // nothing to close
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testWrite() throws IOException {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).weight(1).build();
+        ProtonNode b = ProtonNode.builder().host("b").port(ProtonProtocol.HTTP).weight(2).build();
+        ProtonNode c = ProtonNode.builder().host("c").port(ProtonProtocol.HTTP).weight(0).build();
+
+        InsertClient.inserts.clear();
+        InsertClient client = new InsertClient();
+        client.init(new ProtonConfig());
+        try (ProtonShardedWriter<Integer> writer = ProtonShardedWriter.of(
+                client.connect(ProtonCluster.of(a, b, c)).write().table("t").format(ProtonFormat.RowBinary),
+                row -> row, ShardingFunction.MODULO, (row, out) -> out.write(row))) {
+            for (int i = 0; i < 6; i++) {
+                writer.write(i);
+            }
+            writer.flush();
+
+            List<ProtonResponseSummary> summaries = writer.finish();
+            Assert.assertEquals(summaries.size(), 2);
+            Assert.assertEquals(writer.finish().size(), 0);
+            Assert.assertThrows(IOException.class, () -> writer.write(6));
+        } finally {
+            client.close();
+        }
+
+        Assert.assertEquals(InsertClient.inserts.size(), 2);
+        Assert.assertEquals(InsertClient.inserts.get("a: INSERT INTO t FORMAT RowBinary"), new byte[] { 0, 3 });
+        Assert.assertEquals(InsertClient.inserts.get("b: INSERT INTO t FORMAT RowBinary"), new byte[] { 1, 2, 4, 5 });
+    }
+
+    @Test(groups = { "unit" })
+    public void testShardIndex() {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).build();
+        ProtonNode b = ProtonNode.builder().host("b").port(ProtonProtocol.HTTP).build();
+        InsertClient client = new InsertClient();
+        client.init(new ProtonConfig());
+        ProtonRequest.Mutation request = client.connect(ProtonCluster.of(a, b)).write().table("t");
+
+        ProtonShardedWriter<String> writer = new ProtonShardedWriter<>(request, Arrays.asList(a, b), row -> row,
+                ShardingFunction.CITY_HASH_64, (row, out) -> out.write(row.getBytes()));
+        int[] counts = new int[2];
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + i;
+            int index = writer.getShardIndex(key);
+            Assert.assertEquals(writer.getShardIndex(key), index);
+            Assert.assertEquals(writer.getShardIndex(key.getBytes()), index);
+            counts[index]++;
+        }
+        Assert.assertTrue(counts[0] > 400 && counts[1] > 400, "Keys should be evenly distributed");
+
+        ProtonShardedWriter<String> modulo = new ProtonShardedWriter<>(request, Arrays.asList(a, b), row -> row,
+                ShardingFunction.MODULO, (row, out) -> out.write(row.getBytes()));
+        Assert.assertEquals(modulo.getShardIndex(-1L), 1);
+        Assert.assertThrows(IllegalArgumentException.class, () -> modulo.getShardIndex("1"));
+        client.close();
+    }
+
+    @Test(groups = { "unit" })
+    public void testNumericKey() {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).build();
+        InsertClient client = new InsertClient();
+        client.init(new ProtonConfig());
+        ProtonRequest.Mutation request = client.connect(ProtonCluster.of(a)).write().table("t");
+
+        // number is hashed as intHash64(bits ^ seed) instead of CityHash of its bytes,
+        // same as FunctionAnyHash for plain-old-data arguments on server side
+        Assert.assertEquals(ProtonShardedWriter.intHash64(0L), 0L);
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(0L), 4761183170873013810L);
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(1L), 0x92ca4ba4f369e030L);
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(-1L), 0xca9f325fd94a732fL);
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(1.0D), 0x5682d397bda2e6ceL);
+        // narrower types are zero-extended
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(1), ShardingFunction.CITY_HASH_64.hash(1L));
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash((byte) 1), ShardingFunction.CITY_HASH_64.hash(1L));
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(true), ShardingFunction.CITY_HASH_64.hash(1L));
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash(-1), 0x7f3de25673b91856L);
+        Assert.assertEquals(ShardingFunction.CITY_HASH_64.hash((short) -1),
+                ShardingFunction.CITY_HASH_64.hash(0xFFFFL));
+        Assert.assertNotEquals(ShardingFunction.CITY_HASH_64.hash(-1L),
+                ShardingFunction.CITY_HASH_64.hash(new byte[] { -1, -1, -1, -1, -1, -1, -1, -1 }));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> ShardingFunction.CITY_HASH_64.hash(BigInteger.ONE));
+        Assert.assertNotNull(new ProtonShardedWriter<Long>(request, Arrays.asList(a), row -> row,
+                ShardingFunction.CITY_HASH_64, (row, out) -> out.write(row.intValue())));
+        client.close();
+    }
+
+    @Test(groups = { "unit" })
+    public void testUnhealthyShard() throws IOException {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).build();
+        ProtonNode b = ProtonNode.builder().host("b").port(ProtonProtocol.HTTP).build();
+        ProtonCluster cluster = ProtonCluster.of(a, b);
+        b.updateStatus(ProtonNode.Status.UNHEALTHY);
+        Assert.assertEquals(cluster.getAvailableNodes(), Arrays.asList(a));
+        Assert.assertEquals(cluster.getNodes(), Arrays.asList(a, b));
+
+        InsertClient.inserts.clear();
+        InsertClient client = new InsertClient();
+        client.init(new ProtonConfig());
+        try (ProtonShardedWriter<Integer> writer = ProtonShardedWriter.of(
+                client.connect(cluster).write().table("u").format(ProtonFormat.RowBinary), row -> row,
+                ShardingFunction.MODULO, (row, out) -> out.write(row))) {
+            writer.write(0);
+            // never remapped to other shards
+            Assert.assertThrows(IOException.class, () -> writer.write(1));
+            writer.write(2);
+        } finally {
+            client.close();
+        }
+        Assert.assertEquals(InsertClient.inserts.get("a: INSERT INTO u FORMAT RowBinary"), new byte[] { 0, 2 });
+    }
+
+    @Test(groups = { "unit" })
+    public void testWriteTimeout() throws IOException {
+        ProtonNode a = ProtonNode.builder().host("a").port(ProtonProtocol.HTTP).build();
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.MAX_BUFFER_SIZE, 1);
+        options.put(ProtonClientOption.MAX_QUEUED_BUFFERS, 1);
+        options.put(ProtonClientOption.SOCKET_TIMEOUT, 100);
+        // shard never reads data
+        AbstractClient<Object> client = new InsertClient() {
+            @Override
+            protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
+                return new CompletableFuture<>();
+            }
+        };
+        client.init(new ProtonConfig(options, null, null, null));
+        ProtonShardedWriter<Integer> writer = ProtonShardedWriter.of(
+                client.connect(ProtonCluster.of(a)).write().table("t").format(ProtonFormat.RowBinary), row -> row,
+                ShardingFunction.MODULO, (row, out) -> out.write(row));
+        try {
+            long startTime = System.currentTimeMillis();
+            IOException e = Assert.expectThrows(IOException.class, () -> {
+                for (int i = 0; i < 10; i++) {
+                    writer.write(i);
+                }
+            });
+            Assert.assertTrue(e.getMessage().contains("shard"), e.getMessage());
+            Assert.assertTrue(System.currentTimeMillis() - startTime < 5000L);
+        } finally {
+            client.close();
+        }
+    }
+}
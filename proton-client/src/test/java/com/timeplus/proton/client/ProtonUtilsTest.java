@@ -1,6 +1,8 @@
 package com.timeplus.proton.client;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,6 +61,18 @@ public class ProtonUtilsTest {
         Assert.assertEquals(ProtonUtils.getLeadingComment("select /* a */1"), "");
     }
 
+    @Test(groups = { "unit" })
+    public void testGetLeadingKeyword() {
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword(null), "");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword(""), "");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword(" -- a\n/* b */ "), "");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword("select 1"), "SELECT");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword(" -- a \r\n/* b /* c */*/ ( With x as 1 select x)"),
+                "WITH");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword("insert into x values(1)"), "INSERT");
+        Assert.assertEquals(ProtonUtils.getLeadingKeyword("1"), "");
+    }
+
     @Test(groups = { "unit" })
     public void testGetService() {
         ProtonClient client = null;
@@ -436,6 +450,18 @@ public class ProtonUtilsTest {
                 () -> ProtonUtils.getFileInputStream(UUID.randomUUID().toString()));
     }
 
+    @Test(groups = { "unit" })
+    public void testFileLastModified() throws IOException {
+        Assert.assertEquals(ProtonUtils.getFileLastModified(null), 0L);
+        Assert.assertEquals(ProtonUtils.getFileLastModified(""), 0L);
+        Assert.assertEquals(ProtonUtils.getFileLastModified(UUID.randomUUID().toString()), 0L);
+
+        File file = File.createTempFile("proton", ".tmp");
+        file.deleteOnExit();
+        Assert.assertTrue(file.setLastModified(1000000L));
+        Assert.assertEquals(ProtonUtils.getFileLastModified(file.getAbsolutePath()), 1000000L);
+    }
+
     @Test(groups = { "unit" })
     public void testParseJson() {
         Assert.assertThrows(IllegalArgumentException.class, () -> ProtonUtils.parseJson(null));
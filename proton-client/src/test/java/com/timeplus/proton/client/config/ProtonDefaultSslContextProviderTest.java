@@ -0,0 +1,54 @@
+package com.timeplus.proton.client.config;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonSslContextProvider;
+
+public class ProtonDefaultSslContextProviderTest {
+    @Test(groups = { "unit" })
+    public void testGetSslContext() throws Exception {
+        ProtonConfig config = new ProtonConfig(
+                Collections.singletonMap(ProtonClientOption.SSL_MODE, ProtonSslMode.NONE), null, null, null);
+        SSLContext ctx = new ProtonDefaultSslContextProvider().getSslContext(SSLContext.class, config).get();
+        Assert.assertNotNull(ctx);
+        // same context for same configuration, even from a different provider instance
+        Assert.assertSame(ProtonSslContextProvider.getProvider().getSslContext(SSLContext.class,
+                new ProtonConfig(Collections.singletonMap(ProtonClientOption.SSL_MODE, ProtonSslMode.NONE), null,
+                        null, null))
+                .get(), ctx);
+        Assert.assertNotSame(new ProtonDefaultSslContextProvider().getSslContext(SSLContext.class,
+                new ProtonConfig()).get(), ctx);
+        Assert.assertFalse(new ProtonDefaultSslContextProvider().getSslContext(String.class, config).isPresent());
+
+        ProtonDefaultSslContextProvider.clearCache();
+        Assert.assertNotSame(new ProtonDefaultSslContextProvider().getSslContext(SSLContext.class, config).get(),
+                ctx);
+    }
+
+    @Test(groups = { "unit" })
+    public void testReloadChangedFile() throws Exception {
+        File file = File.createTempFile("proton", ".crt");
+        file.deleteOnExit();
+        Assert.assertTrue(file.setLastModified(1000000L));
+
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.SSL_MODE, ProtonSslMode.NONE);
+        options.put(ProtonClientOption.SSL_CERTIFICATE, file.getAbsolutePath());
+        ProtonConfig config = new ProtonConfig(options, null, null, null);
+        ProtonDefaultSslContextProvider provider = new ProtonDefaultSslContextProvider();
+        SSLContext ctx = provider.getSslContext(SSLContext.class, config).get();
+        Assert.assertSame(provider.getSslContext(SSLContext.class, config).get(), ctx);
+
+        Assert.assertTrue(file.setLastModified(2000000L));
+        SSLContext reloaded = provider.getSslContext(SSLContext.class, config).get();
+        Assert.assertNotSame(reloaded, ctx);
+        Assert.assertSame(provider.getSslContext(SSLContext.class, config).get(), reloaded);
+    }
+}
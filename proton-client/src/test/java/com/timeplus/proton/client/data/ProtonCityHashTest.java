@@ -0,0 +1,46 @@
+package com.timeplus.proton.client.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonCityHashTest {
+    @Test(groups = { "unit" })
+    public void testCityHash64() {
+        Assert.assertEquals(ProtonCityHash.cityHash64(new byte[0], 0, 0), 0x9ae16a3b2f90404fL);
+
+        byte[] bytes = new byte[200];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        Set<Long> hashes = new HashSet<>();
+        byte[] shifted = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, shifted, 3, bytes.length);
+        for (int len : new int[] { 1, 3, 4, 8, 9, 16, 17, 32, 33, 64, 65, 128, 129, 200 }) {
+            long hash = ProtonCityHash.cityHash64(bytes, 0, len);
+            Assert.assertEquals(ProtonCityHash.cityHash64(shifted, 3, len), hash);
+            Assert.assertTrue(hashes.add(hash), "Hash should be different for length " + len);
+        }
+
+        // known answers of CityHash v1.0.2, same as cityHash64() on server
+        long[][] vectors = new long[][] { { 0L, 0x9ae16a3b2f90404fL }, { 1L, 0x085f654e398e757cL },
+                { 3L, 0x34e803dc175e241fL }, { 4L, 0xc6803d385ba50e93L }, { 8L, 0xbab32314ab07fa4eL },
+                { 9L, 0xf5cb477f28a07fe7L }, { 16L, 0x2fb0d75f94362763L }, { 17L, 0xe5aa5ed150b8e380L },
+                { 32L, 0x40cfef3d008869dcL }, { 33L, 0x532c06f602b7f406L }, { 64L, 0xf7a2aca4d0a3fde1L },
+                { 65L, 0x510f4ef776c6476dL }, { 128L, 0x4fe234a54241a89fL }, { 129L, 0x3a49051ab10a968cL },
+                { 200L, 0xe49ce9a6d9f41656L } };
+        for (long[] v : vectors) {
+            Assert.assertEquals(ProtonCityHash.cityHash64(bytes, 0, (int) v[0]), v[1], "Length " + v[0]);
+        }
+        byte[] str = "hello world".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ProtonCityHash.cityHash64(str, 0, str.length), 0xabe4036b6bb6a0a5L);
+
+        str = "Proton".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ProtonCityHash.cityHash64(str, 0, str.length), 0x3ba319088c6fb34aL);
+        Assert.assertEquals(ProtonCityHash.cityHash64(str, 0, str.length),
+                ProtonCityHash.cityHash64("Proton".getBytes(StandardCharsets.UTF_8), 0, str.length));
+    }
+}
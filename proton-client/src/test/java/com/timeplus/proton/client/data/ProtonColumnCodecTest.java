@@ -0,0 +1,214 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonColumnCodecTest {
+    private byte[] roundTrip(String type, int... bytes) throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonColumnCodec codec = ProtonColumnCodec.of(ProtonColumn.of("c", type));
+        ProtonValue value = codec.read(null, config, BinaryStreamUtilsTest.generateInput(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(value, config, out);
+        return out.toByteArray();
+    }
+
+    @Test(groups = { "unit" })
+    public void testCache() {
+        ProtonColumnCodec codec = ProtonColumnCodec.of(ProtonColumn.of("c", "array(nullable(int8))"));
+        Assert.assertSame(ProtonColumnCodec.of(ProtonColumn.of("c", "array(nullable(int8))")), codec);
+        Assert.assertEquals(codec.getColumn(), ProtonColumn.of("c", "array(nullable(int8))"));
+    }
+
+    @Test(groups = { "unit" })
+    public void testArray() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonValue value = ProtonColumnCodec.of(ProtonColumn.of("c", "array(nullable(int32))")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(3, 0, 1, 0, 0, 0, 1, 0, 2, 0, 0, 0));
+        Assert.assertEquals(value.asObject(), new int[] { 1, 0, 2 });
+
+        value = ProtonColumnCodec.of(ProtonColumn.of("c", "array(array(string))")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(2, 1, 1, 0x61, 2, 1, 0x62, 0));
+        Assert.assertEquals(value.asObject(), new String[][] { new String[] { "a" }, new String[] { "b", "" } });
+
+        int[] bytes = new int[] { 2, 1, 0x61, 0 };
+        Assert.assertEquals(roundTrip("array(array(string))", 2, 1, 1, 0x61, 2, 1, 0x62, 0),
+                BinaryStreamUtilsTest.generateBytes(2, 1, 1, 0x61, 2, 1, 0x62, 0));
+        Assert.assertEquals(roundTrip("array(string)", bytes), BinaryStreamUtilsTest.generateBytes(bytes));
+        Assert.assertEquals(roundTrip("array(float64)", 1, 0, 0, 0, 0, 0, 0, 0xF0, 0x3F),
+                BinaryStreamUtilsTest.generateBytes(1, 0, 0, 0, 0, 0, 0, 0xF0, 0x3F));
+    }
+
+    @Test(groups = { "unit" })
+    public void testBulkArray() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        float[] floats = new float[768];
+        double[] doubles = new double[floats.length];
+        long[] longs = new long[floats.length];
+        for (int i = 0; i < floats.length; i++) {
+            floats[i] = i * -0.5F;
+            doubles[i] = i * 1.5D;
+            longs[i] = i * (Long.MIN_VALUE / 1000L);
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BinaryStreamUtils.writeVarInt(expected, floats.length);
+        for (float f : floats) {
+            BinaryStreamUtils.writeFloat32(expected, f);
+        }
+        BinaryStreamUtils.writeVarInt(expected, doubles.length);
+        for (double d : doubles) {
+            BinaryStreamUtils.writeFloat64(expected, d);
+        }
+        BinaryStreamUtils.writeVarInt(expected, longs.length);
+        for (long l : longs) {
+            BinaryStreamUtils.writeInt64(expected, l);
+        }
+        BinaryStreamUtils.writeVarInt(expected, 2);
+        BinaryStreamUtils.writeInt16(expected, (short) -2);
+        BinaryStreamUtils.writeInt16(expected, Short.MAX_VALUE);
+        BinaryStreamUtils.writeVarInt(expected, 1);
+        BinaryStreamUtils.writeInt32(expected, Integer.MIN_VALUE);
+        BinaryStreamUtils.writeVarInt(expected, 3);
+        expected.write(new byte[] { -1, 0, 1 });
+
+        String[] types = new String[] { "array(float32)", "array(float64)", "array(int64)", "array(int16)",
+                "array(int32)", "array(int8)" };
+        Object[] arrays = new Object[] { floats, doubles, longs, new short[] { -2, Short.MAX_VALUE },
+                new int[] { Integer.MIN_VALUE }, new byte[] { -1, 0, 1 } };
+        ProtonInputStream input = ProtonInputStream.of(new ByteArrayInputStream(expected.toByteArray()));
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        for (int i = 0; i < types.length; i++) {
+            ProtonColumnCodec codec = ProtonColumnCodec.of(ProtonColumn.of("c", types[i]));
+            ProtonValue value = codec.read(null, config, input);
+            Assert.assertEquals(value.asObject(), arrays[i], types[i]);
+            codec.write(value, config, actual);
+        }
+        Assert.assertEquals(input.available(), 0);
+        Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+
+        // empty array
+        Assert.assertEquals(roundTrip("array(float32)", 0), BinaryStreamUtilsTest.generateBytes(0));
+    }
+
+    @Test(groups = { "unit" })
+    public void testAddressArray() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonValue value = ProtonColumnCodec.of(ProtonColumn.of("c", "array(uuid)")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(2, 2, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0xFF, 0xFF,
+                        0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF));
+        Assert.assertEquals(value.asObject(), new UUID[] { new UUID(2L, 1L), new UUID(-1L, -1L) });
+
+        value = ProtonColumnCodec.of(ProtonColumn.of("c", "array(ipv4)")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(2, 1, 0, 0, 0x7F, 0xFF, 1, 0xA8, 0xC0));
+        Assert.assertEquals(value.asObject(), new Inet4Address[] { (Inet4Address) InetAddress.getByName("127.0.0.1"),
+                (Inet4Address) InetAddress.getByName("192.168.1.255") });
+
+        value = ProtonColumnCodec.of(ProtonColumn.of("c", "array(ipv6)")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0x20, 1, 0xD,
+                        0xB8, 0, 0, 0, 0, 0, 0, 0xFF, 0, 0, 0x42, 0x83, 0x29));
+        Assert.assertEquals(value.asObject(), new Inet6Address[] { (Inet6Address) InetAddress.getByName("::1"),
+                (Inet6Address) InetAddress.getByName("2001:db8::ff00:42:8329") });
+
+        int[] bytes = new int[] { 1, 1, 0, 0, 0x7F };
+        Assert.assertEquals(roundTrip("array(ipv4)", bytes), BinaryStreamUtilsTest.generateBytes(bytes));
+        Assert.assertEquals(roundTrip("array(uuid)", 0), BinaryStreamUtilsTest.generateBytes(0));
+        // nullable elements still go through value wrappers
+        bytes = new int[] { 2, 1, 0, 1, 0, 0, 0x7F };
+        Assert.assertEquals(roundTrip("array(nullable(ipv4))", bytes), BinaryStreamUtilsTest.generateBytes(bytes));
+    }
+
+    @Test(groups = { "unit" })
+    public void testStringDictionary() throws IOException {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.STRING_DICTIONARY_COLUMNS, " s1, s2 ");
+        options.put(ProtonClientOption.STRING_DICTIONARY_SIZE, 2);
+        ProtonConfig config = new ProtonConfig(options, null, null, null);
+        Assert.assertEquals(config.getStringDictionaryColumns(), new HashSet<>(Arrays.asList("s1", "s2")));
+        Assert.assertFalse(new ProtonConfig().isStringDictionaryEnabled(ProtonColumn.of("s1", "string")));
+
+        ProtonColumnCodec codec = ProtonColumnCodec.of(ProtonColumn.of("s1", "string"));
+        ProtonStringDictionary dict = codec.newDictionary(config);
+        Assert.assertEquals(dict.getCapacity(), 2);
+        Assert.assertNotSame(codec.newDictionary(config), dict);
+        Assert.assertNull(codec.newDictionary(new ProtonConfig()));
+        Assert.assertNull(ProtonColumnCodec.of(ProtonColumn.of("s1", "int32")).newDictionary(config));
+
+        ProtonInputStream input = BinaryStreamUtilsTest.generateInput(1, 0x61, 1, 0x61, 1, 0x62, 1, 0x63, 1, 0x63,
+                2, 0x61, 0, 1, 0x62);
+        ProtonValue a = codec.read(null, config, dict, input);
+        ProtonValue b = codec.read(null, config, dict, input);
+        Assert.assertEquals(a.asString(), "a");
+        Assert.assertSame(b.asString(), a.asString());
+        // bytes are never shared
+        Assert.assertEquals(b.asBinary(), a.asBinary());
+        Assert.assertNotSame(b.asBinary(), a.asBinary());
+        Assert.assertEquals(codec.read(null, config, dict, input).asString(), "b");
+        // full
+        ProtonValue c = codec.read(null, config, dict, input);
+        Assert.assertEquals(c.asString(), "c");
+        Assert.assertNotSame(codec.read(null, config, dict, input).asString(), c.asString());
+        // trailing zero byte is not cached
+        Assert.assertEquals(codec.read(null, config, dict, input).asBinary(), new byte[] { 0x61, 0 });
+        // reuse wrapper
+        Assert.assertSame(codec.read(b, config, dict, input), b);
+        Assert.assertEquals(b.asString(), "b");
+        Assert.assertEquals(input.available(), 0);
+
+        // without dictionary
+        input = BinaryStreamUtilsTest.generateInput(1, 0x61, 1, 0x61);
+        Assert.assertNotSame(codec.read(null, config, input).asString(), codec.read(null, config, input).asString());
+
+        options.put(ProtonClientOption.STRING_DICTIONARY_FOR_LOW_CARDINALITY, true);
+        config = new ProtonConfig(options, null, null, null);
+        codec = ProtonColumnCodec.of(ProtonColumn.of("s3", "low_cardinality(nullable(string))"));
+        dict = codec.newDictionary(config);
+        input = BinaryStreamUtilsTest.generateInput(0, 1, 0x61, 1, 0, 1, 0x61);
+        a = codec.read(null, config, dict, input);
+        Assert.assertTrue(codec.read(null, config, dict, input).isNullOrEmpty());
+        Assert.assertSame(codec.read(null, config, dict, input).asString(), a.asString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(a, config, out);
+        Assert.assertEquals(out.toByteArray(), BinaryStreamUtilsTest.generateBytes(0, 1, 0x61));
+    }
+
+    @Test(groups = { "unit" })
+    public void testMapTupleAndNested() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonValue value = ProtonColumnCodec.of(ProtonColumn.of("c", "tuple(string, nullable(uint8))")).read(null,
+                config, BinaryStreamUtilsTest.generateInput(1, 0x61, 1));
+        Assert.assertEquals(value.asTuple(), Arrays.asList("a", null));
+        Assert.assertEquals(roundTrip("tuple(string, nullable(uint8))", 1, 0x61, 0, 5),
+                BinaryStreamUtilsTest.generateBytes(1, 0x61, 0, 5));
+
+        Assert.assertEquals(roundTrip("map(string, array(int16))", 2, 1, 0x61, 1, 1, 0, 1, 0x62, 0),
+                BinaryStreamUtilsTest.generateBytes(2, 1, 0x61, 1, 1, 0, 1, 0x62, 0));
+
+        value = ProtonColumnCodec.of(ProtonColumn.of("c", "nested(a int8, b string)")).read(null, config,
+                BinaryStreamUtilsTest.generateInput(2, 1, 2, 2, 1, 0x61, 0));
+        Assert.assertEquals(value.asObject(), new Object[][] { new Object[] { (byte) 1, (byte) 2 },
+                new Object[] { "a", "" } });
+        Assert.assertEquals(roundTrip("nested(a int8, b string)", 2, 1, 2, 2, 1, 0x61, 0),
+                BinaryStreamUtilsTest.generateBytes(2, 1, 2, 2, 1, 0x61, 0));
+    }
+}
@@ -4,11 +4,14 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.TimeZone;
 import java.util.UUID;
 
 import com.timeplus.proton.client.BaseProtonValueTest;
@@ -39,6 +42,44 @@ public class ProtonDateTimeValueTest extends BaseProtonValueTest {
                 LocalDateTime.ofEpochSecond(-1L, 999999999, ZoneOffset.UTC));
     }
 
+    @Test(groups = { "unit" })
+    public void testEpochSecond() {
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        ProtonDateTimeValue v = ProtonDateTimeValue.ofEpochSecond(null, 1647154800L, 123000000, 3, tz);
+        Assert.assertFalse(v.isNullOrEmpty());
+        Assert.assertEquals(v.getEpochSecond(), 1647154800L);
+        Assert.assertEquals(v.getNanoOfSecond(), 123000000);
+        Assert.assertEquals(v.getTimeZone(), tz);
+        Assert.assertEquals(v.asLong(), 1647154800L);
+        Assert.assertEquals(v.asInstant(), Instant.ofEpochSecond(1647154800L, 123000000));
+        Assert.assertEquals(v.asDateTime(), LocalDateTime.of(2022, 3, 13, 3, 0, 0, 123000000));
+        Assert.assertEquals(v.copy(), v);
+        Assert.assertEquals(v.copy().hashCode(), v.hashCode());
+
+        // reuse
+        Assert.assertSame(ProtonDateTimeValue.ofEpochSecond(v, 1647154799L, 0, 3, tz), v);
+        Assert.assertEquals(v.asDateTime(), LocalDateTime.of(2022, 3, 13, 1, 59, 59));
+        Assert.assertNotSame(ProtonDateTimeValue.ofEpochSecond(v, 0L, 0, 3, null), v);
+        Assert.assertTrue(v.resetToNullOrEmpty().isNullOrEmpty());
+        Assert.assertEquals(v.getEpochSecond(), 0L);
+        Assert.assertEquals(v.asLong(), 0L);
+
+        // local date time to epoch second
+        v.update(LocalDateTime.of(2022, 3, 13, 3, 0, 0, 5));
+        Assert.assertEquals(v.getEpochSecond(), 1647154800L);
+        Assert.assertEquals(v.getNanoOfSecond(), 5);
+        Assert.assertEquals(v, ProtonDateTimeValue.ofEpochSecond(null, 1647154800L, 5, 3, tz));
+
+        ProtonOffsetDateTimeValue o = ProtonOffsetDateTimeValue.ofEpochSecond(null, 1647154800L, 1, 9, tz);
+        Assert.assertEquals(o.getEpochSecond(), 1647154800L);
+        Assert.assertEquals(o.getNanoOfSecond(), 1);
+        Assert.assertEquals(o.asLong(), 1647154800L);
+        Assert.assertEquals(o.asOffsetDateTime(),
+                OffsetDateTime.of(2022, 3, 13, 3, 0, 0, 1, ZoneOffset.ofHours(-4)));
+        Assert.assertEquals(o, ProtonOffsetDateTimeValue.of(LocalDateTime.of(2022, 3, 13, 3, 0, 0, 1), 9, tz));
+        Assert.assertTrue(o.resetToNullOrEmpty().isNullOrEmpty());
+    }
+
     @Test(groups = { "unit" })
     public void testValueWithoutScale() throws Exception {
         // null value
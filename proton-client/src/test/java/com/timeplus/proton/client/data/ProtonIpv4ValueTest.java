@@ -0,0 +1,58 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonIpv4ValueTest {
+    @Test(groups = { "unit" })
+    public void testBits() throws IOException {
+        Inet4Address addr = (Inet4Address) InetAddress.getByName("192.168.1.255");
+        ProtonIpv4Value v = ProtonIpv4Value.of(0xC0A801FF);
+        Assert.assertFalse(v.isNullOrEmpty());
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.getBits(), 0xC0A801FF);
+        Assert.assertEquals(v.asLong(), 0xC0A801FFL);
+        Assert.assertEquals(v.asBigInteger(), BigInteger.valueOf(0xC0A801FFL));
+        Assert.assertEquals(v.asString(), "192.168.1.255");
+        Assert.assertEquals(v.toSqlExpression(), "'192.168.1.255'");
+        Assert.assertEquals(v, ProtonIpv4Value.of(addr));
+        Assert.assertEquals(ProtonIpv4Value.of(addr), v);
+        Assert.assertEquals(v.hashCode(), ProtonIpv4Value.of(addr).hashCode());
+        Assert.assertEquals(v.copy(), v);
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.asInet4Address(), addr);
+
+        Assert.assertSame(ProtonIpv4Value.of(v, 0x7F000001), v);
+        Assert.assertEquals(v.asString(), "127.0.0.1");
+        Assert.assertEquals(v.asInteger(), 0x7F000001);
+        Assert.assertEquals(ProtonIpv4Value.of(addr).getBits(), 0xC0A801FF);
+        Assert.assertTrue(v.resetToNullOrEmpty().isNullOrEmpty());
+        Assert.assertEquals(v, ProtonIpv4Value.ofNull());
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonColumn column = ProtonColumn.of("c", "ipv4");
+        ProtonRowBinaryProcessor.MappedFunctions funcs = ProtonRowBinaryProcessor.getMappedFunctions();
+        ProtonValue v = funcs.deserialize(null, config, column,
+                BinaryStreamUtilsTest.generateInput(0xFF, 1, 0xA8, 0xC0));
+        Assert.assertTrue(((ProtonIpv4Value) v).isCompact());
+        Assert.assertEquals(v.asString(), "192.168.1.255");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        funcs.serialize(v, config, column, out);
+        funcs.serialize(ProtonIpv4Value.of(v.asInet4Address()), config, column, out);
+        Assert.assertEquals(out.toByteArray(),
+                BinaryStreamUtilsTest.generateBytes(0xFF, 1, 0xA8, 0xC0, 0xFF, 1, 0xA8, 0xC0));
+    }
+}
@@ -0,0 +1,62 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonIpv6ValueTest {
+    @Test(groups = { "unit" })
+    public void testBits() throws IOException {
+        Inet6Address addr = (Inet6Address) InetAddress.getByName("2001:db8:0:0:0:ff00:42:8329");
+        ProtonIpv6Value v = ProtonIpv6Value.of(0x20010DB800000000L, 0x0000FF0000428329L);
+        Assert.assertFalse(v.isNullOrEmpty());
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.getHighBits(), 0x20010DB800000000L);
+        Assert.assertEquals(v.getLowBits(), 0x0000FF0000428329L);
+        Assert.assertEquals(v.asString(), addr.getHostAddress());
+        Assert.assertEquals(v.toSqlExpression(), "'2001:db8:0:0:0:ff00:42:8329'");
+        Assert.assertEquals(v.asBigInteger(), new BigInteger(1, addr.getAddress()));
+        Assert.assertEquals(v, ProtonIpv6Value.of(addr));
+        Assert.assertEquals(ProtonIpv6Value.of(addr), v);
+        Assert.assertEquals(v.hashCode(), ProtonIpv6Value.of(addr).hashCode());
+        Assert.assertEquals(v.copy(), v);
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.asInet6Address(), addr);
+
+        Assert.assertSame(ProtonIpv6Value.of(v, 0L, 1L), v);
+        Assert.assertEquals(v.asString(), "0:0:0:0:0:0:0:1");
+        Assert.assertEquals(v.asString(), InetAddress.getByName("::1").getHostAddress());
+        Assert.assertEquals(ProtonIpv6Value.ofNull().update(v).getLowBits(), 1L);
+        Assert.assertEquals(ProtonIpv6Value.of(addr).getLowBits(), 0x0000FF0000428329L);
+        Assert.assertTrue(v.resetToNullOrEmpty().isNullOrEmpty());
+        Assert.assertEquals(v.getHighBits(), 0L);
+        Assert.assertEquals(v, ProtonIpv6Value.ofNull());
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonColumn column = ProtonColumn.of("c", "ipv6");
+        ProtonRowBinaryProcessor.MappedFunctions funcs = ProtonRowBinaryProcessor.getMappedFunctions();
+        int[] bytes = new int[] { 0x20, 1, 0xD, 0xB8, 0, 0, 0, 0, 0, 0, 0xFF, 0, 0, 0x42, 0x83, 0x29 };
+        ProtonValue v = funcs.deserialize(null, config, column, BinaryStreamUtilsTest.generateInput(bytes));
+        Assert.assertTrue(((ProtonIpv6Value) v).isCompact());
+        Assert.assertEquals(v.asString(), "2001:db8:0:0:0:ff00:42:8329");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        funcs.serialize(v, config, column, out);
+        funcs.serialize(ProtonIpv6Value.of(v.asInet6Address()), config, column, out);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(BinaryStreamUtilsTest.generateBytes(bytes));
+        expected.write(BinaryStreamUtilsTest.generateBytes(bytes));
+        Assert.assertEquals(out.toByteArray(), expected.toByteArray());
+    }
+}
@@ -0,0 +1,123 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonLongDecimalValueTest {
+    @Test(groups = { "unit" })
+    public void testNullValue() {
+        ProtonLongDecimalValue v = ProtonLongDecimalValue.ofNull(2);
+        Assert.assertTrue(v.isNullOrEmpty());
+        Assert.assertNull(v.asBigDecimal());
+        Assert.assertNull(v.asObject());
+        Assert.assertEquals(v.asLong(), 0L);
+        Assert.assertEquals(v.asDouble(), 0D);
+        Assert.assertEquals(v.getUnscaledValue(), 0L);
+        Assert.assertEquals(v.getScale(), 2);
+        Assert.assertEquals(v.toSqlExpression(), ProtonValues.NULL_EXPR);
+
+        Assert.assertSame(ProtonLongDecimalValue.ofNull(v.updateUnscaledValue(1L), 2), v);
+        Assert.assertTrue(v.isNullOrEmpty());
+        Assert.assertNotSame(ProtonLongDecimalValue.ofNull(v, 3), v);
+        Assert.assertTrue(v.updateUnscaledValue(1L).resetToNullOrEmpty().isNullOrEmpty());
+    }
+
+    @Test(groups = { "unit" })
+    public void testStringValue() {
+        Assert.assertEquals(ProtonLongDecimalValue.of(12345L, 2).asString(), "123.45");
+        Assert.assertEquals(ProtonLongDecimalValue.of(12345L, 2).toString(), "ProtonLongDecimalValue[123.45]");
+        Assert.assertEquals(ProtonLongDecimalValue.of(-5L, 3).asString(), "-0.005");
+        Assert.assertEquals(ProtonLongDecimalValue.of(7L, 0).asBinary(), "7".getBytes());
+        Assert.assertNull(ProtonLongDecimalValue.ofNull(2).asString());
+    }
+
+    @Test(groups = { "unit" })
+    public void testUnscaledValue() {
+        ProtonLongDecimalValue v = ProtonLongDecimalValue.of(-12345L, 2);
+        Assert.assertFalse(v.isNullOrEmpty());
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.getUnscaledValue(), -12345L);
+        Assert.assertEquals(v.asDouble(), -123.45D);
+        Assert.assertEquals(v.asFloat(), -123.45F);
+        Assert.assertThrows(ArithmeticException.class, () -> v.asLong());
+        // fails the same way as BigDecimal without creating one
+        Assert.assertEquals(Assert.expectThrows(ArithmeticException.class, () -> v.asLong()).getMessage(),
+                Assert.expectThrows(ArithmeticException.class, () -> new BigDecimal("-123.45").longValueExact())
+                        .getMessage());
+        Assert.assertEquals(v.asBigDecimal(), new BigDecimal("-123.45"));
+        Assert.assertEquals(v.asBigDecimal(1), new BigDecimal("-123.4"));
+        Assert.assertEquals(v.asString(), "-123.45");
+        Assert.assertEquals(v.toSqlExpression(), "-123.45");
+        Assert.assertTrue(v.isCompact());
+
+        Assert.assertSame(ProtonLongDecimalValue.of(v, 100L, 2), v);
+        Assert.assertEquals(v.asLong(), 1L);
+        Assert.assertEquals(v.asInteger(), 1);
+        Assert.assertEquals(v.asBigDecimal(), new BigDecimal("1.00"));
+        Assert.assertNotSame(ProtonLongDecimalValue.of(v, 100L, 3), v);
+
+        Assert.assertEquals(v.copy(), v);
+        Assert.assertEquals(v.copy().hashCode(), v.hashCode());
+        Assert.assertNotEquals(ProtonLongDecimalValue.of(101L, 2), v);
+
+        // update
+        Assert.assertEquals(v.update(3).getUnscaledValue(), 300L);
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.update(Long.MAX_VALUE).asBigDecimal(), BigDecimal.valueOf(Long.MAX_VALUE));
+        Assert.assertFalse(v.isCompact());
+        v.update(new BigDecimal("1.239"));
+        Assert.assertEquals(v.getUnscaledValue(), 123L);
+        Assert.assertFalse(v.isCompact());
+        Assert.assertEquals(v.update(ProtonLongDecimalValue.of(5L, 2)).getUnscaledValue(), 5L);
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.update("1.5").asDouble(), 1.5D);
+        Assert.assertEquals(v.getUnscaledValue(), 150L);
+
+        // large unscaled value falls back to BigDecimal
+        ProtonLongDecimalValue l = ProtonLongDecimalValue.of(123456789012345678L, 18);
+        Assert.assertEquals(l.asDouble(), new BigDecimal("0.123456789012345678").doubleValue());
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonColumn column = ProtonColumn.of("c", "decimal64(4)");
+        ProtonValue value = ProtonValues.newValue(config, column);
+        Assert.assertTrue(value instanceof ProtonLongDecimalValue);
+        Assert.assertEquals(((ProtonLongDecimalValue) value).getScale(), 4);
+
+        ProtonRowBinaryProcessor.MappedFunctions funcs = ProtonRowBinaryProcessor.getMappedFunctions();
+        ProtonValue v = funcs.deserialize(value, config, column,
+                BinaryStreamUtilsTest.generateInput(0x39, 0x30, 0, 0, 0, 0, 0, 0));
+        Assert.assertSame(v, value);
+        Assert.assertEquals(((ProtonLongDecimalValue) v).getUnscaledValue(), 12345L);
+        Assert.assertEquals(v.asBigDecimal(), new BigDecimal("1.2345"));
+
+        // string form of a freshly decoded value
+        v = funcs.deserialize(value, config, column,
+                BinaryStreamUtilsTest.generateInput(0x39, 0x30, 0, 0, 0, 0, 0, 0));
+        Assert.assertTrue(((ProtonLongDecimalValue) v).isCompact());
+        Assert.assertEquals(v.asString(), "1.2345");
+        Assert.assertEquals(v.toString(), "ProtonLongDecimalValue[1.2345]");
+        Assert.assertEquals(v.asBinary(), "1.2345".getBytes());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        funcs.serialize(v, config, column, out);
+        funcs.serialize(v.update(new BigDecimal("1.2345")), config, column, out);
+        funcs.serialize(ProtonLongDecimalValue.of(12345L, 4), config, ProtonColumn.of("c", "decimal32(4)"), out);
+        Assert.assertEquals(out.toByteArray(), BinaryStreamUtilsTest.generateBytes(0x39, 0x30, 0, 0, 0, 0, 0, 0,
+                0x39, 0x30, 0, 0, 0, 0, 0, 0, 0x39, 0x30, 0, 0));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> funcs.serialize(
+                ProtonLongDecimalValue.of(1000000001L, 0), config, ProtonColumn.of("c", "decimal32(0)"),
+                new ByteArrayOutputStream()));
+    }
+}
@@ -2,10 +2,13 @@ package com.timeplus.proton.client.data;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.Serializable;
 import java.math.BigInteger;
 import java.net.InetAddress;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +16,10 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import com.timeplus.proton.client.ProtonColumn;
 import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonRecord;
 import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.config.ProtonClientOption;
+import com.timeplus.proton.client.config.ProtonOption;
 import com.timeplus.proton.client.data.array.ProtonByteArrayValue;
 import com.timeplus.proton.client.data.array.ProtonShortArrayValue;
 
@@ -229,6 +235,28 @@ public class ProtonRowBinaryProcessorTest {
         Assert.assertEquals(bas.toByteArray(), BinaryStreamUtilsTest.generateBytes(1, 1, 1, 0, 1, 0x32, 1, 3, 0));
     }
 
+    @Test(groups = { "unit" })
+    public void testStringDictionary() throws IOException {
+        Map<ProtonOption, Serializable> options = new HashMap<>();
+        options.put(ProtonClientOption.STRING_DICTIONARY_COLUMNS, "s");
+        options.put(ProtonClientOption.STRING_DICTIONARY_SIZE, 10);
+        ProtonConfig config = new ProtonConfig(options, null, null, null);
+        List<ProtonColumn> columns = ProtonColumn.parse("i int8, s string");
+
+        Iterator<ProtonRecord> records = new ProtonRowBinaryProcessor(config,
+                BinaryStreamUtilsTest.generateInput(1, 1, 0x61, 2, 1, 0x61), null, columns, null).records()
+                .iterator();
+        String a = records.next().getValue(1).asString();
+        Assert.assertEquals(a, "a");
+        Assert.assertSame(records.next().getValue(1).asString(), a);
+        Assert.assertFalse(records.hasNext());
+
+        // dictionary is not shared among results
+        records = new ProtonRowBinaryProcessor(config, BinaryStreamUtilsTest.generateInput(3, 1, 0x61), null,
+                columns, null).records().iterator();
+        Assert.assertNotSame(records.next().getValue(1).asString(), a);
+    }
+
     @Test(groups = { "unit" })
     public void testDeserializeTuple() throws IOException {
         ProtonConfig config = new ProtonConfig();
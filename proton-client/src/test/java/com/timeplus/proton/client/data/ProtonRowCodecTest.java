@@ -0,0 +1,96 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonRowCodecTest {
+    static final List<ProtonColumn> COLUMNS = ProtonColumn.parse("a nullable(int32), b string, "
+            + "c datetime('Asia/Chongqing'), d datetime64(3), e nullable(datetime64(6, 'UTC')), f array(uint8), "
+            + "g decimal64(2), h map(string, int8)");
+
+    @Test(groups = { "unit" })
+    public void testCache() {
+        ProtonRowCodec codec = ProtonRowCodec.of(COLUMNS);
+        Assert.assertEquals(codec.getColumns(), COLUMNS);
+        Assert.assertSame(ProtonRowCodec.of(ProtonColumn.parse(
+                "a nullable(int32), b string, c datetime('Asia/Chongqing'), d datetime64(3), "
+                        + "e nullable(datetime64(6, 'UTC')), f array(uint8), g decimal64(2), h map(string, int8)")),
+                codec);
+        Assert.assertNotSame(ProtonRowCodec.of(COLUMNS.subList(0, 1)), codec);
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonValue[] values = new ProtonValue[COLUMNS.size()];
+        Object[] objects = new Object[] { null, "abc", LocalDateTime.of(2022, 1, 2, 3, 4, 5),
+                LocalDateTime.of(2022, 1, 2, 3, 4, 5, 123000000), LocalDateTime.of(2022, 1, 2, 3, 4, 5, 123456000),
+                new short[] { 1, 2 }, "3.14", null };
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ProtonValues.newValue(config, COLUMNS.get(i));
+            if (objects[i] != null) {
+                values[i].update(objects[i]);
+            }
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < values.length; i++) {
+            ProtonRowBinaryProcessor.getMappedFunctions().serialize(values[i], config, COLUMNS.get(i), expected);
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ProtonRowCodec codec = ProtonRowCodec.of(COLUMNS);
+        codec.writeRow(values, config, actual);
+        Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> codec.writeRow(new ProtonValue[1], config, new ByteArrayOutputStream()));
+
+        byte[] bytes = expected.toByteArray();
+        ProtonInputStream in1 = ProtonInputStream.of(new ByteArrayInputStream(bytes));
+        ProtonInputStream in2 = ProtonInputStream.of(new ByteArrayInputStream(bytes));
+        ProtonValue[] refs = new ProtonValue[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ProtonColumn column = COLUMNS.get(i);
+            ProtonValue v1 = ProtonRowBinaryProcessor.getMappedFunctions().deserialize(null, config, column, in1);
+            ProtonValue v2 = codec.read(i, null, config, in2);
+            Assert.assertEquals(v2.getClass(), v1.getClass(), column.toString());
+            Assert.assertEquals(v2.asObject(), v1.asObject(), column.toString());
+            refs[i] = v2;
+        }
+        Assert.assertEquals(in2.available(), 0);
+
+        // reuse value wrappers, except map
+        in2 = ProtonInputStream.of(new ByteArrayInputStream(bytes));
+        for (int i = 0; i < values.length; i++) {
+            ProtonValue v = refs[i];
+            Object obj = v.asObject();
+            ProtonValue r = codec.read(i, v, config, in2);
+            if (!COLUMNS.get(i).isMap()) {
+                Assert.assertSame(r, v, COLUMNS.get(i).toString());
+            }
+            Assert.assertEquals(r.asObject(), obj);
+        }
+    }
+
+    @Test(groups = { "unit" })
+    public void testProcessor() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        List<ProtonColumn> columns = ProtonColumn.parse("a nullable(int8), b string");
+        ProtonRowBinaryProcessor p = new ProtonRowBinaryProcessor(config,
+                BinaryStreamUtilsTest.generateInput(1, 1, 0x61, 0, 2, 1, 0x62), null, columns, null);
+        StringBuilder builder = new StringBuilder();
+        p.records().forEach(r -> builder.append(r.getValue(0).asString()).append(r.getValue(1).asString())
+                .append(','));
+        Assert.assertEquals(builder.toString(), "nulla,2b,");
+    }
+}
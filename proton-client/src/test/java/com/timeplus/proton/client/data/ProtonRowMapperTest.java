@@ -0,0 +1,207 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonInputStream;
+import com.timeplus.proton.client.ProtonResponse;
+import com.timeplus.proton.client.ProtonValue;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonRowMapperTest {
+    static class BaseEvent {
+        long id;
+    }
+
+    static class Event extends BaseEvent {
+        private boolean flag;
+        private byte tiny;
+        private short small;
+        private int userId;
+        private float ratio;
+        private double score;
+        private String name;
+        private String comment;
+        private Integer count;
+        private LocalDate day;
+        private BigDecimal amount;
+        private long[] tags;
+        private transient String ignored;
+    }
+
+    static final class ImmutableEvent {
+        private final long id;
+        private final String name;
+
+        ImmutableEvent(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    static final List<ProtonColumn> COLUMNS = ProtonColumn.parse("id int64, flag bool, tiny int8, small int16, "
+            + "user_id int32, ratio float32, score float64, name string, comment nullable(string), "
+            + "count nullable(int32), day date, amount decimal64(2), tags array(int64)");
+
+    private Event newEvent(long id, String comment, Integer count) {
+        Event e = new Event();
+        e.id = id;
+        e.flag = id % 2 == 0;
+        e.tiny = (byte) -id;
+        e.small = (short) (id * 100);
+        e.userId = (int) id * 10000;
+        e.ratio = id / 4F;
+        e.score = id * 1.5D;
+        e.name = "n" + id;
+        e.comment = comment;
+        e.count = count;
+        e.day = LocalDate.of(2022, 1, (int) id);
+        e.amount = new BigDecimal(id + ".25");
+        e.tags = new long[] { id, -id };
+        e.ignored = "x";
+        return e;
+    }
+
+    private void check(Event actual, Event expected) {
+        Assert.assertEquals(actual.id, expected.id);
+        Assert.assertEquals(actual.flag, expected.flag);
+        Assert.assertEquals(actual.tiny, expected.tiny);
+        Assert.assertEquals(actual.small, expected.small);
+        Assert.assertEquals(actual.userId, expected.userId);
+        Assert.assertEquals(actual.ratio, expected.ratio);
+        Assert.assertEquals(actual.score, expected.score);
+        Assert.assertEquals(actual.name, expected.name);
+        Assert.assertEquals(actual.comment, expected.comment);
+        Assert.assertEquals(actual.count, expected.count);
+        Assert.assertEquals(actual.day, expected.day);
+        Assert.assertEquals(actual.amount, expected.amount);
+        Assert.assertEquals(actual.tags, expected.tags);
+        Assert.assertNull(actual.ignored);
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonRowMapper<Event> mapper = ProtonRowMapper.of(Event.class, COLUMNS);
+        Assert.assertSame(ProtonRowMapper.of(Event.class, COLUMNS), mapper);
+        Assert.assertEquals(mapper.getObjectClass(), Event.class);
+        Assert.assertEquals(mapper.getColumns(), COLUMNS);
+        Assert.assertTrue(mapper.isReadable());
+
+        List<Event> events = Arrays.asList(newEvent(1L, "c", 3), newEvent(2L, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writer(events, config).write(out);
+        byte[] bytes = out.toByteArray();
+
+        // same as going through values
+        ProtonRowCodec codec = ProtonRowCodec.of(COLUMNS);
+        ProtonInputStream input = ProtonInputStream.of(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < events.size(); i++) {
+            ProtonValue[] values = new ProtonValue[COLUMNS.size()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = codec.read(j, null, config, input);
+            }
+            Assert.assertEquals(values[4].asInteger(), events.get(i).userId);
+            Assert.assertEquals(values[8].asString(), events.get(i).comment);
+            codec.writeRow(values, config, expected);
+        }
+        Assert.assertEquals(bytes, expected.toByteArray());
+
+        input = ProtonInputStream.of(new ByteArrayInputStream(bytes));
+        for (Event e : events) {
+            check(mapper.read(config, input), e);
+        }
+        Assert.assertEquals(input.available(), 0);
+    }
+
+    @Test(groups = { "unit" })
+    public void testRecords() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        List<Event> events = Arrays.asList(newEvent(3L, "", 0), newEvent(4L, null, -1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProtonRowMapper.of(Event.class, COLUMNS).write(events, config, out);
+
+        // direct read from stream
+        ProtonRowBinaryProcessor p = new ProtonRowBinaryProcessor(config,
+                ProtonInputStream.of(new ByteArrayInputStream(out.toByteArray())), null, COLUMNS, null);
+        Iterator<Event> it = p.records(Event.class).iterator();
+        for (Event e : events) {
+            Assert.assertTrue(it.hasNext());
+            check(it.next(), e);
+        }
+        Assert.assertFalse(it.hasNext());
+
+        // through records
+        ProtonResponse response = ProtonSimpleResponse.of(config, COLUMNS,
+                new Object[][] { new Object[] { 5L, true, (byte) 1, (short) 2, 3, 0.5F, 1.5D, "n", null, 7,
+                        LocalDate.of(2022, 1, 5), new BigDecimal("5.25"), new long[] { 1L } } });
+        it = response.records(Event.class).iterator();
+        Event e = it.next();
+        Assert.assertFalse(it.hasNext());
+        Assert.assertEquals(e.id, 5L);
+        Assert.assertTrue(e.flag);
+        Assert.assertEquals(e.userId, 3);
+        Assert.assertEquals(e.name, "n");
+        Assert.assertNull(e.comment);
+        Assert.assertEquals(e.count, Integer.valueOf(7));
+        Assert.assertEquals(e.day, LocalDate.of(2022, 1, 5));
+        Assert.assertEquals(e.amount, new BigDecimal("5.25"));
+        Assert.assertEquals(e.tags, new long[] { 1L });
+    }
+
+    @Test(groups = { "unit" })
+    public void testUnmappedColumn() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        List<ProtonColumn> columns = ProtonColumn.parse("x array(string), id int64, NAME string");
+        ProtonRowMapper<ImmutableEvent> mapper = ProtonRowMapper.of(ImmutableEvent.class, columns);
+        Assert.assertFalse(mapper.isReadable());
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> mapper.write(new ImmutableEvent(1L, "a"), config, new ByteArrayOutputStream()));
+
+        // immutable object can still be written
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProtonRowMapper.of(ImmutableEvent.class, columns.subList(1, 3)).write(new ImmutableEvent(1L, "a"), config,
+                out);
+        Assert.assertEquals(out.toByteArray(), BinaryStreamUtilsTest.generateBytes(1, 0, 0, 0, 0, 0, 0, 0, 1, 0x61));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> ProtonRowMapper
+                .of(ImmutableEvent.class, columns).read(config, BinaryStreamUtilsTest.generateInput(0)));
+
+        // unmapped column is skipped when reading
+        Event e = ProtonRowMapper.of(Event.class, columns).read(config,
+                BinaryStreamUtilsTest.generateInput(2, 1, 0x61, 0, 1, 0, 0, 0, 0, 0, 0, 0, 1, 0x62));
+        Assert.assertEquals(e.id, 1L);
+        Assert.assertEquals(e.name, "b");
+    }
+
+    @Test(groups = { "unit" })
+    public void testNullAndTrailingZero() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        List<ProtonColumn> columns = ProtonColumn.parse("id nullable(int64), user_id nullable(int32), name string");
+        ProtonRowMapper<Event> mapper = ProtonRowMapper.of(Event.class, columns);
+
+        // null goes to primitive field as default value
+        Event e = mapper.read(config, BinaryStreamUtilsTest.generateInput(1, 0, 5, 0, 0, 0, 2, 0x61, 0));
+        Assert.assertEquals(e.id, 0L);
+        Assert.assertEquals(e.userId, 5);
+        // trimmed same as ProtonStringValue
+        Assert.assertEquals(e.name, "a");
+        Assert.assertEquals(e.name, ProtonStringValue.of(new byte[] { 0x61, 0 }).asString());
+
+        ProtonResponse response = ProtonSimpleResponse.of(config, columns,
+                new Object[][] { new Object[] { null, null, "b" } });
+        e = response.records(Event.class).iterator().next();
+        Assert.assertEquals(e.id, 0L);
+        Assert.assertEquals(e.userId, 0);
+        Assert.assertEquals(e.name, "b");
+    }
+}
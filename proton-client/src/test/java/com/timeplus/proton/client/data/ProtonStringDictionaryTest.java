@@ -0,0 +1,50 @@
+package com.timeplus.proton.client.data;
+
+import java.nio.charset.StandardCharsets;
+
+import com.timeplus.proton.client.ProtonByteBuffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonStringDictionaryTest {
+    @Test(groups = { "unit" })
+    public void testGet() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ProtonStringDictionary(0));
+
+        ProtonStringDictionary dict = new ProtonStringDictionary(3);
+        Assert.assertEquals(dict.getCapacity(), 3);
+        Assert.assertEquals(dict.size(), 0);
+
+        byte[] bytes = "xabcabx".getBytes(StandardCharsets.US_ASCII);
+        ProtonStringDictionary.Entry abc = dict.get(ProtonByteBuffer.of(bytes, 1, 3));
+        Assert.assertEquals(abc.value, "abc");
+        Assert.assertEquals(abc.bytes, new byte[] { 0x61, 0x62, 0x63 });
+        Assert.assertSame(dict.get(ProtonByteBuffer.of(new byte[] { 0x61, 0x62, 0x63 }, 0, 3)), abc);
+        Assert.assertEquals(dict.get(ProtonByteBuffer.of(bytes, 4, 2)).value, "ab");
+        Assert.assertEquals(dict.get(ProtonByteBuffer.of(bytes, 0, 0)).value, "");
+        Assert.assertSame(dict.get(ProtonByteBuffer.of(bytes, 0, 0)), dict.get(ProtonByteBuffer.newInstance()));
+        Assert.assertEquals(dict.size(), 3);
+
+        // full
+        Assert.assertNull(dict.get(ProtonByteBuffer.of(bytes, 0, 1)));
+        Assert.assertSame(dict.get(ProtonByteBuffer.of(bytes, 1, 3)), abc);
+        Assert.assertEquals(dict.size(), 3);
+
+        Assert.assertNull(new ProtonStringDictionary(1).get(ProtonByteBuffer.of(new byte[] { 0x61, 0 })));
+    }
+
+    @Test(groups = { "unit" })
+    public void testUtf8() {
+        ProtonStringDictionary dict = new ProtonStringDictionary(256);
+        for (int i = 0; i < 256; i++) {
+            byte[] bytes = ("你好" + i).getBytes(StandardCharsets.UTF_8);
+            ProtonStringDictionary.Entry e = dict.get(ProtonByteBuffer.of(bytes, 0, bytes.length));
+            // could be null when too many collisions
+            if (e != null) {
+                Assert.assertEquals(e.value, "你好" + i);
+                Assert.assertSame(dict.get(ProtonByteBuffer.of(bytes, 0, bytes.length)), e);
+            }
+        }
+        Assert.assertTrue(dict.size() > 200, "Most values should be cached");
+    }
+}
@@ -0,0 +1,114 @@
+package com.timeplus.proton.client.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+import com.timeplus.proton.client.ProtonColumn;
+import com.timeplus.proton.client.ProtonConfig;
+import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.ProtonValues;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonUuidValueTest {
+    @Test(groups = { "unit" })
+    public void testBits() {
+        UUID uuid = UUID.fromString("00112233-4455-6677-8899-aabbccddeeff");
+        ProtonUuidValue v = ProtonUuidValue.of(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        Assert.assertFalse(v.isNullOrEmpty());
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.getMostSignificantBits(), 0x0011223344556677L);
+        Assert.assertEquals(v.getLeastSignificantBits(), 0x8899AABBCCDDEEFFL);
+        Assert.assertEquals(v, ProtonUuidValue.of(uuid));
+        Assert.assertEquals(ProtonUuidValue.of(uuid), v);
+        Assert.assertEquals(v.hashCode(), ProtonUuidValue.of(uuid).hashCode());
+        Assert.assertEquals(v.copy(), v);
+        Assert.assertTrue(v.copy(false).isCompact());
+        Assert.assertEquals(v.asBigInteger(), new BigInteger("00112233445566778899aabbccddeeff", 16));
+        Assert.assertEquals(v.toSqlExpression(), "'00112233-4455-6677-8899-aabbccddeeff'");
+        Assert.assertEquals(v.asUuid(), uuid);
+        Assert.assertSame(v.asUuid(), v.asUuid());
+        Assert.assertTrue(v.isCompact());
+
+        Assert.assertSame(ProtonUuidValue.of(v, 1L, 2L), v);
+        Assert.assertEquals(v.asUuid(), new UUID(1L, 2L));
+        Assert.assertNotEquals(v, ProtonUuidValue.of(uuid));
+        Assert.assertEquals(ProtonUuidValue.ofNull().update(v).getLeastSignificantBits(), 2L);
+
+        v.update(uuid);
+        Assert.assertFalse(v.isCompact());
+        Assert.assertEquals(v.getMostSignificantBits(), uuid.getMostSignificantBits());
+        Assert.assertEquals(v.getLeastSignificantBits(), uuid.getLeastSignificantBits());
+
+        Assert.assertTrue(v.update(1L, 2L).resetToNullOrEmpty().isNullOrEmpty());
+        Assert.assertEquals(v.getMostSignificantBits(), 0L);
+        Assert.assertEquals(v, ProtonUuidValue.ofNull());
+        Assert.assertEquals(v.hashCode(), ProtonUuidValue.ofNull().hashCode());
+        Assert.assertEquals(v.toSqlExpression(), ProtonValues.NULL_EXPR);
+    }
+
+    @Test(groups = { "unit" })
+    public void testAccessors() {
+        String str = "00112233-4455-6677-8899-aabbccddeeff";
+        UUID uuid = UUID.fromString(str);
+        ProtonUuidValue v = ProtonUuidValue.of(null, uuid.getMostSignificantBits(),
+                uuid.getLeastSignificantBits());
+        Assert.assertEquals(v.asString(), str);
+        Assert.assertEquals(v.asString(36, null), str);
+        Assert.assertThrows(IllegalArgumentException.class, () -> v.asString(35, null));
+        Assert.assertEquals(v.toString(), "ProtonUuidValue[" + str + "]");
+        Assert.assertEquals(v.asBinary(), str.getBytes());
+        Assert.assertEquals(v.toSqlExpression(), "'" + str + "'");
+        Assert.assertTrue(v.isCompact());
+        Assert.assertEquals(v.asBigInteger(), new BigInteger("00112233445566778899aabbccddeeff", 16));
+        Assert.assertEquals(v.asBigDecimal(0), new BigDecimal(v.asBigInteger()));
+        Assert.assertEquals(v.asDouble(), v.asBigInteger().doubleValue());
+        Assert.assertEquals(v.asFloat(), v.asBigInteger().floatValue());
+        Assert.assertThrows(ArithmeticException.class, () -> v.asLong());
+        Assert.assertEquals(v.asObject(), uuid);
+        Assert.assertEquals(v.asUuid(), uuid);
+
+        ProtonUuidValue s = ProtonUuidValue.of(null, 1L, 2L);
+        Assert.assertEquals(s.asString(), new UUID(1L, 2L).toString());
+        Assert.assertEquals(s.toString(), "ProtonUuidValue[00000000-0000-0001-0000-000000000002]");
+        Assert.assertThrows(ArithmeticException.class, () -> s.asInteger());
+        ProtonUuidValue n = ProtonUuidValue.of(null, 0L, 5L);
+        Assert.assertEquals(n.asByte(), (byte) 5);
+        Assert.assertEquals(n.asShort(), (short) 5);
+        Assert.assertEquals(n.asInteger(), 5);
+        Assert.assertEquals(n.asLong(), 5L);
+        Assert.assertTrue(n.isCompact());
+        Assert.assertEquals(ProtonUuidValue.of(null, -1L, -1L).asString(), new UUID(-1L, -1L).toString());
+
+        Assert.assertNull(ProtonUuidValue.ofNull().asString());
+        Assert.assertNull(ProtonUuidValue.ofNull().asBinary());
+    }
+
+    @Test(groups = { "unit" })
+    public void testReadWrite() throws IOException {
+        ProtonConfig config = new ProtonConfig();
+        ProtonColumn column = ProtonColumn.of("c", "uuid");
+        ProtonRowBinaryProcessor.MappedFunctions funcs = ProtonRowBinaryProcessor.getMappedFunctions();
+        int[] bytes = new int[] { 0x77, 0x66, 0x55, 0x44, 0x33, 0x22, 0x11, 0, 0xFF, 0xEE, 0xDD, 0xCC, 0xBB,
+                0xAA, 0x99, 0x88 };
+        ProtonValue v = funcs.deserialize(null, config, column, BinaryStreamUtilsTest.generateInput(bytes));
+        Assert.assertTrue(((ProtonUuidValue) v).isCompact());
+        Assert.assertEquals(v.asString(), "00112233-4455-6677-8899-aabbccddeeff");
+        Assert.assertEquals(v.toString(), "ProtonUuidValue[00112233-4455-6677-8899-aabbccddeeff]");
+        Assert.assertEquals(v.asUuid(), UUID.fromString("00112233-4455-6677-8899-aabbccddeeff"));
+        Assert.assertSame(funcs.deserialize(v, config, column, BinaryStreamUtilsTest.generateInput(bytes)), v);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        funcs.serialize(v, config, column, out);
+        funcs.serialize(ProtonUuidValue.of(v.asUuid()), config, column, out);
+        funcs.serialize(ProtonStringValue.of(v.asString()), config, column, out);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            expected.write(BinaryStreamUtilsTest.generateBytes(bytes));
+        }
+        Assert.assertEquals(out.toByteArray(), expected.toByteArray());
+    }
+}
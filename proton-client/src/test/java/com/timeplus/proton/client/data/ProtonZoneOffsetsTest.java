@@ -0,0 +1,54 @@
+package com.timeplus.proton.client.data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.TimeZone;
+
+import com.timeplus.proton.client.ProtonValues;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProtonZoneOffsetsTest {
+    @Test(groups = { "unit" })
+    public void testCache() {
+        TimeZone tz = TimeZone.getTimeZone("Asia/Chongqing");
+        Assert.assertSame(ProtonZoneOffsets.of(null), ProtonZoneOffsets.UTC);
+        Assert.assertSame(ProtonZoneOffsets.of(tz), ProtonZoneOffsets.of(TimeZone.getTimeZone("Asia/Chongqing")));
+        Assert.assertEquals(ProtonZoneOffsets.of(tz).getTimeZone(), tz);
+        Assert.assertEquals(ProtonZoneOffsets.of(ProtonValues.UTC_TIMEZONE).toLocalDateTime(1L, 2),
+                LocalDateTime.of(1970, 1, 1, 0, 0, 1, 2));
+    }
+
+    @Test(groups = { "unit" })
+    public void testConversion() {
+        for (String id : new String[] { "UTC", "Asia/Chongqing", "America/New_York", "Europe/London",
+                "Australia/Lord_Howe" }) {
+            TimeZone tz = TimeZone.getTimeZone(id);
+            ZoneId zone = tz.toZoneId();
+            ProtonZoneOffsets offsets = ProtonZoneOffsets.of(tz);
+            // every 15 minutes in 2021 and 2022, forward and backward
+            long start = LocalDateTime.of(2021, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+            for (long s = start, end = start + 2 * 366 * 86400L; s < end; s += 900L) {
+                Assert.assertEquals(offsets.toLocalDateTime(s, 1), LocalDateTime.ofInstant(
+                        Instant.ofEpochSecond(s, 1), zone), id);
+            }
+            for (long s = start + 2 * 366 * 86400L; s > start; s -= 1799L) {
+                LocalDateTime dt = LocalDateTime.ofEpochSecond(s, 0, ZoneOffset.UTC);
+                Assert.assertEquals(offsets.toEpochSecond(dt), dt.atZone(zone).toEpochSecond(), id + ": " + dt);
+            }
+        }
+
+        // gap and overlap
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        ProtonZoneOffsets offsets = ProtonZoneOffsets.of(tz);
+        for (LocalDateTime dt : new LocalDateTime[] { LocalDateTime.of(2022, 3, 13, 2, 30),
+                LocalDateTime.of(2022, 11, 6, 1, 30), LocalDateTime.of(2022, 11, 6, 2, 0),
+                LocalDateTime.of(2022, 11, 6, 0, 59, 59) }) {
+            Assert.assertEquals(offsets.toEpochSecond(dt), dt.atZone(tz.toZoneId()).toEpochSecond(), dt.toString());
+        }
+        Assert.assertEquals(offsets.getOffset(1667714400L), ZoneOffset.ofHours(-5));
+        Assert.assertEquals(offsets.getOffset(1667714399L), ZoneOffset.ofHours(-4));
+    }
+}
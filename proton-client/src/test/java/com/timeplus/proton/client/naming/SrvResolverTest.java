@@ -20,8 +20,10 @@ public class SrvResolverTest {
         String host = "_sip._udp.sip.voice.google.com";
         int port = 5060;
 
-        String dns = "_sip._udp.sip.voice.google.com";
-        Assert.assertEquals(new SrvResolver().resolve(ProtonProtocol.ANY, host, 0),
-                new InetSocketAddress(host, port));
+        InetSocketAddress address = new SrvResolver().resolve(ProtonProtocol.ANY, host, 0);
+        Assert.assertEquals(address.getPort(), port);
+        // target of the SRV record, instead of the service name
+        Assert.assertNotEquals(address.getHostString(), host);
+        Assert.assertTrue(address.getHostString().endsWith(".google.com"), address.getHostString());
     }
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -62,7 +64,7 @@ public class HttpUrlConnectionImpl extends ProtonHttpConnection {
         }
 
         return new ProtonHttpResponse(this, getResponseInputStream(conn.getInputStream()), displayName, queryId,
-                summary, format, timeZone);
+                summary, getResponseHeaders("x-proton-progress"), format, timeZone);
     }
 
     private HttpURLConnection newConnection(String url, boolean post) throws IOException {
@@ -94,6 +96,19 @@ public class HttpUrlConnectionImpl extends ProtonHttpConnection {
         return newConn;
     }
 
+    private List<String> getResponseHeaders(String header) {
+        // header names are case-insensitive
+        for (Entry<String, List<String>> entry : conn.getHeaderFields().entrySet()) {
+            if (header.equalsIgnoreCase(entry.getKey())) {
+                // HttpURLConnection returns values of same header in reverse order
+                List<String> values = new ArrayList<>(entry.getValue());
+                Collections.reverse(values);
+                return values;
+            }
+        }
+        return Collections.emptyList();
+    }
+
     private String getResponseHeader(String header, String defaultValue) {
         String value = conn.getHeaderField(header);
         return value != null ? value : defaultValue;
@@ -126,7 +141,7 @@ public class HttpUrlConnectionImpl extends ProtonHttpConnection {
                 log.warn("Error while reading error message", e);
             }
 
-            throw new IOException(builder.toString());
+            throw new ProtonHttpException(conn.getResponseCode(), builder.toString());
         }
     }
 
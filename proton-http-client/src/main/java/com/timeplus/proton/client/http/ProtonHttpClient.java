@@ -4,8 +4,10 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import com.timeplus.proton.client.AbstractClient;
 // import com.timeplus.proton.client.ProtonCluster;
@@ -14,6 +16,7 @@ import com.timeplus.proton.client.ProtonNode;
 import com.timeplus.proton.client.ProtonProtocol;
 import com.timeplus.proton.client.ProtonRequest;
 import com.timeplus.proton.client.ProtonResponse;
+import com.timeplus.proton.client.ProtonResponseSummary;
 import com.timeplus.proton.client.config.ProtonOption;
 import com.timeplus.proton.client.data.ProtonStreamResponse;
 import com.timeplus.proton.client.http.config.ProtonHttpOption;
@@ -70,6 +73,20 @@ public class ProtonHttpClient extends AbstractClient<ProtonHttpConnection> {
         return builder.toString();
     }
 
+    protected void notifyProgress(Consumer<ProtonResponseSummary.Progress> listener, ProtonHttpResponse response)
+            throws IOException {
+        try {
+            for (ProtonResponseSummary.Progress p : response.progress) {
+                listener.accept(p);
+            }
+            listener.accept(response.summary.getProgress());
+        } catch (RuntimeException e) {
+            // listener may abort the query by throwing an exception
+            response.getInputStream().close();
+            throw e;
+        }
+    }
+
     protected ProtonResponse postRequest(ProtonRequest<?> sealedRequest) throws IOException {
         ProtonHttpConnection conn = getConnection(sealedRequest);
 
@@ -87,20 +104,31 @@ public class ProtonHttpClient extends AbstractClient<ProtonHttpConnection> {
         log.debug("Query: %s", sql);
         ProtonHttpResponse httpResponse = conn.post(sql, sealedRequest.getInputStream().orElse(null),
                 sealedRequest.getExternalTables(), null);
+        Optional<Consumer<ProtonResponseSummary.Progress>> listener = sealedRequest.getProgressListener();
+        if (listener.isPresent()) {
+            notifyProgress(listener.get(), httpResponse);
+        }
         return ProtonStreamResponse.of(httpResponse.getConfig(sealedRequest), httpResponse.getInputStream(),
                 sealedRequest.getSettings(), null, httpResponse.summary);
     }
 
+    @Override
+    protected boolean isTransientFailure(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ProtonHttpException) {
+                return ((ProtonHttpException) e).isTransient();
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean accept(ProtonProtocol protocol) {
         return ProtonProtocol.HTTP == protocol || super.accept(protocol);
     }
 
     @Override
-    public CompletableFuture<ProtonResponse> execute(ProtonRequest<?> request) {
-        // sealedRequest is an immutable copy of the original request
-        final ProtonRequest<?> sealedRequest = request.seal();
-
+    protected CompletableFuture<ProtonResponse> send(ProtonRequest<?> sealedRequest) {
         if (sealedRequest.getConfig().isAsync()) {
             return CompletableFuture.supplyAsync(() -> {
                 try {
@@ -88,6 +88,12 @@ public abstract class ProtonHttpConnection implements AutoCloseable {
                 appendQueryParameter(builder, settingKey, comment);
             }
         }
+        settingKey = "send_progress_in_http_headers";
+        if (request.getProgressListener().isPresent()
+                && (boolean) config.getOption(ProtonHttpOption.RECEIVE_QUERY_PROGRESS)
+                && !settings.containsKey(settingKey)) {
+            appendQueryParameter(builder, settingKey, "1");
+        }
         settingKey = "extremes";
         if (!settings.containsKey(settingKey)) {
             appendQueryParameter(builder, settingKey, "0");
@@ -0,0 +1,43 @@
+package com.timeplus.proton.client.http;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when server responded with unexpected HTTP status code.
+ */
+public class ProtonHttpException extends IOException {
+    private static final long serialVersionUID = -4722358413412567326L;
+
+    private final int statusCode;
+
+    /**
+     * Default constructor.
+     *
+     * @param statusCode HTTP status code
+     * @param message    error message from server
+     */
+    public ProtonHttpException(int statusCode, String message) {
+        super(message);
+
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Gets HTTP status code.
+     *
+     * @return HTTP status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Checks if it's caused by a transient failure, for instance, server is not
+     * available during restart, or gateway failed to reach the server.
+     *
+     * @return true if it's a transient failure; false otherwise
+     */
+    public boolean isTransient() {
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+}
@@ -1,7 +1,10 @@
 package com.timeplus.proton.client.http;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 
@@ -28,6 +31,16 @@ public class ProtonHttpResponse {
         return 0L;
     }
 
+    @SuppressWarnings("unchecked")
+    private static ProtonResponseSummary.Progress parseProgress(String json) {
+        // {"read_rows":"0","read_bytes":"0","written_rows":"0","written_bytes":"0","total_rows_to_read":"0"}
+        Map<String, String> map = (Map<String, String>) ProtonUtils
+                .parseJson(!ProtonChecker.isNullOrEmpty(json) ? json : "{}");
+        return new ProtonResponseSummary.Progress(getLongValue(map, "read_rows"), getLongValue(map, "read_bytes"),
+                getLongValue(map, "total_rows_to_read"), getLongValue(map, "written_rows"),
+                getLongValue(map, "written_bytes"), getLongValue(map, "elapsed_ns"));
+    }
+
     private final ProtonHttpConnection connection;
     private final ProtonInputStream input;
 
@@ -37,6 +50,7 @@ public class ProtonHttpResponse {
     protected final TimeZone timeZone;
 
     protected final ProtonResponseSummary summary;
+    protected final List<ProtonResponseSummary.Progress> progress;
 
     protected ProtonConfig getConfig(ProtonRequest<?> request) {
         ProtonConfig config = request.getConfig();
@@ -52,6 +66,12 @@ public class ProtonHttpResponse {
 
     public ProtonHttpResponse(ProtonHttpConnection connection, ProtonInputStream input,
             String serverDisplayName, String queryId, String summary, ProtonFormat format, TimeZone timeZone) {
+        this(connection, input, serverDisplayName, queryId, summary, null, format, timeZone);
+    }
+
+    public ProtonHttpResponse(ProtonHttpConnection connection, ProtonInputStream input,
+            String serverDisplayName, String queryId, String summary, List<String> progress, ProtonFormat format,
+            TimeZone timeZone) {
         if (connection == null || input == null) {
             throw new IllegalArgumentException("Non-null connection and input stream are required");
         }
@@ -62,15 +82,17 @@ public class ProtonHttpResponse {
         this.serverDisplayName = !ProtonChecker.isNullOrEmpty(serverDisplayName) ? serverDisplayName
                 : connection.server.getHost();
         this.queryId = !ProtonChecker.isNullOrEmpty(queryId) ? queryId : "";
-        // {"read_rows":"0","read_bytes":"0","written_rows":"0","written_bytes":"0","total_rows_to_read":"0"}
-        Map<String, String> map = (Map<String, String>) ProtonUtils
-                .parseJson(!ProtonChecker.isNullOrEmpty(summary) ? summary : "{}");
-        // discard those x-proton-progress headers
-        this.summary = new ProtonResponseSummary(
-                new ProtonResponseSummary.Progress(getLongValue(map, "read_rows"), getLongValue(map, "read_bytes"),
-                        getLongValue(map, "total_rows_to_read"), getLongValue(map, "written_rows"),
-                        getLongValue(map, "written_bytes")),
-                null);
+        this.summary = new ProtonResponseSummary(parseProgress(summary), null);
+        // x-proton-progress headers, in the order of being sent from server
+        if (progress == null || progress.isEmpty()) {
+            this.progress = Collections.emptyList();
+        } else {
+            List<ProtonResponseSummary.Progress> list = new ArrayList<>(progress.size());
+            for (String p : progress) {
+                list.add(parseProgress(p));
+            }
+            this.progress = Collections.unmodifiableList(list);
+        }
 
         this.format = format != null ? format : connection.config.getFormat();
         this.timeZone = timeZone != null ? timeZone : connection.config.getServerTimeZone();
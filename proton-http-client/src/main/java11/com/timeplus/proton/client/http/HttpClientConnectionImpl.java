@@ -37,15 +37,12 @@ import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.function.Function;
 
 import javax.net.ssl.SSLContext;
 
 public class HttpClientConnectionImpl extends ProtonHttpConnection {
     private static final Logger log = LoggerFactory.getLogger(HttpClientConnectionImpl.class);
 
-    private static final int MAX_RETRIES = 1;
-
     private final HttpClient httpClient;
     private final HttpRequest pingRequest;
 
@@ -68,7 +65,7 @@ public class HttpClientConnectionImpl extends ProtonHttpConnection {
         }
 
         return new ProtonHttpResponse(this, getResponseInputStream(checkResponse(r).body()),
-                displayName, queryId, summary, format, timeZone);
+                displayName, queryId, summary, headers.allValues("x-proton-progress"), format, timeZone);
     }
 
     private HttpResponse<InputStream> checkResponse(HttpResponse<InputStream> r) throws IOException {
@@ -85,7 +82,7 @@ public class HttpClientConnectionImpl extends ProtonHttpConnection {
                 log.warn("Error while reading error message", e);
             }
 
-            throw new IOException(builder.toString());
+            throw new ProtonHttpException(r.statusCode(), builder.toString());
         }
 
         return r;
@@ -122,41 +119,13 @@ public class HttpClientConnectionImpl extends ProtonHttpConnection {
         return true;
     }
 
-    private CompletableFuture<HttpResponse<Void>> retry(Throwable firstError, int retry) {
-        if (retry >= MAX_RETRIES) {
-            final CompletableFuture<HttpResponse<Void>> failure = new CompletableFuture<>();
-            failure.completeExceptionally(firstError);
-            return failure;
-        }
-
-        return httpClient.sendAsync(pingRequest, HttpResponse.BodyHandlers.discarding())
-                .thenApply(CompletableFuture::completedFuture)
-                .exceptionally(t -> {
-                    firstError.addSuppressed(t);
-                    return retry(firstError, retry + 1);
-                })
-                .thenCompose(Function.identity());
-    }
-
     private CompletableFuture<HttpResponse<InputStream>> postRequest(HttpRequest request) {
-        CompletableFuture<HttpResponse<InputStream>> f;
-        // either change system property jdk.httpclient.keepalive.timeout or increase
-        // keep_alive_timeout on server
-        boolean retry = false; // config.isRetry()
-        if (retry) {
-            f = httpClient
-                    .sendAsync(pingRequest, HttpResponse.BodyHandlers.discarding())
-                    .thenApply(CompletableFuture::completedFuture)
-                    .exceptionally(t -> retry(t, 0))
-                    .thenCompose(t -> httpClient.sendAsync(request,
-                            responseInfo -> new ProtonResponseHandler(config.getMaxQueuedBuffers(),
-                                    config.getSocketTimeout())));
-        } else {
-            f = httpClient.sendAsync(request,
-                    responseInfo -> new ProtonResponseHandler(config.getMaxQueuedBuffers(),
-                            config.getSocketTimeout()));
-        }
-        return f;
+        // stale keep-alive connection(see system property
+        // jdk.httpclient.keepalive.timeout and keep_alive_timeout on server) causes
+        // connection reset, which will be retried by the client when the request
+        // is idempotent, instead of pinging the server before each request
+        return httpClient.sendAsync(request,
+                responseInfo -> new ProtonResponseHandler(config.getMaxQueuedBuffers(), config.getSocketTimeout()));
     }
 
     private ProtonHttpResponse postStream(HttpRequest.Builder reqBuilder, String boundary, String sql,
@@ -40,6 +40,8 @@ import com.timeplus.proton.client.ProtonRecord;
 import com.timeplus.proton.client.ProtonResponse;
 import com.timeplus.proton.client.ProtonUtils;
 import com.timeplus.proton.client.ProtonValue;
+import com.timeplus.proton.client.data.ProtonDateTimeValue;
+import com.timeplus.proton.client.data.ProtonOffsetDateTimeValue;
 
 public class ProtonResultSet extends AbstractResultSet {
     private ProtonRecord currentRow;
@@ -616,15 +618,30 @@ public class ProtonResultSet extends AbstractResultSet {
             return null;
         }
 
+        Calendar c = cal != null ? cal : defaultCalendar;
+        Timestamp timestamp;
+        // same time zone, no need to convert to local date time and then back
+        if (c instanceof GregorianCalendar && value instanceof ProtonDateTimeValue
+                && ((ProtonDateTimeValue) value).isSameTimeZone(c.getTimeZone())) {
+            timestamp = new Timestamp(((ProtonDateTimeValue) value).getEpochSecond() * 1000L);
+            timestamp.setNanos(((ProtonDateTimeValue) value).getNanoOfSecond());
+            return timestamp;
+        } else if (c instanceof GregorianCalendar && value instanceof ProtonOffsetDateTimeValue
+                && ((ProtonOffsetDateTimeValue) value).isSameTimeZone(c.getTimeZone())) {
+            timestamp = new Timestamp(((ProtonOffsetDateTimeValue) value).getEpochSecond() * 1000L);
+            timestamp.setNanos(((ProtonOffsetDateTimeValue) value).getNanoOfSecond());
+            return timestamp;
+        }
+
         ProtonColumn column = columns.get(columnIndex - 1);
         TimeZone tz = column.getTimeZone();
         LocalDateTime dt = tz == null ? value.asDateTime(column.getScale())
                 : value.asOffsetDateTime(column.getScale()).toLocalDateTime();
 
-        Calendar c = (Calendar) (cal != null ? cal : defaultCalendar).clone();
+        c = (Calendar) c.clone();
         c.set(dt.getYear(), dt.getMonthValue() - 1, dt.getDayOfMonth(), dt.getHour(), dt.getMinute(),
                 dt.getSecond());
-        Timestamp timestamp = new Timestamp(c.getTimeInMillis());
+        timestamp = new Timestamp(c.getTimeInMillis());
         timestamp.setNanos(dt.getNano());
 
         return timestamp;
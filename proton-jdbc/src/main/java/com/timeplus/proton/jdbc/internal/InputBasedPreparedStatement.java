@@ -25,8 +25,7 @@ import com.timeplus.proton.client.ProtonUtils;
 import com.timeplus.proton.client.ProtonValue;
 import com.timeplus.proton.client.ProtonValues;
 import com.timeplus.proton.client.data.ProtonPipedStream;
-import com.timeplus.proton.client.data.ProtonRowBinaryProcessor;
-import com.timeplus.proton.client.data.ProtonRowBinaryProcessor.MappedFunctions;
+import com.timeplus.proton.client.data.ProtonRowCodec;
 import com.timeplus.proton.client.logging.Logger;
 import com.timeplus.proton.client.logging.LoggerFactory;
 import com.timeplus.proton.jdbc.ProtonPreparedStatement;
@@ -39,7 +38,7 @@ public class InputBasedPreparedStatement extends AbstractPreparedStatement imple
     private final ZoneId timeZoneForDate;
     private final ZoneId timeZoneForTs;
 
-    private final List<ProtonColumn> columns;
+    private final ProtonRowCodec codec;
     private final ProtonValue[] values;
     private final boolean[] flags;
 
@@ -60,7 +59,7 @@ public class InputBasedPreparedStatement extends AbstractPreparedStatement imple
         timeZoneForTs = config.getUseTimeZone().toZoneId();
         timeZoneForDate = config.isUseServerTimeZoneForDates() ? timeZoneForTs : null;
 
-        this.columns = columns;
+        this.codec = ProtonRowCodec.of(columns);
         int size = columns.size();
         int i = 0;
         values = new ProtonValue[size];
@@ -286,17 +285,16 @@ public class InputBasedPreparedStatement extends AbstractPreparedStatement imple
         ensureOpen();
 
         ProtonConfig config = getConfig();
-        MappedFunctions functions = ProtonRowBinaryProcessor.getMappedFunctions();
         for (int i = 0, len = values.length; i < len; i++) {
             if (!flags[i]) {
                 throw SqlExceptionUtils.clientError(ProtonUtils.format("Missing value for parameter #%d", i + 1));
             }
-            try {
-                functions.serialize(values[i], config, columns.get(i), stream);
-            } catch (IOException e) {
-                // should not happen
-                throw SqlExceptionUtils.handle(e);
-            }
+        }
+        try {
+            codec.writeRow(values, config, stream);
+        } catch (IOException e) {
+            // should not happen
+            throw SqlExceptionUtils.handle(e);
         }
 
         counter++;